@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.benchmarks;
+
+/**
+ * Realistic payloads and transformation rules used by the benchmarks.
+ *
+ * @author agent - Initial contribution
+ */
+final class Payloads {
+
+    /** A typical sensor payload as published by Tasmota/Zigbee2MQTT devices */
+    static final String MQTT_JSON = "{\"Time\":\"2019-03-01T15:20:00\",\"temperature\":21.5,\"humidity\":48.2,"
+            + "\"pressure\":1013.4,\"battery\":97,\"linkquality\":73,\"state\":\"ON\","
+            + "\"update\":{\"state\":\"idle\"},\"device\":{\"ieeeAddr\":\"0x00158d0001a2b3c4\","
+            + "\"friendlyName\":\"livingroom_sensor\",\"model\":\"WSDCGQ11LM\"}}";
+
+    /** A Modbus RTU read response: address, function, byte count, four registers and CRC */
+    static final String BIN2JSON_FRAME = "010308000A00FF0100FFFF4C2B";
+
+    static final String BIN2JSON_RULE = "ubyte address; ubyte function; ubyte count; ushort [4] registers; ushort crc;";
+
+    /** A Sonos style AVTransport event together with a queue of DIDL-Lite items */
+    static final String SONOS_XML = createSonosXml(100);
+
+    static final String MAP_FILE = "CLOSED=closed\nOPEN=open\nON=on\nOFF=off\nNULL=unknown\n-=unknown\n";
+
+    static final String XSLT_FILE = "<?xml version=\"1.0\"?>\n"
+            + "<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\""
+            + " xmlns:avt=\"urn:schemas-upnp-org:metadata-1-0/AVT/\">\n"
+            + "  <xsl:output method=\"text\"/>\n"
+            + "  <xsl:template match=\"/\">\n"
+            + "    <xsl:value-of select=\"//avt:TransportState/@val\"/>\n"
+            + "  </xsl:template>\n"
+            + "</xsl:stylesheet>\n";
+
+    static final String JS_FILE = "(function(i) { return (parseFloat(i) * 1.8 + 32).toFixed(1); })(input)";
+
+    /** A scale file with AQI style bands in 5 unit steps */
+    static final String SCALE_FILE = createScaleFile(100);
+
+    private Payloads() {
+    }
+
+    private static String createSonosXml(int queueSize) {
+        StringBuilder xml = new StringBuilder(queueSize * 600);
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+        xml.append("<Event xmlns=\"urn:schemas-upnp-org:metadata-1-0/AVT/\""
+                + " xmlns:r=\"urn:schemas-rinconnetworks-com:metadata-1-0/\">");
+        xml.append("<InstanceID val=\"0\">");
+        xml.append("<TransportState val=\"PLAYING\"/><CurrentPlayMode val=\"SHUFFLE_NOREPEAT\"/>");
+        xml.append("<CurrentCrossfadeMode val=\"0\"/><NumberOfTracks val=\"").append(queueSize).append("\"/>");
+        xml.append("<CurrentTrack val=\"7\"/><CurrentSection val=\"0\"/>");
+        xml.append("<CurrentTrackURI val=\"x-sonos-spotify:spotify%3atrack%3a4uLU6hMCjMI75M1A2tKUQC\"/>");
+        xml.append("<CurrentTrackDuration val=\"0:03:32\"/>");
+        xml.append("<r:NextTrackURI val=\"x-sonos-spotify:spotify%3atrack%3a7GhIk7Il098yCjg4BQjzvb\"/>");
+        xml.append("</InstanceID>");
+        xml.append("<DIDL-Lite xmlns=\"urn:schemas-upnp-org:metadata-1-0/DIDL-Lite/\""
+                + " xmlns:dc=\"http://purl.org/dc/elements/1.1/\""
+                + " xmlns:upnp=\"urn:schemas-upnp-org:metadata-1-0/upnp/\">");
+        for (int i = 1; i <= queueSize; i++) {
+            xml.append("<item id=\"Q:0/").append(i).append("\" parentID=\"Q:0\" restricted=\"true\">");
+            xml.append("<res protocolInfo=\"sonos.com-spotify:*:audio/x-spotify:*\" duration=\"0:03:")
+                    .append(10 + i % 50).append("\">x-sonos-spotify:spotify%3atrack%3a").append(1000000 + i)
+                    .append("?sid=9&amp;flags=8224&amp;sn=1</res>");
+            xml.append("<upnp:albumArtURI>/getaa?s=1&amp;u=x-sonos-spotify%3aspotify%253atrack%253a")
+                    .append(1000000 + i).append("</upnp:albumArtURI>");
+            xml.append("<dc:title>Track number ").append(i).append("</dc:title>");
+            xml.append("<upnp:class>object.item.audioItem.musicTrack</upnp:class>");
+            xml.append("<dc:creator>Artist ").append(i % 17).append("</dc:creator>");
+            xml.append("<upnp:album>Album ").append(i % 9).append("</upnp:album>");
+            xml.append("</item>");
+        }
+        xml.append("</DIDL-Lite>");
+        xml.append("</Event>");
+        return xml.toString();
+    }
+
+    private static String createScaleFile(int bands) {
+        StringBuilder scale = new StringBuilder();
+        for (int i = 0; i < bands; i++) {
+            scale.append('[').append(i * 5).append("..").append(i * 5 + 5).append("[=band ").append(i).append('\n');
+        }
+        scale.append("[..]=out of range\n");
+        return scale.toString();
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.core.transform.TransformationService;
+import org.openhab.transform.bin2json.internal.Bin2JsonTransformationService;
+import org.openhab.transform.javascript.internal.JavaScriptEngineManager;
+import org.openhab.transform.javascript.internal.JavaScriptTransformationService;
+import org.openhab.transform.jinja.internal.JinjaTransformationService;
+import org.openhab.transform.jsonpath.internal.JSonPathTransformationService;
+import org.openhab.transform.map.internal.MapTransformationService;
+import org.openhab.transform.regex.internal.RegExTransformationService;
+import org.openhab.transform.scale.internal.ScaleTransformationService;
+import org.openhab.transform.xpath.internal.XPathTransformationService;
+import org.openhab.transform.xslt.internal.XsltTransformationService;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Creates the transformation services outside of OSGi together with a temporary configuration folder holding the
+ * transformation files.
+ *
+ * @author agent - Initial contribution
+ */
+@State(Scope.Benchmark)
+public class TransformationFixture {
+
+    static final String MAP_FILE = "benchmark.map";
+    static final String SCALE_FILE = "benchmark.scale";
+    static final String XSLT_FILE = "benchmark.xsl";
+    static final String JS_FILE = "benchmark.js";
+
+    static {
+        // the file based services resolve the transform folder when their classes are initialized
+        try {
+            Path configFolder = Files.createTempDirectory("openhab-benchmark");
+            Path transformFolder = Files.createDirectories(
+                    configFolder.resolve(TransformationService.TRANSFORM_FOLDER_NAME));
+            write(transformFolder.resolve(MAP_FILE), Payloads.MAP_FILE);
+            write(transformFolder.resolve(SCALE_FILE), Payloads.SCALE_FILE);
+            write(transformFolder.resolve(XSLT_FILE), Payloads.XSLT_FILE);
+            write(transformFolder.resolve(JS_FILE), Payloads.JS_FILE);
+            System.setProperty(ConfigConstants.CONFIG_DIR_PROG_ARGUMENT, configFolder.toString());
+        } catch (IOException e) {
+            throw new IllegalStateException("Couldn't create the transformation files", e);
+        }
+    }
+
+    TransformationService regex;
+    TransformationService jsonPath;
+    TransformationService xpath;
+    TransformationService xslt;
+    TransformationService map;
+    TransformationService scale;
+    TransformationService javaScript;
+    TransformationService jinja;
+    TransformationService bin2json;
+
+    @Setup
+    public void setUp() {
+        regex = new RegExTransformationService();
+        jsonPath = new JSonPathTransformationService();
+        xpath = new XPathTransformationService();
+        xslt = new XsltTransformationService();
+        map = new MapTransformationService() {
+            @Override
+            protected Locale getLocale() {
+                return Locale.US;
+            }
+        };
+        scale = new ScaleTransformationService() {
+            @Override
+            protected Locale getLocale() {
+                return Locale.US;
+            }
+        };
+        JavaScriptTransformationService javaScriptService = new JavaScriptTransformationService();
+        javaScriptService.setJavaScriptEngineManager(new JavaScriptEngineManager());
+        javaScript = javaScriptService;
+        jinja = new JinjaTransformationService();
+        bin2json = new Bin2JsonTransformationService();
+    }
+
+    private static void write(Path path, String content) throws IOException {
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
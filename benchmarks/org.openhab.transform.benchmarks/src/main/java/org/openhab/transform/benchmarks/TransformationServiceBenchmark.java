@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.transform.TransformationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the latency of a single {@code TransformationService.transform} call for every transformation service.
+ * <p>
+ * Run with {@code -prof gc} to also report the allocation rate per call.
+ *
+ * @author agent - Initial contribution
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformationServiceBenchmark {
+
+    @Benchmark
+    public String regexExtract(TransformationFixture fixture) throws TransformationException {
+        return fixture.regex.transform(".*\"temperature\":([0-9.]+),.*", Payloads.MQTT_JSON);
+    }
+
+    @Benchmark
+    public String regexSubstitute(TransformationFixture fixture) throws TransformationException {
+        return fixture.regex.transform("s/,/./g", "1.013,4");
+    }
+
+    @Benchmark
+    public String jsonPath(TransformationFixture fixture) throws TransformationException {
+        return fixture.jsonPath.transform("$.device.friendlyName", Payloads.MQTT_JSON);
+    }
+
+    @Benchmark
+    public String xpath(TransformationFixture fixture) throws TransformationException {
+        return fixture.xpath.transform("//*[local-name()='TransportState']/@val", Payloads.SONOS_XML);
+    }
+
+    @Benchmark
+    public String xslt(TransformationFixture fixture) throws TransformationException {
+        return fixture.xslt.transform(TransformationFixture.XSLT_FILE, Payloads.SONOS_XML);
+    }
+
+    @Benchmark
+    public String map(TransformationFixture fixture) throws TransformationException {
+        return fixture.map.transform(TransformationFixture.MAP_FILE, "CLOSED");
+    }
+
+    @Benchmark
+    public String scale(TransformationFixture fixture) throws TransformationException {
+        return fixture.scale.transform(TransformationFixture.SCALE_FILE, "412.7");
+    }
+
+    @Benchmark
+    public String javaScript(TransformationFixture fixture) throws TransformationException {
+        return fixture.javaScript.transform(TransformationFixture.JS_FILE, "21.5");
+    }
+
+    @Benchmark
+    public String jinja(TransformationFixture fixture) throws TransformationException {
+        return fixture.jinja.transform("{{ value_json.temperature }}", Payloads.MQTT_JSON);
+    }
+
+    @Benchmark
+    public String bin2json(TransformationFixture fixture) throws TransformationException {
+        return fixture.bin2json.transform(Payloads.BIN2JSON_RULE, Payloads.BIN2JSON_FRAME);
+    }
+}
@@ -14,6 +14,7 @@ package org.openhab.binding.homematic.internal.communicator;
 
 import static org.openhab.binding.homematic.internal.misc.HomematicConstants.*;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -23,14 +24,24 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.core.common.NamedThreadFactory;
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.openhab.binding.homematic.internal.communicator.client.BinRpcClient;
@@ -38,6 +49,7 @@ import org.openhab.binding.homematic.internal.communicator.client.RpcClient;
 import org.openhab.binding.homematic.internal.communicator.client.TransferMode;
 import org.openhab.binding.homematic.internal.communicator.client.UnknownParameterSetException;
 import org.openhab.binding.homematic.internal.communicator.client.XmlRpcClient;
+import org.openhab.binding.homematic.internal.communicator.parser.GetParamsetDescriptionParser;
 import org.openhab.binding.homematic.internal.communicator.parser.ListBidcosInterfacesParser;
 import org.openhab.binding.homematic.internal.communicator.server.BinRpcServer;
 import org.openhab.binding.homematic.internal.communicator.server.RpcEventListener;
@@ -90,6 +102,9 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
     public static final double DEFAULT_DISABLE_DELAY = 2.0;
     private static final long CONNECTION_TRACKER_INTERVAL_SECONDS = 15;
     private static final String GATEWAY_POOL_NAME = "homematicGateway";
+    private static final String METADATA_LOADER_POOL_NAME = "homematicMetadata";
+    private static final int METADATA_LOADER_THREADS_PER_INTERFACE = 4;
+    private static final String PARAMSET_CACHE_FOLDER_NAME = "homematic";
 
     private final Map<TransferMode, RpcClient<?>> rpcClients = new HashMap<TransferMode, RpcClient<?>>();
     private final Map<TransferMode, RpcServer> rpcServers = new HashMap<TransferMode, RpcServer>();
@@ -98,15 +113,17 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
     protected HttpClient httpClient;
     private final String id;
     private final HomematicGatewayAdapter gatewayAdapter;
-    private final DelayedExecuter sendDelayedExecutor = new DelayedExecuter();
-    private final DelayedExecuter receiveDelayedExecutor = new DelayedExecuter();
+    private final DelayedExecuter sendDelayedExecutor;
+    private final DelayedExecuter receiveDelayedExecutor;
     private final Set<HmDatapointInfo> echoEvents = Collections.synchronizedSet(new HashSet<HmDatapointInfo>());
     private ScheduledFuture<?> connectionTrackerFuture;
     private ConnectionTrackerThread connectionTrackerThread;
     private final Map<String, HmDevice> devices = Collections.synchronizedMap(new HashMap<String, HmDevice>());
     private final Map<HmInterface, TransferMode> availableInterfaces = new TreeMap<HmInterface, TransferMode>();
     private static List<VirtualDatapointHandler> virtualDatapointHandlers = new ArrayList<VirtualDatapointHandler>();
-    private boolean cancelLoadAllMetadata;
+    private final ParamsetDescriptionCache paramsetDescriptionCache;
+    private final Object deviceLoadedLock = new Object();
+    private volatile boolean cancelLoadAllMetadata;
     private boolean initialized;
     private boolean newDeviceEventsEnabled;
     private ScheduledFuture<?> enableNewDeviceFuture;
@@ -139,6 +156,10 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
         this.config = config;
         this.gatewayAdapter = gatewayAdapter;
         this.httpClient = httpClient;
+        this.sendDelayedExecutor = new DelayedExecuter(scheduler);
+        this.receiveDelayedExecutor = new DelayedExecuter(scheduler);
+        this.paramsetDescriptionCache = new ParamsetDescriptionCache(
+                new File(new File(ConfigConstants.getUserDataFolder(), PARAMSET_CACHE_FOLDER_NAME), id + ".cache"));
     }
 
     @Override
@@ -371,59 +392,150 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
         // load all device descriptions
         List<HmDevice> deviceDescriptions = getDeviceDescriptions();
 
-        // loading datapoints for all channels
-        Set<String> loadedDevices = new HashSet<String>();
-        Map<String, Collection<HmDatapoint>> datapointsByChannelIdCache = new HashMap<String, Collection<HmDatapoint>>();
+        // group the devices by interface, the gateway extras are loaded afterwards by the calling thread
+        Map<HmInterface, Queue<HmDevice>> devicesByInterface = new TreeMap<HmInterface, Queue<HmDevice>>();
+        List<HmDevice> gatewayExtrasDevices = new ArrayList<HmDevice>();
         for (HmDevice device : deviceDescriptions) {
+            if (device.isGatewayExtras()) {
+                gatewayExtrasDevices.add(device);
+            } else {
+                devicesByInterface.computeIfAbsent(device.getHmInterface(), key -> new ConcurrentLinkedQueue<>())
+                        .add(device);
+            }
+        }
+
+        // loading datapoints for all channels, each interface with a bounded number of parallel workers
+        Set<String> loadedDevices = ConcurrentHashMap.newKeySet();
+        Map<String, Collection<HmDatapoint>> datapointsByChannelIdCache = new ConcurrentHashMap<>();
+        List<Callable<Void>> workers = new ArrayList<Callable<Void>>();
+        for (Queue<HmDevice> queue : devicesByInterface.values()) {
+            for (int i = 0; i < Math.min(queue.size(), METADATA_LOADER_THREADS_PER_INTERFACE); i++) {
+                workers.add(() -> {
+                    HmDevice device;
+                    while (!cancelLoadAllMetadata && (device = queue.poll()) != null) {
+                        loadDeviceMetadata(device, datapointsByChannelIdCache, loadedDevices);
+                    }
+                    return null;
+                });
+            }
+        }
+        if (!workers.isEmpty()) {
+            runMetadataLoaders(workers);
+        }
+        for (HmDevice device : gatewayExtrasDevices) {
             if (!cancelLoadAllMetadata) {
-                try {
-                    logger.trace("Loading metadata for device '{}' of type '{}'", device.getAddress(),
-                            device.getType());
-                    if (device.isGatewayExtras()) {
-                        loadChannelValues(device.getChannel(HmChannel.CHANNEL_NUMBER_VARIABLE));
-                        loadChannelValues(device.getChannel(HmChannel.CHANNEL_NUMBER_SCRIPT));
+                loadDeviceMetadata(device, datapointsByChannelIdCache, loadedDevices);
+            }
+        }
+
+        paramsetDescriptionCache.save(!cancelLoadAllMetadata);
+        if (!cancelLoadAllMetadata) {
+            devices.keySet().retainAll(loadedDevices);
+        }
+        initialized = true;
+    }
+
+    /**
+     * Runs the metadata loaders in a temporary thread pool and waits until all devices are loaded.
+     */
+    private void runMetadataLoaders(List<Callable<Void>> workers) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(workers.size(),
+                new NamedThreadFactory(METADATA_LOADER_POOL_NAME + "-" + id));
+        try {
+            for (Future<Void> future : executor.invokeAll(workers)) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            cancelLoadAllMetadata = true;
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading the device metadata from gateway " + id, ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Loads the metadata of all channels of the device.
+     */
+    private void loadDeviceMetadata(HmDevice device, Map<String, Collection<HmDatapoint>> datapointsByChannelIdCache,
+            Set<String> loadedDevices) {
+        try {
+            logger.trace("Loading metadata for device '{}' of type '{}'", device.getAddress(), device.getType());
+            if (device.isGatewayExtras()) {
+                loadChannelValues(device.getChannel(HmChannel.CHANNEL_NUMBER_VARIABLE));
+                loadChannelValues(device.getChannel(HmChannel.CHANNEL_NUMBER_SCRIPT));
+            } else {
+                for (HmChannel channel : device.getChannels()) {
+                    logger.trace("  Loading channel {}", channel);
+                    // speed up metadata generation a little bit for equal channels in the gateway devices
+                    if ((DEVICE_TYPE_VIRTUAL.equals(device.getType())
+                            || DEVICE_TYPE_VIRTUAL_WIRED.equals(device.getType())) && channel.getNumber() > 1) {
+                        HmChannel previousChannel = device.getChannel(channel.getNumber() - 1);
+                        cloneAllDatapointsIntoChannel(channel, previousChannel.getDatapoints());
                     } else {
-                        for (HmChannel channel : device.getChannels()) {
-                            logger.trace("  Loading channel {}", channel);
-                            // speed up metadata generation a little bit for equal channels in the gateway devices
-                            if ((DEVICE_TYPE_VIRTUAL.equals(device.getType())
-                                    || DEVICE_TYPE_VIRTUAL_WIRED.equals(device.getType())) && channel.getNumber() > 1) {
-                                HmChannel previousChannel = device.getChannel(channel.getNumber() - 1);
-                                cloneAllDatapointsIntoChannel(channel, previousChannel.getDatapoints());
+                        String channelId = String.format("%s:%s:%s", channel.getDevice().getType(),
+                                channel.getDevice().getFirmware(), channel.getNumber());
+                        Collection<HmDatapoint> cachedDatapoints = datapointsByChannelIdCache.get(channelId);
+                        if (cachedDatapoints != null) {
+                            // clone all datapoints
+                            cloneAllDatapointsIntoChannel(channel, cachedDatapoints);
+                        } else {
+                            logger.trace("    Loading datapoints into channel {}", channel);
+                            addCachedChannelDatapoints(channel, HmParamsetType.MASTER);
+                            addCachedChannelDatapoints(channel, HmParamsetType.VALUES);
+
+                            // Make sure to only cache non-reconfigurable channels. For reconfigurable channels,
+                            // the data point set might change depending on the selected mode.
+                            if (!channel.isReconfigurable()) {
+                                datapointsByChannelIdCache.put(channelId, channel.getDatapoints());
                             } else {
-                                String channelId = String.format("%s:%s:%s", channel.getDevice().getType(),
-                                        channel.getDevice().getFirmware(), channel.getNumber());
-                                Collection<HmDatapoint> cachedDatapoints = datapointsByChannelIdCache.get(channelId);
-                                if (cachedDatapoints != null) {
-                                    // clone all datapoints
-                                    cloneAllDatapointsIntoChannel(channel, cachedDatapoints);
-                                } else {
-                                    logger.trace("    Loading datapoints into channel {}", channel);
-                                    addChannelDatapoints(channel, HmParamsetType.MASTER);
-                                    addChannelDatapoints(channel, HmParamsetType.VALUES);
-
-                                    // Make sure to only cache non-reconfigurable channels. For reconfigurable channels,
-                                    // the data point set might change depending on the selected mode.
-                                    if (!channel.isReconfigurable()) {
-                                        datapointsByChannelIdCache.put(channelId, channel.getDatapoints());
-                                    }
-                                }
+                                paramsetDescriptionCache
+                                        .remove(ParamsetDescriptionCache.getKey(channel, HmParamsetType.MASTER));
+                                paramsetDescriptionCache
+                                        .remove(ParamsetDescriptionCache.getKey(channel, HmParamsetType.VALUES));
                             }
                         }
                     }
-                    prepareDevice(device);
-                    loadedDevices.add(device.getAddress());
-                    gatewayAdapter.onDeviceLoaded(device);
-                } catch (IOException ex) {
-                    logger.warn("Can't load device with address '{}' from gateway '{}': {}", device.getAddress(), id,
-                            ex.getMessage());
                 }
             }
+            prepareDevice(device);
+            loadedDevices.add(device.getAddress());
+            synchronized (deviceLoadedLock) {
+                gatewayAdapter.onDeviceLoaded(device);
+            }
+        } catch (IOException ex) {
+            logger.warn("Can't load device with address '{}' from gateway '{}': {}", device.getAddress(), id,
+                    ex.getMessage());
         }
-        if (!cancelLoadAllMetadata) {
-            devices.keySet().retainAll(loadedDevices);
+    }
+
+    /**
+     * Loads all datapoints from the persistent paramset description cache, fetches the description from the gateway
+     * if it's not cached yet.
+     */
+    private void addCachedChannelDatapoints(HmChannel channel, HmParamsetType paramsetType) throws IOException {
+        String key = ParamsetDescriptionCache.getKey(channel, paramsetType);
+        Object[] paramsetDescription = paramsetDescriptionCache.get(key);
+        if (paramsetDescription == null) {
+            try {
+                paramsetDescription = getRpcClient(channel.getDevice().getHmInterface())
+                        .getParamsetDescription(channel, paramsetType);
+            } catch (UnknownParameterSetException ex) {
+                addUnknownParamsetDatapoints(channel, paramsetType);
+                return;
+            }
+            if (paramsetDescription == null) {
+                return;
+            }
+            paramsetDescriptionCache.put(key, paramsetDescription);
         }
-        initialized = true;
+        new GetParamsetDescriptionParser(channel, paramsetType).parse(paramsetDescription);
     }
 
     /**
@@ -433,12 +545,19 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
         try {
             getRpcClient(channel.getDevice().getHmInterface()).addChannelDatapoints(channel, paramsetType);
         } catch (UnknownParameterSetException ex) {
-            logger.info(
-                    "Can not load metadata for device: {}, channel: {}, paramset: {}, maybe there are no channels available",
-                    channel.getDevice().getAddress(), channel.getNumber(), paramsetType);
+            addUnknownParamsetDatapoints(channel, paramsetType);
         }
     }
 
+    /**
+     * Called if the gateway does not know the requested paramset of the channel.
+     */
+    protected void addUnknownParamsetDatapoints(HmChannel channel, HmParamsetType paramsetType) throws IOException {
+        logger.info(
+                "Can not load metadata for device: {}, channel: {}, paramset: {}, maybe there are no channels available",
+                channel.getDevice().getAddress(), channel.getNumber(), paramsetType);
+    }
+
     /**
      * Loads all device descriptions from the gateway.
      */
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openhab.binding.homematic.internal.model.HmChannel;
+import org.openhab.binding.homematic.internal.model.HmParamsetType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent cache for the raw paramset descriptions of the gateway. A paramset description only depends on the
+ * device type, the firmware and the channel, so the entries are keyed by these values. After a firmware update the key
+ * changes and the description is fetched again from the gateway.
+ *
+ * @author agent - Initial contribution
+ */
+public class ParamsetDescriptionCache {
+    private final Logger logger = LoggerFactory.getLogger(ParamsetDescriptionCache.class);
+    private static final int FILE_VERSION = 1;
+
+    private final File file;
+    private final Map<String, Object[]> descriptions = new ConcurrentHashMap<>();
+    private final Set<String> usedKeys = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+    private volatile boolean modified;
+
+    public ParamsetDescriptionCache(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the cache key for the paramset of the given channel.
+     */
+    public static String getKey(HmChannel channel, HmParamsetType paramsetType) {
+        return String.format("%s:%s:%s:%s", channel.getDevice().getType(), channel.getDevice().getFirmware(),
+                channel.getNumber(), paramsetType);
+    }
+
+    /**
+     * Returns the cached paramset description or null, if there is no entry for the key.
+     */
+    public Object[] get(String key) {
+        load();
+        Object[] description = descriptions.get(key);
+        if (description != null) {
+            usedKeys.add(key);
+        }
+        return description;
+    }
+
+    /**
+     * Adds a paramset description to the cache.
+     */
+    public void put(String key, Object[] description) {
+        load();
+        descriptions.put(key, description);
+        usedKeys.add(key);
+        modified = true;
+    }
+
+    /**
+     * Removes a paramset description from the cache, e.g. for reconfigurable channels where the description depends
+     * on the current configuration of the channel.
+     */
+    public void remove(String key) {
+        load();
+        usedKeys.remove(key);
+        if (descriptions.remove(key) != null) {
+            modified = true;
+        }
+    }
+
+    /**
+     * Writes the cache to disk. If all devices of the gateway have been loaded, entries which have not been used since
+     * the last save belong to removed devices or old firmware versions and are dropped.
+     */
+    public synchronized void save(boolean complete) {
+        if (complete && descriptions.keySet().retainAll(usedKeys)) {
+            modified = true;
+        }
+        usedKeys.clear();
+        if (!modified) {
+            return;
+        }
+
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+            try (ObjectOutputStream out = new ObjectOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(FILE_VERSION);
+                out.writeObject(new HashMap<>(descriptions));
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            modified = false;
+            logger.debug("Saved {} paramset descriptions to '{}'", descriptions.size(), file);
+        } catch (IOException ex) {
+            logger.warn("Can't save the paramset description cache to '{}': {}", file, ex.getMessage());
+            tempFile.delete();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            loaded = true;
+            if (!file.exists()) {
+                return;
+            }
+            try (ObjectInputStream in = new DescriptionInputStream(
+                    new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() != FILE_VERSION) {
+                    logger.debug("Ignoring paramset description cache '{}' with an unknown version", file);
+                    return;
+                }
+                descriptions.putAll((Map<String, Object[]>) in.readObject());
+                logger.debug("Loaded {} paramset descriptions from '{}'", descriptions.size(), file);
+            } catch (IOException | ClassNotFoundException | ClassCastException ex) {
+                logger.debug("Can't read the paramset description cache '{}', ignoring it: {}", file, ex.getMessage());
+                descriptions.clear();
+            }
+        }
+    }
+
+    /**
+     * Only resolves the JDK types that the RPC parsers create for a paramset description.
+     */
+    private static class DescriptionInputStream extends ObjectInputStream {
+
+        public DescriptionInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            String name = desc.getName();
+            if (!name.startsWith("java.lang.") && !name.startsWith("java.util.") && !name.startsWith("java.math.")
+                    && !name.startsWith("[Ljava.lang.")) {
+                throw new InvalidClassException(name, "Unexpected class in paramset description cache");
+            }
+            return super.resolveClass(desc);
+        }
+    }
+}
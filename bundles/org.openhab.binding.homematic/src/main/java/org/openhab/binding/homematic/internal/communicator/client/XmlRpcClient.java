@@ -29,7 +29,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Client implementation for sending messages via XML-RPC to the Homematic server.
+ * Client implementation for sending messages via XML-RPC to the Homematic server. Each request is a separate HTTP
+ * request, so messages may be sent concurrently.
  *
  * @author Gerhard Riegler - Initial contribution
  */
@@ -60,7 +61,7 @@ public class XmlRpcClient extends RpcClient<String> {
     }
 
     @Override
-    protected synchronized Object[] sendMessage(int port, RpcRequest<String> request) throws IOException {
+    protected Object[] sendMessage(int port, RpcRequest<String> request) throws IOException {
         if (logger.isTraceEnabled()) {
             logger.trace("Client XmlRpcRequest (port {}):\n{}", port, request);
         }
@@ -70,8 +71,7 @@ public class XmlRpcClient extends RpcClient<String> {
     /**
      * Sends the message, retries if there was an error.
      */
-    private synchronized Object[] sendMessage(int port, RpcRequest<String> request, int rpcRetryCounter)
-            throws IOException {
+    private Object[] sendMessage(int port, RpcRequest<String> request, int rpcRetryCounter) throws IOException {
         try {
             BytesContentProvider content = new BytesContentProvider(
                     request.createMessage().getBytes(config.getEncoding()));
@@ -13,24 +13,43 @@
 package org.openhab.binding.homematic.internal.misc;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.openhab.binding.homematic.internal.model.HmDatapointInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Executes a callback method either immediately or after a given delay for a datapoint.
+ * Executes a callback method either immediately or after a given delay for a datapoint. If an event for the same
+ * datapoint is started while a previous one is still delayed, both are coalesced: only the latest callback is executed
+ * once the latest delay has expired.
+ * <p>
+ * All delayed events are executed by the given scheduler. Events of different datapoints only share one of a fixed
+ * number of lock stripes, so the send and receive paths of all datapoints don't contend for a single lock.
  *
  * @author Gerhard Riegler - Initial contribution
  */
 public class DelayedExecuter {
     private final Logger logger = LoggerFactory.getLogger(DelayedExecuter.class);
+    private static final int LOCK_STRIPES = 16;
 
-    private Map<HmDatapointInfo, Timer> delayedEvents = new HashMap<HmDatapointInfo, Timer>();
+    private final ScheduledExecutorService scheduler;
+    private final Map<HmDatapointInfo, DelayedEvent> delayedEvents = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final AtomicLong coalescedEvents = new AtomicLong();
+    private final AtomicLong firedEvents = new AtomicLong();
+
+    public DelayedExecuter(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
 
     /**
      * Executes a callback method either immediately or after a given delay.
@@ -38,28 +57,27 @@ public class DelayedExecuter {
     public void start(final HmDatapointInfo dpInfo, final double delay, final DelayedExecuterCallback callback)
             throws IOException, HomematicClientException {
         if (delay > 0.0) {
-            synchronized (DelayedExecuter.class) {
-                logger.debug("Delaying event for {} seconds: '{}'", delay, dpInfo);
-
-                Timer timer = delayedEvents.get(dpInfo);
-                if (timer != null) {
-                    timer.cancel();
-                }
+            logger.debug("Delaying event for {} seconds: '{}'", delay, dpInfo);
+            long delayNanos = TimeUnit.MILLISECONDS.toNanos((long) (delay * 1000));
+            long dueTime = System.nanoTime() + delayNanos;
 
-                timer = new Timer();
-                delayedEvents.put(dpInfo, timer);
-                timer.schedule(new TimerTask() {
-                    @Override
-                    public void run() {
-                        logger.debug("Executing delayed event for '{}'", dpInfo);
-                        delayedEvents.remove(dpInfo);
-                        try {
-                            callback.execute();
-                        } catch (Exception ex) {
-                            logger.error("{}", ex.getMessage(), ex);
-                        }
+            synchronized (getLock(dpInfo)) {
+                DelayedEvent event = delayedEvents.get(dpInfo);
+                if (event != null) {
+                    coalescedEvents.incrementAndGet();
+                    event.callback = callback;
+                    event.dueTime = dueTime;
+                    if (dueTime - event.scheduledTime >= 0) {
+                        // the pending task reschedules itself for the remaining time when it runs
+                        return;
                     }
-                }, (long) (delay * 1000));
+                    // the new delay is shorter than the pending one
+                    event.future.cancel(false);
+                } else {
+                    event = new DelayedEvent(dpInfo, callback, dueTime);
+                    delayedEvents.put(dpInfo, event);
+                }
+                schedule(event, delayNanos);
             }
         } else {
             callback.execute();
@@ -70,10 +88,79 @@ public class DelayedExecuter {
      * Stops all delayed events.
      */
     public void stop() {
-        for (Timer timer : delayedEvents.values()) {
-            timer.cancel();
+        for (DelayedEvent event : delayedEvents.values()) {
+            synchronized (getLock(event.dpInfo)) {
+                event.future.cancel(false);
+                delayedEvents.remove(event.dpInfo, event);
+            }
+        }
+        logger.debug("Stopped delayed executer, {} events fired, {} events coalesced", firedEvents.get(),
+                coalescedEvents.get());
+    }
+
+    /**
+     * Returns the number of events which were replaced by a later event for the same datapoint.
+     */
+    public long getCoalescedEvents() {
+        return coalescedEvents.get();
+    }
+
+    /**
+     * Returns the number of executed delayed events.
+     */
+    public long getFiredEvents() {
+        return firedEvents.get();
+    }
+
+    private void schedule(DelayedEvent event, long delayNanos) {
+        event.scheduledTime = System.nanoTime() + delayNanos;
+        event.future = scheduler.schedule(() -> fire(event), delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void fire(DelayedEvent event) {
+        DelayedExecuterCallback callback;
+        synchronized (getLock(event.dpInfo)) {
+            if (delayedEvents.get(event.dpInfo) != event) {
+                // stopped in the meantime
+                return;
+            }
+            long remaining = event.dueTime - System.nanoTime();
+            if (remaining > 0) {
+                schedule(event, remaining);
+                return;
+            }
+            delayedEvents.remove(event.dpInfo);
+            callback = event.callback;
+        }
+
+        firedEvents.incrementAndGet();
+        logger.debug("Executing delayed event for '{}'", event.dpInfo);
+        try {
+            callback.execute();
+        } catch (Exception ex) {
+            logger.error("{}", ex.getMessage(), ex);
+        }
+    }
+
+    private Object getLock(HmDatapointInfo dpInfo) {
+        return locks[(dpInfo.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+    }
+
+    /**
+     * A pending event of a datapoint, guarded by the lock stripe of the datapoint.
+     */
+    private static class DelayedEvent {
+        private final HmDatapointInfo dpInfo;
+        private DelayedExecuterCallback callback;
+        private long dueTime;
+        private long scheduledTime;
+        private ScheduledFuture<?> future;
+
+        public DelayedEvent(HmDatapointInfo dpInfo, DelayedExecuterCallback callback, long dueTime) {
+            this.dpInfo = dpInfo;
+            this.callback = callback;
+            this.dueTime = dueTime;
         }
-        delayedEvents.clear();
     }
 
     /**
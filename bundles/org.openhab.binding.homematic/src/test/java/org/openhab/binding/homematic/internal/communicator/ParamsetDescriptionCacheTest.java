@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link ParamsetDescriptionCache}.
+ *
+ * @author agent - Initial contribution
+ */
+public class ParamsetDescriptionCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+
+    @Before
+    public void setup() {
+        file = new File(new File(folder.getRoot(), "homematic"), "ccu.cache");
+    }
+
+    @Test
+    public void savedDescriptionsAreLoadedAgain() {
+        ParamsetDescriptionCache cache = new ParamsetDescriptionCache(file);
+        cache.put("HM-LC-Dim1-Pl3:2.9:1:VALUES", createDescription());
+        cache.save(true);
+
+        Object[] description = new ParamsetDescriptionCache(file).get("HM-LC-Dim1-Pl3:2.9:1:VALUES");
+
+        assertThat(description, is(notNullValue()));
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> datapoints = (Map<String, Map<String, Object>>) description[0];
+        assertThat(datapoints.get("LEVEL").get("MAX"), is((Object) 1.0));
+        assertThat(datapoints.get("LEVEL").get("OPERATIONS"), is((Object) 7));
+    }
+
+    @Test
+    public void unusedDescriptionsAreOnlyDroppedAfterCompleteLoad() {
+        ParamsetDescriptionCache cache = new ParamsetDescriptionCache(file);
+        cache.put("A:1.0:1:VALUES", createDescription());
+        cache.put("B:1.0:1:VALUES", createDescription());
+        cache.save(true);
+
+        cache = new ParamsetDescriptionCache(file);
+        cache.get("A:1.0:1:VALUES");
+        cache.save(false);
+        assertThat(new ParamsetDescriptionCache(file).get("B:1.0:1:VALUES"), is(notNullValue()));
+
+        cache = new ParamsetDescriptionCache(file);
+        cache.get("A:1.0:1:VALUES");
+        cache.save(true);
+        cache = new ParamsetDescriptionCache(file);
+        assertThat(cache.get("A:1.0:1:VALUES"), is(notNullValue()));
+        assertThat(cache.get("B:1.0:1:VALUES"), is(nullValue()));
+    }
+
+    @Test
+    public void removedDescriptionsAreNotSaved() {
+        ParamsetDescriptionCache cache = new ParamsetDescriptionCache(file);
+        cache.put("A:1.0:1:MASTER", createDescription());
+        cache.remove("A:1.0:1:MASTER");
+        cache.save(true);
+
+        assertThat(new ParamsetDescriptionCache(file).get("A:1.0:1:MASTER"), is(nullValue()));
+    }
+
+    @Test
+    public void corruptFileIsIgnored() throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), new byte[] { 1, 2, 3 });
+
+        ParamsetDescriptionCache cache = new ParamsetDescriptionCache(file);
+        assertThat(cache.get("A:1.0:1:VALUES"), is(nullValue()));
+
+        cache.put("A:1.0:1:VALUES", createDescription());
+        cache.save(true);
+        assertThat(new ParamsetDescriptionCache(file).get("A:1.0:1:VALUES"), is(notNullValue()));
+    }
+
+    private Object[] createDescription() {
+        Map<String, Object> level = new HashMap<>();
+        level.put("TYPE", "FLOAT");
+        level.put("MIN", 0.0);
+        level.put("MAX", 1.0);
+        level.put("OPERATIONS", 7);
+        level.put("UNIT", "100%");
+        level.put("VALUE_LIST", new Object[] { "A", "B" });
+        Map<String, Map<String, Object>> datapoints = new HashMap<>();
+        datapoints.put("LEVEL", level);
+        return new Object[] { datapoints };
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.misc;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.homematic.internal.model.HmDatapointInfo;
+import org.openhab.binding.homematic.internal.model.HmParamsetType;
+
+/**
+ * Tests for {@link DelayedExecuter}.
+ *
+ * @author agent - Initial contribution
+ */
+public class DelayedExecuterTest {
+
+    private static final HmDatapointInfo LEVEL = new HmDatapointInfo("ABC12345678", HmParamsetType.VALUES, 1,
+            "LEVEL");
+    private static final HmDatapointInfo STATE = new HmDatapointInfo("ABC12345678", HmParamsetType.VALUES, 2,
+            "STATE");
+
+    private ScheduledExecutorService scheduler;
+    private DelayedExecuter executer;
+    private List<String> executed;
+
+    @Before
+    public void setup() {
+        scheduler = new ScheduledThreadPoolExecutor(2);
+        executer = new DelayedExecuter(scheduler);
+        executed = new CopyOnWriteArrayList<>();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void eventWithoutDelayIsExecutedImmediately() throws Exception {
+        executer.start(LEVEL, 0.0, () -> executed.add("now"));
+
+        assertThat(executed, hasItem("now"));
+        assertThat(executer.getFiredEvents(), is(0L));
+    }
+
+    @Test
+    public void eventsOfTheSameDatapointAreCoalesced() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        for (int i = 0; i < 10; i++) {
+            String value = "level" + i;
+            executer.start(LEVEL, 0.1, () -> {
+                executed.add(value);
+                latch.countDown();
+            });
+        }
+
+        assertThat(latch.await(2, TimeUnit.SECONDS), is(true));
+        Thread.sleep(200);
+        assertThat(executed.size(), is(1));
+        assertThat(executed.get(0), is("level9"));
+        assertThat(executer.getCoalescedEvents(), is(9L));
+        assertThat(executer.getFiredEvents(), is(1L));
+    }
+
+    @Test
+    public void eventsOfDifferentDatapointsAreExecutedIndependently() throws Exception {
+        CountDownLatch latch = new CountDownLatch(2);
+        executer.start(LEVEL, 0.05, () -> {
+            executed.add("level");
+            latch.countDown();
+        });
+        executer.start(STATE, 0.05, () -> {
+            executed.add("state");
+            latch.countDown();
+        });
+
+        assertThat(latch.await(2, TimeUnit.SECONDS), is(true));
+        assertThat(executed, hasItems("level", "state"));
+        assertThat(executer.getCoalescedEvents(), is(0L));
+    }
+
+    @Test
+    public void shorterDelayExecutesTheEventEarlier() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        executer.start(LEVEL, 60.0, () -> executed.add("late"));
+        executer.start(LEVEL, 0.05, () -> {
+            executed.add("early");
+            latch.countDown();
+        });
+
+        assertThat(latch.await(2, TimeUnit.SECONDS), is(true));
+        assertThat(executed, is(equalTo(Arrays.asList("early"))));
+    }
+
+    @Test
+    public void stoppedEventsAreNotExecuted() throws Exception {
+        executer.start(LEVEL, 0.05, () -> executed.add("level"));
+        executer.stop();
+
+        Thread.sleep(200);
+        assertThat(executed.isEmpty(), is(true));
+    }
+
+    @Test
+    public void failingCallbackDoesNotBlockLaterEvents() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        executer.start(LEVEL, 0.01, () -> {
+            throw new IOException("failure");
+        });
+        Thread.sleep(100);
+        executer.start(LEVEL, 0.01, () -> latch.countDown());
+
+        assertThat(latch.await(2, TimeUnit.SECONDS), is(true));
+        assertThat(executer.getFiredEvents(), is(2L));
+    }
+}
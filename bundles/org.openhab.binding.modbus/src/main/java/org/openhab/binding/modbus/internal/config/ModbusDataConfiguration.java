@@ -12,6 +12,8 @@
  */
 package org.openhab.binding.modbus.internal.config;
 
+import java.math.BigDecimal;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 
@@ -41,6 +43,8 @@ public class ModbusDataConfiguration {
     private boolean writeMultipleEvenWithSingleRegisterOrCoil;
     private int writeMaxTries = 3; // backwards compatibility and tests
     private long updateUnchangedValuesEveryMillis = 1000L;
+    private BigDecimal updateDeadband = BigDecimal.ZERO;
+    private BigDecimal updateDeadbandPercent = BigDecimal.ZERO;
 
     public @Nullable String getReadStart() {
         return readStart;
@@ -121,4 +125,20 @@ public class ModbusDataConfiguration {
     public void setUpdateUnchangedValuesEveryMillis(long updateUnchangedValuesEveryMillis) {
         this.updateUnchangedValuesEveryMillis = updateUnchangedValuesEveryMillis;
     }
+
+    public BigDecimal getUpdateDeadband() {
+        return updateDeadband;
+    }
+
+    public void setUpdateDeadband(BigDecimal updateDeadband) {
+        this.updateDeadband = updateDeadband;
+    }
+
+    public BigDecimal getUpdateDeadbandPercent() {
+        return updateDeadbandPercent;
+    }
+
+    public void setUpdateDeadbandPercent(BigDecimal updateDeadbandPercent) {
+        this.updateDeadbandPercent = updateDeadbandPercent;
+    }
 }
@@ -43,6 +43,7 @@ public class ModbusSerialConfiguration {
     private int timeBetweenTransactionsMillis;
     private int connectMaxTries;
     private int connectTimeoutMillis;
+    private int readCoalescingMaxGap = -1;
     private boolean enableDiscovery;
 
     public @Nullable String getPort() {
@@ -157,6 +158,14 @@ public class ModbusSerialConfiguration {
         this.connectTimeoutMillis = connectTimeoutMillis;
     }
 
+    public int getReadCoalescingMaxGap() {
+        return readCoalescingMaxGap;
+    }
+
+    public void setReadCoalescingMaxGap(int readCoalescingMaxGap) {
+        this.readCoalescingMaxGap = readCoalescingMaxGap;
+    }
+
     public boolean isDiscoveryEnabled() {
         return enableDiscovery;
     }
@@ -99,6 +99,7 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
     private final Logger logger = LoggerFactory.getLogger(ModbusDataThingHandler.class);
 
     private static final Duration MIN_STATUS_INFO_UPDATE_INTERVAL = Duration.ofSeconds(1);
+    private static final BigDecimal HUNDRED = new BigDecimal(100);
     private static final Map<String, List<Class<? extends State>>> CHANNEL_ID_TO_ACCEPTED_TYPES = new HashMap<>();
 
     static {
@@ -134,6 +135,8 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
     private volatile int pollStart;
     private volatile int slaveId;
     private volatile long updateUnchangedValuesEveryMillis;
+    private volatile BigDecimal updateDeadband = BigDecimal.ZERO;
+    private volatile BigDecimal updateDeadbandPercent = BigDecimal.ZERO;
     private volatile @Nullable ModbusSlaveEndpoint slaveEndpoint;
     private volatile @Nullable ModbusManager manager;
     private volatile @Nullable PollTask pollTask;
@@ -145,6 +148,9 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
     private volatile Map<String, ChannelUID> channelCache = new HashMap<>();
     private volatile Map<ChannelUID, Long> channelLastUpdated = new HashMap<>(NUMER_OF_CHANNELS_HINT);
     private volatile Map<ChannelUID, State> channelLastState = new HashMap<>(NUMER_OF_CHANNELS_HINT);
+    // polled value and time of the last update of the data channels
+    private volatile @Nullable DecimalType lastUpdatedValue;
+    private volatile long lastUpdatedMillis;
 
     private volatile LocalDateTime lastStatusInfoUpdate = LocalDateTime.MIN;
     private volatile ThingStatusInfo statusInfo = new ThingStatusInfo(ThingStatus.UNKNOWN, ThingStatusDetail.NONE,
@@ -171,6 +177,8 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
                 // There is no data to update
                 return;
             }
+            // Data channels should be updated with the refreshed data, even if the value has not changed
+            forceDataChannelUpdate();
             // We *schedule* the REFRESH to avoid dead-lock situation where poller is trying update this
             // data thing with cached data (resulting in deadlock in two synchronized methods: this (handleCommand) and
             // onRegisters.
@@ -336,6 +344,8 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
             logger.trace("initialize() of thing {} '{}' starting", thing.getUID(), thing.getLabel());
             config = getConfigAs(ModbusDataConfiguration.class);
             updateUnchangedValuesEveryMillis = config.getUpdateUnchangedValuesEveryMillis();
+            updateDeadband = config.getUpdateDeadband().abs();
+            updateDeadbandPercent = config.getUpdateDeadbandPercent().abs();
             Bridge bridge = getBridge();
             if (bridge == null) {
                 logger.debug("Thing {} '{}' has no bridge", getThing().getUID(), getThing().getLabel());
@@ -413,6 +423,10 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
         statusInfo = new ThingStatusInfo(ThingStatus.UNKNOWN, ThingStatusDetail.NONE, null);
         channelLastUpdated = new HashMap<>(NUMER_OF_CHANNELS_HINT);
         channelLastState = new HashMap<>(NUMER_OF_CHANNELS_HINT);
+        updateDeadband = BigDecimal.ZERO;
+        updateDeadbandPercent = BigDecimal.ZERO;
+        lastUpdatedValue = null;
+        lastUpdatedMillis = 0L;
     }
 
     @Override
@@ -717,6 +731,8 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
                     getThing().getUID(), getThing().getLabel(), error.getClass().getName(), error.toString(),
                     error.getMessage(), error);
         }
+        // Update data channels with the first value after the error, even if the value has not changed
+        forceDataChannelUpdate();
         Map<@NonNull ChannelUID, @NonNull State> states = new HashMap<>();
         ChannelUID lastReadErrorUID = getChannelUID(ModbusBindingConstantsInternal.CHANNEL_LAST_READ_ERROR);
         if (isLinked(lastReadErrorUID)) {
@@ -796,6 +812,56 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
      */
     private Map<ChannelUID, State> processUpdatedValue(DecimalType numericState, boolean boolValue) {
         Map<@NonNull ChannelUID, @NonNull State> states = new HashMap<>();
+        long now = System.currentTimeMillis();
+        if (isDataUpdateRequired(now, numericState)) {
+            lastUpdatedValue = numericState;
+            lastUpdatedMillis = now;
+            transformToDataChannels(numericState, boolValue, states);
+        } else {
+            logger.trace(
+                    "Thing {} data channels not updated since value {} is within the deadband of the previous value {}",
+                    getThing().getUID(), numericState, lastUpdatedValue);
+        }
+
+        ChannelUID lastReadSuccessUID = getChannelUID(ModbusBindingConstantsInternal.CHANNEL_LAST_READ_SUCCESS);
+        if (isLinked(lastReadSuccessUID)) {
+            states.put(lastReadSuccessUID, new DateTimeType());
+        }
+        updateExpiredChannels(now, states);
+        return states;
+    }
+
+    /**
+     * Check whether the data channels need to be updated with the polled value
+     *
+     * This is evaluated before transformations, with the numeric value. Values that are within the deadband of the
+     * value of the previous update are not updated, unless updateUnchangedValuesEveryMillis has elapsed since the
+     * previous update.
+     *
+     * @param now current time in milliseconds
+     * @param numericState numeric state corresponding to polled data
+     * @return whether data channels should be updated
+     */
+    private boolean isDataUpdateRequired(long now, DecimalType numericState) {
+        DecimalType lastUpdatedValue = this.lastUpdatedValue;
+        if (lastUpdatedValue == null || updateUnchangedValuesEveryMillis <= 0L
+                || now - lastUpdatedMillis > updateUnchangedValuesEveryMillis) {
+            return true;
+        }
+        BigDecimal lastValue = lastUpdatedValue.toBigDecimal();
+        BigDecimal change = numericState.toBigDecimal().subtract(lastValue).abs();
+        return change.compareTo(updateDeadband) > 0
+                && change.multiply(HUNDRED).compareTo(lastValue.abs().multiply(updateDeadbandPercent)) > 0;
+    }
+
+    /**
+     * Transform the polled value for the linked data channels
+     *
+     * @param numericState numeric state corresponding to polled data
+     * @param boolValue boolean value corresponding to polled data
+     * @param states map to add the data channel states to
+     */
+    private void transformToDataChannels(DecimalType numericState, boolean boolValue, Map<ChannelUID, State> states) {
         CHANNEL_ID_TO_ACCEPTED_TYPES.keySet().stream().forEach(channelId -> {
             ChannelUID channelUID = getChannelUID(channelId);
             if (!isLinked(channelUID)) {
@@ -847,25 +913,29 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
                         readTransformation.isIdentityTransform() ? "<identity>" : readTransformation);
             }
         });
-
-        ChannelUID lastReadSuccessUID = getChannelUID(ModbusBindingConstantsInternal.CHANNEL_LAST_READ_SUCCESS);
-        if (isLinked(lastReadSuccessUID)) {
-            states.put(lastReadSuccessUID, new DateTimeType());
-        }
-        updateExpiredChannels(states);
-        return states;
     }
 
-    private void updateExpiredChannels(Map<ChannelUID, State> states) {
+    private void updateExpiredChannels(long now, Map<ChannelUID, State> states) {
         synchronized (this) {
             updateStatusIfChanged(ThingStatus.ONLINE);
-            long now = System.currentTimeMillis();
             // Update channels that have not been updated in a while, or when their values has changed
             states.forEach((uid, state) -> updateExpiredChannel(now, uid, state));
             channelLastState = states;
         }
     }
 
+    /**
+     * Make the data channels update with the next polled value, even if the value has not changed
+     */
+    private synchronized void forceDataChannelUpdate() {
+        lastUpdatedValue = null;
+        CHANNEL_ID_TO_ACCEPTED_TYPES.keySet().forEach(channelId -> {
+            ChannelUID channelUID = getChannelUID(channelId);
+            channelLastState.remove(channelUID);
+            channelLastUpdated.remove(channelUID);
+        });
+    }
+
     private void updateExpiredChannel(long now, ChannelUID uid, State state) {
         @Nullable
         State lastState = channelLastState.get(uid);
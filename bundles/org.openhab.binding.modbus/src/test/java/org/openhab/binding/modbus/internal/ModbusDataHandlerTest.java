@@ -20,6 +20,7 @@ import static org.openhab.binding.modbus.internal.ModbusBindingConstantsInternal
 
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -999,6 +1000,83 @@ public class ModbusDataHandlerTest extends JavaTest {
                 ThingStatus.ONLINE);
     }
 
+    @SuppressWarnings("null")
+    private ModbusDataThingHandler createInt16ReadHandler(ModbusReadRequestBlueprint request,
+            Configuration dataConfig) {
+        ModbusSlaveEndpoint endpoint = new ModbusTCPSlaveEndpoint("thisishost", 502);
+        doReturn(3).when(request).getDataLength();
+        doReturn(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS).when(request).getFunctionCode();
+
+        PollTask task = Mockito.mock(PollTask.class);
+        doReturn(endpoint).when(task).getEndpoint();
+        doReturn(request).when(task).getRequest();
+
+        Bridge poller = createPollerMock("poller1", task);
+
+        dataConfig.put("readStart", "0");
+        dataConfig.put("readTransform", "default");
+        dataConfig.put("readValueType", "int16");
+        ModbusDataThingHandler dataHandler = createDataHandler("read1", poller,
+                builder -> builder.withConfiguration(dataConfig));
+        assertThat(dataHandler.getThing().getStatus(), is(equalTo(ThingStatus.ONLINE)));
+        return dataHandler;
+    }
+
+    private List<State> getStateUpdates(ModbusDataThingHandler handler, String channel) {
+        return stateUpdates.getOrDefault(new ChannelUID(handler.getThing().getUID(), channel), new ArrayList<>());
+    }
+
+    @Test
+    public void testOnRegistersAbsoluteDeadband() {
+        ModbusReadRequestBlueprint request = Mockito.mock(ModbusReadRequestBlueprint.class);
+        Configuration dataConfig = new Configuration();
+        dataConfig.put("updateDeadband", new BigDecimal(5));
+        dataConfig.put("updateUnchangedValuesEveryMillis", new BigDecimal(60000));
+        ModbusDataThingHandler dataHandler = createInt16ReadHandler(request, dataConfig);
+
+        for (int value : new int[] { 10, 12, 16, 18, 20, 10 }) {
+            dataHandler.onRegisters(request, new BasicModbusRegisterArray(value));
+        }
+
+        // changes are compared to the previously updated value: 12 and 18 are within the deadband of 10 and 16
+        assertThat(getStateUpdates(dataHandler, CHANNEL_NUMBER), is(equalTo(
+                Arrays.asList(new DecimalType(10), new DecimalType(16), new DecimalType(10)))));
+    }
+
+    @Test
+    public void testOnRegistersRelativeDeadbandAndError() {
+        ModbusReadRequestBlueprint request = Mockito.mock(ModbusReadRequestBlueprint.class);
+        Configuration dataConfig = new Configuration();
+        dataConfig.put("updateDeadbandPercent", new BigDecimal(10));
+        dataConfig.put("updateUnchangedValuesEveryMillis", new BigDecimal(60000));
+        ModbusDataThingHandler dataHandler = createInt16ReadHandler(request, dataConfig);
+
+        dataHandler.onRegisters(request, new BasicModbusRegisterArray(100));
+        dataHandler.onRegisters(request, new BasicModbusRegisterArray(110));
+        dataHandler.onRegisters(request, new BasicModbusRegisterArray(111));
+        dataHandler.onRegisters(request, new BasicModbusRegisterArray(111));
+        // the first value after an error is always updated
+        dataHandler.onError(request, new Exception("fooerror"));
+        dataHandler.onRegisters(request, new BasicModbusRegisterArray(111));
+
+        assertThat(getStateUpdates(dataHandler, CHANNEL_NUMBER), is(equalTo(
+                Arrays.asList(new DecimalType(100), new DecimalType(111), new DecimalType(111)))));
+    }
+
+    @Test
+    public void testOnRegistersUnchangedValuesUpdatedWithoutInterval() {
+        ModbusReadRequestBlueprint request = Mockito.mock(ModbusReadRequestBlueprint.class);
+        Configuration dataConfig = new Configuration();
+        dataConfig.put("updateDeadband", new BigDecimal(5));
+        dataConfig.put("updateUnchangedValuesEveryMillis", BigDecimal.ZERO);
+        ModbusDataThingHandler dataHandler = createInt16ReadHandler(request, dataConfig);
+
+        dataHandler.onRegisters(request, new BasicModbusRegisterArray(10));
+        dataHandler.onRegisters(request, new BasicModbusRegisterArray(10));
+
+        assertThat(getStateUpdates(dataHandler, CHANNEL_NUMBER).size(), is(equalTo(2)));
+    }
+
     @Test
     public void testRefreshOnData() throws InterruptedException {
         ModbusReadFunctionCode functionCode = ModbusReadFunctionCode.READ_COILS;
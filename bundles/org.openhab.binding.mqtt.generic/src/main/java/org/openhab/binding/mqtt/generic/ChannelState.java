@@ -30,7 +30,10 @@ import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.TypeParser;
 import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
 import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.openhab.binding.mqtt.generic.tools.TopicDispatcher;
 import org.openhab.binding.mqtt.generic.values.Value;
+import org.openhab.binding.mqtt.routing.InboundMessagePipeline;
+import org.openhab.binding.mqtt.routing.RoutingMqttBrokerConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,6 +58,9 @@ public class ChannelState implements MqttMessageSubscriber {
     // Runtime variables
     @Nullable
     private MqttBrokerConnection connection;
+    private @Nullable TopicDispatcher topicDispatcher;
+    private @Nullable InboundMessagePipeline inboundPipeline;
+    private final MqttMessageSubscriber inboundProcessor = this::processInboundMessage;
     protected final List<ChannelStateTransformation> transformationsIn = new ArrayList<>();
     protected final List<ChannelStateTransformation> transformationsOut = new ArrayList<>();
     private @Nullable ChannelStateUpdateListener channelStateUpdateListener;
@@ -134,11 +140,25 @@ public class ChannelState implements MqttMessageSubscriber {
     /**
      * Incoming message from the MqttBrokerConnection
      *
+     * <p>
+     * If the broker connection provides an {@link InboundMessagePipeline}, the message is processed on a worker thread
+     * of the pipeline. Values of a state topic may be coalesced there, triggers and commands are never coalesced.
+     * </p>
+     *
      * @param topic The topic. Is the same as the field stateTopic.
      * @param payload The byte payload. Must be UTF8 encoded text or binary data.
      */
     @Override
     public void processMessage(String topic, byte[] payload) {
+        final InboundMessagePipeline inboundPipeline = this.inboundPipeline;
+        if (inboundPipeline != null) {
+            inboundPipeline.submit(topic, payload, inboundProcessor, !config.trigger && !config.postCommand);
+        } else {
+            processInboundMessage(topic, payload);
+        }
+    }
+
+    private void processInboundMessage(String topic, byte[] payload) {
         final ChannelStateUpdateListener channelStateUpdateListener = this.channelStateUpdateListener;
         if (channelStateUpdateListener == null) {
             logger.warn("MQTT message received for topic {}, but MessageSubscriber object hasn't been started!", topic);
@@ -234,7 +254,10 @@ public class ChannelState implements MqttMessageSubscriber {
      */
     public CompletableFuture<@Nullable Void> stop() {
         final MqttBrokerConnection connection = this.connection;
-        if (connection != null && StringUtils.isNotBlank(config.stateTopic)) {
+        final TopicDispatcher topicDispatcher = this.topicDispatcher;
+        if (topicDispatcher != null && StringUtils.isNotBlank(config.stateTopic)) {
+            return topicDispatcher.unsubscribe(config.stateTopic, this).thenRun(this::internalStop);
+        } else if (connection != null && StringUtils.isNotBlank(config.stateTopic)) {
             return connection.unsubscribe(config.stateTopic, this).thenRun(this::internalStop);
         } else {
             internalStop();
@@ -244,6 +267,8 @@ public class ChannelState implements MqttMessageSubscriber {
 
     private void internalStop() {
         this.connection = null;
+        this.topicDispatcher = null;
+        this.inboundPipeline = null;
         this.channelStateUpdateListener = null;
         hasSubscribed = false;
         cachedValue.resetState();
@@ -280,18 +305,42 @@ public class ChannelState implements MqttMessageSubscriber {
      */
     public CompletableFuture<@Nullable Void> start(MqttBrokerConnection connection, ScheduledExecutorService scheduler,
             int timeout) {
+        return start(connection, null, scheduler, timeout);
+    }
+
+    /**
+     * Registers the state topic at the given {@link TopicDispatcher} and informs about updates on the given listener.
+     * The broker connection is only used for publishing values.
+     *
+     * @param connection A broker connection
+     * @param topicDispatcher A topic dispatcher that is subscribed to a topic filter including the state topic.
+     *            If null, the state topic is subscribed on the broker connection.
+     * @param scheduler A scheduler to realize the timeout
+     * @param timeout A timeout in milliseconds. Can be 0 to disable the timeout and let the future return earlier.
+     * @return A future that completes with true if the subscribing worked, with false if the stateTopic is not set
+     *         and exceptionally otherwise.
+     */
+    public CompletableFuture<@Nullable Void> start(MqttBrokerConnection connection,
+            @Nullable TopicDispatcher topicDispatcher, ScheduledExecutorService scheduler, int timeout) {
         if (hasSubscribed) {
             return CompletableFuture.completedFuture(null);
         }
 
         this.connection = connection;
+        this.topicDispatcher = topicDispatcher;
+        this.inboundPipeline = connection instanceof RoutingMqttBrokerConnection
+                ? ((RoutingMqttBrokerConnection) connection).getInboundPipeline() : null;
 
         if (StringUtils.isBlank(config.stateTopic)) {
             return CompletableFuture.completedFuture(null);
         }
 
         this.future = new CompletableFuture<>();
-        connection.subscribe(config.stateTopic, this).thenRun(() -> {
+        // The last state is replayed like a retained message, but a trigger must not fire again for an old message
+        final CompletableFuture<Boolean> subscription = topicDispatcher != null
+                ? topicDispatcher.subscribe(config.stateTopic, this, !config.trigger)
+                : connection.subscribe(config.stateTopic, this);
+        subscription.thenRun(() -> {
             hasSubscribed = true;
             logger.debug("Subscribed channel {} to topic: {}", this.channelUID, config.stateTopic);
             if (timeout > 0 && !future.isDone()) {
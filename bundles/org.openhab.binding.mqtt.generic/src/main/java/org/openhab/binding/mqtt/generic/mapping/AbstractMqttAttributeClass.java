@@ -25,6 +25,7 @@ import java.util.stream.Collectors;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.openhab.binding.mqtt.generic.tools.TopicDispatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -102,6 +103,7 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
     protected transient List<SubscribeFieldToMQTTtopic> subscriptions = new ArrayList<>();
     public transient WeakReference<@Nullable MqttBrokerConnection> connection = new WeakReference<>(null);
     protected transient WeakReference<@Nullable ScheduledExecutorService> scheduler = new WeakReference<>(null);
+    protected transient @Nullable TopicDispatcher topicDispatcher;
     private final String prefix;
     private transient String basetopic = "";
     protected transient AttributeChanged attributeChangedListener = (b, c, d, e, f) -> {
@@ -139,6 +141,12 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
      * @return Returns a future that completes as soon as all unsubscriptions have been performed.
      */
     public CompletableFuture<@Nullable Void> unsubscribe() {
+        final TopicDispatcher topicDispatcher = this.topicDispatcher;
+        if (topicDispatcher != null) {
+            subscriptions.forEach(m -> topicDispatcher.unsubscribe(m.topic, m));
+            subscriptions.clear();
+            return CompletableFuture.completedFuture(null);
+        }
         final MqttBrokerConnection connection = this.connection.get();
         if (connection == null) {
             subscriptions.clear();
@@ -192,11 +200,25 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
         subscriptions = getAllFields(getFieldsOf().getClass()).stream().filter(AbstractMqttAttributeClass::filterField)
                 .map(this::mapFieldToSubscriber).collect(Collectors.toList());
 
+        final TopicDispatcher topicDispatcher = this.topicDispatcher;
         final CompletableFuture<?>[] futures = subscriptions.stream()
-                .map(m -> m.subscribeAndReceive(connection, timeout)).toArray(CompletableFuture[]::new);
+                .map(m -> topicDispatcher != null ? m.dispatchAndReceive(topicDispatcher, timeout)
+                        : m.subscribeAndReceive(connection, timeout))
+                .toArray(CompletableFuture[]::new);
         return CompletableFuture.allOf(startFuture, CompletableFuture.allOf(futures));
     }
 
+    /**
+     * Route the topics of this attribute class through the given {@link TopicDispatcher} instead of subscribing to each
+     * topic on the broker connection. Call this before
+     * {@link #subscribeAndReceive(MqttBrokerConnection, ScheduledExecutorService, String, AttributeChanged, int)}.
+     *
+     * @param topicDispatcher A topic dispatcher or null to subscribe to each topic directly.
+     */
+    public void setTopicDispatcher(@Nullable TopicDispatcher topicDispatcher) {
+        this.topicDispatcher = topicDispatcher;
+    }
+
     /**
      * Return fields of the given class as well as all super classes.
      *
@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.tools;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.openhab.binding.mqtt.routing.TopicTrie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Subscribes once to a wildcard topic filter like "homie/device/#" and routes the received messages to
+ * {@link MqttMessageSubscriber}s that registered for topics below that filter. The registered topics are kept in a
+ * {@link TopicTrie}.
+ *
+ * <p>
+ * A broker only sends the retained message of a topic once, right after the subscription. Because topics can be
+ * registered after the wildcard subscription has been performed, the last received message of each topic is kept
+ * and replayed to subscribers that register later on, if they ask for it.
+ * </p>
+ *
+ * <p>
+ * Messages are dispatched one at a time, in the order they are received. A replayed message is dispatched in the same
+ * order, so it can never overtake a newer message of the same topic.
+ * </p>
+ *
+ * Usage:
+ *
+ * <pre>
+ * TopicDispatcher dispatcher = new TopicDispatcher("homie/device/#");
+ * dispatcher.subscribe("homie/device/$name", subscriber, true);
+ * dispatcher.start(connection);
+ * </pre>
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class TopicDispatcher implements MqttMessageSubscriber {
+    private final Logger logger = LoggerFactory.getLogger(TopicDispatcher.class);
+    private final String topicFilter;
+    private final TopicTrie<MqttMessageSubscriber> subscribers = new TopicTrie<>();
+    private final Map<String, byte[]> lastMessages = new HashMap<>();
+    // Held while dispatching, always acquired before the lock on this
+    private final Object dispatchLock = new Object();
+    private @Nullable MqttBrokerConnection connection;
+    private CompletableFuture<Boolean> subscribed = new CompletableFuture<>();
+
+    /**
+     * Creates a dispatcher for the given topic filter.
+     *
+     * @param topicFilter A topic filter, most likely with a multi level wildcard like "homie/device/#".
+     */
+    public TopicDispatcher(String topicFilter) {
+        this.topicFilter = topicFilter;
+    }
+
+    /**
+     * Return the topic filter of the broker subscription.
+     */
+    public String getTopicFilter() {
+        return topicFilter;
+    }
+
+    /**
+     * Subscribes to the topic filter on the given connection.
+     *
+     * @param connection A broker connection
+     * @return A future that completes with true if the subscription succeeded, with false if the connection
+     *         refused it and exceptionally otherwise. This is the same future that is returned by
+     *         {@link #subscribe(String, MqttMessageSubscriber, boolean)}.
+     */
+    public CompletableFuture<Boolean> start(MqttBrokerConnection connection) {
+        final CompletableFuture<Boolean> subscribed;
+        synchronized (this) {
+            this.connection = connection;
+            subscribed = this.subscribed;
+        }
+        connection.subscribe(topicFilter, this).whenComplete((result, e) -> {
+            if (e != null) {
+                subscribed.completeExceptionally(e);
+            } else {
+                subscribed.complete(result);
+            }
+        });
+        return subscribed;
+    }
+
+    /**
+     * Removes the broker subscription and forgets all received messages. Registered subscribers are kept.
+     *
+     * @return A future that completes with true if unsubscribing succeeded.
+     */
+    public CompletableFuture<Boolean> stop() {
+        final MqttBrokerConnection connection;
+        synchronized (this) {
+            connection = this.connection;
+            this.connection = null;
+            lastMessages.clear();
+            subscribed = new CompletableFuture<>();
+        }
+        if (connection == null) {
+            return CompletableFuture.completedFuture(true);
+        }
+        return connection.unsubscribe(topicFilter, this);
+    }
+
+    /**
+     * Registers a subscriber for a topic below the topic filter of this dispatcher.
+     *
+     * @param topic The topic
+     * @param subscriber The subscriber
+     * @param replayLastMessage If true and a message has been received for the topic already, it is passed to the
+     *            subscriber immediately. Use this for topics with retained messages.
+     * @return A future that completes as soon as the broker subscription of this dispatcher has been performed.
+     */
+    public CompletableFuture<Boolean> subscribe(String topic, MqttMessageSubscriber subscriber,
+            boolean replayLastMessage) {
+        final byte @Nullable [] lastMessage;
+        final CompletableFuture<Boolean> subscribed;
+        synchronized (dispatchLock) {
+            synchronized (this) {
+                subscribers.add(topic, subscriber);
+                lastMessage = replayLastMessage ? lastMessages.get(topic) : null;
+                subscribed = this.subscribed;
+            }
+            if (lastMessage != null) {
+                dispatch(subscriber, topic, lastMessage);
+            }
+        }
+        return subscribed;
+    }
+
+    /**
+     * Removes a subscriber. No broker communication is involved.
+     *
+     * @param topic The topic
+     * @param subscriber The subscriber
+     * @return A completed future with true if the subscriber was registered for the topic.
+     */
+    public CompletableFuture<Boolean> unsubscribe(String topic, MqttMessageSubscriber subscriber) {
+        synchronized (this) {
+            return CompletableFuture.completedFuture(subscribers.remove(topic, subscriber));
+        }
+    }
+
+    /**
+     * Return the number of registered subscribers.
+     */
+    public synchronized int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void processMessage(String topic, byte[] payload) {
+        final List<MqttMessageSubscriber> receivers;
+        synchronized (dispatchLock) {
+            synchronized (this) {
+                if (payload.length > 0) {
+                    lastMessages.put(topic, payload);
+                } else {
+                    // An empty retained message deletes the topic
+                    lastMessages.remove(topic);
+                }
+                receivers = subscribers.match(topic);
+            }
+            for (MqttMessageSubscriber receiver : receivers) {
+                dispatch(receiver, topic, payload);
+            }
+        }
+    }
+
+    private void dispatch(MqttMessageSubscriber subscriber, String topic, byte[] payload) {
+        // A failing subscriber must not prevent the delivery to the others
+        try {
+            subscriber.processMessage(topic, payload);
+        } catch (RuntimeException e) {
+            logger.warn("Subscriber of topic {} failed to process a message", topic, e);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.tools;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+/**
+ * Tests the {@link TopicDispatcher} class.
+ *
+ * @author agent - Initial contribution
+ */
+public class TopicDispatcherTests {
+    @Mock
+    MqttBrokerConnection connection;
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+        doReturn(CompletableFuture.completedFuture(true)).when(connection).subscribe(any(), any());
+        doReturn(CompletableFuture.completedFuture(true)).when(connection).unsubscribe(any(), any());
+    }
+
+    @Test
+    public void singleSubscriptionRoutesMessages() {
+        TopicDispatcher dispatcher = new TopicDispatcher("homie/device/#");
+        List<String> name = new ArrayList<>();
+        List<String> value = new ArrayList<>();
+        MqttMessageSubscriber nameSubscriber = (topic, payload) -> name.add(new String(payload));
+        MqttMessageSubscriber valueSubscriber = (topic, payload) -> value.add(new String(payload));
+
+        CompletableFuture<Boolean> future = dispatcher.subscribe("homie/device/$name", nameSubscriber, true);
+        dispatcher.subscribe("homie/device/node/value", valueSubscriber, true);
+        assertThat(future.isDone(), is(false));
+
+        dispatcher.start(connection);
+        assertThat(future.isDone(), is(true));
+        verify(connection).subscribe(eq("homie/device/#"), eq(dispatcher));
+
+        dispatcher.processMessage("homie/device/$name", bytes("device"));
+        dispatcher.processMessage("homie/device/node/value", bytes("12"));
+        dispatcher.processMessage("homie/device/node/$name", bytes("node"));
+        assertThat(name, is(Arrays.asList("device")));
+        assertThat(value, is(Arrays.asList("12")));
+
+        dispatcher.unsubscribe("homie/device/node/value", valueSubscriber);
+        dispatcher.processMessage("homie/device/node/value", bytes("13"));
+        assertThat(value, is(Arrays.asList("12")));
+        assertThat(dispatcher.getSubscriberCount(), is(1));
+
+        dispatcher.stop();
+        verify(connection).unsubscribe(eq("homie/device/#"), eq(dispatcher));
+    }
+
+    @Test
+    public void lateSubscriberReceivesLastMessage() {
+        TopicDispatcher dispatcher = new TopicDispatcher("homie/device/#");
+        dispatcher.start(connection);
+        dispatcher.processMessage("homie/device/node/$name", bytes("node"));
+        dispatcher.processMessage("homie/device/node/button", bytes("PRESSED"));
+
+        List<String> received = new ArrayList<>();
+        dispatcher.subscribe("homie/device/node/$name", (topic, payload) -> received.add(new String(payload)), true);
+        dispatcher.subscribe("homie/device/node/button", (topic, payload) -> received.add(new String(payload)),
+                false);
+        assertThat(received, is(Arrays.asList("node")));
+
+        // An empty message deletes a retained topic
+        dispatcher.processMessage("homie/device/node/$name", new byte[0]);
+        dispatcher.subscribe("homie/device/node/$name", (topic, payload) -> received.add("late"), true);
+        assertThat(received, is(Arrays.asList("node", "")));
+    }
+
+    @Test
+    public void replayedMessageIsNotOvertakenByNewerMessage() throws InterruptedException {
+        final String topic = "homie/device/node/value";
+        TopicDispatcher dispatcher = new TopicDispatcher("homie/device/#");
+        dispatcher.start(connection);
+        dispatcher.processMessage(topic, bytes("old"));
+
+        CountDownLatch replaying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        MqttMessageSubscriber subscriber = (t, payload) -> {
+            String value = new String(payload);
+            if ("old".equals(value)) {
+                replaying.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            received.add(value);
+        };
+
+        Thread subscribing = new Thread(() -> dispatcher.subscribe(topic, subscriber, true));
+        subscribing.start();
+        assertThat(replaying.await(5, TimeUnit.SECONDS), is(true));
+
+        // A new message arriving during the replay is delivered after the replayed one
+        Thread publishing = new Thread(() -> dispatcher.processMessage(topic, bytes("new")));
+        publishing.start();
+        publishing.join(200);
+        release.countDown();
+        subscribing.join(5000);
+        publishing.join(5000);
+
+        assertThat(received, is(Arrays.asList("old", "new")));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
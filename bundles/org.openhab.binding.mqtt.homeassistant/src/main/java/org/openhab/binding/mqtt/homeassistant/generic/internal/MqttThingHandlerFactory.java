@@ -28,6 +28,7 @@ import org.eclipse.smarthome.core.transform.TransformationService;
 import org.openhab.binding.mqtt.generic.MqttChannelTypeProvider;
 import org.openhab.binding.mqtt.generic.TransformationServiceProvider;
 import org.openhab.binding.mqtt.homeassistant.generic.internal.MqttBindingConstants;
+import org.openhab.binding.mqtt.homeassistant.internal.DiscoveryConfigCaches;
 import org.openhab.binding.mqtt.homeassistant.internal.handler.HomeAssistantThingHandler;
 import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
@@ -47,6 +48,9 @@ public class MqttThingHandlerFactory extends BaseThingHandlerFactory implements
     private @NonNullByDefault({}) MqttChannelTypeProvider typeProvider;
     private static final Set<ThingTypeUID> SUPPORTED_THING_TYPES_UIDS = Stream
             .of(MqttBindingConstants.HOMEASSISTANT_MQTT_THING).collect(Collectors.toSet());
+    /** The component configurations of each broker are shared by all HomeAssistant Things */
+    private final DiscoveryConfigCaches configCaches = new DiscoveryConfigCaches(
+            HomeAssistantThingHandler.createGson());
 
     @Override
     public boolean supportsThingType(ThingTypeUID thingTypeUID) {
@@ -79,7 +83,7 @@ public class MqttThingHandlerFactory extends BaseThingHandlerFactory implements
         ThingTypeUID thingTypeUID = thing.getThingTypeUID();
 
         if (thingTypeUID.equals(MqttBindingConstants.HOMEASSISTANT_MQTT_THING)) {
-            return new HomeAssistantThingHandler(thing, typeProvider, this, 10000, 2000);
+            return new HomeAssistantThingHandler(thing, typeProvider, this, configCaches, 10000, 2000);
         }
         return null;
     }
@@ -46,9 +46,27 @@ public class CFactory {
     public static @Nullable AbstractComponent<?> createComponent(ThingUID thingUID, HaID haID,
             String channelConfigurationJSON, @Nullable ChannelStateUpdateListener updateListener, Gson gson,
             TransformationServiceProvider transformationServiceProvider) {
+        return createComponent(thingUID, haID, channelConfigurationJSON, updateListener, gson,
+                transformationServiceProvider, null);
+    }
+
+    /**
+     * Create a HA MQTT component. The configuration JSon string is required.
+     *
+     * @param thingUID The Thing UID that this component will belong to.
+     * @param haID The location of this component. The HomeAssistant ID contains the object-id, node-id and
+     *            component-id.
+     * @param configJSON The configuration JSon string
+     * @param updateListener A channel state update listener
+     * @param configCache A cache of parsed configurations or null to always parse the configuration
+     * @return A HA MQTT Component
+     */
+    public static @Nullable AbstractComponent<?> createComponent(ThingUID thingUID, HaID haID,
+            String channelConfigurationJSON, @Nullable ChannelStateUpdateListener updateListener, Gson gson,
+            TransformationServiceProvider transformationServiceProvider, @Nullable DiscoveryConfigCache configCache) {
         ComponentConfiguration componentConfiguration = new ComponentConfiguration(thingUID, haID,
                 channelConfigurationJSON, gson).listener(updateListener)
-                        .transformationProvider(transformationServiceProvider);
+                        .transformationProvider(transformationServiceProvider).configCache(configCache);
         try {
             switch (haID.component) {
                 case "alarm_control_panel":
@@ -84,6 +102,7 @@ public class CFactory {
         private String configJSON;
         private @Nullable TransformationServiceProvider transformationServiceProvider;
         private @Nullable ChannelStateUpdateListener updateListener;
+        private @Nullable DiscoveryConfigCache configCache;
         private Gson gson;
 
         protected ComponentConfiguration(ThingUID thingUID, HaID haID, String configJSON, Gson gson) {
@@ -104,6 +123,11 @@ public class CFactory {
             return this;
         }
 
+        public ComponentConfiguration configCache(@Nullable DiscoveryConfigCache configCache) {
+            this.configCache = configCache;
+            return this;
+        }
+
         public ThingUID getThingUID() {
             return thingUID;
         }
@@ -131,6 +155,10 @@ public class CFactory {
         }
 
         public <C extends BaseChannelConfiguration> C getConfig(Class<C> clazz) {
+            final DiscoveryConfigCache configCache = this.configCache;
+            if (configCache != null) {
+                return configCache.getConfig(haID, configJSON, clazz);
+            }
             return BaseChannelConfiguration.fromString(configJSON, gson, clazz);
         }
     }
@@ -49,6 +49,7 @@ public class DiscoverComponents implements MqttMessageSubscriber {
 
     private @Nullable ScheduledFuture<?> stopDiscoveryFuture;
     private WeakReference<@Nullable MqttBrokerConnection> connectionRef = new WeakReference<>(null);
+    private @Nullable DiscoveryConfigCache configCache;
     protected @NonNullByDefault({}) ComponentDiscovered discoveredListener;
     private int discoverTime;
     private String topic = "";
@@ -85,7 +86,7 @@ public class DiscoverComponents implements MqttMessageSubscriber {
         HaID haID = new HaID(topic);
         String config = new String(payload);
         AbstractComponent<?> component = CFactory.createComponent(thingUID, haID, config, updateListener, gson,
-                transformationServiceProvider);
+                transformationServiceProvider, configCache);
         if (component != null) {
             logger.trace("Found HomeAssistant thing {} component {}", haID.objectID, haID.component);
             if (discoveredListener != null) {
@@ -116,25 +117,63 @@ public class DiscoverComponents implements MqttMessageSubscriber {
      */
     public CompletableFuture<@Nullable Void> startDiscovery(MqttBrokerConnection connection, int discoverTime,
             HaID topicDescription, ComponentDiscovered componentsDiscoveredListener) {
+        return startDiscovery(connection, discoverTime, topicDescription, componentsDiscoveredListener, null);
+    }
+
+    /**
+     * Start a components discovery on a shared {@link DiscoveryConfigCache}.
+     *
+     * <p>
+     * Instead of subscribing to the configuration topics, the discovery registers at the cache and receives all
+     * already known configurations immediately. Configurations are parsed via the cache, so that an unchanged
+     * configuration is not parsed again.
+     * </p>
+     *
+     * @param connection A MQTT broker connection
+     * @param discoverTime The time in milliseconds for the discovery to run. Can be 0 to disable the
+     *            timeout.
+     * @param topicDescription Contains the object-id (=device id) and potentially a node-id as well.
+     * @param componentsDiscoveredListener Listener for results
+     * @param configCache A configuration cache of the given connection or null to subscribe on the connection
+     * @return A future that completes normally after the given time in milliseconds or exceptionally on any error.
+     *         Completes immediately if the timeout is disabled.
+     */
+    public CompletableFuture<@Nullable Void> startDiscovery(MqttBrokerConnection connection, int discoverTime,
+            HaID topicDescription, ComponentDiscovered componentsDiscoveredListener,
+            @Nullable DiscoveryConfigCache configCache) {
 
         this.topic = topicDescription.getTopic("config");
         this.discoverTime = discoverTime;
         this.discoveredListener = componentsDiscoveredListener;
         this.connectionRef = new WeakReference<>(connection);
+        this.configCache = configCache;
 
         // Subscribe to the wildcard topic and start receive MQTT retained topics
-        connection.subscribe(topic, this).thenRun(this::subscribeSuccess).exceptionally(this::subscribeFail);
+        final CompletableFuture<Boolean> subscription = configCache != null
+                ? configCache.subscribe(topicDescription, this)
+                : connection.subscribe(topic, this);
+        subscription.thenRun(this::subscribeSuccess).exceptionally(this::subscribeFail);
 
         return discoverFinishedFuture;
     }
 
+    private void unsubscribe(@Nullable MqttBrokerConnection connection) {
+        final DiscoveryConfigCache configCache = this.configCache;
+        if (configCache != null) {
+            configCache.unsubscribe(this);
+            this.configCache = null;
+        } else if (connection != null) {
+            connection.unsubscribe(topic, this);
+        }
+    }
+
     private void subscribeSuccess() {
         final MqttBrokerConnection connection = connectionRef.get();
         // Set up a scheduled future that will stop the discovery after the given time
         if (connection != null && discoverTime > 0) {
             this.stopDiscoveryFuture = scheduler.schedule(() -> {
                 this.stopDiscoveryFuture = null;
-                connection.unsubscribe(topic, this);
+                unsubscribe(connection);
                 this.discoveredListener = null;
                 discoverFinishedFuture.complete(null);
             }, discoverTime, TimeUnit.MILLISECONDS);
@@ -151,11 +190,8 @@ public class DiscoverComponents implements MqttMessageSubscriber {
             this.stopDiscoveryFuture = null;
         }
         this.discoveredListener = null;
-        final MqttBrokerConnection connection = connectionRef.get();
-        if (connection != null) {
-            connection.unsubscribe(topic, this);
-            connectionRef.clear();
-        }
+        unsubscribe(connectionRef.get());
+        connectionRef.clear();
         discoverFinishedFuture.completeExceptionally(e);
         return null;
     }
@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.homeassistant.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+
+/**
+ * A snapshot of all HomeAssistant component configurations below a base topic of one broker connection.
+ *
+ * <p>
+ * The cache subscribes once to all configuration topics and keeps the last configuration of each component, keyed by
+ * its {@link HaID}. Things of the same broker register for their object ID via
+ * {@link #subscribe(HaID, MqttMessageSubscriber)} and immediately receive the known configurations, instead of
+ * subscribing again and receiving the whole retained tree per Thing.
+ * </p>
+ *
+ * <p>
+ * Parsed configurations are kept as well. {@link #getConfig(HaID, String, Class)} only parses a configuration again,
+ * if its JSON string has changed.
+ * </p>
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class DiscoveryConfigCache implements MqttMessageSubscriber {
+    private final Logger logger = LoggerFactory.getLogger(DiscoveryConfigCache.class);
+    private final String baseTopic;
+    private final Gson gson;
+    private final Map<HaID, ComponentConfig> configs = new HashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private @Nullable MqttBrokerConnection connection;
+    private CompletableFuture<Boolean> subscribed = new CompletableFuture<>();
+    /** The number of Things using this cache. Guarded by the {@link DiscoveryConfigCaches} instance. */
+    int users;
+
+    /**
+     * The configuration JSON string of a component and the configuration object parsed from it.
+     */
+    private static class ComponentConfig {
+        final String json;
+        final int hash;
+        @Nullable
+        BaseChannelConfiguration parsed;
+
+        ComponentConfig(String json) {
+            this.json = json;
+            this.hash = json.hashCode();
+        }
+
+        boolean isSame(String json) {
+            return hash == json.hashCode() && this.json.equals(json);
+        }
+    }
+
+    /**
+     * A subscriber for the components of one object ID and node ID.
+     */
+    private static class Listener {
+        final HaID filter;
+        final MqttMessageSubscriber subscriber;
+
+        Listener(HaID filter, MqttMessageSubscriber subscriber) {
+            this.filter = filter;
+            this.subscriber = subscriber;
+        }
+
+        boolean matches(HaID haID) {
+            return filter.objectID.equals(haID.objectID) && filter.nodeID.equals(haID.nodeID);
+        }
+    }
+
+    /**
+     * Creates a cache for the component configurations below the given base topic.
+     *
+     * @param baseTopic The base topic. Usually "homeassistant".
+     * @param gson A Gson instance with the {@link ChannelConfigurationTypeAdapterFactory} registered
+     */
+    public DiscoveryConfigCache(String baseTopic, Gson gson) {
+        this.baseTopic = baseTopic;
+        this.gson = gson;
+    }
+
+    /**
+     * Return the base topic of this cache.
+     */
+    public String getBaseTopic() {
+        return baseTopic;
+    }
+
+    /**
+     * Subscribes to the configuration topics of all components with and without a node ID.
+     *
+     * @param connection A broker connection
+     * @return A future that completes with true if both subscriptions succeeded and exceptionally on errors.
+     */
+    public CompletableFuture<Boolean> start(MqttBrokerConnection connection) {
+        final CompletableFuture<Boolean> subscribed;
+        synchronized (this) {
+            this.connection = connection;
+            subscribed = this.subscribed;
+        }
+        connection.subscribe(baseTopic + "/+/+/config", this)
+                .thenCombine(connection.subscribe(baseTopic + "/+/+/+/config", this), (a, b) -> a && b)
+                .whenComplete((result, e) -> {
+                    if (e != null) {
+                        subscribed.completeExceptionally(e);
+                    } else {
+                        subscribed.complete(result);
+                    }
+                });
+        return subscribed;
+    }
+
+    /**
+     * Removes the broker subscriptions and forgets all configurations.
+     */
+    public void stop() {
+        final MqttBrokerConnection connection;
+        synchronized (this) {
+            connection = this.connection;
+            this.connection = null;
+            configs.clear();
+            subscribed = new CompletableFuture<>();
+        }
+        if (connection != null) {
+            connection.unsubscribe(baseTopic + "/+/+/config", this);
+            connection.unsubscribe(baseTopic + "/+/+/+/config", this);
+        }
+    }
+
+    /**
+     * Registers a subscriber for the configuration topics of all components of an object. All known configurations
+     * of that object are passed to the subscriber immediately.
+     *
+     * @param filter The object ID and node ID of the components. Other fields are ignored.
+     * @param subscriber The subscriber. It receives the configuration topics and payloads.
+     * @return A future that completes as soon as the broker subscriptions of this cache have been performed.
+     */
+    public CompletableFuture<Boolean> subscribe(HaID filter, MqttMessageSubscriber subscriber) {
+        final Listener listener = new Listener(filter, subscriber);
+        final Map<HaID, String> known = new HashMap<>();
+        final CompletableFuture<Boolean> subscribed;
+        synchronized (this) {
+            listeners.add(listener);
+            for (Entry<HaID, ComponentConfig> entry : configs.entrySet()) {
+                if (listener.matches(entry.getKey())) {
+                    known.put(entry.getKey(), entry.getValue().json);
+                }
+            }
+            subscribed = this.subscribed;
+        }
+        for (Entry<HaID, String> entry : known.entrySet()) {
+            notify(listener, entry.getKey(), entry.getValue().getBytes(StandardCharsets.UTF_8));
+        }
+        return subscribed;
+    }
+
+    /**
+     * Removes a subscriber. No broker communication is involved.
+     *
+     * @param subscriber The subscriber
+     */
+    public void unsubscribe(MqttMessageSubscriber subscriber) {
+        listeners.removeIf(listener -> listener.subscriber == subscriber);
+    }
+
+    /**
+     * Returns the parsed configuration of a component. The configuration is only parsed, if it has not been parsed
+     * into the given class for the same JSON string before.
+     *
+     * @param haID The component
+     * @param json The configuration JSON string
+     * @param clazz The configuration class of the component
+     * @return The parsed configuration
+     */
+    public <C extends BaseChannelConfiguration> C getConfig(HaID haID, String json, Class<C> clazz) {
+        synchronized (this) {
+            final ComponentConfig config = configs.get(haID);
+            if (config != null && config.isSame(json) && clazz.isInstance(config.parsed)) {
+                return clazz.cast(config.parsed);
+            }
+        }
+        final C parsed = BaseChannelConfiguration.fromString(json, gson, clazz);
+        synchronized (this) {
+            final ComponentConfig config = configs.get(haID);
+            if (config != null && config.isSame(json)) {
+                config.parsed = parsed;
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Return the number of known component configurations.
+     */
+    public synchronized int size() {
+        return configs.size();
+    }
+
+    @Override
+    public void processMessage(String topic, byte[] payload) {
+        final HaID haID;
+        try {
+            haID = new HaID(topic);
+        } catch (IllegalArgumentException e) {
+            logger.trace("Ignoring topic {}: {}", topic, e.getMessage());
+            return;
+        }
+        final String json = new String(payload, StandardCharsets.UTF_8);
+        synchronized (this) {
+            if (json.isEmpty()) {
+                // An empty retained message deletes the component
+                configs.remove(haID);
+                return;
+            }
+            final ComponentConfig config = configs.get(haID);
+            if (config != null && config.isSame(json)) {
+                // Unchanged, for example a retained message after a reconnect
+                return;
+            }
+            configs.put(haID, new ComponentConfig(json));
+        }
+        for (Listener listener : listeners) {
+            if (listener.matches(haID)) {
+                notify(listener, haID, payload);
+            }
+        }
+    }
+
+    private void notify(Listener listener, HaID haID, byte[] payload) {
+        // A failing subscriber must not prevent the delivery to the others
+        try {
+            listener.subscriber.processMessage(haID.getTopic("config"), payload);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to process the configuration of {}", haID, e);
+        }
+    }
+}
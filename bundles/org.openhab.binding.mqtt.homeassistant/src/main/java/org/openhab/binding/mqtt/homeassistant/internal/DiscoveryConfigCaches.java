@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.homeassistant.internal;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+
+import com.google.gson.Gson;
+
+/**
+ * Provides one {@link DiscoveryConfigCache} per broker connection and base topic, shared by all HomeAssistant
+ * Things of that broker. A cache is started by the first Thing that acquires it and stopped when the last Thing
+ * releases it.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class DiscoveryConfigCaches {
+    private final Gson gson;
+    private final Map<MqttBrokerConnection, Map<String, DiscoveryConfigCache>> caches = new HashMap<>();
+
+    /**
+     * Creates the cache registry.
+     *
+     * @param gson A Gson instance with the {@link ChannelConfigurationTypeAdapterFactory} registered
+     */
+    public DiscoveryConfigCaches(Gson gson) {
+        this.gson = gson;
+    }
+
+    /**
+     * Returns the cache for the given connection and base topic. The cache is created and started if necessary.
+     * Call {@link #release(DiscoveryConfigCache)} if the cache is not used anymore.
+     *
+     * @param connection A broker connection
+     * @param baseTopic The base topic. Usually "homeassistant".
+     * @return The shared cache
+     */
+    public synchronized DiscoveryConfigCache acquire(MqttBrokerConnection connection, String baseTopic) {
+        final Map<String, DiscoveryConfigCache> connectionCaches = caches.computeIfAbsent(connection,
+                c -> new HashMap<>());
+        DiscoveryConfigCache cache = connectionCaches.get(baseTopic);
+        if (cache == null) {
+            cache = new DiscoveryConfigCache(baseTopic, gson);
+            connectionCaches.put(baseTopic, cache);
+            cache.start(connection);
+        }
+        cache.users++;
+        return cache;
+    }
+
+    /**
+     * Releases a cache returned by {@link #acquire(MqttBrokerConnection, String)}. The cache is stopped if no other
+     * Thing uses it.
+     *
+     * @param cache The cache
+     */
+    public synchronized void release(DiscoveryConfigCache cache) {
+        if (--cache.users > 0) {
+            return;
+        }
+        for (Iterator<Map<String, DiscoveryConfigCache>> it = caches.values().iterator(); it.hasNext();) {
+            final Map<String, DiscoveryConfigCache> connectionCaches = it.next();
+            if (connectionCaches.remove(cache.getBaseTopic(), cache)) {
+                if (connectionCaches.isEmpty()) {
+                    it.remove();
+                }
+                cache.stop();
+                return;
+            }
+        }
+    }
+}
@@ -42,6 +42,8 @@ import org.openhab.binding.mqtt.homeassistant.internal.CChannel;
 import org.openhab.binding.mqtt.homeassistant.internal.CFactory;
 import org.openhab.binding.mqtt.homeassistant.internal.ChannelConfigurationTypeAdapterFactory;
 import org.openhab.binding.mqtt.homeassistant.internal.DiscoverComponents;
+import org.openhab.binding.mqtt.homeassistant.internal.DiscoveryConfigCache;
+import org.openhab.binding.mqtt.homeassistant.internal.DiscoveryConfigCaches;
 import org.openhab.binding.mqtt.homeassistant.internal.HaID;
 import org.openhab.binding.mqtt.homeassistant.internal.HandlerConfiguration;
 import org.openhab.binding.mqtt.homeassistant.internal.DiscoverComponents.ComponentDiscovered;
@@ -84,6 +86,8 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
     private HaID discoveryHomeAssistantID = new HaID();
 
     protected final TransformationServiceProvider transformationServiceProvider;
+    private final DiscoveryConfigCaches configCaches;
+    private @Nullable DiscoveryConfigCache configCache;
 
     /**
      * Create a new thing handler for HomeAssistant MQTT components.
@@ -97,8 +101,26 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
     public HomeAssistantThingHandler(Thing thing, MqttChannelTypeProvider channelTypeProvider,
             TransformationServiceProvider transformationServiceProvider, int subscribeTimeout,
             int attributeReceiveTimeout) {
+        this(thing, channelTypeProvider, transformationServiceProvider, new DiscoveryConfigCaches(createGson()),
+                subscribeTimeout, attributeReceiveTimeout);
+    }
+
+    /**
+     * Create a new thing handler for HomeAssistant MQTT components, that shares the component configurations of
+     * its broker with other handlers.
+     *
+     * @param thing The thing of this handler
+     * @param channelTypeProvider A channel type provider
+     * @param configCaches The component configuration caches, shared by all handlers
+     * @param subscribeTimeout Timeout for the entire tree parsing and subscription. In milliseconds.
+     * @param attributeReceiveTimeout The timeout per attribute field subscription. In milliseconds.
+     */
+    public HomeAssistantThingHandler(Thing thing, MqttChannelTypeProvider channelTypeProvider,
+            TransformationServiceProvider transformationServiceProvider, DiscoveryConfigCaches configCaches,
+            int subscribeTimeout, int attributeReceiveTimeout) {
         super(thing, subscribeTimeout);
-        this.gson = new GsonBuilder().registerTypeAdapterFactory(new ChannelConfigurationTypeAdapterFactory()).create();
+        this.gson = createGson();
+        this.configCaches = configCaches;
         this.channelTypeProvider = channelTypeProvider;
         this.transformationServiceProvider = transformationServiceProvider;
         this.attributeReceiveTimeout = attributeReceiveTimeout;
@@ -107,6 +129,13 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
                 this.transformationServiceProvider);
     }
 
+    /**
+     * Creates a Gson instance that parses HomeAssistant component configurations.
+     */
+    public static Gson createGson() {
+        return new GsonBuilder().registerTypeAdapterFactory(new ChannelConfigurationTypeAdapterFactory()).create();
+    }
+
     @SuppressWarnings({ "null", "unused" })
     @Override
     public void initialize() {
@@ -154,6 +183,7 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
     @Override
     public void dispose() {
         discoverComponents.stopDiscovery();
+        releaseConfigCache();
         delayedProcessing.join();
 
         haComponents.values().forEach(c -> c.removeChannelTypes(channelTypeProvider));
@@ -190,18 +220,31 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
                     return null;
                 });
 
-        return future
-                .thenCompose(b -> discoverComponents.startDiscovery(connection, 0, discoveryHomeAssistantID, this));
+        // The component configurations are shared with all other Things of the broker
+        releaseConfigCache();
+        final DiscoveryConfigCache configCache = configCaches.acquire(connection, discoveryHomeAssistantID.baseTopic);
+        this.configCache = configCache;
+        return future.thenCompose(b -> discoverComponents.startDiscovery(connection, 0, discoveryHomeAssistantID,
+                this, configCache));
     }
 
     @Override
     protected void stop() {
         discoverComponents.stopDiscovery();
+        releaseConfigCache();
         delayedProcessing.join();
         // haComponents does not need to be synchronised -> the discovery thread is disabled
         haComponents.values().stream().map(e -> e.stop());
     }
 
+    private void releaseConfigCache() {
+        final DiscoveryConfigCache configCache = this.configCache;
+        if (configCache != null) {
+            this.configCache = null;
+            configCaches.release(configCache);
+        }
+    }
+
     @SuppressWarnings({ "null", "unused" })
     @Override
     public @Nullable ChannelState getChannelState(ChannelUID channelUID) {
@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.homeassistant.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Tests for {@link DiscoveryConfigCache}.
+ *
+ * @author agent - Initial contribution
+ */
+public class DiscoveryConfigCacheTests {
+    private static final String SWITCH_CONFIG = "{\"name\":\"Switch\",\"command_topic\":\"cmd\"}";
+    private static final String SENSOR_CONFIG = "{\"name\":\"Sensor\",\"state_topic\":\"state\"}";
+
+    private final Gson gson = new GsonBuilder().registerTypeAdapterFactory(new ChannelConfigurationTypeAdapterFactory())
+            .create();
+
+    private final DiscoveryConfigCache cache = new DiscoveryConfigCache("homeassistant", gson);
+
+    private final List<String> received = new ArrayList<>();
+
+    private final MqttMessageSubscriber subscriber = (topic, payload) -> received
+            .add(topic + "=" + new String(payload, StandardCharsets.UTF_8));
+
+    static class Config extends BaseChannelConfiguration {
+        Config() {
+            super("default");
+        }
+    }
+
+    @Test
+    public void knownConfigurationsAreReplayedToLaterSubscribers() {
+        cache.processMessage("homeassistant/switch/garden/config", bytes(SWITCH_CONFIG));
+        cache.processMessage("homeassistant/sensor/garden/config", bytes(SENSOR_CONFIG));
+        cache.processMessage("homeassistant/switch/node/garden/config", bytes(SWITCH_CONFIG));
+        cache.processMessage("homeassistant/switch/kitchen/config", bytes(SWITCH_CONFIG));
+        cache.processMessage("homeassistant/switch/kitchen/state", bytes("ON"));
+        assertThat(cache.size(), is(4));
+
+        cache.subscribe(new HaID("homeassistant/+/garden/config"), subscriber);
+        received.sort(null);
+        assertThat(received, is(Arrays.asList("homeassistant/sensor/garden/config=" + SENSOR_CONFIG,
+                "homeassistant/switch/garden/config=" + SWITCH_CONFIG)));
+    }
+
+    @Test
+    public void onlyChangedConfigurationsAreForwarded() {
+        cache.subscribe(new HaID("homeassistant/+/node/garden/config"), subscriber);
+
+        cache.processMessage("homeassistant/switch/node/garden/config", bytes(SWITCH_CONFIG));
+        cache.processMessage("homeassistant/switch/node/garden/config", bytes(SWITCH_CONFIG));
+        cache.processMessage("homeassistant/switch/garden/config", bytes(SWITCH_CONFIG));
+        assertThat(received.size(), is(1));
+
+        cache.processMessage("homeassistant/switch/node/garden/config", bytes(SENSOR_CONFIG));
+        assertThat(received.size(), is(2));
+
+        // An empty retained message removes the component
+        cache.processMessage("homeassistant/switch/node/garden/config", new byte[0]);
+        assertThat(received.size(), is(2));
+        assertThat(cache.size(), is(1));
+
+        cache.unsubscribe(subscriber);
+        cache.processMessage("homeassistant/switch/node/garden/config", bytes(SWITCH_CONFIG));
+        assertThat(received.size(), is(2));
+    }
+
+    @Test
+    public void configurationsAreOnlyParsedIfChanged() {
+        HaID haID = new HaID("homeassistant/switch/garden/config");
+        cache.processMessage(haID.getTopic("config"), bytes(SWITCH_CONFIG));
+
+        Config config = cache.getConfig(haID, SWITCH_CONFIG, Config.class);
+        assertThat(config.name, is("Switch"));
+        assertThat(cache.getConfig(haID, SWITCH_CONFIG, Config.class), is(sameInstance(config)));
+
+        cache.processMessage(haID.getTopic("config"), bytes(SENSOR_CONFIG));
+        Config changed = cache.getConfig(haID, SENSOR_CONFIG, Config.class);
+        assertThat(changed, is(not(sameInstance(config))));
+        assertThat(changed.name, is("Sensor"));
+
+        // A configuration that does not match the snapshot is parsed, but not cached
+        Config other = cache.getConfig(haID, SWITCH_CONFIG, Config.class);
+        assertThat(other.name, is("Switch"));
+        assertThat(cache.getConfig(haID, SWITCH_CONFIG, Config.class), is(not(sameInstance(other))));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
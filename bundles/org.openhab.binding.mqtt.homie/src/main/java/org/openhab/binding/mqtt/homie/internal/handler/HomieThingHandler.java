@@ -30,6 +30,7 @@ import org.openhab.binding.mqtt.generic.AbstractMQTTThingHandler;
 import org.openhab.binding.mqtt.generic.ChannelState;
 import org.openhab.binding.mqtt.generic.MqttChannelTypeProvider;
 import org.openhab.binding.mqtt.generic.tools.DelayedBatchProcessing;
+import org.openhab.binding.mqtt.generic.tools.TopicDispatcher;
 import org.openhab.binding.mqtt.homie.generic.internal.MqttBindingConstants;
 import org.openhab.binding.mqtt.homie.internal.homie300.Device;
 import org.openhab.binding.mqtt.homie.internal.homie300.DeviceAttributes;
@@ -58,6 +59,7 @@ public class HomieThingHandler extends AbstractMQTTThingHandler implements Devic
     protected HandlerConfiguration config = new HandlerConfiguration();
     protected DelayedBatchProcessing<Object> delayedProcessing;
     private @Nullable ScheduledFuture<?> heartBeatTimer;
+    protected @Nullable TopicDispatcher topicDispatcher;
 
     /**
      * Create a new thing handler for homie discovered things. A channel type provider and a topic value receive timeout
@@ -100,6 +102,9 @@ public class HomieThingHandler extends AbstractMQTTThingHandler implements Devic
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, "Object ID unknown");
             return;
         }
+        topicDispatcher = config.wildcardSubscription
+                ? new TopicDispatcher(config.basetopic + "/" + config.deviceid + "/#") : null;
+        device.setTopicDispatcher(topicDispatcher);
         device.initialize(config.basetopic, config.deviceid, thing.getChannels());
         super.initialize();
     }
@@ -110,6 +115,14 @@ public class HomieThingHandler extends AbstractMQTTThingHandler implements Devic
         // We have mostly retained messages for Homie. QoS 1 is required.
         connection.setRetain(true);
         connection.setQos(1);
+        final TopicDispatcher topicDispatcher = this.topicDispatcher;
+        if (topicDispatcher != null) {
+            // Attribute and property topics wait for this single subscription
+            topicDispatcher.start(connection).exceptionally(e -> {
+                logger.warn("Could not subscribe to {}", topicDispatcher.getTopicFilter(), e);
+                return false;
+            });
+        }
         return device.subscribe(connection, scheduler, attributeReceiveTimeout).thenCompose((Void v) -> {
             return device.startChannels(connection, scheduler, attributeReceiveTimeout, this);
         }).thenRun(() -> {
@@ -127,6 +140,10 @@ public class HomieThingHandler extends AbstractMQTTThingHandler implements Devic
         }
         delayedProcessing.join();
         device.stop();
+        final TopicDispatcher topicDispatcher = this.topicDispatcher;
+        if (topicDispatcher != null) {
+            topicDispatcher.stop();
+        }
     }
 
     @Override
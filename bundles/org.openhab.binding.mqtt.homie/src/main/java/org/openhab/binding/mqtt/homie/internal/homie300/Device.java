@@ -24,6 +24,7 @@ import org.eclipse.smarthome.core.thing.ThingUID;
 import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
 import org.openhab.binding.mqtt.generic.mapping.AbstractMqttAttributeClass;
 import org.openhab.binding.mqtt.generic.tools.ChildMap;
+import org.openhab.binding.mqtt.generic.tools.TopicDispatcher;
 import org.openhab.binding.mqtt.homie.internal.handler.HomieThingHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,6 +60,7 @@ public class Device implements AbstractMqttAttributeClass.AttributeChanged {
     private String topic = "";
     public String deviceID = "";
     private boolean initialized = false;
+    private @Nullable TopicDispatcher topicDispatcher;
 
     /**
      * Creates a Homie Device structure. It consists of device attributes, device statistics and nodes.
@@ -108,6 +110,7 @@ public class Device implements AbstractMqttAttributeClass.AttributeChanged {
             throw new IllegalStateException("You must call initialize()!");
         }
 
+        attributes.setTopicDispatcher(topicDispatcher);
         return attributes.subscribeAndReceive(connection, scheduler, topic, this, timeout)
                 // On success, create all nodes and tell the handler about the ready state
                 .thenCompose(b -> attributesReceived(connection, scheduler, timeout))
@@ -183,6 +186,16 @@ public class Device implements AbstractMqttAttributeClass.AttributeChanged {
         return initialized;
     }
 
+    /**
+     * Route all topics of this device, its nodes and properties through the given {@link TopicDispatcher} instead of
+     * subscribing to each topic. Must be called before {@link #initialize(String, String, List)}.
+     *
+     * @param topicDispatcher A topic dispatcher, subscribed to all topics of the device, or null.
+     */
+    public void setTopicDispatcher(@Nullable TopicDispatcher topicDispatcher) {
+        this.topicDispatcher = topicDispatcher;
+    }
+
     /**
      * Restore Nodes and Properties from Thing channels after handler initalization.
      *
@@ -225,7 +238,9 @@ public class Device implements AbstractMqttAttributeClass.AttributeChanged {
      * @return A child node
      */
     public Node createNode(String nodeID) {
-        return new Node(topic, nodeID, thingUID, callback, new NodeAttributes());
+        Node node = new Node(topic, nodeID, thingUID, callback, new NodeAttributes());
+        node.topicDispatcher = topicDispatcher;
+        return node;
     }
 
     /**
@@ -236,7 +251,9 @@ public class Device implements AbstractMqttAttributeClass.AttributeChanged {
      * @return A child node
      */
     public Node createNode(String nodeID, NodeAttributes attributes) {
-        return new Node(topic, nodeID, thingUID, callback, attributes);
+        Node node = new Node(topic, nodeID, thingUID, callback, attributes);
+        node.topicDispatcher = topicDispatcher;
+        return node;
     }
 
     /**
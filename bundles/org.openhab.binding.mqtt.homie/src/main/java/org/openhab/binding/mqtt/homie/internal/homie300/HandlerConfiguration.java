@@ -32,4 +32,8 @@ public class HandlerConfiguration {
      * The device id.
      */
     public String deviceid = "";
+    /**
+     * Subscribe once to "basetopic/deviceid/#" instead of subscribing to each attribute and property topic.
+     */
+    public boolean wildcardSubscription = false;
 }
@@ -95,6 +95,7 @@ public class Property implements AttributeChanged {
      */
     public CompletableFuture<@Nullable Void> subscribe(MqttBrokerConnection connection,
             ScheduledExecutorService scheduler, int timeout) {
+        attributes.setTopicDispatcher(parentNode.topicDispatcher);
         return attributes.subscribeAndReceive(connection, scheduler, topic, this, timeout)
                 // On success, create the channel and tell the handler about this property
                 .thenRun(this::attributesReceived)
@@ -261,7 +262,7 @@ public class Property implements AttributeChanged {
         }
         // Make sure we set the callback again which might have been nulled during an stop
         channelState.setChannelStateUpdateListener(this.callback);
-        return channelState.start(connection, scheduler, timeout);
+        return channelState.start(connection, parentNode.topicDispatcher, scheduler, timeout);
     }
 
     /**
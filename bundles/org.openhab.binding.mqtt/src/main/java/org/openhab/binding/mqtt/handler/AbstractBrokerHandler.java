@@ -34,6 +34,9 @@ import org.eclipse.smarthome.io.transport.mqtt.MqttConnectionObserver;
 import org.eclipse.smarthome.io.transport.mqtt.MqttConnectionState;
 import org.eclipse.smarthome.io.transport.mqtt.MqttService;
 import org.openhab.binding.mqtt.action.MQTTActions;
+import org.openhab.binding.mqtt.routing.InboundMessagePipeline;
+import org.openhab.binding.mqtt.routing.MqttTopicRouter;
+import org.openhab.binding.mqtt.routing.RoutingMqttBrokerConnection;
 
 /**
  * This base implementation handles connection changes of the {@link MqttBrokerConnection}
@@ -76,6 +79,26 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
         return connection;
     }
 
+    /**
+     * Returns the {@link MqttTopicRouter} of the underlying connection, if subscriptions are routed through one.
+     * The router provides message statistics per topic filter.
+     */
+    public @Nullable MqttTopicRouter getTopicRouter() {
+        final MqttBrokerConnection connection = this.connection;
+        return connection instanceof RoutingMqttBrokerConnection
+                ? ((RoutingMqttBrokerConnection) connection).getRouter() : null;
+    }
+
+    /**
+     * Returns the {@link InboundMessagePipeline} of the underlying connection, if received messages are processed on
+     * worker threads. The pipeline provides the queue depth and the number of coalesced and dropped messages.
+     */
+    public @Nullable InboundMessagePipeline getInboundPipeline() {
+        final MqttBrokerConnection connection = this.connection;
+        return connection instanceof RoutingMqttBrokerConnection
+                ? ((RoutingMqttBrokerConnection) connection).getInboundPipeline() : null;
+    }
+
     /**
      * Does nothing in the base implementation.
      */
@@ -34,6 +34,8 @@ import org.openhab.binding.mqtt.internal.ssl.PinTrustManager;
 import org.openhab.binding.mqtt.internal.ssl.PinType;
 import org.openhab.binding.mqtt.internal.ssl.PinnedCallback;
 import org.openhab.binding.mqtt.internal.ssl.PinningSSLContextProvider;
+import org.openhab.binding.mqtt.routing.InboundMessagePipeline;
+import org.openhab.binding.mqtt.routing.RoutingMqttBrokerConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -114,6 +116,10 @@ public class BrokerHandler extends AbstractBrokerHandler implements PinnedCallba
             connection.stop().get(1000, TimeUnit.MILLISECONDS);
         } catch (InterruptedException | ExecutionException | TimeoutException ignore) {
         }
+        final InboundMessagePipeline inboundPipeline = getInboundPipeline();
+        if (inboundPipeline != null) {
+            inboundPipeline.stop();
+        }
         super.dispose();
     }
 
@@ -183,8 +189,17 @@ public class BrokerHandler extends AbstractBrokerHandler implements PinnedCallba
             throw new IllegalArgumentException("Host is empty!");
         }
 
-        final MqttBrokerConnection connection = new MqttBrokerConnection(host, config.port, config.secure,
-                config.clientID);
+        final InboundMessagePipeline inboundPipeline = config.inboundWorkers > 0
+                ? new InboundMessagePipeline(thing.getUID().getId(), config.inboundWorkers,
+                        Math.max(1, config.inboundQueueSize))
+                : null;
+        final MqttBrokerConnection connection = config.topicRouter || inboundPipeline != null
+                ? new RoutingMqttBrokerConnection(host, config.port, config.secure, config.clientID,
+                        config.topicRouter, inboundPipeline)
+                : new MqttBrokerConnection(host, config.port, config.secure, config.clientID);
+        if (inboundPipeline != null) {
+            inboundPipeline.start();
+        }
 
         final String username = config.username;
         final String password = config.password;
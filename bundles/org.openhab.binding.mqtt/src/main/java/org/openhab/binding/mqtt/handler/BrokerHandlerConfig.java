@@ -27,6 +27,12 @@ import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnectionConfig;
 public class BrokerHandlerConfig extends MqttBrokerConnectionConfig {
     public @Nullable Integer reconnectTime;
     public @Nullable Integer timeoutInMs;
+    /** Share broker subscriptions of identical topic filters and route messages with a topic trie */
+    public boolean topicRouter = false;
+    /** Process received messages on this many worker threads. 0 processes them on the MQTT client thread. */
+    public int inboundWorkers = 0;
+    /** The maximum number of queued received messages per worker */
+    public int inboundQueueSize = 1000;
 
     // For more security, the following optional parameters can be altered
 
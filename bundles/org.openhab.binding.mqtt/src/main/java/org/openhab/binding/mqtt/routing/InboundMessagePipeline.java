@@ -0,0 +1,301 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.routing;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.common.NamedThreadFactory;
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Processes received MQTT messages on worker threads instead of the callback thread of the MQTT client.
+ *
+ * <p>
+ * Each worker owns a bounded queue. The queue of a message is selected by its topic, so messages of the same topic
+ * are always processed in the order they were received. If a message of a subscriber for a topic is still queued
+ * when a newer one arrives and both may be coalesced, only the payload of the queued message is replaced. A slow
+ * subscriber therefore only ever sees the latest value of a state topic. Messages that do not fit into a full
+ * queue are dropped.
+ * </p>
+ *
+ * The workers run on a dedicated thread pool named after the pipeline, which is shut down when the pipeline is stopped.
+ * The current queue depth and the number of coalesced and dropped messages are available for monitoring.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class InboundMessagePipeline {
+    private final Logger logger = LoggerFactory.getLogger(InboundMessagePipeline.class);
+    private final String name;
+    private final int queueCapacity;
+    private final Lane[] lanes;
+    private final AtomicLong processedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private @Nullable ExecutorService executor;
+
+    /**
+     * A queued message for a single subscriber. The payload of a coalescing message is replaced by newer messages.
+     */
+    private static class Message {
+        final String topic;
+        final MqttMessageSubscriber subscriber;
+        final boolean coalesce;
+        byte[] payload;
+
+        Message(String topic, MqttMessageSubscriber subscriber, byte[] payload, boolean coalesce) {
+            this.topic = topic;
+            this.subscriber = subscriber;
+            this.payload = payload;
+            this.coalesce = coalesce;
+        }
+    }
+
+    /**
+     * Identifies the queued message of a subscriber for a topic.
+     */
+    private static class MessageKey {
+        final String topic;
+        final MqttMessageSubscriber subscriber;
+
+        MessageKey(String topic, MqttMessageSubscriber subscriber) {
+            this.topic = topic;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * topic.hashCode() + System.identityHashCode(subscriber);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (!(obj instanceof MessageKey)) {
+                return false;
+            }
+            MessageKey other = (MessageKey) obj;
+            return subscriber == other.subscriber && topic.equals(other.topic);
+        }
+    }
+
+    /**
+     * A bounded queue and the worker that processes it. Only the worker started last owns the lane, a worker of a
+     * previous start ends as soon as it notices that.
+     */
+    private class Lane {
+        private final ArrayDeque<Message> queue = new ArrayDeque<>();
+        private final Map<MessageKey, Message> coalescing = new HashMap<>();
+        private @Nullable Object owner;
+
+        synchronized boolean offer(String topic, MqttMessageSubscriber subscriber, byte[] payload, boolean coalesce) {
+            if (coalesce) {
+                Message queued = coalescing.get(new MessageKey(topic, subscriber));
+                if (queued != null) {
+                    queued.payload = payload;
+                    coalescedCount.incrementAndGet();
+                    return true;
+                }
+            }
+            if (owner == null || queue.size() >= queueCapacity) {
+                return false;
+            }
+            Message message = new Message(topic, subscriber, payload, coalesce);
+            queue.add(message);
+            if (coalesce) {
+                coalescing.put(new MessageKey(topic, subscriber), message);
+            }
+            notifyAll();
+            return true;
+        }
+
+        synchronized @Nullable Message take(Object worker) throws InterruptedException {
+            while (queue.isEmpty() && owner == worker) {
+                wait();
+            }
+            if (owner != worker) {
+                return null;
+            }
+            Message message = queue.poll();
+            if (message != null && message.coalesce) {
+                coalescing.remove(new MessageKey(message.topic, message.subscriber));
+            }
+            return message;
+        }
+
+        synchronized int size() {
+            return queue.size();
+        }
+
+        synchronized void start(ExecutorService executor) {
+            final Object worker = new Object();
+            owner = worker;
+            executor.execute(() -> work(worker));
+        }
+
+        synchronized void stop() {
+            owner = null;
+            queue.clear();
+            coalescing.clear();
+            notifyAll();
+        }
+
+        private void work(Object worker) {
+            try {
+                Message message;
+                while ((message = take(worker)) != null) {
+                    process(message);
+                }
+            } catch (InterruptedException ignored) {
+                // The pipeline has been stopped
+            }
+        }
+    }
+
+    /**
+     * Creates a pipeline. Call {@link #start()} to start the worker threads.
+     *
+     * @param name A name for the worker threads, for example the broker connection
+     * @param workers The number of worker threads. Must be at least 1.
+     * @param queueCapacity The maximum number of queued messages per worker. Must be at least 1.
+     */
+    public InboundMessagePipeline(String name, int workers, int queueCapacity) {
+        if (workers < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Workers and queue capacity must be positive");
+        }
+        this.name = name;
+        this.queueCapacity = queueCapacity;
+        this.lanes = new Lane[workers];
+        for (int i = 0; i < workers; ++i) {
+            lanes[i] = new Lane();
+        }
+    }
+
+    /**
+     * Starts the worker threads.
+     */
+    public synchronized void start() {
+        stop();
+        final ExecutorService executor = Executors.newFixedThreadPool(lanes.length,
+                new NamedThreadFactory("mqtt-inbound-" + name, true));
+        this.executor = executor;
+        for (Lane lane : lanes) {
+            lane.start(executor);
+        }
+    }
+
+    /**
+     * Stops the worker threads. Queued messages are discarded.
+     */
+    public synchronized void stop() {
+        for (Lane lane : lanes) {
+            lane.stop();
+        }
+        final ExecutorService executor = this.executor;
+        if (executor != null) {
+            executor.shutdownNow();
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Queues a received message for the given subscriber.
+     *
+     * @param topic The topic of the message
+     * @param payload The payload of the message
+     * @param subscriber The subscriber that processes the message on a worker thread
+     * @param coalesce True if a still queued message of the subscriber for the same topic may be replaced by this
+     *            message, for example because only the latest value of a state topic matters.
+     * @return Returns false if the message has been dropped, because the queue is full or the pipeline is stopped.
+     */
+    public boolean submit(String topic, byte[] payload, MqttMessageSubscriber subscriber, boolean coalesce) {
+        if (lanes[Math.floorMod(topic.hashCode(), lanes.length)].offer(topic, subscriber, payload, coalesce)) {
+            return true;
+        }
+        final long dropped = droppedCount.incrementAndGet();
+        if ((dropped - 1) % queueCapacity == 0) {
+            logger.warn("Inbound MQTT message pipeline {} dropped a message of topic {}. {} messages dropped so far.",
+                    name, topic, dropped);
+        }
+        return false;
+    }
+
+    private void process(Message message) {
+        try {
+            message.subscriber.processMessage(message.topic, message.payload);
+        } catch (RuntimeException e) {
+            logger.warn("A subscriber of {} failed to process a message of topic {}", name, message.topic, e);
+        }
+        processedCount.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of queued messages of all workers.
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (Lane lane : lanes) {
+            depth += lane.size();
+        }
+        return depth;
+    }
+
+    /**
+     * Returns the maximum number of queued messages per worker.
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Returns the number of worker threads.
+     */
+    public int getWorkerCount() {
+        return lanes.length;
+    }
+
+    /**
+     * Returns the number of processed messages.
+     */
+    public long getProcessedCount() {
+        return processedCount.get();
+    }
+
+    /**
+     * Returns the number of messages that replaced the payload of a still queued message.
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * Returns the number of messages that have been dropped, because a queue was full or the pipeline was stopped.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return name + " (queued: " + getQueueDepth() + ", processed: " + getProcessedCount()
+                + ", coalesced: " + getCoalescedCount() + ", dropped: " + getDroppedCount() + ")";
+    }
+}
@@ -0,0 +1,318 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.routing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Routes received MQTT messages to the subscribers of a broker connection.
+ *
+ * <p>
+ * All topic filters are compiled into a {@link TopicTrie}. Subscribers of identical topic filters share a single
+ * broker subscription, which is removed again when the last subscriber of that filter unsubscribes. A received
+ * message is routed with {@link #route(String, byte[], boolean)} by walking the trie, which takes time proportional to the
+ * number of topic levels, independent of the number of subscriptions.
+ * </p>
+ *
+ * <p>
+ * Because a filter is subscribed on the broker only once, the broker sends its retained messages only to the first
+ * subscriber. The retained messages are therefore kept per filter and replayed to later subscribers of the same
+ * filter. A broker clears the retained flag of messages sent to established subscriptions, so a later message on a
+ * topic with a kept retained message replaces that message. Messages of other topics are never kept.
+ * </p>
+ *
+ * <p>
+ * Messages of a filter are delivered one at a time, in the order they are received. Replayed messages are delivered in
+ * the same order, so they can never overtake a newer message of the same topic.
+ * </p>
+ *
+ * The number of routed messages and the message rate per filter is available via {@link #getStatistics()}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MqttTopicRouter {
+    /** At most this many topics are remembered per filter for replaying */
+    static final int MAX_REPLAY_TOPICS = 1000;
+    /** The message rate is determined over intervals of this length */
+    static final long RATE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final Logger logger = LoggerFactory.getLogger(MqttTopicRouter.class);
+    private final BiFunction<String, MqttMessageSubscriber, CompletableFuture<Boolean>> brokerSubscribe;
+    private final BiFunction<String, MqttMessageSubscriber, CompletableFuture<Boolean>> brokerUnsubscribe;
+    private final Map<String, FilterSubscription> filters = new HashMap<>();
+    private final TopicTrie<FilterSubscription> trie = new TopicTrie<>();
+
+    /**
+     * A single broker subscription for a topic filter and all its subscribers.
+     */
+    class FilterSubscription implements MqttMessageSubscriber {
+        final String topicFilter;
+        final List<MqttMessageSubscriber> subscribers = new CopyOnWriteArrayList<>();
+        private final Map<String, byte[]> lastMessages = new HashMap<>();
+        // Held while delivering, always acquired before the router lock and the lock on this
+        private final Object dispatchLock = new Object();
+        final CompletableFuture<Boolean> brokerSubscription = new CompletableFuture<>();
+        private long messages;
+        private long intervalStart = System.nanoTime();
+        private long intervalMessages;
+        private double rate;
+
+        FilterSubscription(String topicFilter) {
+            this.topicFilter = topicFilter;
+        }
+
+        /**
+         * Called for messages delivered by the broker connection directly, without retained flag.
+         */
+        @Override
+        public void processMessage(String topic, byte[] payload) {
+            processMessage(topic, payload, false);
+        }
+
+        void processMessage(String topic, byte[] payload, boolean retained) {
+            synchronized (dispatchLock) {
+                synchronized (this) {
+                    countMessage(System.nanoTime());
+                    if (retained || lastMessages.containsKey(topic)) {
+                        if (payload.length == 0) {
+                            // An empty retained message deletes the topic
+                            lastMessages.remove(topic);
+                        } else if (lastMessages.size() < MAX_REPLAY_TOPICS || lastMessages.containsKey(topic)) {
+                            lastMessages.put(topic, payload);
+                        }
+                    }
+                }
+                for (MqttMessageSubscriber subscriber : subscribers) {
+                    deliver(subscriber, topic, payload);
+                }
+            }
+        }
+
+        private void deliver(MqttMessageSubscriber subscriber, String topic, byte[] payload) {
+            try {
+                subscriber.processMessage(topic, payload);
+            } catch (RuntimeException e) {
+                logger.warn("Subscriber of topic filter {} failed to process a message on {}", topicFilter, topic, e);
+            }
+        }
+
+        private void countMessage(long now) {
+            rollInterval(now);
+            messages++;
+            intervalMessages++;
+        }
+
+        private void rollInterval(long now) {
+            final long elapsed = now - intervalStart;
+            if (elapsed >= RATE_INTERVAL_NANOS) {
+                // Without any message for a whole interval, the rate drops to zero
+                rate = elapsed >= 2 * RATE_INTERVAL_NANOS ? 0
+                        : intervalMessages * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+                intervalStart = now;
+                intervalMessages = 0;
+            }
+        }
+
+        /**
+         * Adds a later subscriber and replays the kept messages to it. No received message is delivered in between.
+         *
+         * @return false if this filter has been removed from the router in the meantime.
+         */
+        boolean addAndReplay(MqttMessageSubscriber subscriber) {
+            synchronized (dispatchLock) {
+                synchronized (MqttTopicRouter.this) {
+                    if (filters.get(topicFilter) != this) {
+                        return false;
+                    }
+                    subscribers.add(subscriber);
+                }
+                final List<Entry<String, byte[]>> replay;
+                synchronized (this) {
+                    replay = new ArrayList<>(lastMessages.entrySet());
+                }
+                for (Entry<String, byte[]> message : replay) {
+                    deliver(subscriber, message.getKey(), message.getValue());
+                }
+                return true;
+            }
+        }
+
+        MqttTopicRouter router() {
+            return MqttTopicRouter.this;
+        }
+
+        synchronized TopicFilterStatistics statistics() {
+            rollInterval(System.nanoTime());
+            return new TopicFilterStatistics(topicFilter, subscribers.size(), messages, rate);
+        }
+    }
+
+    /**
+     * Creates a router.
+     *
+     * @param brokerSubscribe Performs the broker subscription of a topic filter
+     * @param brokerUnsubscribe Removes the broker subscription of a topic filter
+     */
+    public MqttTopicRouter(BiFunction<String, MqttMessageSubscriber, CompletableFuture<Boolean>> brokerSubscribe,
+            BiFunction<String, MqttMessageSubscriber, CompletableFuture<Boolean>> brokerUnsubscribe) {
+        this.brokerSubscribe = brokerSubscribe;
+        this.brokerUnsubscribe = brokerUnsubscribe;
+    }
+
+    /**
+     * Adds a subscriber for a topic filter. The broker subscription is only performed for the first subscriber of a
+     * filter. Later subscribers receive the retained messages of the topics matching the filter immediately.
+     *
+     * @param topicFilter A topic filter, can contain wildcards
+     * @param subscriber The subscriber
+     * @return A future that completes with true if the broker subscription of the filter succeeded.
+     */
+    public CompletableFuture<Boolean> subscribe(String topicFilter, MqttMessageSubscriber subscriber) {
+        while (true) {
+            FilterSubscription filter;
+            boolean created = false;
+            synchronized (this) {
+                filter = filters.get(topicFilter);
+                if (filter == null) {
+                    filter = new FilterSubscription(topicFilter);
+                    filters.put(topicFilter, filter);
+                    trie.add(topicFilter, filter);
+                    filter.subscribers.add(subscriber);
+                    created = true;
+                }
+            }
+            if (created) {
+                final CompletableFuture<Boolean> brokerSubscription = filter.brokerSubscription;
+                brokerSubscribe.apply(topicFilter, filter).whenComplete((result, e) -> {
+                    if (e != null) {
+                        brokerSubscription.completeExceptionally(e);
+                    } else {
+                        brokerSubscription.complete(result);
+                    }
+                });
+                return brokerSubscription;
+            }
+            // Fails if the last subscriber of the filter left meanwhile, try again with a new filter then
+            if (filter.addAndReplay(subscriber)) {
+                return filter.brokerSubscription;
+            }
+        }
+    }
+
+    /**
+     * Removes a subscriber of a topic filter. The broker subscription is removed with the last subscriber.
+     *
+     * @param topicFilter A topic filter
+     * @param subscriber The subscriber
+     * @return A future that completes with true if the subscriber has been removed.
+     */
+    public CompletableFuture<Boolean> unsubscribe(String topicFilter, MqttMessageSubscriber subscriber) {
+        final FilterSubscription filter;
+        synchronized (this) {
+            filter = filters.get(topicFilter);
+            if (filter == null || !filter.subscribers.remove(subscriber)) {
+                return CompletableFuture.completedFuture(false);
+            }
+            if (!filter.subscribers.isEmpty()) {
+                return CompletableFuture.completedFuture(true);
+            }
+            filters.remove(topicFilter);
+            trie.remove(topicFilter, filter);
+        }
+        return brokerUnsubscribe.apply(topicFilter, filter);
+    }
+
+    /**
+     * Forgets all subscribers and filters without performing any broker communication.
+     */
+    public synchronized void clear() {
+        filters.clear();
+        trie.clear();
+    }
+
+    /**
+     * Routes a received message to the subscribers of all matching topic filters.
+     *
+     * @param topic The topic of the message
+     * @param payload The payload
+     * @param retained True if the broker sent the message as retained message
+     * @return Return true if at least one topic filter matched.
+     */
+    public boolean route(String topic, byte[] payload, boolean retained) {
+        final List<FilterSubscription> matches;
+        synchronized (this) {
+            matches = trie.match(topic);
+        }
+        for (FilterSubscription filter : matches) {
+            filter.processMessage(topic, payload, retained);
+        }
+        return !matches.isEmpty();
+    }
+
+    /**
+     * Return true if the given subscriber is a broker subscription of this router.
+     */
+    public boolean isBrokerSubscriber(MqttMessageSubscriber subscriber) {
+        return subscriber instanceof FilterSubscription && ((FilterSubscription) subscriber).router() == this;
+    }
+
+    /**
+     * Return the number of distinct topic filters, which equals the number of broker subscriptions.
+     */
+    public synchronized int getFilterCount() {
+        return filters.size();
+    }
+
+    /**
+     * Return the subscriber count, message count and message rate of each topic filter.
+     */
+    public List<TopicFilterStatistics> getStatistics() {
+        final List<FilterSubscription> filters;
+        synchronized (this) {
+            filters = new ArrayList<>(this.filters.values());
+        }
+        final List<TopicFilterStatistics> statistics = new ArrayList<>(filters.size());
+        for (FilterSubscription filter : filters) {
+            statistics.add(filter.statistics());
+        }
+        return statistics;
+    }
+
+    /**
+     * Return the statistics of a single topic filter or null if nobody subscribed to the filter.
+     *
+     * @param topicFilter A topic filter
+     */
+    public @Nullable TopicFilterStatistics getStatistics(String topicFilter) {
+        final FilterSubscription filter;
+        synchronized (this) {
+            filter = filters.get(topicFilter);
+        }
+        return filter != null ? filter.statistics() : null;
+    }
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.routing;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.MqttCallback;
+import org.eclipse.paho.client.mqttv3.MqttCallbackExtended;
+import org.eclipse.paho.client.mqttv3.MqttClientPersistence;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+
+/**
+ * A {@link MqttBrokerConnection} that can pass all subscriptions through a {@link MqttTopicRouter} and received
+ * messages through an {@link InboundMessagePipeline}.
+ *
+ * <p>
+ * With a router, identical topic filters of different subscribers result in a single broker subscription, and
+ * received messages are routed by the topic trie of the router instead of being matched against each subscribed topic
+ * filter.
+ * </p>
+ *
+ * The pipeline is not used by the connection itself. Subscribers like the generic MQTT channels look it up and queue
+ * their expensive message processing on it, to not block the MQTT client thread.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class RoutingMqttBrokerConnection extends MqttBrokerConnection {
+    private final @Nullable MqttTopicRouter router;
+    private final @Nullable InboundMessagePipeline inboundPipeline;
+
+    /**
+     * Creates a routing broker connection.
+     *
+     * @param host A host name or address
+     * @param port A port or null to select the default port for a secure or insecure connection
+     * @param secure A secure connection
+     * @param clientId Client id. Each client on a MQTT server has a unique client id. If null, a random one is used.
+     * @param topicRouter True to route subscriptions and received messages through a {@link MqttTopicRouter}
+     * @param inboundPipeline A pipeline for processing received messages or null
+     */
+    public RoutingMqttBrokerConnection(String host, @Nullable Integer port, boolean secure, @Nullable String clientId,
+            boolean topicRouter, @Nullable InboundMessagePipeline inboundPipeline) {
+        super(host, port, secure, clientId);
+        this.router = topicRouter ? new MqttTopicRouter(super::subscribe, super::unsubscribe) : null;
+        this.inboundPipeline = inboundPipeline;
+    }
+
+    /**
+     * Return the router of this connection or null if subscriptions are not routed.
+     */
+    public @Nullable MqttTopicRouter getRouter() {
+        return router;
+    }
+
+    /**
+     * Return the pipeline for processing received messages of this connection or null.
+     */
+    public @Nullable InboundMessagePipeline getInboundPipeline() {
+        return inboundPipeline;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> subscribe(String topic, MqttMessageSubscriber subscriber) {
+        final MqttTopicRouter router = this.router;
+        if (router == null || router.isBrokerSubscriber(subscriber)) {
+            return super.subscribe(topic, subscriber);
+        }
+        return router.subscribe(topic, subscriber);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> unsubscribe(String topic, MqttMessageSubscriber subscriber) {
+        final MqttTopicRouter router = this.router;
+        if (router == null || router.isBrokerSubscriber(subscriber)) {
+            return super.unsubscribe(topic, subscriber);
+        }
+        return router.unsubscribe(topic, subscriber);
+    }
+
+    /**
+     * If a router is used, the callback of the client, that is set by the {@link MqttBrokerConnection}, is wrapped to
+     * route received messages through the topic trie.
+     */
+    @Override
+    protected MqttAsyncClient createClient(String serverURI, String clientId, MqttClientPersistence dataStore)
+            throws MqttException {
+        final MqttTopicRouter router = this.router;
+        if (router == null) {
+            return super.createClient(serverURI, clientId, dataStore);
+        }
+        return new MqttAsyncClient(serverURI, clientId, dataStore) {
+            @Override
+            public void setCallback(@Nullable MqttCallback callback) {
+                super.setCallback(callback != null ? new RoutingCallback(router, callback) : null);
+            }
+        };
+    }
+
+    private static class RoutingCallback implements MqttCallbackExtended {
+        private final MqttTopicRouter router;
+        private final MqttCallback callback;
+
+        RoutingCallback(MqttTopicRouter router, MqttCallback callback) {
+            this.router = router;
+            this.callback = callback;
+        }
+
+        @Override
+        public void connectionLost(@Nullable Throwable cause) {
+            callback.connectionLost(cause);
+        }
+
+        @Override
+        public void messageArrived(@Nullable String topic, @Nullable MqttMessage message) throws Exception {
+            if (topic == null || message == null || !router.route(topic, message.getPayload(), message.isRetained())) {
+                callback.messageArrived(topic, message);
+            }
+        }
+
+        @Override
+        public void deliveryComplete(@Nullable IMqttDeliveryToken token) {
+            callback.deliveryComplete(token);
+        }
+
+        @Override
+        public void connectComplete(boolean reconnect, @Nullable String serverURI) {
+            if (callback instanceof MqttCallbackExtended) {
+                ((MqttCallbackExtended) callback).connectComplete(reconnect, serverURI);
+            }
+        }
+    }
+}
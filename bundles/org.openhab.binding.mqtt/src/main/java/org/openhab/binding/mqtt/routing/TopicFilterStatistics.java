@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.routing;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Usage statistics of a single topic filter of a {@link MqttTopicRouter}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class TopicFilterStatistics {
+    private final String topicFilter;
+    private final int subscriberCount;
+    private final long messageCount;
+    private final double messageRate;
+
+    public TopicFilterStatistics(String topicFilter, int subscriberCount, long messageCount, double messageRate) {
+        this.topicFilter = topicFilter;
+        this.subscriberCount = subscriberCount;
+        this.messageCount = messageCount;
+        this.messageRate = messageRate;
+    }
+
+    /**
+     * Return the topic filter.
+     */
+    public String getTopicFilter() {
+        return topicFilter;
+    }
+
+    /**
+     * Return the number of subscribers that share the broker subscription of this filter.
+     */
+    public int getSubscriberCount() {
+        return subscriberCount;
+    }
+
+    /**
+     * Return the number of messages received for this filter since it has been subscribed.
+     */
+    public long getMessageCount() {
+        return messageCount;
+    }
+
+    /**
+     * Return the number of messages per second, measured over the last complete interval.
+     */
+    public double getMessageRate() {
+        return messageRate;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d subscribers, %d messages, %.2f messages/s", topicFilter, subscriberCount,
+                messageCount, messageRate);
+    }
+}
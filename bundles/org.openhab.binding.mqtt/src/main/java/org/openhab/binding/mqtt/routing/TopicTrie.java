@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.routing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A trie of MQTT topic filters. Each level of a topic filter is one node of the trie and values are stored at the node
+ * of the last level. The single level wildcard "+" and the multi level wildcard "#" are supported as defined by the
+ * MQTT specification. Finding all values for a published topic therefore only depends on the number of topic levels
+ * and not on the number of stored filters.
+ *
+ * This class is not thread-safe.
+ *
+ * @author agent - Initial contribution
+ *
+ * @param <T> The value type
+ */
+@NonNullByDefault
+public class TopicTrie<T> {
+    private static final String SINGLE_LEVEL_WILDCARD = "+";
+    private static final String MULTI_LEVEL_WILDCARD = "#";
+
+    private static class Node<T> {
+        final Map<String, Node<T>> children = new HashMap<>();
+        final List<T> values = new ArrayList<>(1);
+
+        boolean isEmpty() {
+            return children.isEmpty() && values.isEmpty();
+        }
+    }
+
+    private final Node<T> root = new Node<>();
+    private int size = 0;
+
+    /**
+     * Adds a value for the given topic filter. The same value can be added several times.
+     *
+     * @param topicFilter A topic filter like "house/+/main-light" or "house/#"
+     * @param value The value
+     */
+    public void add(String topicFilter, T value) {
+        Node<T> node = root;
+        for (String level : topicFilter.split("/", -1)) {
+            node = node.children.computeIfAbsent(level, k -> new Node<>());
+        }
+        node.values.add(value);
+        size++;
+    }
+
+    /**
+     * Removes a value for the given topic filter. Trie nodes that became empty are removed as well.
+     *
+     * @param topicFilter A topic filter
+     * @param value The value
+     * @return Return true if the value was found and removed.
+     */
+    public boolean remove(String topicFilter, T value) {
+        final boolean removed = remove(root, topicFilter.split("/", -1), 0, value);
+        if (removed) {
+            size--;
+        }
+        return removed;
+    }
+
+    private boolean remove(Node<T> node, String[] levels, int index, T value) {
+        if (index == levels.length) {
+            return node.values.remove(value);
+        }
+        final Node<T> child = node.children.get(levels[index]);
+        if (child == null || !remove(child, levels, index + 1, value)) {
+            return false;
+        }
+        if (child.isEmpty()) {
+            node.children.remove(levels[index]);
+        }
+        return true;
+    }
+
+    /**
+     * Returns all values of the given topic filter. Wildcards are not resolved, the filter must be exactly the one
+     * that was used for {@link #add(String, Object)}.
+     *
+     * @param topicFilter A topic filter
+     * @return A list of values. The list is empty if there is no value for the filter.
+     */
+    public List<T> get(String topicFilter) {
+        final Node<T> node = find(topicFilter);
+        return node != null ? new ArrayList<>(node.values) : new ArrayList<>();
+    }
+
+    private @Nullable Node<T> find(String topicFilter) {
+        Node<T> node = root;
+        for (String level : topicFilter.split("/", -1)) {
+            node = node.children.get(level);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Returns all values with a topic filter that matches the given topic.
+     *
+     * @param topic A topic without wildcards, e.g. the topic of a received message.
+     * @return A list of values. The list is empty if no filter matches.
+     */
+    public List<T> match(String topic) {
+        final List<T> result = new ArrayList<>();
+        if (!root.children.isEmpty()) {
+            // Wildcards on the first level do not match topics starting with "$", like "$SYS/broker/uptime"
+            match(root, topic.split("/", -1), 0, !topic.startsWith("$"), result);
+        }
+        return result;
+    }
+
+    private void match(Node<T> node, String[] levels, int index, boolean wildcards, List<T> result) {
+        if (wildcards) {
+            // "house/#" matches "house" as well as everything below
+            final Node<T> multiLevel = node.children.get(MULTI_LEVEL_WILDCARD);
+            if (multiLevel != null) {
+                result.addAll(multiLevel.values);
+            }
+        }
+        if (index == levels.length) {
+            result.addAll(node.values);
+            return;
+        }
+        final Node<T> child = node.children.get(levels[index]);
+        if (child != null) {
+            match(child, levels, index + 1, true, result);
+        }
+        if (wildcards) {
+            final Node<T> singleLevel = node.children.get(SINGLE_LEVEL_WILDCARD);
+            if (singleLevel != null) {
+                match(singleLevel, levels, index + 1, true, result);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of stored values.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if no value is stored.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all values.
+     */
+    public void clear() {
+        root.children.clear();
+        root.values.clear();
+        size = 0;
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.routing;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for the {@link InboundMessagePipeline}.
+ *
+ * @author agent - Initial contribution
+ */
+public class InboundMessagePipelineTest {
+    private final List<String> received = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private InboundMessagePipeline pipeline;
+
+    /** Blocks the worker on the first message until {@link #release} is counted down */
+    private final MqttMessageSubscriber blockingSubscriber = (topic, payload) -> {
+        blocked.countDown();
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ignored) {
+        }
+    };
+
+    private final MqttMessageSubscriber subscriber = (topic, payload) -> received
+            .add(topic + "=" + new String(payload, StandardCharsets.UTF_8));
+
+    @Before
+    public void setUp() {
+        pipeline = new InboundMessagePipeline("test", 1, 3);
+        pipeline.start();
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        pipeline.stop();
+    }
+
+    @Test
+    public void messagesOfATopicAreProcessedInOrder() throws InterruptedException {
+        InboundMessagePipeline pipeline = new InboundMessagePipeline("ordered", 4, 100);
+        pipeline.start();
+        try {
+            for (int i = 0; i < 50; ++i) {
+                pipeline.submit("a/" + (i % 5), bytes(String.valueOf(i)), subscriber, false);
+            }
+            waitForProcessed(pipeline, 50);
+
+            for (int t = 0; t < 5; ++t) {
+                List<Integer> values = new ArrayList<>();
+                synchronized (received) {
+                    for (String message : received) {
+                        if (message.startsWith("a/" + t + "=")) {
+                            values.add(Integer.valueOf(message.substring(4)));
+                        }
+                    }
+                }
+                List<Integer> sorted = new ArrayList<>(values);
+                Collections.sort(sorted);
+                assertThat(values.size(), is(10));
+                assertThat(values, is(sorted));
+            }
+        } finally {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    public void stateValuesAreCoalescedWhileTheWorkerIsBusy() throws InterruptedException {
+        pipeline.submit("block", bytes(""), blockingSubscriber, false);
+        assertThat(blocked.await(5, TimeUnit.SECONDS), is(true));
+
+        pipeline.submit("state", bytes("1"), subscriber, true);
+        pipeline.submit("state", bytes("2"), subscriber, true);
+        pipeline.submit("state", bytes("3"), subscriber, true);
+        pipeline.submit("trigger", bytes("1"), subscriber, false);
+        pipeline.submit("trigger", bytes("2"), subscriber, false);
+        assertThat(pipeline.getQueueDepth(), is(3));
+        assertThat(pipeline.getCoalescedCount(), is(2L));
+
+        release.countDown();
+        waitForProcessed(pipeline, 4);
+        assertThat(received, is(Arrays.asList("state=3", "trigger=1", "trigger=2")));
+        assertThat(pipeline.getDroppedCount(), is(0L));
+    }
+
+    @Test
+    public void messagesAreDroppedIfTheQueueIsFull() throws InterruptedException {
+        pipeline.submit("block", bytes(""), blockingSubscriber, false);
+        assertThat(blocked.await(5, TimeUnit.SECONDS), is(true));
+
+        for (int i = 0; i < 5; ++i) {
+            pipeline.submit("trigger", bytes(String.valueOf(i)), subscriber, false);
+        }
+        assertThat(pipeline.getQueueDepth(), is(3));
+        assertThat(pipeline.getDroppedCount(), is(2L));
+
+        release.countDown();
+        waitForProcessed(pipeline, 4);
+        assertThat(received, is(Arrays.asList("trigger=0", "trigger=1", "trigger=2")));
+    }
+
+    @Test
+    public void stoppedPipelineDropsMessages() {
+        pipeline.stop();
+        assertThat(pipeline.submit("state", bytes("1"), subscriber, true), is(false));
+        assertThat(pipeline.getDroppedCount(), is(1L));
+    }
+
+    private static void waitForProcessed(InboundMessagePipeline pipeline, long count) throws InterruptedException {
+        for (int i = 0; i < 500 && pipeline.getProcessedCount() < count; ++i) {
+            Thread.sleep(10);
+        }
+        assertThat(pipeline.getProcessedCount(), is(count));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.routing;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for the {@link MqttTopicRouter} and the {@link TopicTrie}.
+ *
+ * @author agent - Initial contribution
+ */
+public class MqttTopicRouterTest {
+    private final List<String> brokerSubscriptions = new ArrayList<>();
+
+    private MqttTopicRouter router;
+
+    @Before
+    public void setUp() {
+        router = new MqttTopicRouter((topic, subscriber) -> {
+            brokerSubscriptions.add(topic);
+            return CompletableFuture.completedFuture(true);
+        }, (topic, subscriber) -> {
+            brokerSubscriptions.remove(topic);
+            return CompletableFuture.completedFuture(true);
+        });
+    }
+
+    @Test
+    public void trieMatchesWildcards() {
+        TopicTrie<String> trie = new TopicTrie<>();
+        for (String filter : new String[] { "a/b/c", "a/+/c", "a/#", "#", "+/b/c", "a/b", "a/+/+/d" }) {
+            trie.add(filter, filter);
+        }
+        assertThat(trie.size(), is(7));
+
+        assertThat(new HashSet<>(trie.match("a/b/c")),
+                is(new HashSet<>(Arrays.asList("a/b/c", "a/+/c", "a/#", "#", "+/b/c"))));
+        assertThat(new HashSet<>(trie.match("a")), is(new HashSet<>(Arrays.asList("a/#", "#"))));
+        assertThat(new HashSet<>(trie.match("a/x/y/d")), is(new HashSet<>(Arrays.asList("a/+/+/d", "a/#", "#"))));
+        // Wildcards on the first level never match topics starting with "$"
+        assertThat(trie.match("$SYS/b/c"), is(new ArrayList<>()));
+
+        assertThat(trie.remove("a/#", "a/#"), is(true));
+        assertThat(trie.remove("a/#", "a/#"), is(false));
+        assertThat(trie.remove("x/y", "x/y"), is(false));
+        assertThat(new HashSet<>(trie.match("a")), is(new HashSet<>(Arrays.asList("#"))));
+        assertThat(trie.get("a/+/c"), is(Arrays.asList("a/+/c")));
+        assertThat(trie.size(), is(6));
+    }
+
+    @Test
+    public void identicalFiltersShareOneBrokerSubscription() {
+        List<String> first = new ArrayList<>();
+        List<String> second = new ArrayList<>();
+        MqttMessageSubscriber firstSubscriber = (topic, payload) -> first.add(topic);
+        MqttMessageSubscriber secondSubscriber = (topic, payload) -> second.add(topic);
+
+        router.subscribe("homie/+/$homie", firstSubscriber);
+        router.subscribe("homie/+/$homie", secondSubscriber);
+        router.subscribe("homie/device/#", firstSubscriber);
+        assertThat(brokerSubscriptions, is(Arrays.asList("homie/+/$homie", "homie/device/#")));
+        assertThat(router.getFilterCount(), is(2));
+
+        assertThat(router.route("homie/device/$homie", bytes("3.0"), false), is(true));
+        assertThat(router.route("other/topic", bytes("1"), false), is(false));
+        assertThat(first, is(Arrays.asList("homie/device/$homie", "homie/device/$homie")));
+        assertThat(second, is(Arrays.asList("homie/device/$homie")));
+
+        router.unsubscribe("homie/+/$homie", firstSubscriber);
+        assertThat(brokerSubscriptions, is(Arrays.asList("homie/+/$homie", "homie/device/#")));
+        router.unsubscribe("homie/+/$homie", secondSubscriber);
+        assertThat(brokerSubscriptions, is(Arrays.asList("homie/device/#")));
+        assertThat(router.getStatistics("homie/+/$homie"), is(nullValue()));
+    }
+
+    @Test
+    public void laterSubscribersReceiveRetainedMessages() {
+        router.subscribe("homie/+/$name", (topic, payload) -> {
+        });
+        router.route("homie/a/$name", bytes("A"), true);
+        router.route("homie/b/$name", bytes("B"), true);
+        // later messages of a retained topic arrive without retained flag
+        router.route("homie/b/$name", bytes("B2"), false);
+        router.route("homie/c/$name", bytes("C"), true);
+        router.route("homie/c/$name", new byte[0], true);
+        // messages of topics without retained message are not replayed
+        router.route("homie/d/$name", bytes("D"), false);
+
+        List<String> received = new ArrayList<>();
+        router.subscribe("homie/+/$name", (topic, payload) -> received.add(topic + "=" + new String(payload)));
+        assertThat(new HashSet<>(received), is(new HashSet<>(Arrays.asList("homie/a/$name=A", "homie/b/$name=B2"))));
+    }
+
+    @Test
+    public void replayedMessageIsNotOvertakenByNewerMessage() throws InterruptedException {
+        final String topic = "homie/device/$name";
+        router.subscribe("homie/+/$name", (t, payload) -> {
+        });
+        router.route(topic, bytes("old"), true);
+
+        CountDownLatch replaying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        MqttMessageSubscriber subscriber = (t, payload) -> {
+            String value = new String(payload);
+            if ("old".equals(value)) {
+                replaying.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            received.add(value);
+        };
+
+        Thread subscribing = new Thread(() -> router.subscribe("homie/+/$name", subscriber));
+        subscribing.start();
+        assertThat(replaying.await(5, TimeUnit.SECONDS), is(true));
+
+        // A live message arriving during the replay is delivered after the replayed one
+        Thread publishing = new Thread(() -> router.route(topic, bytes("new"), false));
+        publishing.start();
+        publishing.join(200);
+        release.countDown();
+        subscribing.join(5000);
+        publishing.join(5000);
+
+        assertThat(received, is(Arrays.asList("old", "new")));
+    }
+
+    @Test
+    public void statisticsCountMessagesPerFilter() {
+        router.subscribe("a/#", (topic, payload) -> {
+        });
+        router.subscribe("a/b", (topic, payload) -> {
+        });
+        router.route("a/b", bytes("1"), false);
+        router.route("a/c", bytes("2"), false);
+
+        TopicFilterStatistics statistics = router.getStatistics("a/#");
+        assertThat(statistics.getMessageCount(), is(2L));
+        assertThat(statistics.getSubscriberCount(), is(1));
+        assertThat(router.getStatistics("a/b").getMessageCount(), is(1L));
+        assertThat(router.getStatistics().size(), is(2));
+    }
+
+    @Test
+    public void failingSubscriberDoesNotStopRouting() {
+        List<String> received = new ArrayList<>();
+        router.subscribe("a/b", (topic, payload) -> {
+            throw new IllegalStateException("test");
+        });
+        router.subscribe("a/b", (topic, payload) -> received.add(topic));
+        router.route("a/b", bytes("1"), false);
+        assertThat(received, is(Arrays.asList("a/b")));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,356 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.network.internal.utils.NetworkUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link NetworkSweep} checks a whole range of addresses for reachable devices, without a thread or a process
+ * per address. Reachable devices are reported as partial results to a {@link PresenceDetectionListener} as soon as
+ * they are found. There are three independent sweeps that can run concurrently in different threads:
+ * <ul>
+ * <li>{@link #tcpSweep(Collection)} connects to all addresses and service ports with non-blocking sockets on a single
+ * selector. The number of pending connections is limited.
+ * <li>{@link #icmpSweep(Collection)} pings all addresses with a single invocation of the fping utility.
+ * <li>{@link #arpSweep(Collection)} sends a Bonjour wake up packet to all addresses, which makes the operating system
+ * resolve them via ARP, and reports all addresses that are found in the ARP table afterwards.
+ * </ul>
+ * A sweep can be cancelled from another thread with {@link #cancel()}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class NetworkSweep {
+    private static final Pattern FPING_LINE = Pattern.compile("^(\\S+)(?:.*\\(([\\d.]+) ms)?");
+    private static final File NULL_FILE = new File("/dev/null");
+
+    private final Logger logger = LoggerFactory.getLogger(NetworkSweep.class);
+    private final NetworkUtils networkUtils;
+    private final PresenceDetectionListener listener;
+    private final Set<Integer> tcpPorts;
+    private final int timeoutInMS;
+    private final int maxPendingConnections;
+
+    private volatile boolean cancelled;
+    private volatile @Nullable Selector selector;
+    private volatile @Nullable Process fping;
+
+    /**
+     * A pending TCP connection attempt.
+     */
+    private static class ConnectAttempt {
+        final String hostAddress;
+        final int port;
+        final long start = System.nanoTime();
+
+        ConnectAttempt(String hostAddress, int port) {
+            this.hostAddress = hostAddress;
+            this.port = port;
+        }
+    }
+
+    /**
+     * Creates a sweep.
+     *
+     * @param networkUtils The network utilities, for the ARP table
+     * @param listener Reachable devices are reported to {@link PresenceDetectionListener#partialDetectionResult}
+     * @param tcpPorts The TCP service ports to connect to
+     * @param timeoutInMS The timeout of a single connection attempt or ping
+     * @param maxPendingConnections The maximum number of TCP connection attempts at the same time
+     */
+    public NetworkSweep(NetworkUtils networkUtils, PresenceDetectionListener listener, Set<Integer> tcpPorts,
+            int timeoutInMS, int maxPendingConnections) {
+        this.networkUtils = networkUtils;
+        this.listener = listener;
+        this.tcpPorts = tcpPorts;
+        this.timeoutInMS = timeoutInMS;
+        this.maxPendingConnections = maxPendingConnections;
+    }
+
+    /**
+     * Cancels all running sweeps. The sweep methods return as soon as possible.
+     */
+    public void cancel() {
+        cancelled = true;
+        Selector selector = this.selector;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        Process fping = this.fping;
+        if (fping != null) {
+            fping.destroy();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Connects to every service port of every address. Blocks until all connection attempts succeeded, failed or
+     * timed out.
+     *
+     * @param hostAddresses The IP addresses
+     */
+    public void tcpSweep(Collection<String> hostAddresses) {
+        if (tcpPorts.isEmpty() || hostAddresses.isEmpty()) {
+            return;
+        }
+        final long timeout = TimeUnit.MILLISECONDS.toNanos(timeoutInMS);
+        final Iterator<String> addresses = hostAddresses.iterator();
+        Iterator<Integer> ports = tcpPorts.iterator();
+        String hostAddress = null;
+        // Connection attempts in the order they were started, which is also the order of their deadlines
+        final ArrayDeque<SelectionKey> pending = new ArrayDeque<>();
+
+        try (Selector selector = Selector.open()) {
+            this.selector = selector;
+            while (!cancelled) {
+                // Start new connection attempts until the limit is reached
+                while (pending.size() < maxPendingConnections && (ports.hasNext() || addresses.hasNext())) {
+                    if (hostAddress == null || !ports.hasNext()) {
+                        hostAddress = addresses.next();
+                        ports = tcpPorts.iterator();
+                    }
+                    SelectionKey key = connect(selector, new ConnectAttempt(hostAddress, ports.next()));
+                    if (key != null) {
+                        pending.add(key);
+                    }
+                }
+                if (pending.isEmpty()) {
+                    break;
+                }
+
+                final ConnectAttempt oldest = (ConnectAttempt) pending.getFirst().attachment();
+                final long wait = TimeUnit.NANOSECONDS.toMillis(oldest.start + timeout - System.nanoTime());
+                selector.select(Math.max(1, wait));
+
+                for (SelectionKey key : selector.selectedKeys()) {
+                    finishConnect(key);
+                }
+                selector.selectedKeys().clear();
+
+                // Give up on expired attempts and forget about finished ones
+                final long now = System.nanoTime();
+                while (!pending.isEmpty() && (!pending.getFirst().isValid()
+                        || ((ConnectAttempt) pending.getFirst().attachment()).start + timeout - now <= 0)) {
+                    close(pending.removeFirst());
+                }
+                pending.removeIf(key -> !key.isValid());
+            }
+        } catch (IOException e) {
+            logger.warn("TCP sweep failed: {}", e.getMessage());
+        } finally {
+            this.selector = null;
+            pending.forEach(NetworkSweep::close);
+        }
+    }
+
+    private @Nullable SelectionKey connect(Selector selector, ConnectAttempt attempt) {
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            if (channel.connect(new InetSocketAddress(attempt.hostAddress, attempt.port))) {
+                channel.close();
+                tcpServiceReachable(attempt);
+                return null;
+            }
+            return channel.register(selector, SelectionKey.OP_CONNECT, attempt);
+        } catch (IOException e) {
+            // For example "Network is unreachable"
+            logger.trace("Failed to connect to {}:{}: {}", attempt.hostAddress, attempt.port, e.getMessage());
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+            return null;
+        }
+    }
+
+    private void finishConnect(SelectionKey key) {
+        final ConnectAttempt attempt = (ConnectAttempt) key.attachment();
+        try {
+            if (((SocketChannel) key.channel()).finishConnect()) {
+                tcpServiceReachable(attempt);
+            }
+        } catch (IOException ignored) {
+            // Connection refused, host unreachable: The service is not available
+        }
+        close(key);
+    }
+
+    private static void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void tcpServiceReachable(ConnectAttempt attempt) {
+        final double latency = Math.round((System.nanoTime() - attempt.start) / 1000000.0f);
+        PresenceDetectionValue v = new PresenceDetectionValue(attempt.hostAddress, latency);
+        v.addType(PresenceDetectionType.TCP_CONNECTION);
+        v.addReachableTcpService(attempt.port);
+        listener.partialDetectionResult(v);
+    }
+
+    /**
+     * Pings all addresses with a single fping process. Reachable addresses are reported while fping is still running.
+     * Check {@link NetworkUtils#isFpingAvailable()} before.
+     *
+     * @param hostAddresses The IP addresses
+     */
+    public void icmpSweep(Collection<String> hostAddresses) {
+        if (hostAddresses.isEmpty() || cancelled) {
+            return;
+        }
+        // -a: Only print reachable hosts, -e: Print the latency, -r 0: No retries, -t: Timeout in ms
+        ProcessBuilder builder = new ProcessBuilder("fping", "-a", "-e", "-r", "0", "-t", String.valueOf(timeoutInMS));
+        // Unreachable hosts are reported on stderr, which is not of interest
+        builder.redirectError(NULL_FILE);
+        try {
+            final Process process = builder.start();
+            fping = process;
+            // fping reads the targets from stdin if none are given on the command line
+            try (Writer writer = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.US_ASCII)) {
+                for (String hostAddress : hostAddresses) {
+                    writer.write(hostAddress);
+                    writer.write('\n');
+                }
+            }
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.US_ASCII))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    PresenceDetectionValue v = parseFpingLine(line);
+                    if (v != null) {
+                        listener.partialDetectionResult(v);
+                    }
+                }
+            }
+            process.waitFor();
+        } catch (IOException e) {
+            if (!cancelled) {
+                logger.debug("ICMP sweep with fping failed: {}", e.getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Reset interrupt flag
+        } finally {
+            Process process = fping;
+            if (process != null) {
+                process.destroy();
+            }
+            fping = null;
+        }
+    }
+
+    /**
+     * Parses an output line of "fping -a -e", for example "192.168.0.1 (0.45 ms)".
+     *
+     * @param line An output line
+     * @return A reachable value or null if the line cannot be parsed
+     */
+    static @Nullable PresenceDetectionValue parseFpingLine(String line) {
+        Matcher matcher = FPING_LINE.matcher(line.trim());
+        if (!matcher.find()) {
+            return null;
+        }
+        final String latency = matcher.group(2);
+        PresenceDetectionValue v = new PresenceDetectionValue(matcher.group(1),
+                latency != null ? Math.round(Double.parseDouble(latency)) : 0);
+        v.addType(PresenceDetectionType.ICMP_PING);
+        return v;
+    }
+
+    /**
+     * Sends a Bonjour packet (UDP port 5353) to every address, which wakes up sleeping iOS devices and makes the
+     * operating system resolve the addresses via ARP. After the timeout the ARP table is read and all addresses with a
+     * MAC address are reported. No external tool is required for this.
+     *
+     * @param hostAddresses The IPv4 addresses
+     */
+    public void arpSweep(Collection<String> hostAddresses) {
+        if (hostAddresses.isEmpty() || cancelled) {
+            return;
+        }
+        final long start = System.nanoTime();
+        try (DatagramSocket socket = new DatagramSocket()) {
+            byte[] buffer = new byte[0];
+            for (String hostAddress : hostAddresses) {
+                if (cancelled) {
+                    return;
+                }
+                try {
+                    socket.send(new DatagramPacket(buffer, buffer.length, InetAddress.getByName(hostAddress), 5353));
+                } catch (IOException ignored) {
+                    // For example a port unreachable error of a previous packet
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("Failed to send Bonjour packets: {}", e.getMessage());
+        }
+
+        try {
+            final long wait = timeoutInMS - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (wait > 0) {
+                Thread.sleep(wait);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Reset interrupt flag
+            return;
+        }
+        if (cancelled) {
+            return;
+        }
+
+        final Map<String, String> arpTable = networkUtils.getArpTable();
+        for (String hostAddress : hostAddresses) {
+            if (arpTable.containsKey(hostAddress)) {
+                PresenceDetectionValue v = new PresenceDetectionValue(hostAddress, 0);
+                v.addType(PresenceDetectionType.ARP_PING);
+                listener.partialDetectionResult(v);
+            }
+        }
+    }
+}
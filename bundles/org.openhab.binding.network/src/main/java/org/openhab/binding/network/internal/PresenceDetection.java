@@ -96,6 +96,13 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         return tcpPorts;
     }
 
+    /**
+     * Return the address of the hostname if it has been resolved already. Does not block.
+     */
+    @Nullable InetAddress getResolvedDestination() {
+        return cachedDestination;
+    }
+
     public long getRefreshInterval() {
         return refreshIntervalInMS;
     }
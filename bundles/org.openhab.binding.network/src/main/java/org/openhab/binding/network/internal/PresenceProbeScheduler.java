@@ -0,0 +1,320 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.network.internal.utils.NetworkUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link PresenceProbeScheduler} performs the periodic presence detections of all network things of the binding
+ * with a single timer.
+ * <p>
+ * Things that probe the same host in the same way share a single {@link PresenceDetection} (a probe target), which is
+ * probed with the shortest refresh interval of those things. The probes of all targets are spread evenly over their
+ * refresh interval instead of all being started at the same time.
+ * <p>
+ * Evidence that is available without sending anything postpones the next active probe of a target by one refresh
+ * interval: DHCP requests of the device (see {@link PresenceDetection#setUseDhcpSniffing(boolean)}) and, for ping
+ * devices, a new or changed entry of the device in the ARP table of the operating system.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class PresenceProbeScheduler {
+    static final long TICK_INTERVAL_MS = 1000;
+    /** New targets are probed within this time, to not start all probes at once after a restart */
+    static final long INITIAL_SPREAD_MS = 10000;
+    static final long ARP_TABLE_INTERVAL_MS = 10000;
+    static final long STATISTICS_LOG_INTERVAL_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private final Logger logger = LoggerFactory.getLogger(PresenceProbeScheduler.class);
+    private final ScheduledExecutorService scheduler;
+    private final NetworkUtils networkUtils;
+
+    private final Map<String, ProbeTarget> targets = new HashMap<>();
+    private final Map<PresenceDetectionListener, ProbeTarget> targetByListener = new HashMap<>();
+    private @Nullable ScheduledFuture<?> tickJob;
+    private @Nullable Map<String, String> arpTable;
+    private long nextArpTableRead;
+    private long nextStatisticsLog;
+
+    private final AtomicLong probes = new AtomicLong();
+    private final AtomicLong postponedProbes = new AtomicLong();
+    private final AtomicLong reachableResults = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
+
+    /**
+     * All things with the same probe key share a presence detection. It forwards all results to the things.
+     */
+    class ProbeTarget implements PresenceDetectionListener {
+        final String key;
+        final boolean pingDevice;
+        @NonNullByDefault({}) PresenceDetection detection;
+        final Map<PresenceDetectionListener, Long> refreshIntervals = new HashMap<>();
+        final List<PresenceDetectionListener> listeners = new CopyOnWriteArrayList<>();
+        long nextProbe;
+        volatile boolean probing;
+
+        ProbeTarget(String key, boolean pingDevice) {
+            this.key = key;
+            this.pingDevice = pingDevice;
+        }
+
+        long getRefreshInterval() {
+            return refreshIntervals.values().stream().mapToLong(Long::longValue).min().orElse(60000);
+        }
+
+        synchronized void startProbe(long now) {
+            nextProbe = nextAlignedProbe(now, getRefreshInterval(), key.hashCode());
+            // Results may arrive before performPresenceDetection() returns
+            probing = true;
+            if (detection.performPresenceDetection(false)) {
+                probes.incrementAndGet();
+            } else {
+                probing = false;
+            }
+        }
+
+        /**
+         * The device has been seen without an active probe. The next probe is not necessary before one refresh
+         * interval has passed.
+         */
+        synchronized void evidence(long now) {
+            final long postponed = now + getRefreshInterval();
+            if (postponed > nextProbe) {
+                nextProbe = postponed;
+                postponedProbes.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void partialDetectionResult(PresenceDetectionValue value) {
+            if (!probing) {
+                // For example a DHCP request
+                evidence(System.currentTimeMillis());
+            }
+            listeners.forEach(l -> l.partialDetectionResult(value));
+        }
+
+        @Override
+        public void finalDetectionResult(PresenceDetectionValue value) {
+            probing = false;
+            if (value.isReachable()) {
+                reachableResults.incrementAndGet();
+                totalLatency.addAndGet(Math.round(value.getLowestLatency()));
+            }
+            listeners.forEach(l -> l.finalDetectionResult(value));
+        }
+    }
+
+    public PresenceProbeScheduler(ScheduledExecutorService scheduler, NetworkUtils networkUtils) {
+        this.scheduler = scheduler;
+        this.networkUtils = networkUtils;
+    }
+
+    /**
+     * Registers a thing. Things with the same hostname, port and timeout share a presence detection. If there is no
+     * presence detection for them yet, it is created.
+     *
+     * @param listener The listener of the thing, it receives all results of the presence detection
+     * @param hostname The hostname or IP address
+     * @param port The TCP port of a service device or null for a ping device
+     * @param timeout The timeout of a presence detection in ms
+     * @param refreshInterval The refresh interval of the thing in ms
+     * @param factory Creates and configures a presence detection with the given listener
+     * @return The shared presence detection
+     */
+    public synchronized PresenceDetection register(PresenceDetectionListener listener, String hostname,
+            @Nullable Integer port, int timeout, long refreshInterval,
+            Function<PresenceDetectionListener, PresenceDetection> factory) {
+        unregister(listener);
+
+        final String key = hostname + ":" + (port != null ? port.toString() : "ping") + ":" + timeout;
+        ProbeTarget target = targets.get(key);
+        if (target == null) {
+            target = new ProbeTarget(key, port == null);
+            target.detection = factory.apply(target);
+            target.nextProbe = System.currentTimeMillis()
+                    + Math.floorMod(key.hashCode(), Math.min(refreshInterval, INITIAL_SPREAD_MS));
+            targets.put(key, target);
+        }
+        synchronized (target) {
+            target.refreshIntervals.put(listener, refreshInterval);
+        }
+        target.listeners.add(listener);
+        targetByListener.put(listener, target);
+
+        if (tickJob == null) {
+            tickJob = scheduler.scheduleWithFixedDelay(() -> tick(System.currentTimeMillis()), TICK_INTERVAL_MS,
+                    TICK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+        return target.detection;
+    }
+
+    /**
+     * Unregisters a thing. The presence detection is stopped if no other thing uses it.
+     *
+     * @param listener The listener of the thing
+     */
+    public synchronized void unregister(PresenceDetectionListener listener) {
+        ProbeTarget target = targetByListener.remove(listener);
+        if (target == null) {
+            return;
+        }
+        target.listeners.remove(listener);
+        synchronized (target) {
+            target.refreshIntervals.remove(listener);
+        }
+        if (target.listeners.isEmpty()) {
+            targets.remove(target.key);
+            target.detection.stopAutomaticRefresh();
+        }
+        if (targets.isEmpty()) {
+            dispose();
+        }
+    }
+
+    /**
+     * Stops the timer. Registered things are not probed anymore.
+     */
+    public synchronized void dispose() {
+        ScheduledFuture<?> job = tickJob;
+        if (job != null) {
+            job.cancel(false);
+        }
+        tickJob = null;
+    }
+
+    /**
+     * Starts the probes that are due and looks for evidence in the ARP table.
+     *
+     * @param now The current time in ms
+     */
+    synchronized void tick(long now) {
+        if (now >= nextArpTableRead && targets.values().stream().anyMatch(t -> t.pingDevice)) {
+            nextArpTableRead = now + ARP_TABLE_INTERVAL_MS;
+            observeArpTable(now, networkUtils.getArpTable());
+        }
+
+        for (ProbeTarget target : new ArrayList<>(targets.values())) {
+            if (now >= target.nextProbe && !target.probing) {
+                target.startProbe(now);
+            }
+        }
+
+        if (now >= nextStatisticsLog) {
+            nextStatisticsLog = now + STATISTICS_LOG_INTERVAL_MS;
+            logger.debug("Presence probes: {}", this);
+        }
+    }
+
+    /**
+     * A device that appears in the ARP table or changes its MAC address has sent something recently.
+     */
+    void observeArpTable(long now, Map<String, String> newArpTable) {
+        final Map<String, String> arpTable = this.arpTable;
+        this.arpTable = newArpTable;
+        if (arpTable == null) {
+            // The first observation only serves as a reference, its entries may be old
+            return;
+        }
+        for (ProbeTarget target : targets.values()) {
+            InetAddress address = target.detection.getResolvedDestination();
+            if (!target.pingDevice || !(address instanceof Inet4Address)) {
+                continue;
+            }
+            final String ip = address.getHostAddress();
+            final String mac = newArpTable.get(ip);
+            if (mac != null && !mac.equals(arpTable.get(ip)) && !target.probing) {
+                logger.trace("{} has been seen in the ARP table", ip);
+                target.partialDetectionResult(
+                        target.detection.updateReachableValue(PresenceDetectionType.ARP_PING, 0));
+            }
+        }
+    }
+
+    /**
+     * Return the time of the next probe: The next time that is congruent to the phase modulo the refresh interval,
+     * but at least half a refresh interval in the future. Targets with different phases are therefore probed at
+     * different times.
+     *
+     * @param now The current time in ms
+     * @param refreshInterval The refresh interval in ms
+     * @param phase An arbitrary value, for example a hash code
+     */
+    static long nextAlignedProbe(long now, long refreshInterval, long phase) {
+        long next = now - Math.floorMod(now - phase, refreshInterval) + refreshInterval;
+        if (next - now < refreshInterval / 2) {
+            next += refreshInterval;
+        }
+        return next;
+    }
+
+    /**
+     * Return the number of hosts that are probed.
+     */
+    public synchronized int getTargetCount() {
+        return targets.size();
+    }
+
+    /**
+     * Return the number of things that are registered.
+     */
+    public synchronized int getThingCount() {
+        return targetByListener.size();
+    }
+
+    /**
+     * Return the number of active presence detections that have been performed.
+     */
+    public long getProbeCount() {
+        return probes.get();
+    }
+
+    /**
+     * Return how often a probe was postponed because of DHCP or ARP evidence.
+     */
+    public long getPostponedProbeCount() {
+        return postponedProbes.get();
+    }
+
+    /**
+     * Return the average latency of all successful presence detections in ms.
+     */
+    public double getAverageLatency() {
+        final long count = reachableResults.get();
+        return count > 0 ? totalLatency.get() / (double) count : 0;
+    }
+
+    @Override
+    public String toString() {
+        return getThingCount() + " things, " + getTargetCount() + " hosts, " + getProbeCount() + " probes, "
+                + getPostponedProbeCount() + " postponed, average latency " + getAverageLatency() + " ms";
+    }
+}
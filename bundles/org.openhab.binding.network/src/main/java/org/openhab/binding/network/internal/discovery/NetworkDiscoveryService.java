@@ -22,6 +22,7 @@ import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -33,7 +34,7 @@ import org.eclipse.smarthome.config.discovery.DiscoveryResultBuilder;
 import org.eclipse.smarthome.config.discovery.DiscoveryService;
 import org.eclipse.smarthome.core.thing.ThingUID;
 import org.openhab.binding.network.internal.NetworkBindingConfiguration;
-import org.openhab.binding.network.internal.PresenceDetection;
+import org.openhab.binding.network.internal.NetworkSweep;
 import org.openhab.binding.network.internal.PresenceDetectionListener;
 import org.openhab.binding.network.internal.PresenceDetectionValue;
 import org.openhab.binding.network.internal.utils.NetworkUtils;
@@ -48,6 +49,9 @@ import org.slf4j.LoggerFactory;
  * The {@link NetworkDiscoveryService} is responsible for discovering devices on
  * the current Network. It uses every Network Interface which is connected to a network.
  * It tries common TCP ports to connect to, ICMP pings and ARP pings.
+ * <p>
+ * All addresses are checked by a {@link NetworkSweep} with three concurrent sweeps (TCP, ICMP, ARP) instead of a
+ * thread per address.
  *
  * @author Marc Mettke - Initial contribution
  * @author David Graeff - Rewritten
@@ -57,6 +61,7 @@ import org.slf4j.LoggerFactory;
 public class NetworkDiscoveryService extends AbstractDiscoveryService implements PresenceDetectionListener {
     static final int PING_TIMEOUT_IN_MS = 500;
     static final int MAXIMUM_IPS_PER_INTERFACE = 255;
+    static final int MAXIMUM_PENDING_CONNECTIONS = 256;
     private static final long DISCOVERY_RESULT_TTL = TimeUnit.MINUTES.toSeconds(10);
     private final Logger logger = LoggerFactory.getLogger(NetworkDiscoveryService.class);
 
@@ -65,8 +70,8 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     // TCP port 1025 (Xbox / MS-RPC)
     private Set<Integer> tcpServicePorts = Collections
             .unmodifiableSet(Stream.of(80, 548, 554, 1025).collect(Collectors.toSet()));
-    private Integer scannedIPcount = 0;
     private @Nullable ExecutorService executorService = null;
+    private @Nullable NetworkSweep sweep = null;
     private final NetworkBindingConfiguration configuration = new NetworkBindingConfiguration();
     private final NetworkUtils networkUtils = new NetworkUtils();
 
@@ -96,6 +101,10 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     @Override
     @Deactivate
     protected void deactivate() {
+        final NetworkSweep sweep = this.sweep;
+        if (sweep != null) {
+            sweep.cancel();
+        }
         if (executorService != null) {
             executorService.shutdown();
         }
@@ -120,45 +129,51 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     }
 
     /**
-     * Starts the DiscoveryThread for each IP on each interface on the network
+     * Sweeps all IPs on each interface on the network. The TCP, ICMP and ARP sweeps run concurrently in a thread each.
+     * ICMP pings are only performed if system pings are allowed and the fping utility is available.
      */
     @Override
-    protected void startScan() {
-        if (executorService == null) {
-            executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
-        }
-        final ExecutorService service = executorService;
-        if (service == null) {
+    protected synchronized void startScan() {
+        if (executorService != null) {
+            logger.debug("There is already an ongoing network scan");
             return;
         }
         removeOlderResults(getTimestampOfLastScan(), null);
         logger.trace("Starting Network Device Discovery");
 
         final Set<String> networkIPs = networkUtils.getNetworkIPs(MAXIMUM_IPS_PER_INTERFACE);
-        scannedIPcount = 0;
-
-        for (String ip : networkIPs) {
-            final PresenceDetection s = new PresenceDetection(this, 2000);
-            s.setHostname(ip);
-            s.setIOSDevice(true);
-            s.setUseDhcpSniffing(false);
-            s.setTimeout(PING_TIMEOUT_IN_MS);
-            // Ping devices
-            s.setUseIcmpPing(true);
-            s.setUseArpPing(true, configuration.arpPingToolPath, configuration.arpPingUtilMethod);
-            // TCP devices
-            s.setServicePorts(tcpServicePorts);
+        final NetworkSweep sweep = new NetworkSweep(networkUtils, this, tcpServicePorts, PING_TIMEOUT_IN_MS,
+                MAXIMUM_PENDING_CONNECTIONS);
+        final boolean icmpSweep = configuration.allowSystemPings && networkUtils.isFpingAvailable();
+        if (!icmpSweep) {
+            logger.debug("ICMP pings are skipped. They require system pings to be allowed and the fping utility");
+        }
+        final ExecutorService service = Executors.newFixedThreadPool(3);
+        this.executorService = service;
+        this.sweep = sweep;
 
+        final AtomicInteger runningSweeps = new AtomicInteger(icmpSweep ? 3 : 2);
+        final Runnable sweepFinished = () -> {
+            if (runningSweeps.decrementAndGet() == 0) {
+                logger.trace("Scan of {} IPs successful", networkIPs.size());
+                stopScan(sweep);
+            }
+        };
+        service.execute(() -> {
+            Thread.currentThread().setName("Discovery TCP sweep");
+            sweep.tcpSweep(networkIPs);
+            sweepFinished.run();
+        });
+        service.execute(() -> {
+            Thread.currentThread().setName("Discovery ARP sweep");
+            sweep.arpSweep(networkIPs);
+            sweepFinished.run();
+        });
+        if (icmpSweep) {
             service.execute(() -> {
-                Thread.currentThread().setName("Discovery thread " + ip);
-                s.performPresenceDetection(true);
-                synchronized (scannedIPcount) {
-                    scannedIPcount += 1;
-                    if (scannedIPcount == networkIPs.size()) {
-                        logger.trace("Scan of {} IPs successful", scannedIPcount);
-                        stopScan();
-                    }
-                }
+                Thread.currentThread().setName("Discovery ICMP sweep");
+                sweep.icmpSweep(networkIPs);
+                sweepFinished.run();
             });
         }
     }
@@ -166,27 +181,35 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     @Override
     protected synchronized void stopScan() {
         super.stopScan();
+        final NetworkSweep sweep = this.sweep;
+        if (sweep != null) {
+            sweep.cancel();
+        }
+        this.sweep = null;
         final ExecutorService service = executorService;
         if (service == null) {
             return;
         }
-
-        try {
-            service.awaitTermination(PING_TIMEOUT_IN_MS, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt(); // Reset interrupt flag
-        }
         service.shutdown();
         executorService = null;
     }
 
+    /**
+     * Stops the scan if the given sweep is still the current one.
+     */
+    private synchronized void stopScan(NetworkSweep finishedSweep) {
+        if (sweep == finishedSweep) {
+            stopScan();
+        }
+    }
+
     public static ThingUID createServiceUID(String ip, int tcpPort) {
         // uid must not contains dots
         return new ThingUID(SERVICE_DEVICE, ip.replace('.', '_') + "_" + String.valueOf(tcpPort));
     }
 
     /**
-     * Submit newly discovered devices. This method is called by the spawned threads in {@link startScan}.
+     * Submit newly discovered devices. This method is called by the sweep threads in {@link startScan}.
      *
      * @param ip The device IP
      * @param tcpPort The TCP port
@@ -229,7 +252,7 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     }
 
     /**
-     * Submit newly discovered devices. This method is called by the spawned threads in {@link startScan}.
+     * Submit newly discovered devices. This method is called by the sweep threads in {@link startScan}.
      *
      * @param ip The device IP
      */
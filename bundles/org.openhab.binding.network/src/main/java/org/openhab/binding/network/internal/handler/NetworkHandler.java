@@ -21,6 +21,7 @@ import java.util.Map;
 import java.util.TimeZone;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.library.types.DateTimeType;
 import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.OnOffType;
@@ -38,6 +39,7 @@ import org.openhab.binding.network.internal.NetworkHandlerConfiguration;
 import org.openhab.binding.network.internal.PresenceDetection;
 import org.openhab.binding.network.internal.PresenceDetectionListener;
 import org.openhab.binding.network.internal.PresenceDetectionValue;
+import org.openhab.binding.network.internal.PresenceProbeScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,6 +57,7 @@ public class NetworkHandler extends BaseThingHandler implements PresenceDetectio
 
     private boolean isTCPServiceDevice;
     private NetworkBindingConfiguration configuration;
+    private final @Nullable PresenceProbeScheduler probeScheduler;
 
     // How many retries before a device is deemed offline
     int retries;
@@ -66,14 +69,24 @@ public class NetworkHandler extends BaseThingHandler implements PresenceDetectio
      * Do not call this directly, but use the {@see NetworkHandlerBuilder} instead.
      */
     public NetworkHandler(Thing thing, boolean isTCPServiceDevice, NetworkBindingConfiguration configuration) {
+        this(thing, isTCPServiceDevice, configuration, null);
+    }
+
+    /**
+     * Creates a handler that shares the presence detection and refresh timer of the given probe scheduler with
+     * other things instead of owning a presence detection with its own refresh job.
+     */
+    public NetworkHandler(Thing thing, boolean isTCPServiceDevice, NetworkBindingConfiguration configuration,
+            @Nullable PresenceProbeScheduler probeScheduler) {
         super(thing);
         this.isTCPServiceDevice = isTCPServiceDevice;
         this.configuration = configuration;
+        this.probeScheduler = probeScheduler;
     }
 
     private void refreshValue(ChannelUID channelUID) {
         // We are not yet even initialised, don't do anything
-        if (!presenceDetection.isAutomaticRefreshing()) {
+        if (presenceDetection == null || (probeScheduler == null && !presenceDetection.isAutomaticRefreshing())) {
             return;
         }
 
@@ -144,8 +157,11 @@ public class NetworkHandler extends BaseThingHandler implements PresenceDetectio
 
     @Override
     public void dispose() {
+        PresenceProbeScheduler probeScheduler = this.probeScheduler;
         PresenceDetection detection = presenceDetection;
-        if (detection != null) {
+        if (probeScheduler != null) {
+            probeScheduler.unregister(this);
+        } else if (detection != null) {
             detection.stopAutomaticRefresh();
         }
         presenceDetection = null;
@@ -159,16 +175,57 @@ public class NetworkHandler extends BaseThingHandler implements PresenceDetectio
         handlerConfiguration = getConfigAs(NetworkHandlerConfiguration.class);
 
         this.presenceDetection = presenceDetection;
+        if (isTCPServiceDevice && handlerConfiguration.port == null) {
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, "No port configured!");
+            return;
+        }
+        configure(presenceDetection);
+
+        this.retries = handlerConfiguration.retry.intValue();
+
+        updateStatus(ThingStatus.ONLINE);
+        presenceDetection.startAutomaticRefresh(scheduler);
+
+        updateNetworkProperties();
+    }
+
+    /**
+     * Initialize with a presence detection of the probe scheduler, which might be shared with other things.
+     */
+    private void initializeShared(PresenceProbeScheduler probeScheduler) {
+        handlerConfiguration = getConfigAs(NetworkHandlerConfiguration.class);
+
+        Integer port = handlerConfiguration.port;
+        if (isTCPServiceDevice && port == null) {
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, "No port configured!");
+            return;
+        }
+        presenceDetection = probeScheduler.register(this, handlerConfiguration.hostname,
+                isTCPServiceDevice ? port : null, handlerConfiguration.timeout.intValue(),
+                handlerConfiguration.refreshInterval.longValue(), listener -> {
+                    PresenceDetection detection = new PresenceDetection(listener,
+                            configuration.cacheDeviceStateTimeInMS.intValue());
+                    configure(detection);
+                    return detection;
+                });
+
+        this.retries = handlerConfiguration.retry.intValue();
+
+        updateStatus(ThingStatus.ONLINE);
+
+        updateNetworkProperties();
+    }
+
+    /**
+     * Applies the thing and binding configuration to a presence detection.
+     */
+    private void configure(PresenceDetection presenceDetection) {
         presenceDetection.setHostname(handlerConfiguration.hostname);
 
-        if (isTCPServiceDevice) {
-            Integer port = handlerConfiguration.port;
-            if (port == null) {
-                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, "No port configured!");
-                return;
-            }
+        Integer port = handlerConfiguration.port;
+        if (isTCPServiceDevice && port != null) {
             presenceDetection.setServicePorts(Collections.singleton(port));
-        } else {
+        } else if (!isTCPServiceDevice) {
             // It does not harm to send an additional UDP packet to a device,
             // therefore we assume all ping devices are iOS devices. If this
             // does not work for all users for some obscure reason, we can make
@@ -180,14 +237,8 @@ public class NetworkHandler extends BaseThingHandler implements PresenceDetectio
             presenceDetection.setUseArpPing(true, configuration.arpPingToolPath, configuration.arpPingUtilMethod);
         }
 
-        this.retries = handlerConfiguration.retry.intValue();
         presenceDetection.setRefreshInterval(handlerConfiguration.refreshInterval.longValue());
         presenceDetection.setTimeout(handlerConfiguration.timeout.intValue());
-
-        updateStatus(ThingStatus.ONLINE);
-        presenceDetection.startAutomaticRefresh(scheduler);
-
-        updateNetworkProperties();
     }
 
     private void updateNetworkProperties() {
@@ -204,7 +255,12 @@ public class NetworkHandler extends BaseThingHandler implements PresenceDetectio
     // Create a new network service and apply all configurations.
     @Override
     public void initialize() {
-        initialize(new PresenceDetection(this, configuration.cacheDeviceStateTimeInMS.intValue()));
+        PresenceProbeScheduler probeScheduler = this.probeScheduler;
+        if (probeScheduler != null) {
+            initializeShared(probeScheduler);
+        } else {
+            initialize(new PresenceDetection(this, configuration.cacheDeviceStateTimeInMS.intValue()));
+        }
     }
 
     /**
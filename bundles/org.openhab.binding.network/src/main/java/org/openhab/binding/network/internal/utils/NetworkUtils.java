@@ -28,10 +28,21 @@ import java.net.Socket;
 import java.net.SocketAddress;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang.StringUtils;
@@ -52,6 +63,10 @@ import org.slf4j.LoggerFactory;
  */
 @NonNullByDefault
 public class NetworkUtils {
+    private static final Path PROC_ARP_TABLE = Paths.get("/proc/net/arp");
+    private static final Pattern ARP_TABLE_ENTRY = Pattern.compile(
+            "(\\d{1,3}(?:\\.\\d{1,3}){3})\\D.*?((?:[0-9a-fA-F]{1,2}[:-]){5}[0-9a-fA-F]{1,2})(?![0-9a-fA-F])");
+
     private final Logger logger = LoggerFactory.getLogger(NetworkUtils.class);
 
     /**
@@ -213,6 +228,63 @@ public class NetworkUtils {
         return ArpPingUtilEnum.UNKNOWN_TOOL;
     }
 
+    /**
+     * Return true if the fping utility is available. It pings many hosts with a single process.
+     */
+    public boolean isFpingAvailable() {
+        String result = ExecUtil.executeCommandLineAndWaitResponse("fping -v", 500);
+        return !StringUtils.isBlank(result) && result.contains("fping");
+    }
+
+    /**
+     * Return the IPv4 neighbours (ARP table) of this host. Reading it does not send anything over the network. A
+     * neighbour is listed if it answered an ARP request recently, for example caused by any IP packet sent to it.
+     * <p>
+     * On Linux the kernel table is read directly, on other operating systems the output of "arp -a" is parsed.
+     *
+     * @return A map of IPv4 addresses to MAC addresses (lower case, colon separated). Empty if the table could not be
+     *         read.
+     */
+    public Map<String, String> getArpTable() {
+        if (Files.isReadable(PROC_ARP_TABLE)) {
+            try {
+                return parseArpTable(Files.readAllLines(PROC_ARP_TABLE, StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                logger.trace("Failed to read the ARP table", e);
+            }
+        }
+        String result = ExecUtil.executeCommandLineAndWaitResponse("arp -a", 2000);
+        if (StringUtils.isBlank(result)) {
+            return Collections.emptyMap();
+        }
+        return parseArpTable(Arrays.asList(result.split("\\r?\\n")));
+    }
+
+    /**
+     * Parses the lines of an ARP table. The formats of /proc/net/arp on Linux and of "arp -a" on Windows and MacOS
+     * are supported. Incomplete, broadcast and multicast entries are skipped.
+     *
+     * @param lines The lines of the ARP table
+     * @return A map of IPv4 addresses to MAC addresses (lower case, colon separated)
+     */
+    public static Map<String, String> parseArpTable(List<String> lines) {
+        Map<String, String> table = new HashMap<>();
+        for (String line : lines) {
+            Matcher matcher = ARP_TABLE_ENTRY.matcher(line);
+            if (!matcher.find()) {
+                continue;
+            }
+            String[] octets = matcher.group(2).toLowerCase().split("[:-]");
+            // Skip unresolved entries (all zero) as well as broadcast and multicast addresses (group bit set)
+            if ((Integer.parseInt(octets[0], 16) & 1) != 0 || Arrays.stream(octets).allMatch(o -> o.matches("0+"))) {
+                continue;
+            }
+            table.put(matcher.group(1), Arrays.stream(octets).map(o -> o.length() == 1 ? "0" + o : o)
+                    .collect(Collectors.joining(":")));
+        }
+        return table;
+    }
+
     public enum IpPingMethodEnum {
         JAVA_PING,
         WINDOWS_PING,
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.network.internal.utils.NetworkUtils;
+
+/**
+ * Tests cases for {@see NetworkSweep}
+ *
+ * @author agent - Initial contribution
+ */
+public class NetworkSweepTest {
+    private final List<PresenceDetectionValue> results = Collections.synchronizedList(new ArrayList<>());
+    private final PresenceDetectionListener listener = new PresenceDetectionListener() {
+        @Override
+        public void partialDetectionResult(PresenceDetectionValue value) {
+            results.add(value);
+        }
+
+        @Override
+        public void finalDetectionResult(PresenceDetectionValue value) {
+        }
+    };
+
+    private ServerSocket server;
+    private int closedPort;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+        try (ServerSocket closed = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"))) {
+            closedPort = closed.getLocalPort();
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void tcpSweepReportsOpenPorts() {
+        NetworkSweep subject = new NetworkSweep(new NetworkUtils(), listener,
+                new HashSet<>(Arrays.asList(server.getLocalPort(), closedPort)), 1000, 10);
+
+        subject.tcpSweep(Arrays.asList("127.0.0.1"));
+
+        assertThat(results.size(), is(1));
+        PresenceDetectionValue value = results.get(0);
+        assertThat(value.getHostAddress(), is("127.0.0.1"));
+        assertThat(value.isTCPServiceReachable(), is(true));
+        assertThat(value.getReachableTCPports(), is(Collections.singletonList(server.getLocalPort())));
+    }
+
+    @Test
+    public void tcpSweepWithOnePendingConnection() {
+        NetworkSweep subject = new NetworkSweep(new NetworkUtils(), listener,
+                Collections.singleton(server.getLocalPort()), 1000, 1);
+
+        subject.tcpSweep(Arrays.asList("127.0.0.1", "127.0.0.1", "127.0.0.1"));
+
+        assertThat(results.size(), is(3));
+    }
+
+    @Test
+    public void arpSweepReportsAddressesInArpTable() {
+        NetworkUtils networkUtils = new NetworkUtils() {
+            @Override
+            public Map<String, String> getArpTable() {
+                return Collections.singletonMap("127.0.0.2", "00:11:22:33:44:55");
+            }
+        };
+        NetworkSweep subject = new NetworkSweep(networkUtils, listener, Collections.emptySet(), 10, 10);
+
+        subject.arpSweep(Arrays.asList("127.0.0.1", "127.0.0.2"));
+
+        assertThat(results.stream().map(PresenceDetectionValue::getHostAddress).collect(Collectors.toList()),
+                is(Collections.singletonList("127.0.0.2")));
+        assertThat(results.get(0).isPingReachable(), is(true));
+    }
+
+    @Test
+    public void cancelledSweepDoesNothing() {
+        NetworkSweep subject = new NetworkSweep(new NetworkUtils(), listener,
+                Collections.singleton(server.getLocalPort()), 1000, 10);
+
+        subject.cancel();
+        subject.tcpSweep(Arrays.asList("127.0.0.1"));
+        subject.icmpSweep(Arrays.asList("127.0.0.1"));
+
+        assertThat(results.isEmpty(), is(true));
+    }
+
+    @Test
+    public void parseFpingOutput() {
+        PresenceDetectionValue value = NetworkSweep.parseFpingLine("192.168.0.1 (0.45 ms)");
+        assertThat(value, is(notNullValue()));
+        assertThat(value.getHostAddress(), is("192.168.0.1"));
+        assertThat(value.isPingReachable(), is(true));
+        assertThat(value.getLowestLatency(), is(0.0));
+
+        value = NetworkSweep.parseFpingLine("192.168.0.2 (12.7 ms)");
+        assertThat(value.getLowestLatency(), is(13.0));
+
+        value = NetworkSweep.parseFpingLine("192.168.0.3");
+        assertThat(value.getHostAddress(), is("192.168.0.3"));
+        assertThat(value.isReachable(), is(true));
+
+        assertThat(NetworkSweep.parseFpingLine(""), is(nullValue()));
+    }
+}
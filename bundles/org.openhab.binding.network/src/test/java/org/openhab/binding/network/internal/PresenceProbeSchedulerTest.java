@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.network.internal.utils.NetworkUtils;
+
+/**
+ * Tests cases for {@see PresenceProbeScheduler}
+ *
+ * @author agent - Initial contribution
+ */
+public class PresenceProbeSchedulerTest {
+    private ScheduledExecutorService executor;
+    private PresenceProbeScheduler subject;
+    private final List<FakePresenceDetection> detections = new ArrayList<>();
+    private final List<PresenceDetectionValue> partialResults = new ArrayList<>();
+    private final List<PresenceDetectionValue> finalResults = new ArrayList<>();
+
+    private final PresenceDetectionListener thing1 = new Listener();
+    private final PresenceDetectionListener thing2 = new Listener();
+
+    private class Listener implements PresenceDetectionListener {
+        @Override
+        public void partialDetectionResult(PresenceDetectionValue value) {
+            partialResults.add(value);
+        }
+
+        @Override
+        public void finalDetectionResult(PresenceDetectionValue value) {
+            finalResults.add(value);
+        }
+    }
+
+    /**
+     * Counts the presence detections instead of performing them.
+     */
+    private static class FakePresenceDetection extends PresenceDetection {
+        final PresenceDetectionListener listener;
+        int probes;
+
+        FakePresenceDetection(PresenceDetectionListener listener) {
+            super(listener, 2000);
+            this.listener = listener;
+        }
+
+        @Override
+        public boolean performPresenceDetection(boolean waitForDetectionToFinish) {
+            ++probes;
+            return true;
+        }
+
+        @Override
+        @Nullable
+        InetAddress getResolvedDestination() {
+            try {
+                return InetAddress.getByName("192.168.0.10");
+            } catch (UnknownHostException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public void stopAutomaticRefresh() {
+        }
+    }
+
+    @Before
+    public void setUp() {
+        executor = Executors.newSingleThreadScheduledExecutor();
+        subject = new PresenceProbeScheduler(executor, new NetworkUtils());
+    }
+
+    @After
+    public void tearDown() {
+        subject.dispose();
+        executor.shutdownNow();
+    }
+
+    private PresenceDetection register(PresenceDetectionListener listener, String hostname) {
+        return subject.register(listener, hostname, null, 5000, 60000, l -> {
+            FakePresenceDetection detection = new FakePresenceDetection(l);
+            detections.add(detection);
+            return detection;
+        });
+    }
+
+    @Test
+    public void thingsOfTheSameHostShareADetection() {
+        PresenceDetection d1 = register(thing1, "host");
+        PresenceDetection d2 = register(thing2, "host");
+
+        assertThat(d1, is(sameInstance(d2)));
+        assertThat(subject.getTargetCount(), is(1));
+        assertThat(subject.getThingCount(), is(2));
+
+        subject.unregister(thing1);
+        assertThat(subject.getTargetCount(), is(1));
+
+        subject.unregister(thing2);
+        assertThat(subject.getTargetCount(), is(0));
+        assertThat(subject.getThingCount(), is(0));
+    }
+
+    @Test
+    public void resultsAreForwardedToAllThings() {
+        register(thing1, "host");
+        register(thing2, "host");
+        final long now = System.currentTimeMillis();
+
+        subject.tick(now + PresenceProbeScheduler.INITIAL_SPREAD_MS);
+        assertThat(detections.get(0).probes, is(1));
+        assertThat(subject.getProbeCount(), is(1L));
+
+        // No second probe while the first one is running
+        subject.tick(now + 10 * 60000);
+        assertThat(detections.get(0).probes, is(1));
+
+        detections.get(0).listener.finalDetectionResult(new PresenceDetectionValue("host", 5));
+        assertThat(finalResults.size(), is(2));
+        assertThat(subject.getAverageLatency(), is(5.0));
+    }
+
+    @Test
+    public void dhcpEvidencePostponesProbe() {
+        final long now = System.currentTimeMillis();
+        register(thing1, "host");
+        FakePresenceDetection detection = detections.get(0);
+
+        // A partial result without a running probe, like a DHCP request
+        detection.listener.partialDetectionResult(new PresenceDetectionValue("host", 0));
+        assertThat(partialResults.size(), is(1));
+        assertThat(subject.getPostponedProbeCount(), is(1L));
+
+        // The first probe would have been due within the initial spread
+        subject.tick(now + 59000);
+        assertThat(detection.probes, is(0));
+
+        subject.tick(now + 200000);
+        assertThat(detection.probes, is(1));
+    }
+
+    @Test
+    public void newArpTableEntryIsEvidence() {
+        register(thing1, "host");
+        final long now = System.currentTimeMillis();
+
+        // The first observation is only a reference
+        subject.observeArpTable(now, Collections.singletonMap("192.168.0.10", "00:11:22:33:44:55"));
+        assertThat(partialResults.size(), is(0));
+
+        subject.observeArpTable(now, Collections.singletonMap("192.168.0.10", "00:11:22:33:44:55"));
+        assertThat(partialResults.size(), is(0));
+
+        subject.observeArpTable(now, Collections.emptyMap());
+        subject.observeArpTable(now, Collections.singletonMap("192.168.0.10", "00:11:22:33:44:55"));
+        assertThat(partialResults.size(), is(1));
+        assertThat(partialResults.get(0).isPingReachable(), is(true));
+        assertThat(subject.getPostponedProbeCount(), is(1L));
+    }
+
+    @Test
+    public void probesAreAlignedToTheirPhase() {
+        assertThat(PresenceProbeScheduler.nextAlignedProbe(1000, 60000, 30000), is(90000L));
+        assertThat(PresenceProbeScheduler.nextAlignedProbe(25000, 60000, 30000), is(90000L));
+        assertThat(PresenceProbeScheduler.nextAlignedProbe(30000, 60000, 30000), is(90000L));
+        assertThat(PresenceProbeScheduler.nextAlignedProbe(90000, 60000, 30000), is(150000L));
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.utils;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests cases for {@see NetworkUtils}
+ *
+ * @author agent - Initial contribution
+ */
+public class NetworkUtilsTest {
+    @Test
+    public void parseLinuxArpTable() {
+        Map<String, String> table = NetworkUtils.parseArpTable(Arrays.asList(
+                "IP address       HW type     Flags       HW address            Mask     Device",
+                "192.168.0.1      0x1         0x2         AA:bb:cc:dd:ee:ff     *        eth0",
+                "192.168.0.7      0x1         0x0         00:00:00:00:00:00     *        eth0"));
+
+        assertThat(table.size(), is(1));
+        assertThat(table.get("192.168.0.1"), is("aa:bb:cc:dd:ee:ff"));
+    }
+
+    @Test
+    public void parseArpCommandOutput() {
+        Map<String, String> table = NetworkUtils.parseArpTable(Arrays.asList(
+                "? (192.168.0.1) at 0:11:22:3:44:55 on en0 ifscope [ethernet]",
+                "? (192.168.0.2) at (incomplete) on en0 ifscope [ethernet]",
+                "Interface: 192.168.0.10 --- 0xb",
+                "  Internet Address      Physical Address      Type",
+                "  192.168.0.3           00-11-22-33-44-66     dynamic",
+                "  192.168.0.255         ff-ff-ff-ff-ff-ff     static",
+                "  224.0.0.22            01-00-5e-00-00-16     static"));
+
+        assertThat(table.size(), is(2));
+        assertThat(table.get("192.168.0.1"), is("00:11:22:03:44:55"));
+        assertThat(table.get("192.168.0.3"), is("00:11:22:33:44:66"));
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.mqttembeddedbroker.internal;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Collects metrics of the embedded broker: The number of published messages and the message rate per client, as well
+ * as the number and size of retained messages.
+ * <p>
+ * Retained messages are only counted if they have been published while the broker is running. Retained messages that
+ * are restored from the persistence file on startup are not known to this class.
+ * <p>
+ * Messages are only counted for connected clients. The broker notifies its interceptors asynchronously, so a message
+ * reported after its client has disconnected does not bring back the metrics of that client.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class BrokerMetrics {
+    /** The message rate is determined over intervals of this length */
+    static final long RATE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final Map<String, ClientMetrics> clients = new ConcurrentHashMap<>();
+    private final Map<String, Integer> retainedMessages = new HashMap<>();
+    private long retainedStoreSize;
+
+    /**
+     * The published messages of a single client.
+     */
+    private static class ClientMetrics {
+        private long messages;
+        private long intervalStart;
+        private long intervalMessages;
+        private double rate;
+
+        ClientMetrics(long now) {
+            intervalStart = now;
+        }
+
+        synchronized void published(long now) {
+            advance(now);
+            ++messages;
+            ++intervalMessages;
+        }
+
+        synchronized long getMessageCount() {
+            return messages;
+        }
+
+        synchronized double getMessageRate(long now) {
+            advance(now);
+            return rate;
+        }
+
+        private void advance(long now) {
+            final long elapsed = now - intervalStart;
+            if (elapsed < RATE_INTERVAL_NANOS) {
+                return;
+            }
+            // The rate of the last complete interval. An idle period of more than one interval means no messages.
+            rate = elapsed < 2 * RATE_INTERVAL_NANOS
+                    ? intervalMessages * (double) TimeUnit.SECONDS.toNanos(1) / elapsed : 0;
+            intervalStart = now;
+            intervalMessages = 0;
+        }
+    }
+
+    /**
+     * A client has connected.
+     *
+     * @param clientId The client ID
+     */
+    public void clientConnected(String clientId) {
+        clientConnected(clientId, System.nanoTime());
+    }
+
+    void clientConnected(String clientId, long now) {
+        clients.put(clientId, new ClientMetrics(now));
+    }
+
+    /**
+     * A client has disconnected or the connection has been lost. Its metrics are removed.
+     *
+     * @param clientId The client ID
+     */
+    public void clientDisconnected(String clientId) {
+        clients.remove(clientId);
+    }
+
+    /**
+     * A client has published a message.
+     *
+     * @param clientId The client ID
+     * @param topic The topic of the message
+     * @param retain True if the message is retained
+     * @param payloadSize The size of the payload in bytes
+     */
+    public void messagePublished(String clientId, String topic, boolean retain, int payloadSize) {
+        messagePublished(clientId, topic, retain, payloadSize, System.nanoTime());
+    }
+
+    void messagePublished(String clientId, String topic, boolean retain, int payloadSize, long now) {
+        final ClientMetrics client = clients.get(clientId);
+        if (client != null) {
+            client.published(now);
+        }
+        if (!retain) {
+            return;
+        }
+        synchronized (retainedMessages) {
+            // An empty retained message removes the retained message of the topic
+            final @Nullable Integer previous = payloadSize > 0 ? retainedMessages.put(topic, payloadSize)
+                    : retainedMessages.remove(topic);
+            retainedStoreSize += (payloadSize > 0 ? payloadSize : 0) - (previous != null ? previous : 0);
+        }
+    }
+
+    /**
+     * Return the number of messages published by the given client since it connected.
+     *
+     * @param clientId The client ID
+     */
+    public long getMessageCount(String clientId) {
+        final ClientMetrics client = clients.get(clientId);
+        return client != null ? client.getMessageCount() : 0;
+    }
+
+    /**
+     * Return the message rate of each connected client in messages per second.
+     */
+    public Map<String, Double> getMessageRates() {
+        return getMessageRates(System.nanoTime());
+    }
+
+    Map<String, Double> getMessageRates(long now) {
+        Map<String, Double> rates = new HashMap<>();
+        clients.forEach((clientId, client) -> rates.put(clientId, client.getMessageRate(now)));
+        return Collections.unmodifiableMap(rates);
+    }
+
+    /**
+     * Return the number of connected clients.
+     */
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    /**
+     * Return the number of retained messages.
+     */
+    public int getRetainedMessageCount() {
+        synchronized (retainedMessages) {
+            return retainedMessages.size();
+        }
+    }
+
+    /**
+     * Return the summed up payload size of all retained messages in bytes.
+     */
+    public long getRetainedStoreSize() {
+        synchronized (retainedMessages) {
+            return retainedStoreSize;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "clients: " + getClientCount() + ", retained messages: " + getRetainedMessageCount() + " ("
+                + getRetainedStoreSize() + " bytes)";
+    }
+}
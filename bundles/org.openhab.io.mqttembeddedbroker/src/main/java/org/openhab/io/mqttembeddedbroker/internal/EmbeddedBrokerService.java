@@ -83,8 +83,14 @@ import io.netty.handler.ssl.SslContextBuilder;
 @NonNullByDefault
 public class EmbeddedBrokerService
         implements ConfigurableService, MqttConnectionObserver, MqttServiceObserver, MqttEmbeddedBrokerStartedListener {
+    /** Moquette property for the maximum message size, see {@link ServiceConfiguration#maxMessageSize} */
+    static final String MAX_MESSAGE_SIZE_PROPERTY_NAME = "netty.mqtt.message_size";
+    /** Moquette property for flushing writes immediately, see {@link ServiceConfiguration#immediateBufferFlush} */
+    static final String IMMEDIATE_BUFFER_FLUSH_PROPERTY_NAME = "immediate_buffer_flush";
+
     private @Nullable MqttService service;
     private String persistenceFilename = "";
+    private ServiceConfiguration config = new ServiceConfiguration();
     // private NetworkServerTls networkServerTls; //TODO wait for NetworkServerTls implementation
 
     @NonNullByDefault({})
@@ -97,22 +103,27 @@ public class EmbeddedBrokerService
 
         @Override
         public Class<?>[] getInterceptedMessageTypes() {
-            return new Class<?>[] { InterceptConnectMessage.class, InterceptDisconnectMessage.class };
+            return new Class<?>[] { InterceptConnectMessage.class, InterceptDisconnectMessage.class,
+                    InterceptConnectionLostMessage.class, InterceptPublishMessage.class };
         }
 
         @Override
         public void onConnect(InterceptConnectMessage arg0) {
             logger.debug("MQTT Client connected: {}", arg0.getClientID());
+            brokerMetrics.clientConnected(arg0.getClientID());
         }
 
         @Override
         public void onConnectionLost(InterceptConnectionLostMessage arg0) {
-
+            logger.debug("MQTT Client connection lost: {}", arg0.getClientID());
+            brokerMetrics.clientDisconnected(arg0.getClientID());
         }
 
         @Override
         public void onDisconnect(InterceptDisconnectMessage arg0) {
-            logger.debug("MQTT Client disconnected: {}", arg0.getClientID());
+            logger.debug("MQTT Client disconnected: {}. Published messages: {}", arg0.getClientID(),
+                    brokerMetrics.getMessageCount(arg0.getClientID()));
+            brokerMetrics.clientDisconnected(arg0.getClientID());
         }
 
         @Override
@@ -122,7 +133,8 @@ public class EmbeddedBrokerService
 
         @Override
         public void onPublish(InterceptPublishMessage arg0) {
-
+            brokerMetrics.messagePublished(arg0.getClientID(), arg0.getTopicName(), arg0.isRetainFlag(),
+                    arg0.getPayload().readableBytes());
         }
 
         @Override
@@ -139,6 +151,7 @@ public class EmbeddedBrokerService
     protected @Nullable Server server;
     private final Logger logger = LoggerFactory.getLogger(EmbeddedBrokerService.class);
     protected MqttEmbeddedBrokerDetectStart detectStart = new MqttEmbeddedBrokerDetectStart(this);
+    protected final BrokerMetrics brokerMetrics = new BrokerMetrics();
     protected BrokerMetricsListenerEx metrics = new BrokerMetricsListenerEx();
 
     private @Nullable MqttBrokerConnection connection;
@@ -159,6 +172,7 @@ public class EmbeddedBrokerService
 
     @SuppressWarnings("null")
     public void initialize(ServiceConfiguration config) throws IOException {
+        this.config = config;
         int port = config.port == null ? (config.port = config.secure ? 8883 : 1883) : config.port;
 
         // Create MqttBrokerConnection
@@ -294,9 +308,13 @@ public class EmbeddedBrokerService
 
         if (!persistenceFilename.isEmpty()) { // Persistence: If not set, an in-memory database is used.
             properties.put(BrokerConstants.PERSISTENT_STORE_PROPERTY_NAME, persistenceFilename);
-            properties.put(BrokerConstants.AUTOSAVE_INTERVAL_PROPERTY_NAME, "30"); // in seconds
+            // in seconds
+            properties.put(BrokerConstants.AUTOSAVE_INTERVAL_PROPERTY_NAME,
+                    Integer.toString(Math.max(1, config.persistenceFlushInterval)));
         }
 
+        applyTuning(properties, config);
+
         // We may provide ACL functionality at some point as well
         IAuthorizatorPolicy authorizer = null;
 
@@ -313,6 +331,32 @@ public class EmbeddedBrokerService
         detectStart.startBrokerStartedDetection(port, s);
     }
 
+    /**
+     * Adds the throughput related configuration values to the broker properties. Values that are not configured are
+     * not added, so that the defaults of the broker apply.
+     *
+     * @param properties The broker properties
+     * @param config The service configuration
+     */
+    static void applyTuning(Properties properties, ServiceConfiguration config) {
+        final Integer maxMessageSize = config.maxMessageSize;
+        if (maxMessageSize != null && maxMessageSize > 0) {
+            properties.put(MAX_MESSAGE_SIZE_PROPERTY_NAME, maxMessageSize.toString());
+        }
+        final Integer connectionBacklog = config.connectionBacklog;
+        if (connectionBacklog != null && connectionBacklog > 0) {
+            properties.put(BrokerConstants.NETTY_SO_BACKLOG_PROPERTY_NAME, connectionBacklog.toString());
+        }
+        final Boolean tcpNoDelay = config.tcpNoDelay;
+        if (tcpNoDelay != null) {
+            properties.put(BrokerConstants.NETTY_TCP_NODELAY_PROPERTY_NAME, tcpNoDelay.toString());
+        }
+        final Boolean immediateBufferFlush = config.immediateBufferFlush;
+        if (immediateBufferFlush != null) {
+            properties.put(IMMEDIATE_BUFFER_FLUSH_PROPERTY_NAME, immediateBufferFlush.toString());
+        }
+    }
+
     public void stopEmbeddedServer() {
         Server server = this.server;
         if (server != null) {
@@ -376,6 +420,13 @@ public class EmbeddedBrokerService
         return connection;
     }
 
+    /**
+     * Returns the metrics of the embedded broker, like the message rate per client and the retained messages.
+     */
+    public BrokerMetrics getMetrics() {
+        return brokerMetrics;
+    }
+
     public String getPersistenceFilename() {
         return persistenceFilename;
     }
@@ -28,4 +28,17 @@ public class ServiceConfiguration {
 
     public @Nullable String username;
     public @Nullable String password;
+
+    // Throughput tuning. If not set, the defaults of the broker are used.
+
+    /** The maximum size of a MQTT message in bytes */
+    public @Nullable Integer maxMessageSize;
+    /** The number of pending connections on the server socket */
+    public @Nullable Integer connectionBacklog;
+    /** Disables Nagle's algorithm on client connections */
+    public @Nullable Boolean tcpNoDelay;
+    /** Write each message to the client socket immediately instead of batching writes */
+    public @Nullable Boolean immediateBufferFlush;
+    /** The interval in seconds in which the persistence file is written */
+    public Integer persistenceFlushInterval = 30;
 }
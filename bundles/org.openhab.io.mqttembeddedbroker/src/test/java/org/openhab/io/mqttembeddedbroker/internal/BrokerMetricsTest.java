@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.mqttembeddedbroker.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests the message counting, the message rate and the retained message accounting of {@link BrokerMetrics}.
+ *
+ * @author agent - Initial contribution
+ */
+public class BrokerMetricsTest {
+    private final BrokerMetrics subject = new BrokerMetrics();
+
+    @Test
+    public void countMessagesPerClient() {
+        subject.clientConnected("a");
+        subject.clientConnected("b");
+        subject.messagePublished("a", "topic", false, 10);
+        subject.messagePublished("a", "topic", false, 10);
+        subject.messagePublished("b", "topic", false, 10);
+
+        assertThat(subject.getClientCount(), is(2));
+        assertThat(subject.getMessageCount("a"), is(2L));
+        assertThat(subject.getMessageCount("b"), is(1L));
+
+        subject.clientDisconnected("a");
+        assertThat(subject.getClientCount(), is(1));
+        assertThat(subject.getMessageCount("a"), is(0L));
+
+        // A message reported after the disconnect does not bring back the client
+        subject.messagePublished("a", "topic", false, 10);
+        assertThat(subject.getClientCount(), is(1));
+        assertThat(subject.getMessageCount("a"), is(0L));
+        assertThat(subject.getMessageRates().containsKey("a"), is(false));
+    }
+
+    @Test
+    public void messageRateOfLastInterval() {
+        final long start = System.nanoTime();
+        subject.clientConnected("a", start);
+        for (int i = 0; i < 50; ++i) {
+            subject.messagePublished("a", "topic", false, 10, start);
+        }
+        // The first interval is not complete yet
+        assertThat(subject.getMessageRates(start + 1).get("a"), is(0.0));
+
+        // 50 messages within 10 seconds
+        assertEquals(5.0, subject.getMessageRates(start + BrokerMetrics.RATE_INTERVAL_NANOS).get("a"), 0.01);
+
+        // No messages for a long time
+        assertThat(subject.getMessageRates(start + TimeUnit.MINUTES.toNanos(5)).get("a"), is(0.0));
+    }
+
+    @Test
+    public void retainedMessages() {
+        subject.messagePublished("a", "topic1", true, 10);
+        subject.messagePublished("a", "topic2", true, 20);
+        subject.messagePublished("a", "topic3", false, 40);
+
+        assertThat(subject.getRetainedMessageCount(), is(2));
+        assertThat(subject.getRetainedStoreSize(), is(30L));
+
+        // Replace a retained message
+        subject.messagePublished("a", "topic1", true, 5);
+        assertThat(subject.getRetainedMessageCount(), is(2));
+        assertThat(subject.getRetainedStoreSize(), is(25L));
+
+        // An empty retained message removes the retained message
+        subject.messagePublished("a", "topic2", true, 0);
+        assertThat(subject.getRetainedMessageCount(), is(1));
+        assertThat(subject.getRetainedStoreSize(), is(5L));
+    }
+}
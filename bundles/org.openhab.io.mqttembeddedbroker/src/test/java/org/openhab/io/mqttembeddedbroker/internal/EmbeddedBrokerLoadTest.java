@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.mqttembeddedbroker.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection.Protocol;
+import org.eclipse.smarthome.io.transport.mqtt.MqttService;
+import org.eclipse.smarthome.test.TestPortUtil;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drives the embedded broker with many concurrently publishing clients and a single subscriber and reports the
+ * throughput and the latency between publishing and receiving a message.
+ * <p>
+ * The test depends on the performance of the build machine and is therefore skipped, unless the system property
+ * "mqtt.loadtest" is set to true. Use the system properties "mqtt.loadtest.clients" and "mqtt.loadtest.messages"
+ * (per client) for a real benchmark, for example:
+ *
+ * <pre>
+ * mvn test -Dtest=EmbeddedBrokerLoadTest -Dmqtt.loadtest=true -Dmqtt.loadtest.clients=150
+ * </pre>
+ *
+ * @author agent - Initial contribution
+ */
+public class EmbeddedBrokerLoadTest {
+    private final Logger logger = LoggerFactory.getLogger(EmbeddedBrokerLoadTest.class);
+
+    private final int clients = Integer.getInteger("mqtt.loadtest.clients", 10);
+    private final int messages = Integer.getInteger("mqtt.loadtest.messages", 100);
+
+    private EmbeddedBrokerService subject;
+    private ServiceConfiguration config = new ServiceConfiguration();
+    private @Mock MqttService service;
+    private final List<MqttBrokerConnection> connections = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        Assume.assumeTrue(Boolean.getBoolean("mqtt.loadtest"));
+        MockitoAnnotations.initMocks(this);
+        subject = new EmbeddedBrokerService();
+        subject.setMqttService(service);
+
+        config.username = "username";
+        config.password = "password";
+        config.port = TestPortUtil.findFreePort();
+        config.secure = false;
+        config.persistenceFile = "";
+        config.connectionBacklog = Math.max(128, clients);
+        config.tcpNoDelay = true;
+        subject.initialize(config);
+    }
+
+    @After
+    public void cleanUp() throws InterruptedException, ExecutionException, TimeoutException {
+        for (MqttBrokerConnection connection : connections) {
+            connection.stop().get(1, TimeUnit.SECONDS);
+        }
+        if (subject != null) {
+            subject.deactivate();
+        }
+    }
+
+    @Test
+    public void publishAndReceive() throws InterruptedException, ExecutionException, TimeoutException {
+        final int total = clients * messages;
+        final long[] latencies = new long[total];
+        final CountDownLatch received = new CountDownLatch(total);
+
+        // Subscribe with a client of its own, to not mix the subscriber metrics with the publisher metrics
+        MqttBrokerConnection subscriber = createConnection("loadSubscriber");
+        assertTrue(subscriber.subscribe("load/#", (topic, payload) -> {
+            final long latency = System.nanoTime() - Long.parseLong(new String(payload, StandardCharsets.UTF_8));
+            synchronized (latencies) {
+                if (received.getCount() == 0) {
+                    return; // A QoS 1 message may be delivered twice
+                }
+                latencies[total - (int) received.getCount()] = latency;
+                received.countDown();
+            }
+        }).get(5, TimeUnit.SECONDS));
+
+        List<MqttBrokerConnection> publishers = new ArrayList<>();
+        for (int i = 0; i < clients; ++i) {
+            publishers.add(createConnection("load" + i));
+        }
+
+        // Each client publishes its messages in a thread of its own. The last message of each client is retained.
+        final long start = System.nanoTime();
+        List<Thread> threads = new ArrayList<>();
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < clients; ++i) {
+            final MqttBrokerConnection publisher = publishers.get(i);
+            final String topic = "load/" + i;
+            Thread thread = new Thread(() -> {
+                for (int m = 0; m < messages; ++m) {
+                    byte[] payload = Long.toString(System.nanoTime()).getBytes(StandardCharsets.UTF_8);
+                    CompletableFuture<Boolean> future = publisher.publish(topic, payload, 1, m == messages - 1);
+                    synchronized (futures) {
+                        futures.add(future);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue("Not all messages received", received.await(60, TimeUnit.SECONDS));
+        final long duration = System.nanoTime() - start;
+        for (CompletableFuture<Boolean> future : futures) {
+            assertTrue(future.get(5, TimeUnit.SECONDS));
+        }
+
+        Arrays.sort(latencies);
+        logger.info("{} clients published {} messages in {} ms: {} messages/s, latency p50 {} ms, p99 {} ms", clients,
+                total, TimeUnit.NANOSECONDS.toMillis(duration), total * TimeUnit.SECONDS.toNanos(1) / duration,
+                TimeUnit.NANOSECONDS.toMillis(latencies[total / 2]),
+                TimeUnit.NANOSECONDS.toMillis(latencies[(int) Math.min(total - 1, Math.ceil(total * 0.99) - 1)]));
+
+        // The broker notifies its interceptors asynchronously
+        BrokerMetrics metrics = subject.getMetrics();
+        for (int i = 0; i < 100 && metrics.getRetainedMessageCount() < clients; ++i) {
+            Thread.sleep(50);
+        }
+        logger.info("Broker metrics: {}", metrics);
+        assertThat(metrics.getRetainedMessageCount(), is(clients));
+        assertThat(metrics.getMessageCount("load0"), is((long) messages));
+    }
+
+    private MqttBrokerConnection createConnection(String clientId)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        MqttBrokerConnection connection = new MqttBrokerConnection(Protocol.TCP, "localhost", config.port, false,
+                clientId);
+        connection.setCredentials(config.username, config.password);
+        connections.add(connection);
+        assertTrue("Couldn't connect " + clientId, connection.start().get(10, TimeUnit.SECONDS));
+        return connection;
+    }
+}
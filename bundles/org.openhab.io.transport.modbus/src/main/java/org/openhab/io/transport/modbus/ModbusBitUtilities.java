@@ -13,9 +13,6 @@
 package org.openhab.io.transport.modbus;
 
 import java.math.BigDecimal;
-import java.math.BigInteger;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.util.Optional;
 
@@ -108,94 +105,79 @@ public class ModbusBitUtilities {
         }
         switch (type) {
             case BIT:
-                return new DecimalType((registers.getRegister(index / 16).toUnsignedShort() >> (index % 16)) & 1);
+                return new DecimalType((registers.getUnsignedShort(index / 16) >> (index % 16)) & 1);
             case INT8:
-                return new DecimalType(registers.getRegister(index / 2).getBytes()[1 - (index % 2)]);
+                return new DecimalType((byte) (registers.getUnsignedShort(index / 2) >> (8 * (index % 2))));
             case UINT8:
-                return new DecimalType(
-                        (registers.getRegister(index / 2).toUnsignedShort() >> (8 * (index % 2))) & 0xff);
-            case INT16: {
-                ByteBuffer buff = ByteBuffer.allocate(2);
-                buff.put(registers.getRegister(index).getBytes());
-                return new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getShort(0));
-            }
+                return new DecimalType((registers.getUnsignedShort(index / 2) >> (8 * (index % 2))) & 0xff);
+            case INT16:
+                return new DecimalType((short) registers.getUnsignedShort(index));
             case UINT16:
-                return new DecimalType(registers.getRegister(index).toUnsignedShort());
-            case INT32: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                return new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getInt(0));
-            }
-            case UINT32: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.position(4);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                return new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0));
-            }
-            case FLOAT32: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                return new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getFloat(0));
-            }
-            case INT64: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index + 2).getBytes());
-                buff.put(registers.getRegister(index + 3).getBytes());
-                return new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0));
-            }
-            case UINT64: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index + 2).getBytes());
-                buff.put(registers.getRegister(index + 3).getBytes());
-                return new DecimalType(new BigDecimal(new BigInteger(1, buff.order(ByteOrder.BIG_ENDIAN).array())));
-            }
-            case INT32_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getInt(0));
-            }
-            case UINT32_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.position(4);
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0));
-            }
-            case FLOAT32_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getFloat(0));
-            }
-            case INT64_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.put(registers.getRegister(index + 3).getBytes());
-                buff.put(registers.getRegister(index + 2).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0));
-            }
-            case UINT64_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.put(registers.getRegister(index + 3).getBytes());
-                buff.put(registers.getRegister(index + 2).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return new DecimalType(new BigDecimal(new BigInteger(1, buff.order(ByteOrder.BIG_ENDIAN).array())));
-            }
+                return new DecimalType(registers.getUnsignedShort(index));
+            case INT32:
+                return new DecimalType(extractInt(registers, index, false));
+            case UINT32:
+                return new DecimalType(extractInt(registers, index, false) & 0xffffffffL);
+            case FLOAT32:
+                return new DecimalType(Float.intBitsToFloat(extractInt(registers, index, false)));
+            case INT64:
+                return new DecimalType(extractLong(registers, index, false));
+            case UINT64:
+                return unsignedLongToDecimalType(extractLong(registers, index, false));
+            case INT32_SWAP:
+                return new DecimalType(extractInt(registers, index, true));
+            case UINT32_SWAP:
+                return new DecimalType(extractInt(registers, index, true) & 0xffffffffL);
+            case FLOAT32_SWAP:
+                return new DecimalType(Float.intBitsToFloat(extractInt(registers, index, true)));
+            case INT64_SWAP:
+                return new DecimalType(extractLong(registers, index, true));
+            case UINT64_SWAP:
+                return unsignedLongToDecimalType(extractLong(registers, index, true));
             default:
                 throw new IllegalArgumentException(type.getConfigValue());
         }
     }
 
+    /**
+     * Combine two consecutive registers to 32 bit integer
+     *
+     * @param registers list of registers
+     * @param index index of the first register
+     * @param swap whether the second register contains the most significant 16 bits
+     * @return the registers as (signed) 32 bit integer
+     */
+    private static int extractInt(ModbusRegisterArray registers, int index, boolean swap) {
+        int first = registers.getUnsignedShort(index);
+        int second = registers.getUnsignedShort(index + 1);
+        return swap ? (second << 16) | first : (first << 16) | second;
+    }
+
+    /**
+     * Combine four consecutive registers to 64 bit integer
+     *
+     * @param registers list of registers
+     * @param index index of the first register
+     * @param swap whether the register order is reversed, that is, the last register contains the most significant
+     *            16 bits
+     * @return the registers as (signed) 64 bit integer
+     */
+    private static long extractLong(ModbusRegisterArray registers, int index, boolean swap) {
+        long value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 16) | registers.getUnsignedShort(swap ? index + 3 - i : index + i);
+        }
+        return value;
+    }
+
+    private static DecimalType unsignedLongToDecimalType(long value) {
+        if (value >= 0) {
+            return new DecimalType(value);
+        }
+        // Values exceeding the range of signed long are rare, only those need the arbitrary precision representation
+        return new DecimalType(new BigDecimal(Long.toUnsignedString(value)));
+    }
+
     /**
      * Read data from registers and convert the result to StringType
      * Strings should start the the first byte of a register, but could
@@ -12,12 +12,15 @@
  */
 package org.openhab.io.transport.modbus;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ScheduledFuture;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.io.transport.modbus.endpoint.EndpointPoolConfiguration;
+import org.openhab.io.transport.modbus.endpoint.EndpointQueueStatistics;
 import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
 
 /**
@@ -32,8 +35,12 @@ public interface ModbusManager {
      * Submit one-time poll task. The method returns immediately, and the execution of the poll task will happen in
      * background.
      *
+     * The task is queued with the other tasks of its endpoint, so it is not necessarily executed right away.
+     *
      * @param task
-     * @return future representing the polled task
+     * @return future completed once the poll task has been executed, the result is passed to the callback of the task.
+     *         Cancelling the future before the task is executed drops the task, a running task is not interrupted. The
+     *         future is cancelled as well if the manager is deactivated before the task is executed.
      */
     public ScheduledFuture<?> submitOneTimePoll(PollTask task);
 
@@ -59,8 +66,12 @@ public interface ModbusManager {
      * Submit one-time write task. The method returns immediately, and the execution of the task will happen in
      * background.
      *
+     * The task is queued with the other tasks of its endpoint, so it is not necessarily executed right away.
+     *
      * @param task
-     * @return future representing the task
+     * @return future completed once the write task has been executed, the result is passed to the callback of the
+     *         task. Cancelling the future before the task is executed drops the task, a running task is not interrupted.
+     *         The future is cancelled as well if the manager is deactivated before the task is executed.
      */
     public ScheduledFuture<?> submitOneTimeWrite(WriteTask task);
 
@@ -104,4 +115,14 @@ public interface ModbusManager {
      */
     public Set<PollTask> getRegisteredRegularPolls();
 
+    /**
+     * Get statistics of the request queues of the endpoints
+     *
+     * @return snapshot of the statistics of each endpoint used so far, empty if the implementation does not collect
+     *         statistics
+     */
+    public default Map<ModbusSlaveEndpoint, EndpointQueueStatistics> getEndpointQueueStatistics() {
+        return Collections.emptyMap();
+    }
+
 }
@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.endpoint;
+
+import org.apache.commons.lang.builder.StandardToStringStyle;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Immutable snapshot of the request queue of a single endpoint
+ *
+ * Counters and timings are accumulated from the first request to the endpoint. Wait time is measured from queuing the
+ * request to starting its execution, and latency from starting the execution to receiving the response (including
+ * retries).
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class EndpointQueueStatistics {
+
+    private static StandardToStringStyle toStringStyle = new StandardToStringStyle();
+
+    static {
+        toStringStyle.setUseShortClassName(true);
+    }
+
+    private final int queuedPolls;
+    private final int queuedWrites;
+    private final long transactions;
+    private final long totalWaitMillis;
+    private final long maxWaitMillis;
+    private final long totalLatencyMillis;
+    private final long maxLatencyMillis;
+    private final long coalescedPolls;
+    private final long missedDeadlines;
+    private final long savedTransactions;
+    private final int consecutiveFailures;
+    private final long backoffMillis;
+
+    public EndpointQueueStatistics(int queuedPolls, int queuedWrites, long transactions, long totalWaitMillis,
+            long maxWaitMillis, long totalLatencyMillis, long maxLatencyMillis, long coalescedPolls,
+            long missedDeadlines, long savedTransactions, int consecutiveFailures, long backoffMillis) {
+        this.queuedPolls = queuedPolls;
+        this.queuedWrites = queuedWrites;
+        this.transactions = transactions;
+        this.totalWaitMillis = totalWaitMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.totalLatencyMillis = totalLatencyMillis;
+        this.maxLatencyMillis = maxLatencyMillis;
+        this.coalescedPolls = coalescedPolls;
+        this.missedDeadlines = missedDeadlines;
+        this.savedTransactions = savedTransactions;
+        this.consecutiveFailures = consecutiveFailures;
+        this.backoffMillis = backoffMillis;
+    }
+
+    /**
+     * Get number of requests waiting for execution
+     */
+    public int getQueueLength() {
+        return queuedPolls + queuedWrites;
+    }
+
+    /**
+     * Get number of read requests waiting for execution
+     */
+    public int getQueuedPolls() {
+        return queuedPolls;
+    }
+
+    /**
+     * Get number of write requests waiting for execution
+     */
+    public int getQueuedWrites() {
+        return queuedWrites;
+    }
+
+    /**
+     * Get number of executed requests
+     */
+    public long getTransactions() {
+        return transactions;
+    }
+
+    /**
+     * Get average time requests waited in the queue, in milliseconds
+     */
+    public long getAverageWaitMillis() {
+        return transactions == 0 ? 0 : totalWaitMillis / transactions;
+    }
+
+    /**
+     * Get longest time a request waited in the queue, in milliseconds
+     */
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    /**
+     * Get average execution time of requests, in milliseconds
+     */
+    public long getAverageLatencyMillis() {
+        return transactions == 0 ? 0 : totalLatencyMillis / transactions;
+    }
+
+    /**
+     * Get longest execution time of a request, in milliseconds
+     */
+    public long getMaxLatencyMillis() {
+        return maxLatencyMillis;
+    }
+
+    /**
+     * Get number of regular polls merged with the same poll already waiting in the queue
+     */
+    public long getCoalescedPolls() {
+        return coalescedPolls;
+    }
+
+    /**
+     * Get number of regular polls executed later than one poll period after queuing
+     */
+    public long getMissedDeadlines() {
+        return missedDeadlines;
+    }
+
+    /**
+     * Get number of transactions saved by combining read requests
+     */
+    public long getSavedTransactions() {
+        return savedTransactions;
+    }
+
+    /**
+     * Get number of consecutive requests which failed without response from the slave
+     */
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /**
+     * Get remaining time polls are failed without contacting the slave, in milliseconds
+     */
+    public long getBackoffMillis() {
+        return backoffMillis;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, toStringStyle).append("queuedPolls", queuedPolls)
+                .append("queuedWrites", queuedWrites).append("transactions", transactions)
+                .append("averageWaitMillis", getAverageWaitMillis()).append("maxWaitMillis", maxWaitMillis)
+                .append("averageLatencyMillis", getAverageLatencyMillis()).append("maxLatencyMillis", maxLatencyMillis)
+                .append("coalescedPolls", coalescedPolls).append("missedDeadlines", missedDeadlines)
+                .append("savedTransactions", savedTransactions).append("consecutiveFailures", consecutiveFailures)
+                .append("backoffMillis", backoffMillis).toString();
+    }
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang.builder.StandardToStringStyle;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegister;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.ModbusSlaveErrorResponseException;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Poll task reading a single block of data on behalf of several other poll tasks
+ *
+ * The request of this task covers the requests of all member tasks. The data received is sliced and passed to the
+ * callbacks of the members, together with their original requests. Errors are passed to all members as well, except
+ * when the slave refuses the combined request: then the members are handed over to the fallback one by one, since the
+ * combined request might cover addresses not available in the slave.
+ *
+ * Identity based equals and hashCode are used on purpose, instances are created for single execution only.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class CoalescedPollTask implements PollTask, ModbusReadCallback {
+
+    private static StandardToStringStyle toStringStyle = new StandardToStringStyle();
+    static {
+        toStringStyle.setUseShortClassName(true);
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(CoalescedPollTask.class);
+
+    private final ModbusSlaveEndpoint endpoint;
+    private final BasicModbusReadRequestBlueprint request;
+    private final List<PollTask> members;
+    private final Consumer<PollTask> fallback;
+
+    /**
+     * Construct task covering the given member tasks
+     *
+     * @param endpoint endpoint shared by all members
+     * @param request request covering the requests of all members
+     * @param members tasks to pass the data to. All members should have the same endpoint, slave id and function
+     *            code, and their data should be within the range of the request
+     * @param fallback executes a member individually in case the slave responds with an error to the combined request
+     */
+    public CoalescedPollTask(ModbusSlaveEndpoint endpoint, BasicModbusReadRequestBlueprint request,
+            List<PollTask> members, Consumer<PollTask> fallback) {
+        this.endpoint = endpoint;
+        this.request = request;
+        this.members = Collections.unmodifiableList(members);
+        this.fallback = fallback;
+    }
+
+    @Override
+    public ModbusReadRequestBlueprint getRequest() {
+        return request;
+    }
+
+    @Override
+    public ModbusSlaveEndpoint getEndpoint() {
+        return endpoint;
+    }
+
+    @Override
+    public @Nullable ModbusReadCallback getCallback() {
+        return this;
+    }
+
+    /**
+     * Get the tasks covered by this task
+     *
+     * @return tasks in the order of their start address
+     */
+    public List<PollTask> getMembers() {
+        return members;
+    }
+
+    @Override
+    public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+        for (PollTask member : members) {
+            ModbusReadCallback callback = member.getCallback();
+            if (callback == null) {
+                continue;
+            }
+            ModbusReadRequestBlueprint memberRequest = member.getRequest();
+            int offset = memberRequest.getReference() - this.request.getReference();
+            int length = Math.max(0, Math.min(memberRequest.getDataLength(), registers.size() - offset));
+            callback.onRegisters(memberRequest, new RegisterArraySlice(registers, offset, length));
+        }
+    }
+
+    @Override
+    public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+        for (PollTask member : members) {
+            ModbusReadCallback callback = member.getCallback();
+            if (callback == null) {
+                continue;
+            }
+            ModbusReadRequestBlueprint memberRequest = member.getRequest();
+            int offset = memberRequest.getReference() - this.request.getReference();
+            int length = Math.max(0, Math.min(memberRequest.getDataLength(), bits.size() - offset));
+            callback.onBits(memberRequest, new BitArraySlice(bits, offset, length));
+        }
+    }
+
+    @Override
+    public void onError(ModbusReadRequestBlueprint request, Exception error) {
+        if (error instanceof ModbusSlaveErrorResponseException) {
+            logger.debug("Slave refused combined request {} with {}. Executing the {} requests separately.", request,
+                    error, members.size());
+            members.forEach(fallback);
+            return;
+        }
+        for (PollTask member : members) {
+            ModbusReadCallback callback = member.getCallback();
+            if (callback != null) {
+                callback.onError(member.getRequest(), error);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, toStringStyle).append("request", request).append("endpoint", endpoint)
+                .append("members", members.size()).toString();
+    }
+
+    /**
+     * View to consecutive registers of another register array
+     */
+    static class RegisterArraySlice implements ModbusRegisterArray {
+
+        private final ModbusRegisterArray wrapped;
+        private final int offset;
+        private final int length;
+
+        RegisterArraySlice(ModbusRegisterArray wrapped, int offset, int length) {
+            this.wrapped = wrapped;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public ModbusRegister getRegister(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException(String.format("Index %d out of bounds, size %d", index, length));
+            }
+            return wrapped.getRegister(offset + index);
+        }
+
+        @Override
+        public int getUnsignedShort(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException(String.format("Index %d out of bounds, size %d", index, length));
+            }
+            return wrapped.getUnsignedShort(offset + index);
+        }
+
+        @Override
+        public int size() {
+            return length;
+        }
+
+        @Override
+        public String toString() {
+            if (length == 0) {
+                return "RegisterArraySlice(<empty>)";
+            }
+            StringBuffer buffer = new StringBuffer(length * 2).append("RegisterArraySlice(");
+            return appendHexString(buffer).append(')').toString();
+        }
+    }
+
+    /**
+     * View to consecutive bits of another bit array
+     */
+    static class BitArraySlice implements BitArray {
+
+        private final BitArray wrapped;
+        private final int offset;
+        private final int length;
+
+        BitArraySlice(BitArray wrapped, int offset, int length) {
+            this.wrapped = wrapped;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public boolean getBit(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException(String.format("Index %d out of bounds, size %d", index, length));
+            }
+            return wrapped.getBit(offset + index);
+        }
+
+        @Override
+        public int size() {
+            return length;
+        }
+
+        @Override
+        public String toString() {
+            return new StringBuilder("BitArraySlice(bits=").append(length == 0 ? "<empty>" : toBinaryString())
+                    .append(")").toString();
+        }
+    }
+}
@@ -0,0 +1,469 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.ModbusSlaveErrorResponseException;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.TaskWithEndpoint;
+import org.openhab.io.transport.modbus.WriteTask;
+import org.openhab.io.transport.modbus.endpoint.EndpointQueueStatistics;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+
+/**
+ * Queue of requests waiting for execution with a single endpoint
+ *
+ * Requests are offered to the queue by the threads of the manager. The first thread to offer a request executes the
+ * queued requests one at a time until the queue is empty, while other threads return right away. This way a slow or
+ * non-responding slave keeps at most one thread busy.
+ *
+ * The next request to execute is chosen as follows:
+ * <ul>
+ * <li>writes are executed before any polls, in the order they were queued</li>
+ * <li>polls are executed in the order of their deadline. Regular polls should be executed within one poll period,
+ * one-off polls right away.</li>
+ * <li>regular poll which is due while it is still waiting in the queue is not queued again</li>
+ * <li>other polls waiting in the queue are read with the same transaction, if enabled with
+ * {@link ReadRequestCoalescer}</li>
+ * </ul>
+ *
+ * Slaves not responding to consecutive requests are backed off with exponentially growing delay. During the backoff,
+ * polls are failed right away without contacting the slave. Writes are still executed, and the first response ends the
+ * backoff.
+ *
+ * One-off tasks may carry a future, which is completed once the task has been executed. A task whose future is cancelled
+ * while still waiting in the queue is dropped without executing it.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class EndpointTaskQueue {
+
+    /**
+     * Consecutive failures tolerated before backing off
+     */
+    public static final int BACKOFF_FAILURE_THRESHOLD = 2;
+
+    /**
+     * Backoff after reaching the failure threshold. Doubled on every further failure.
+     */
+    public static final long BACKOFF_INITIAL_MILLIS = 1000;
+
+    public static final long BACKOFF_MAX_MILLIS = 60000;
+
+    /**
+     * Request waiting for execution
+     */
+    private static class QueuedTask {
+        private final TaskWithEndpoint<?, ?> task;
+        private final boolean oneOff;
+        private final boolean coalesce;
+        private final long queuedMillis;
+        private final long deadlineMillis;
+        private final @Nullable CompletableFuture<?> completion;
+
+        private QueuedTask(TaskWithEndpoint<?, ?> task, boolean oneOff, boolean coalesce, long queuedMillis,
+                long deadlineMillis, @Nullable CompletableFuture<?> completion) {
+            this.task = task;
+            this.oneOff = oneOff;
+            this.coalesce = coalesce;
+            this.queuedMillis = queuedMillis;
+            this.deadlineMillis = deadlineMillis;
+            this.completion = completion;
+        }
+
+        private boolean isCancelled() {
+            CompletableFuture<?> completion = this.completion;
+            return completion != null && completion.isCancelled();
+        }
+    }
+
+    /**
+     * Request chosen for execution
+     */
+    public static class Selection {
+        private final TaskWithEndpoint<?, ?> task;
+        private final boolean oneOff;
+        private final long queuedMillis;
+        private final @Nullable Exception rejection;
+        private final List<QueuedTask> queued;
+
+        private Selection(TaskWithEndpoint<?, ?> task, boolean oneOff, long queuedMillis,
+                @Nullable Exception rejection, List<QueuedTask> queued) {
+            this.task = task;
+            this.oneOff = oneOff;
+            this.queuedMillis = queuedMillis;
+            this.rejection = rejection;
+            this.queued = queued;
+        }
+
+        private Selection(QueuedTask queued, @Nullable Exception rejection) {
+            this(queued.task, queued.oneOff, queued.queuedMillis, rejection, new ArrayList<>(1));
+            this.queued.add(queued);
+        }
+
+        /**
+         * Get task to execute, either {@link WriteTask} or {@link PollTask}
+         */
+        public TaskWithEndpoint<?, ?> getTask() {
+            return task;
+        }
+
+        /**
+         * Whether the task should be executed as one-off task. Regular polls are verified to be still registered when
+         * executed.
+         */
+        public boolean isOneOff() {
+            return oneOff;
+        }
+
+        /**
+         * Get time the task was queued, in milliepoch
+         */
+        public long getQueuedMillis() {
+            return queuedMillis;
+        }
+
+        /**
+         * Get error to fail the task with, instead of executing it, when the endpoint is backed off
+         */
+        public @Nullable Exception getRejection() {
+            return rejection;
+        }
+
+        /**
+         * Take over the future of a member of a combined read request, which is executed separately after all
+         *
+         * @param member member of the combined request
+         * @return the future to complete once the member has been executed, or null if the member has no future
+         */
+        public @Nullable CompletableFuture<?> takeCompletion(PollTask member) {
+            Iterator<QueuedTask> iterator = queued.iterator();
+            while (iterator.hasNext()) {
+                QueuedTask next = iterator.next();
+                if (next.task == member) {
+                    iterator.remove();
+                    return next.completion;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Complete the futures of the executed tasks
+         */
+        public void complete() {
+            for (QueuedTask next : queued) {
+                CompletableFuture<?> completion = next.completion;
+                if (completion != null) {
+                    completion.complete(null);
+                }
+            }
+            queued.clear();
+        }
+    }
+
+    private final ModbusSlaveEndpoint endpoint;
+    private final LongSupplier clock;
+
+    private final Deque<QueuedTask> writes = new ArrayDeque<>();
+    private final List<QueuedTask> polls = new ArrayList<>();
+    private final Map<PollTask, QueuedTask> queuedRegularPolls = new HashMap<>();
+    private boolean running;
+
+    private int consecutiveFailures;
+    private long backoffUntilMillis;
+    private @Nullable Exception lastFailure;
+
+    private long transactions;
+    private long totalWaitMillis;
+    private long maxWaitMillis;
+    private long totalLatencyMillis;
+    private long maxLatencyMillis;
+    private long coalescedPolls;
+    private long missedDeadlines;
+    private long savedTransactions;
+
+    public EndpointTaskQueue(ModbusSlaveEndpoint endpoint) {
+        this(endpoint, System::currentTimeMillis);
+    }
+
+    /**
+     * Construct queue
+     *
+     * @param endpoint endpoint of the queued tasks
+     * @param clock time source in milliepoch
+     */
+    public EndpointTaskQueue(ModbusSlaveEndpoint endpoint, LongSupplier clock) {
+        this.endpoint = endpoint;
+        this.clock = clock;
+    }
+
+    /**
+     * Add poll task to the queue
+     *
+     * Regular poll already waiting in the queue is not queued again.
+     *
+     * @param task task to queue
+     * @param oneOffTask whether the task is one-off task, instead of regular poll
+     * @param periodMillis poll period of regular polls, the poll should be executed within this time
+     * @param coalesce whether the task may be combined with other read requests
+     * @return true if the caller should execute the queued tasks, false if some other thread is doing that already
+     */
+    public boolean offerPoll(PollTask task, boolean oneOffTask, long periodMillis, boolean coalesce) {
+        return offerPoll(task, oneOffTask, periodMillis, coalesce, null);
+    }
+
+    /**
+     * Add poll task to the queue
+     *
+     * Regular poll already waiting in the queue is not queued again.
+     *
+     * @param task task to queue
+     * @param oneOffTask whether the task is one-off task, instead of regular poll
+     * @param periodMillis poll period of regular polls, the poll should be executed within this time
+     * @param coalesce whether the task may be combined with other read requests
+     * @param completion future to complete once a one-off task has been executed, or null
+     * @return true if the caller should execute the queued tasks, false if some other thread is doing that already
+     */
+    public synchronized boolean offerPoll(PollTask task, boolean oneOffTask, long periodMillis, boolean coalesce,
+            @Nullable CompletableFuture<?> completion) {
+        long now = clock.getAsLong();
+        if (!oneOffTask) {
+            if (queuedRegularPolls.containsKey(task)) {
+                coalescedPolls++;
+                return claim();
+            }
+            QueuedTask queued = new QueuedTask(task, false, coalesce, now, now + periodMillis, null);
+            queuedRegularPolls.put(task, queued);
+            polls.add(queued);
+        } else {
+            polls.add(new QueuedTask(task, true, coalesce, now, now, completion));
+        }
+        return claim();
+    }
+
+    /**
+     * Add write task to the queue
+     *
+     * @param task task to queue
+     * @return true if the caller should execute the queued tasks, false if some other thread is doing that already
+     */
+    public boolean offerWrite(WriteTask task) {
+        return offerWrite(task, null);
+    }
+
+    /**
+     * Add write task to the queue
+     *
+     * @param task task to queue
+     * @param completion future to complete once the task has been executed, or null
+     * @return true if the caller should execute the queued tasks, false if some other thread is doing that already
+     */
+    public synchronized boolean offerWrite(WriteTask task, @Nullable CompletableFuture<?> completion) {
+        writes.add(new QueuedTask(task, true, false, clock.getAsLong(), 0, completion));
+        return claim();
+    }
+
+    /**
+     * Remove regular poll from the queue
+     *
+     * @param task task to remove
+     */
+    public synchronized void removePoll(PollTask task) {
+        QueuedTask queued = queuedRegularPolls.remove(task);
+        if (queued != null) {
+            polls.remove(queued);
+        }
+    }
+
+    /**
+     * Take next task to execute
+     *
+     * When there are no tasks left, the caller is no longer considered to be executing the tasks.
+     *
+     * @param maxGap maximum gap for combining read requests, negative to disable
+     * @param fallback executes a member of combined read request separately, in case the slave refuses the combined
+     *            request
+     * @return the next task to execute, or null if the queue is empty
+     */
+    public synchronized @Nullable Selection takeNext(int maxGap, Consumer<PollTask> fallback) {
+        // tasks cancelled while waiting are dropped
+        writes.removeIf(QueuedTask::isCancelled);
+        polls.removeIf(QueuedTask::isCancelled);
+
+        QueuedTask write = writes.poll();
+        if (write != null) {
+            return new Selection(write, null);
+        }
+        if (polls.isEmpty()) {
+            running = false;
+            return null;
+        }
+        long now = clock.getAsLong();
+        QueuedTask next = polls.get(0);
+        for (QueuedTask queued : polls) {
+            if (queued.deadlineMillis < next.deadlineMillis) {
+                next = queued;
+            }
+        }
+        if (!next.oneOff && now > next.deadlineMillis) {
+            missedDeadlines++;
+        }
+        PollTask nextTask = (PollTask) next.task;
+        if (now < backoffUntilMillis) {
+            remove(next);
+            return new Selection(next, lastFailure);
+        }
+        if (maxGap < 0 || !next.coalesce) {
+            remove(next);
+            return new Selection(next, null);
+        }
+
+        List<PollTask> candidates = new ArrayList<>();
+        for (QueuedTask queued : polls) {
+            if (queued.coalesce) {
+                candidates.add((PollTask) queued.task);
+            }
+        }
+        PollTask planned = nextTask;
+        for (PollTask task : ReadRequestCoalescer.plan(endpoint, candidates, maxGap, fallback)) {
+            if (task == nextTask || (task instanceof CoalescedPollTask
+                    && ((CoalescedPollTask) task).getMembers().contains(nextTask))) {
+                planned = task;
+                break;
+            }
+        }
+        if (planned == nextTask) {
+            remove(next);
+            return new Selection(next, null);
+        }
+        List<PollTask> members = ((CoalescedPollTask) planned).getMembers();
+        List<QueuedTask> combined = new ArrayList<>(members.size());
+        long queuedMillis = next.queuedMillis;
+        Iterator<QueuedTask> iterator = polls.iterator();
+        while (iterator.hasNext()) {
+            QueuedTask queued = iterator.next();
+            if (queued.coalesce && members.contains(queued.task)) {
+                iterator.remove();
+                combined.add(queued);
+                if (!queued.oneOff) {
+                    queuedRegularPolls.remove(queued.task);
+                }
+                queuedMillis = Math.min(queuedMillis, queued.queuedMillis);
+            }
+        }
+        savedTransactions += members.size() - 1;
+        // combined tasks are never registered, the members were checked when queued
+        return new Selection(planned, true, queuedMillis, null, combined);
+    }
+
+    /**
+     * Drop all queued tasks and cancel their futures
+     */
+    public synchronized void cancelAll() {
+        for (QueuedTask queued : writes) {
+            cancel(queued);
+        }
+        for (QueuedTask queued : polls) {
+            cancel(queued);
+        }
+        writes.clear();
+        polls.clear();
+        queuedRegularPolls.clear();
+    }
+
+    /**
+     * Release the queue after the caller stopped executing tasks unexpectedly
+     *
+     * The next thread to offer a task continues with the queued tasks.
+     */
+    public synchronized void release() {
+        running = false;
+    }
+
+    /**
+     * Record the outcome of an executed task
+     *
+     * @param selection the executed task
+     * @param startMillis time the execution started, in milliepoch
+     * @param error the error of the last try, or null if the slave responded successfully
+     */
+    public synchronized void recordResult(Selection selection, long startMillis, @Nullable Exception error) {
+        long now = clock.getAsLong();
+        long waitMillis = Math.max(0, startMillis - selection.queuedMillis);
+        long latencyMillis = Math.max(0, now - startMillis);
+        transactions++;
+        totalWaitMillis += waitMillis;
+        maxWaitMillis = Math.max(maxWaitMillis, waitMillis);
+        totalLatencyMillis += latencyMillis;
+        maxLatencyMillis = Math.max(maxLatencyMillis, latencyMillis);
+
+        if (error == null || error instanceof ModbusSlaveErrorResponseException) {
+            // slave responded
+            consecutiveFailures = 0;
+            backoffUntilMillis = 0;
+            lastFailure = null;
+            return;
+        }
+        consecutiveFailures++;
+        lastFailure = error;
+        if (consecutiveFailures >= BACKOFF_FAILURE_THRESHOLD) {
+            int doublings = Math.min(consecutiveFailures - BACKOFF_FAILURE_THRESHOLD, 16);
+            backoffUntilMillis = now + Math.min(BACKOFF_MAX_MILLIS, BACKOFF_INITIAL_MILLIS << doublings);
+        }
+    }
+
+    /**
+     * Get snapshot of the queue and its statistics
+     */
+    public synchronized EndpointQueueStatistics getStatistics() {
+        return new EndpointQueueStatistics(polls.size(), writes.size(), transactions, totalWaitMillis, maxWaitMillis,
+                totalLatencyMillis, maxLatencyMillis, coalescedPolls, missedDeadlines, savedTransactions,
+                consecutiveFailures, Math.max(0, backoffUntilMillis - clock.getAsLong()));
+    }
+
+    private boolean claim() {
+        if (running) {
+            return false;
+        }
+        running = true;
+        return true;
+    }
+
+    private static void cancel(QueuedTask queued) {
+        CompletableFuture<?> completion = queued.completion;
+        if (completion != null) {
+            completion.cancel(false);
+        }
+    }
+
+    private void remove(QueuedTask queued) {
+        polls.remove(queued);
+        if (!queued.oneOff) {
+            queuedRegularPolls.remove(queued.task);
+        }
+    }
+}
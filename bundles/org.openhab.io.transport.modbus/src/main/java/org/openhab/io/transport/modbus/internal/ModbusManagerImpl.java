@@ -14,17 +14,19 @@ package org.openhab.io.transport.modbus.internal;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import javax.imageio.IIOException;
 
@@ -49,6 +51,7 @@ import org.openhab.io.transport.modbus.PollTask;
 import org.openhab.io.transport.modbus.TaskWithEndpoint;
 import org.openhab.io.transport.modbus.WriteTask;
 import org.openhab.io.transport.modbus.endpoint.EndpointPoolConfiguration;
+import org.openhab.io.transport.modbus.endpoint.EndpointQueueStatistics;
 import org.openhab.io.transport.modbus.endpoint.ModbusSerialSlaveEndpoint;
 import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
 import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpointVisitor;
@@ -235,16 +238,14 @@ public class ModbusManagerImpl implements ModbusManager {
     private static final String MODBUS_POLLER_CALLBACK_THREAD_POOL_NAME = "modbusManagerCallbackThreadPool";
 
     /**
-     * Log message with WARN level if the task queues exceed this limit.
+     * Log message with WARN level if the task queue of an endpoint exceeds this limit.
      *
      * If the queues grow too large, it might be an issue with consumer of the ModbusManager.
      *
      * You can generate large queue by spamming ModbusManager with one-off read or writes (submitOnTimePoll or
      * submitOneTimeWrite).
      *
-     * Note that there is no issue registering many regular polls, those do not "queue" the same way.
-     *
-     * Presumably slow callbacks can increase queue size with callbackThreadPool
+     * Note that there is no issue registering many regular polls, each of those is queued at most once.
      */
     private static final long WARN_QUEUE_SIZE = 500;
     private static final long MONITOR_QUEUE_INTERVAL_MILLIS = 10000;
@@ -252,8 +253,6 @@ public class ModbusManagerImpl implements ModbusManager {
     private final PollOperation pollOperation = new PollOperation();
     private final WriteOperation writeOperation = new WriteOperation();
 
-    private volatile long lastQueueMonitorLog = -1;
-
     /**
      * We use connection pool to ensure that only single transaction is ongoing per each endpoint. This is especially
      * important with serial slaves but practice has shown that even many tcp slaves have limited
@@ -276,6 +275,10 @@ public class ModbusManagerImpl implements ModbusManager {
     private volatile Collection<ModbusManagerListener> listeners = new CopyOnWriteArraySet<>();
     @Nullable
     private volatile ScheduledFuture<?> monitorFuture;
+    /**
+     * Tasks waiting for execution, per endpoint
+     */
+    private final Map<ModbusSlaveEndpoint, EndpointTaskQueue> endpointQueues = new ConcurrentHashMap<>();
 
     private void constructConnectionPool() {
         ModbusSlaveConnectionFactoryImpl connectionFactory = new ModbusSlaveConnectionFactoryImpl();
@@ -488,8 +491,10 @@ public class ModbusManagerImpl implements ModbusManager {
      * @param task
      * @param oneOffTask
      * @param operation
+     * @return error of the last try, {@link ModbusConnectionException} if connection could not be established, or
+     *         null if the operation succeeded or was aborted
      */
-    private <R extends ModbusRequestBlueprint, C extends ModbusCallback, T extends TaskWithEndpoint<R, C>> void executeOperation(
+    private <R extends ModbusRequestBlueprint, C extends ModbusCallback, T extends TaskWithEndpoint<R, C>> @Nullable Exception executeOperation(
             @NonNull T task, boolean oneOffTask, ModbusOperation<T> operation) {
         AggregateStopWatch timer = new AggregateStopWatch();
         timer.total.resume();
@@ -499,10 +504,9 @@ public class ModbusManagerImpl implements ModbusManager {
         if (connectionFactory == null) {
             // deactivated manager
             logger.trace("Deactivated manager - aborting operation.");
-            return;
+            return null;
         }
 
-        logTaskQueueInfo();
         R request = task.getRequest();
         ModbusSlaveEndpoint endpoint = task.getEndpoint();
         @Nullable
@@ -527,13 +531,13 @@ public class ModbusManagerImpl implements ModbusManager {
                 // Could not acquire connection, time to abort
                 // Error logged already, error callback called as well
                 logger.trace("Initial connection was not successful, aborting. [operation ID {}]", operationId);
-                return;
+                return new ModbusConnectionException(endpoint);
             }
 
             if (scheduledThreadPoolExecutor == null) {
                 logger.debug("Manager has been shut down, aborting proecssing request {} [operation ID {}]", request,
                         operationId);
-                return;
+                return null;
             }
 
             int tryIndex = 0;
@@ -551,11 +555,11 @@ public class ModbusManagerImpl implements ModbusManager {
                     // re-established. Error has been logged, time to abort.
                     logger.trace("Try {} out of {}. Connection was not successful, aborting. [operation ID {}]",
                             tryIndex + 1, maxTries, operationId);
-                    return;
+                    return new ModbusConnectionException(endpoint);
                 }
                 if (Thread.interrupted()) {
                     logger.warn("Thread interrupted. Aborting operation [operation ID {}]", operationId);
-                    return;
+                    return null;
                 }
                 // Check poll task is still registered (this is all asynchronous)
                 if (!oneOffTask && task instanceof PollTask) {
@@ -672,16 +676,18 @@ public class ModbusManagerImpl implements ModbusManager {
                     });
                 }
             }
+            return exception;
         } catch (PollTaskUnregistered e) {
             logger.warn("Poll task was unregistered -- not executing/proceeding with the poll: {} [operation ID {}]",
                     e.getMessage(), operationId);
-            return;
+            return null;
         } catch (InterruptedException e) {
             logger.warn("Poll task was canceled -- not executing/proceeding with the poll: {} [operation ID {}]",
                     e.getMessage(), operationId);
             // Invalidate connection, and empty (so that new connection is acquired before new retry)
             timer.connection.timeConsumer(c -> invalidate(endpoint, c), connection);
             connection = Optional.empty();
+            return null;
         } finally {
             timer.connection.timeConsumer(c -> returnConnection(endpoint, c), connection);
             logger.trace("Connection was returned to the pool, ending operation [operation ID {}]", operationId);
@@ -690,18 +696,143 @@ public class ModbusManagerImpl implements ModbusManager {
         }
     }
 
+    private EndpointTaskQueue getQueue(ModbusSlaveEndpoint endpoint) {
+        return endpointQueues.computeIfAbsent(endpoint, EndpointTaskQueue::new);
+    }
+
+    private int getReadCoalescingMaxGap(ModbusSlaveEndpoint endpoint) {
+        return Optional.ofNullable(connectionFactory).map(factory -> factory.getEndpointPoolConfiguration(endpoint))
+                .map(cfg -> cfg.getReadCoalescingMaxGap()).orElse(-1);
+    }
+
+    /**
+     * Queue poll task for execution
+     *
+     * @param task task to execute
+     * @param oneOffTask whether this is one-off, or execution of previously scheduled poll
+     * @param pollPeriodMillis poll period of regular poll. The poll is late if not executed within this time.
+     */
+    private void submitPoll(PollTask task, boolean oneOffTask, long pollPeriodMillis) {
+        submitPoll(task, oneOffTask, pollPeriodMillis, null);
+    }
+
+    /**
+     * Queue poll task for execution
+     *
+     * @param task task to execute
+     * @param oneOffTask whether this is one-off, or execution of previously scheduled poll
+     * @param pollPeriodMillis poll period of regular poll. The poll is late if not executed within this time.
+     * @param completion future to complete once a one-off task has been executed, or null
+     */
+    private void submitPoll(PollTask task, boolean oneOffTask, long pollPeriodMillis,
+            @Nullable CompletableFuture<?> completion) {
+        EndpointTaskQueue queue = getQueue(task.getEndpoint());
+        if (queue.offerPoll(task, oneOffTask, pollPeriodMillis, true, completion)) {
+            executeQueuedTasks(task.getEndpoint(), queue);
+        } else {
+            logger.trace("Poll task {} queued, tasks of endpoint {} are executed by other thread", task,
+                    task.getEndpoint());
+        }
+    }
+
+    /**
+     * Queue write task for execution
+     *
+     * @param task task to execute
+     * @param completion future to complete once the task has been executed
+     */
+    private void submitWrite(WriteTask task, CompletableFuture<?> completion) {
+        EndpointTaskQueue queue = getQueue(task.getEndpoint());
+        if (queue.offerWrite(task, completion)) {
+            executeQueuedTasks(task.getEndpoint(), queue);
+        } else {
+            logger.trace("Write task {} queued, tasks of endpoint {} are executed by other thread", task,
+                    task.getEndpoint());
+        }
+    }
+
+    /**
+     * Execute tasks waiting for the endpoint until there are no tasks left
+     *
+     * Only a single thread executes the tasks of an endpoint at a time, see {@link EndpointTaskQueue}.
+     *
+     * @param endpoint endpoint of the queue
+     * @param queue queue to execute
+     */
+    private void executeQueuedTasks(ModbusSlaveEndpoint endpoint, EndpointTaskQueue queue) {
+        // members of combined read request refused by the slave are read separately, the member keeps its future
+        AtomicReference<EndpointTaskQueue.@Nullable Selection> current = new AtomicReference<>();
+        Consumer<PollTask> fallback = member -> {
+            EndpointTaskQueue.Selection executing = current.get();
+            queue.offerPoll(member, true, 0, false, executing == null ? null : executing.takeCompletion(member));
+        };
+        boolean completed = false;
+        try {
+            EndpointTaskQueue.Selection selection;
+            while ((selection = queue.takeNext(getReadCoalescingMaxGap(endpoint), fallback)) != null) {
+                current.set(selection);
+                try {
+                    executeSelection(endpoint, queue, selection);
+                } finally {
+                    selection.complete();
+                }
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                // let the next thread queuing a task continue with the queue
+                queue.release();
+            }
+        }
+    }
+
+    /**
+     * Execute task taken from the queue, or fail it right away if the endpoint is backed off
+     *
+     * @param endpoint endpoint of the queue
+     * @param queue queue the task was taken from
+     * @param selection task to execute
+     */
+    private void executeSelection(ModbusSlaveEndpoint endpoint, EndpointTaskQueue queue,
+            EndpointTaskQueue.Selection selection) {
+        TaskWithEndpoint<?, ?> task = selection.getTask();
+        Exception rejection = selection.getRejection();
+        if (rejection != null) {
+            logger.debug("Endpoint {} is backed off after failures, failing poll task {} without executing it",
+                    endpoint, task);
+            PollTask pollTask = (PollTask) task;
+            ModbusReadCallback callback = pollTask.getCallback();
+            if (callback != null) {
+                invokeCallbackWithError(pollTask.getRequest(), callback, rejection);
+            }
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Exception error;
+        if (task instanceof WriteTask) {
+            error = executeOperation((WriteTask) task, selection.isOneOff(), writeOperation);
+        } else {
+            error = executeOperation((PollTask) task, selection.isOneOff(), pollOperation);
+        }
+        queue.recordResult(selection, start, error);
+    }
+
     @Override
     public ScheduledFuture<?> submitOneTimePoll(PollTask task) {
         ScheduledExecutorService executor = scheduledThreadPoolExecutor;
         Objects.requireNonNull(executor, "Not activated!");
         long scheduleTime = System.currentTimeMillis();
         logger.debug("Scheduling one-off poll task {}", task);
-        ScheduledFuture<?> future = executor.schedule(() -> {
+        OneTimeTaskFuture future = new OneTimeTaskFuture();
+        executor.execute(() -> {
+            if (future.isCancelled()) {
+                return;
+            }
             long millisInThreadPoolWaiting = System.currentTimeMillis() - scheduleTime;
             logger.debug("Will now execute one-off poll task {}, waited in thread pool for {}", task,
                     millisInThreadPoolWaiting);
-            executeOperation(task, true, pollOperation);
-        }, 0L, TimeUnit.MILLISECONDS);
+            submitPoll(task, true, 0, future);
+        });
         return future;
     }
 
@@ -720,7 +851,7 @@ public class ModbusManagerImpl implements ModbusManager {
                 long started = System.currentTimeMillis();
                 logger.debug("Executing scheduled ({}ms) poll task {}. Current millis: {}", pollPeriodMillis, task,
                         started);
-                executeOperation(task, false, pollOperation);
+                submitPoll(task, false, pollPeriodMillis);
                 long finished = System.currentTimeMillis();
                 logger.debug(
                         "Execution of scheduled ({}ms) poll task {} finished at {}. Was started at millis: {} (=duration of {} millis)",
@@ -750,13 +881,18 @@ public class ModbusManagerImpl implements ModbusManager {
                 logger.warn("Caller tried to unregister nonexisting poll task {}", task);
                 return false;
             }
-            logger.info("Unregistering regular poll task {} (interrupting if necessary)", task);
+            logger.info("Unregistering regular poll task {}", task);
 
             // Make sure connections to this endpoint are closed when they are returned to pool (which
             // is usually pretty soon as transactions should be relatively short-lived)
             factory.disconnectOnReturn(task.getEndpoint(), System.currentTimeMillis());
 
-            future.cancel(true);
+            // Do not interrupt: the thread might be executing the tasks of other poll tasks and writes as well
+            future.cancel(false);
+            EndpointTaskQueue queue = endpointQueues.get(task.getEndpoint());
+            if (queue != null) {
+                queue.removePoll(task);
+            }
 
             logger.info("Poll task {} canceled", task);
 
@@ -781,12 +917,16 @@ public class ModbusManagerImpl implements ModbusManager {
         Objects.requireNonNull(scheduledThreadPoolExecutor, "Not activated!");
         long scheduleTime = System.currentTimeMillis();
         logger.debug("Scheduling one-off write task {}", task);
-        ScheduledFuture<?> future = scheduledThreadPoolExecutor.schedule(() -> {
+        OneTimeTaskFuture future = new OneTimeTaskFuture();
+        scheduledThreadPoolExecutor.execute(() -> {
+            if (future.isCancelled()) {
+                return;
+            }
             long millisInThreadPoolWaiting = System.currentTimeMillis() - scheduleTime;
             logger.debug("Will now execute one-off write task {}, waited in thread pool for {}", task,
                     millisInThreadPoolWaiting);
-            executeOperation(task, true, writeOperation);
-        }, 0L, TimeUnit.MILLISECONDS);
+            submitWrite(task, future);
+        });
         return future;
     }
 
@@ -837,7 +977,7 @@ public class ModbusManagerImpl implements ModbusManager {
                 logger.error("Thread pool is shut down! Aborting activation of ModbusMangerImpl");
                 throw new IllegalStateException("Thread pool(s) shut down! Aborting activation of ModbusMangerImpl");
             }
-            monitorFuture = scheduledThreadPoolExecutor.scheduleWithFixedDelay(this::logTaskQueueInfo, 0,
+            monitorFuture = scheduledThreadPoolExecutor.scheduleWithFixedDelay(this::logEndpointStatistics, 0,
                     MONITOR_QUEUE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
         }
     }
@@ -860,6 +1000,9 @@ public class ModbusManagerImpl implements ModbusManager {
                 monitorFuture.cancel(true);
                 monitorFuture = null;
             }
+            // one-off tasks still waiting are never executed
+            endpointQueues.values().forEach(EndpointTaskQueue::cancelAll);
+            endpointQueues.clear();
             // Note that it is not allowed to shutdown the executor, since they will be reused when
             // when pool is received from ThreadPoolManager is called
             scheduledThreadPoolExecutor = null;
@@ -868,39 +1011,22 @@ public class ModbusManagerImpl implements ModbusManager {
         }
     }
 
-    private void logTaskQueueInfo() {
-        synchronized (pollMonitorLogger) {
-            ScheduledExecutorService scheduledThreadPoolExecutor = this.scheduledThreadPoolExecutor;
-            if (scheduledThreadPoolExecutor == null) {
-                return;
-            }
-            // Avoid excessive spamming with queue monitor when many tasks are executed
-            if (System.currentTimeMillis() - lastQueueMonitorLog < MONITOR_QUEUE_INTERVAL_MILLIS) {
-                return;
-            }
-            lastQueueMonitorLog = System.currentTimeMillis();
-            pollMonitorLogger.trace("<POLL MONITOR>");
-            this.scheduledPollTasks.forEach((task, future) -> {
-                pollMonitorLogger.trace(
-                        "POLL MONITOR: scheduled poll task. FC: {}, start {}, length {}, done: {}, canceled: {}, delay: {}. Full task {}",
-                        task.getRequest().getFunctionCode(), task.getRequest().getReference(),
-                        task.getRequest().getDataLength(), future.isDone(), future.isCancelled(),
-                        future.getDelay(TimeUnit.MILLISECONDS), task);
-            });
-            if (scheduledThreadPoolExecutor instanceof ThreadPoolExecutor) {
-                ThreadPoolExecutor executor = ((ThreadPoolExecutor) scheduledThreadPoolExecutor);
-                pollMonitorLogger.trace(
-                        "POLL MONITOR: scheduledThreadPoolExecutor queue size: {}, remaining space {}. Active threads {}",
-                        executor.getQueue().size(), executor.getQueue().remainingCapacity(), executor.getActiveCount());
-                if (executor.getQueue().size() >= WARN_QUEUE_SIZE) {
-                    pollMonitorLogger.warn(
-                            "Many ({}) tasks queued in scheduledThreadPoolExecutor! This might be sign of bad design or bug in the binding code.",
-                            executor.getQueue().size());
-                }
-            }
+    @Override
+    public Map<ModbusSlaveEndpoint, EndpointQueueStatistics> getEndpointQueueStatistics() {
+        Map<ModbusSlaveEndpoint, EndpointQueueStatistics> statistics = new HashMap<>();
+        endpointQueues.forEach((endpoint, queue) -> statistics.put(endpoint, queue.getStatistics()));
+        return statistics;
+    }
 
-            pollMonitorLogger.trace("</POLL MONITOR>");
-        }
+    private void logEndpointStatistics() {
+        getEndpointQueueStatistics().forEach((endpoint, statistics) -> {
+            pollMonitorLogger.debug("POLL MONITOR: endpoint {}: {}", endpoint, statistics);
+            if (statistics.getQueueLength() >= WARN_QUEUE_SIZE) {
+                pollMonitorLogger.warn(
+                        "Many ({}) tasks queued for endpoint {}! This might be sign of bad design or bug in the binding code.",
+                        statistics.getQueueLength(), endpoint);
+            }
+        });
     }
 
 }
@@ -0,0 +1,45 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Future of a one-off task submitted to the {@link EndpointTaskQueue}
+ *
+ * The future is completed once the task has been executed, which may be well after the task was submitted when other
+ * tasks of the same endpoint are executed first. Cancelling the future before the task is executed drops the task from
+ * the queue. A task already being executed is not interrupted.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class OneTimeTaskFuture extends CompletableFuture<@Nullable Void> implements ScheduledFuture<@Nullable Void> {
+
+    @Override
+    public long getDelay(@Nullable TimeUnit unit) {
+        // queued tasks are executed as soon as possible
+        return 0;
+    }
+
+    @Override
+    public int compareTo(@Nullable Delayed other) {
+        return other == null ? 1 : Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+
+/**
+ * Planner combining read requests waiting for the same endpoint to as few transactions as possible
+ *
+ * As only a single transaction is executed with an endpoint at a time, requests pile up in the
+ * {@link EndpointTaskQueue} while the endpoint is busy, and can be read with fewer transactions.
+ *
+ * Requests with the same slave id and function code are combined when they overlap or when there are at most
+ * <code>maxGap</code> unrequested registers or bits between them, as long as the combined request does not exceed
+ * the protocol limits of the function code.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ReadRequestCoalescer {
+
+    /**
+     * Maximum number of registers in a single read request (function codes 3 and 4)
+     */
+    public static final int MAX_REGISTERS_PER_REQUEST = 125;
+
+    /**
+     * Maximum number of coils or discrete inputs in a single read request (function codes 1 and 2)
+     */
+    public static final int MAX_BITS_PER_REQUEST = 2000;
+
+    private static final Comparator<PollTask> BY_ADDRESS = Comparator
+            .<PollTask> comparingInt(task -> task.getRequest().getUnitID())
+            .thenComparing(task -> task.getRequest().getFunctionCode())
+            .thenComparingInt(task -> task.getRequest().getReference())
+            .thenComparingInt(task -> task.getRequest().getDataLength());
+
+    /**
+     * Combine the requests of the tasks into as few requests as possible
+     *
+     * Tasks which cannot be combined with any other task are returned as such. All other tasks are returned as
+     * {@link CoalescedPollTask}.
+     *
+     * @param endpoint endpoint of the tasks
+     * @param tasks tasks to combine
+     * @param maxGap maximum number of registers or bits read in between two requests in order to combine them
+     * @param fallback executes a task individually in case the slave refuses to respond to a combined request
+     * @return tasks to execute
+     */
+    public static List<PollTask> plan(ModbusSlaveEndpoint endpoint, Collection<PollTask> tasks, int maxGap,
+            Consumer<PollTask> fallback) {
+        List<PollTask> sorted = new ArrayList<>(tasks);
+        sorted.sort(BY_ADDRESS);
+        List<PollTask> planned = new ArrayList<>(sorted.size());
+        List<PollTask> block = new ArrayList<>();
+        int blockStart = 0;
+        int blockEnd = 0;
+        for (PollTask task : sorted) {
+            ModbusReadRequestBlueprint request = task.getRequest();
+            int start = request.getReference();
+            int end = start + request.getDataLength();
+            if (!block.isEmpty()) {
+                ModbusReadRequestBlueprint first = block.get(0).getRequest();
+                if (first.getUnitID() == request.getUnitID() && first.getFunctionCode() == request.getFunctionCode()
+                        && start <= blockEnd + maxGap
+                        && Math.max(blockEnd, end) - blockStart <= maxLength(request.getFunctionCode())) {
+                    block.add(task);
+                    blockEnd = Math.max(blockEnd, end);
+                    continue;
+                }
+                planned.add(toTask(endpoint, block, blockStart, blockEnd, fallback));
+                block = new ArrayList<>();
+            }
+            block.add(task);
+            blockStart = start;
+            blockEnd = end;
+        }
+        if (!block.isEmpty()) {
+            planned.add(toTask(endpoint, block, blockStart, blockEnd, fallback));
+        }
+        return planned;
+    }
+
+    private static PollTask toTask(ModbusSlaveEndpoint endpoint, List<PollTask> block, int start, int end,
+            Consumer<PollTask> fallback) {
+        if (block.size() == 1) {
+            return block.get(0);
+        }
+        ModbusReadRequestBlueprint first = block.get(0).getRequest();
+        int maxTries = block.stream().mapToInt(task -> task.getRequest().getMaxTries()).max().orElse(1);
+        BasicModbusReadRequestBlueprint request = new BasicModbusReadRequestBlueprint(first.getUnitID(),
+                first.getFunctionCode(), start, end - start, maxTries);
+        return new CoalescedPollTask(endpoint, request, block, fallback);
+    }
+
+    private static int maxLength(ModbusReadFunctionCode functionCode) {
+        switch (functionCode) {
+            case READ_COILS:
+            case READ_INPUT_DISCRETES:
+                return MAX_BITS_PER_REQUEST;
+            default:
+                return MAX_REGISTERS_PER_REQUEST;
+        }
+    }
+}
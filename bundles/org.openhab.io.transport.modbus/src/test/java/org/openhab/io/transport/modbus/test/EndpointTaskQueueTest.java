@@ -0,0 +1,295 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.Test;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicModbusWriteCoilRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicPollTaskImpl;
+import org.openhab.io.transport.modbus.BasicWriteTask;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusConnectionException;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.ModbusResponse;
+import org.openhab.io.transport.modbus.ModbusWriteCallback;
+import org.openhab.io.transport.modbus.ModbusWriteRequestBlueprint;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.WriteTask;
+import org.openhab.io.transport.modbus.endpoint.EndpointQueueStatistics;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.CoalescedPollTask;
+import org.openhab.io.transport.modbus.internal.EndpointTaskQueue;
+import org.openhab.io.transport.modbus.internal.EndpointTaskQueue.Selection;
+import org.openhab.io.transport.modbus.internal.OneTimeTaskFuture;
+
+/**
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class EndpointTaskQueueTest {
+
+    private static final Consumer<PollTask> NO_FALLBACK = task -> {
+    };
+
+    private final ModbusSlaveEndpoint endpoint = new ModbusTCPSlaveEndpoint("localhost", 502);
+    private final AtomicLong now = new AtomicLong(1000);
+    private final EndpointTaskQueue queue = new EndpointTaskQueue(endpoint, now::get);
+
+    private PollTask poll(int start) {
+        return new BasicPollTaskImpl(endpoint, new BasicModbusReadRequestBlueprint(1,
+                ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, start, 1, 1), new ModbusReadCallback() {
+
+                    @Override
+                    public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+                    }
+
+                    @Override
+                    public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+                    }
+
+                    @Override
+                    public void onError(ModbusReadRequestBlueprint request, Exception error) {
+                    }
+                });
+    }
+
+    private WriteTask write() {
+        return new BasicWriteTask(endpoint, new BasicModbusWriteCoilRequestBlueprint(1, 0, true, false, 1),
+                new ModbusWriteCallback() {
+
+                    @Override
+                    public void onWriteResponse(ModbusWriteRequestBlueprint request, ModbusResponse response) {
+                    }
+
+                    @Override
+                    public void onError(ModbusWriteRequestBlueprint request, Exception error) {
+                    }
+                });
+    }
+
+    private @Nullable Object next(int maxGap) {
+        Selection selection = queue.takeNext(maxGap, NO_FALLBACK);
+        return selection == null ? null : selection.getTask();
+    }
+
+    @Test
+    public void testOnlyFirstCallerExecutes() {
+        assertThat(queue.offerPoll(poll(0), true, 0, true), is(true));
+        assertThat(queue.offerPoll(poll(1), true, 0, true), is(false));
+        assertThat(queue.offerWrite(write()), is(false));
+
+        assertThat(next(-1), is(notNullValue()));
+        assertThat(next(-1), is(notNullValue()));
+        assertThat(next(-1), is(notNullValue()));
+        assertThat(next(-1), is(nullValue()));
+
+        // queue is released once empty
+        assertThat(queue.offerPoll(poll(0), true, 0, true), is(true));
+    }
+
+    @Test
+    public void testWritesPreemptPolls() {
+        PollTask poll = poll(0);
+        WriteTask write = write();
+        queue.offerPoll(poll, true, 0, true);
+        queue.offerWrite(write);
+
+        assertThat(next(-1), is(sameInstance(write)));
+        assertThat(next(-1), is(sameInstance(poll)));
+    }
+
+    @Test
+    public void testPollsAreExecutedInDeadlineOrder() {
+        PollTask slow = poll(0);
+        PollTask fast = poll(1);
+        PollTask oneOff = poll(2);
+        queue.offerPoll(slow, false, 5000, true);
+        queue.offerPoll(fast, false, 100, true);
+        queue.offerPoll(oneOff, true, 0, true);
+
+        assertThat(next(-1), is(sameInstance(oneOff)));
+        assertThat(next(-1), is(sameInstance(fast)));
+        assertThat(next(-1), is(sameInstance(slow)));
+    }
+
+    @Test
+    public void testRegularPollIsQueuedOnce() {
+        PollTask poll = poll(0);
+        queue.offerPoll(poll, false, 100, true);
+        now.addAndGet(150);
+        queue.offerPoll(poll, false, 100, true);
+
+        Selection selection = queue.takeNext(-1, NO_FALLBACK);
+        assertThat(selection.getTask(), is(sameInstance(poll)));
+        assertThat(selection.isOneOff(), is(false));
+        assertThat(next(-1), is(nullValue()));
+
+        EndpointQueueStatistics statistics = queue.getStatistics();
+        assertThat(statistics.getCoalescedPolls(), is(equalTo(1L)));
+        assertThat(statistics.getMissedDeadlines(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void testRemovedPollIsNotExecuted() {
+        PollTask poll = poll(0);
+        queue.offerPoll(poll, false, 100, true);
+        queue.removePoll(poll);
+
+        assertThat(next(-1), is(nullValue()));
+    }
+
+    @Test
+    public void testQueuedPollsAreCombined() {
+        PollTask first = poll(0);
+        PollTask second = poll(1);
+        PollTask notCombined = poll(2);
+        queue.offerPoll(first, false, 100, true);
+        queue.offerPoll(second, true, 0, true);
+        queue.offerPoll(notCombined, true, 0, false);
+
+        Object combined = next(0);
+        assertThat(combined, is(instanceOf(CoalescedPollTask.class)));
+        assertThat(((CoalescedPollTask) combined).getMembers().size(), is(equalTo(2)));
+        assertThat(next(0), is(sameInstance(notCombined)));
+        assertThat(next(0), is(nullValue()));
+        assertThat(queue.getStatistics().getSavedTransactions(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void testNonRespondingSlaveIsBackedOff() {
+        Exception error = new ModbusConnectionException(endpoint);
+        queue.offerPoll(poll(0), true, 0, true);
+        Selection selection = queue.takeNext(-1, NO_FALLBACK);
+        queue.recordResult(selection, now.get(), error);
+        assertThat(queue.getStatistics().getBackoffMillis(), is(equalTo(0L)));
+
+        queue.offerPoll(poll(0), true, 0, true);
+        selection = queue.takeNext(-1, NO_FALLBACK);
+        assertThat(selection.getRejection(), is(nullValue()));
+        queue.recordResult(selection, now.get(), error);
+        assertThat(queue.getStatistics().getBackoffMillis(), is(equalTo(EndpointTaskQueue.BACKOFF_INITIAL_MILLIS)));
+
+        // polls are failed during backoff, writes executed
+        WriteTask write = write();
+        queue.offerPoll(poll(0), true, 0, true);
+        queue.offerWrite(write);
+        selection = queue.takeNext(-1, NO_FALLBACK);
+        assertThat(selection.getTask(), is(sameInstance(write)));
+        assertThat(selection.getRejection(), is(nullValue()));
+        queue.recordResult(selection, now.get(), error);
+        assertThat(queue.getStatistics().getBackoffMillis(),
+                is(equalTo(2 * EndpointTaskQueue.BACKOFF_INITIAL_MILLIS)));
+        selection = queue.takeNext(-1, NO_FALLBACK);
+        assertThat(selection.getRejection(), is(sameInstance(error)));
+
+        // backoff ends with the first response
+        now.addAndGet(2 * EndpointTaskQueue.BACKOFF_INITIAL_MILLIS);
+        queue.offerPoll(poll(0), true, 0, true);
+        selection = queue.takeNext(-1, NO_FALLBACK);
+        assertThat(selection.getRejection(), is(nullValue()));
+        queue.recordResult(selection, now.get(), null);
+        assertThat(queue.getStatistics().getConsecutiveFailures(), is(equalTo(0)));
+        assertThat(queue.getStatistics().getBackoffMillis(), is(equalTo(0L)));
+    }
+
+    @Test
+    public void testWaitAndLatencyAreRecorded() {
+        queue.offerPoll(poll(0), true, 0, true);
+        now.addAndGet(30);
+        Selection selection = queue.takeNext(-1, NO_FALLBACK);
+        long start = now.get();
+        now.addAndGet(70);
+        queue.recordResult(selection, start, null);
+
+        EndpointQueueStatistics statistics = queue.getStatistics();
+        assertThat(statistics.getTransactions(), is(equalTo(1L)));
+        assertThat(statistics.getAverageWaitMillis(), is(equalTo(30L)));
+        assertThat(statistics.getMaxLatencyMillis(), is(equalTo(70L)));
+        assertThat(statistics.getQueueLength(), is(equalTo(0)));
+    }
+
+    @Test
+    public void testFutureIsCompletedAfterExecution() {
+        OneTimeTaskFuture pollFuture = new OneTimeTaskFuture();
+        OneTimeTaskFuture writeFuture = new OneTimeTaskFuture();
+        queue.offerPoll(poll(0), true, 0, true, pollFuture);
+        queue.offerWrite(write(), writeFuture);
+
+        Selection selection = queue.takeNext(-1, NO_FALLBACK);
+        assertThat(writeFuture.isDone(), is(false));
+        selection.complete();
+        assertThat(writeFuture.isDone(), is(true));
+        assertThat(pollFuture.isDone(), is(false));
+
+        queue.takeNext(-1, NO_FALLBACK).complete();
+        assertThat(pollFuture.isDone(), is(true));
+        assertThat(pollFuture.isCancelled(), is(false));
+    }
+
+    @Test
+    public void testCancelledTaskIsNotExecuted() {
+        OneTimeTaskFuture future = new OneTimeTaskFuture();
+        PollTask poll = poll(1);
+        queue.offerPoll(poll(0), true, 0, true, future);
+        queue.offerPoll(poll, true, 0, true);
+        future.cancel(false);
+
+        assertThat(next(-1), is(sameInstance(poll)));
+        assertThat(next(-1), is(nullValue()));
+    }
+
+    @Test
+    public void testFuturesOfCombinedPollsAreCompleted() {
+        PollTask first = poll(0);
+        PollTask second = poll(1);
+        OneTimeTaskFuture firstFuture = new OneTimeTaskFuture();
+        OneTimeTaskFuture secondFuture = new OneTimeTaskFuture();
+        queue.offerPoll(first, true, 0, true, firstFuture);
+        queue.offerPoll(second, true, 0, true, secondFuture);
+
+        Selection selection = queue.takeNext(0, NO_FALLBACK);
+        assertThat(selection.getTask(), is(instanceOf(CoalescedPollTask.class)));
+        // the second member is executed separately, it keeps its future
+        CompletableFuture<?> taken = selection.takeCompletion(second);
+        assertThat(taken, is(sameInstance(secondFuture)));
+        selection.complete();
+        assertThat(firstFuture.isDone(), is(true));
+        assertThat(secondFuture.isDone(), is(false));
+    }
+
+    @Test
+    public void testCancelAllCancelsFutures() {
+        OneTimeTaskFuture future = new OneTimeTaskFuture();
+        queue.offerWrite(write(), future);
+
+        queue.cancelAll();
+
+        assertThat(future.isCancelled(), is(true));
+        assertThat(next(-1), is(nullValue()));
+    }
+}
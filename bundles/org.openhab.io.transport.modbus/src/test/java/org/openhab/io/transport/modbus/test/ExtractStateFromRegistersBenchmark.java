@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.openhab.io.transport.modbus.ModbusBitUtilities;
+import org.openhab.io.transport.modbus.ModbusConstants.ValueType;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.internal.RegisterArrayWrappingInputRegister;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import net.wimpi.modbus.procimg.InputRegister;
+import net.wimpi.modbus.procimg.SimpleInputRegister;
+
+/**
+ * Compares {@link ModbusBitUtilities#extractStateFromRegisters} with the <code>ByteBuffer</code> based decoding used by
+ * earlier versions.
+ * <p>
+ * Every invocation decodes all values of a 120 register response, as a poller with data things for each value would.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.openhab.io.transport.modbus.test.ExtractStateFromRegistersBenchmark} or from the IDE. Add the
+ * GC profiler (<code>-prof gc</code> on the command line) to compare the allocation rates.
+ *
+ * @author agent - Initial contribution
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExtractStateFromRegistersBenchmark {
+
+    private static final int REGISTERS = 120;
+
+    @Param({ "INT16", "UINT32", "FLOAT32_SWAP", "INT64", "UINT64_SWAP" })
+    public ValueType type;
+
+    private ModbusRegisterArray registers;
+    private int step;
+
+    @Setup
+    public void setUp() {
+        InputRegister[] wrapped = new InputRegister[REGISTERS];
+        for (int i = 0; i < REGISTERS; i++) {
+            // alternate the sign bit, so that both the small and large unsigned values are decoded
+            wrapped[i] = new SimpleInputRegister((i % 2 == 0 ? 0x8000 : 0) | (i * 523) & 0x7fff);
+        }
+        registers = new RegisterArrayWrappingInputRegister(wrapped);
+        step = Math.max(1, type.getBits() / 16);
+    }
+
+    @Benchmark
+    public void extract(Blackhole blackhole) {
+        for (int index = 0; index + step <= REGISTERS; index += step) {
+            blackhole.consume(ModbusBitUtilities.extractStateFromRegisters(registers, index, type));
+        }
+    }
+
+    @Benchmark
+    public void extractWithByteBuffer(Blackhole blackhole) {
+        for (int index = 0; index + step <= REGISTERS; index += step) {
+            blackhole.consume(extractWithByteBuffer(registers, index, type));
+        }
+    }
+
+    /**
+     * The decoding of the register based types as implemented before the primitive decoding
+     */
+    private static DecimalType extractWithByteBuffer(ModbusRegisterArray registers, int index, ValueType type) {
+        switch (type) {
+            case INT16: {
+                ByteBuffer buff = ByteBuffer.allocate(2);
+                buff.put(registers.getRegister(index).getBytes());
+                return new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getShort(0));
+            }
+            case UINT32: {
+                ByteBuffer buff = ByteBuffer.allocate(8);
+                buff.position(4);
+                buff.put(registers.getRegister(index).getBytes());
+                buff.put(registers.getRegister(index + 1).getBytes());
+                return new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0));
+            }
+            case FLOAT32_SWAP: {
+                ByteBuffer buff = ByteBuffer.allocate(4);
+                buff.put(registers.getRegister(index + 1).getBytes());
+                buff.put(registers.getRegister(index).getBytes());
+                return new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getFloat(0));
+            }
+            case INT64: {
+                ByteBuffer buff = ByteBuffer.allocate(8);
+                buff.put(registers.getRegister(index).getBytes());
+                buff.put(registers.getRegister(index + 1).getBytes());
+                buff.put(registers.getRegister(index + 2).getBytes());
+                buff.put(registers.getRegister(index + 3).getBytes());
+                return new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0));
+            }
+            case UINT64_SWAP: {
+                ByteBuffer buff = ByteBuffer.allocate(8);
+                buff.put(registers.getRegister(index + 3).getBytes());
+                buff.put(registers.getRegister(index + 2).getBytes());
+                buff.put(registers.getRegister(index + 1).getBytes());
+                buff.put(registers.getRegister(index).getBytes());
+                return new DecimalType(new BigDecimal(new BigInteger(1, buff.order(ByteOrder.BIG_ENDIAN).array())));
+            }
+            default:
+                throw new IllegalArgumentException(type.getConfigValue());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ExtractStateFromRegistersBenchmark.class.getSimpleName()).build())
+                .run();
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.Test;
+import org.openhab.io.transport.modbus.BasicBitArray;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.BasicPollTaskImpl;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.CoalescedPollTask;
+import org.openhab.io.transport.modbus.internal.ReadRequestCoalescer;
+
+/**
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ReadRequestCoalescerTest {
+
+    private static class RecordingCallback implements ModbusReadCallback {
+        private List<Object> received = new ArrayList<>();
+
+        @Override
+        public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+            received.add(registers.toHexString());
+        }
+
+        @Override
+        public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+            received.add(bits.toBinaryString());
+        }
+
+        @Override
+        public void onError(ModbusReadRequestBlueprint request, Exception error) {
+            received.add(error);
+        }
+    }
+
+    private final ModbusSlaveEndpoint endpoint = new ModbusTCPSlaveEndpoint("localhost", 502);
+    private final List<PollTask> fallbacks = new ArrayList<>();
+
+    private PollTask task(int slaveId, ModbusReadFunctionCode functionCode, int start, int length) {
+        return new BasicPollTaskImpl(endpoint,
+                new BasicModbusReadRequestBlueprint(slaveId, functionCode, start, length, 1), new RecordingCallback());
+    }
+
+    private List<PollTask> plan(int maxGap, PollTask... tasks) {
+        return ReadRequestCoalescer.plan(endpoint, Arrays.asList(tasks), maxGap, fallbacks::add);
+    }
+
+    private static List<Object> received(PollTask task) {
+        return ((RecordingCallback) task.getCallback()).received;
+    }
+
+    @Test
+    public void testOverlappingAndAdjacentRequestsAreCombined() {
+        PollTask first = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 10, 4);
+        PollTask overlapping = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 12, 4);
+        PollTask adjacent = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 16, 2);
+        PollTask gap = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 19, 1);
+
+        List<PollTask> planned = plan(0, gap, adjacent, first, overlapping);
+
+        assertThat(planned.size(), is(equalTo(2)));
+        assertThat(planned.get(0), is(instanceOf(CoalescedPollTask.class)));
+        assertThat(planned.get(0).getRequest().getReference(), is(equalTo(10)));
+        assertThat(planned.get(0).getRequest().getDataLength(), is(equalTo(8)));
+        assertThat(((CoalescedPollTask) planned.get(0)).getMembers(),
+                is(equalTo(Arrays.asList(first, overlapping, adjacent))));
+        assertThat(planned.get(1), is(sameInstance(gap)));
+    }
+
+    @Test
+    public void testRequestsWithinGapAreCombined() {
+        PollTask first = task(1, ModbusReadFunctionCode.READ_INPUT_REGISTERS, 0, 2);
+        PollTask second = task(1, ModbusReadFunctionCode.READ_INPUT_REGISTERS, 5, 2);
+
+        assertThat(plan(2, first, second).size(), is(equalTo(2)));
+        List<PollTask> planned = plan(3, first, second);
+        assertThat(planned.size(), is(equalTo(1)));
+        assertThat(planned.get(0).getRequest().getDataLength(), is(equalTo(7)));
+    }
+
+    @Test
+    public void testDifferentSlavesAndFunctionCodesAreNotCombined() {
+        PollTask holding = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 2);
+        PollTask input = task(1, ModbusReadFunctionCode.READ_INPUT_REGISTERS, 2, 2);
+        PollTask otherSlave = task(2, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 2, 2);
+
+        assertThat(plan(10, holding, input, otherSlave).size(), is(equalTo(3)));
+    }
+
+    @Test
+    public void testProtocolLimitsAreRespected() {
+        PollTask first = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 100);
+        PollTask second = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 100, 25);
+        PollTask third = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 125, 1);
+        List<PollTask> planned = plan(0, first, second, third);
+        assertThat(planned.size(), is(equalTo(2)));
+        assertThat(planned.get(0).getRequest().getDataLength(), is(equalTo(125)));
+
+        PollTask coils = task(1, ModbusReadFunctionCode.READ_COILS, 0, 1000);
+        PollTask moreCoils = task(1, ModbusReadFunctionCode.READ_COILS, 1000, 1000);
+        assertThat(plan(0, coils, moreCoils).size(), is(equalTo(1)));
+    }
+
+    @Test
+    public void testDataIsSlicedToMembers() {
+        PollTask first = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 10, 2);
+        PollTask second = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 11, 3);
+        CoalescedPollTask combined = (CoalescedPollTask) plan(0, first, second).get(0);
+
+        combined.getCallback().onRegisters(combined.getRequest(), new BasicModbusRegisterArray(1, 2, 3, 4));
+
+        assertThat(received(first), is(equalTo(Arrays.asList("00 01 00 02"))));
+        assertThat(received(second), is(equalTo(Arrays.asList("00 02 00 03 00 04"))));
+    }
+
+    @Test
+    public void testBitsAreSlicedToMembers() {
+        PollTask first = task(1, ModbusReadFunctionCode.READ_COILS, 0, 2);
+        PollTask second = task(1, ModbusReadFunctionCode.READ_COILS, 3, 2);
+        CoalescedPollTask combined = (CoalescedPollTask) plan(1, first, second).get(0);
+
+        combined.getCallback().onBits(combined.getRequest(), new BasicBitArray(true, false, false, true, true));
+
+        assertThat(received(first), is(equalTo(Arrays.asList("10"))));
+        assertThat(received(second), is(equalTo(Arrays.asList("11"))));
+    }
+
+    @Test
+    public void testErrorsArePassedToMembers() {
+        PollTask first = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 1);
+        PollTask second = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 1, 1);
+        CoalescedPollTask combined = (CoalescedPollTask) plan(0, first, second).get(0);
+        Exception error = new Exception("connection lost");
+
+        combined.getCallback().onError(combined.getRequest(), error);
+
+        assertThat(received(first), is(equalTo(Arrays.asList(error))));
+        assertThat(received(second), is(equalTo(Arrays.asList(error))));
+        assertThat(fallbacks.isEmpty(), is(true));
+    }
+}
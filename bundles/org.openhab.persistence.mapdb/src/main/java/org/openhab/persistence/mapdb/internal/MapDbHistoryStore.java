@@ -0,0 +1,210 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.persistence.FilterCriteria;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Operator;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Ordering;
+import org.eclipse.smarthome.core.persistence.HistoricItem;
+import org.eclipse.smarthome.core.types.State;
+import org.mapdb.BTreeKeySerializer;
+import org.mapdb.DB;
+import org.mapdb.Fun;
+import org.mapdb.Fun.Tuple3;
+import org.mapdb.Serializer;
+
+/**
+ * Append-only time series store for item states.
+ * <p>
+ * Every stored state becomes one record in a B-tree keyed by (item name, timestamp, sequence), so all records of an item
+ * are stored next to each other in chronological order. The sequence number keeps records with the same timestamp
+ * apart, so states stored within the same millisecond never overwrite each other. Date ranges, ordering and paging of a
+ * {@link FilterCriteria} are answered by seeking to the first matching key and iterating only the requested page.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbHistoryStore {
+
+    private static final String HISTORY_STORE_NAME = "historyStore";
+
+    private final NavigableMap<Tuple3<String, Long, Integer>, byte[]> history;
+
+    private final StateCodec codec;
+
+    public MapDbHistoryStore(DB db, StateCodec codec) {
+        this.codec = codec;
+        history = db.<Tuple3<String, Long, Integer>, byte[]> createTreeMap(HISTORY_STORE_NAME)
+                .keySerializer(BTreeKeySerializer.TUPLE3).valueSerializer(Serializer.BYTE_ARRAY).makeOrGet();
+    }
+
+    /**
+     * Appends a state record to the history of the given item.
+     *
+     * @param name the item name or alias
+     * @param timestamp the time of the record
+     * @param state the state to store
+     */
+    public synchronized void append(String name, Date timestamp, State state) {
+        byte[] record = codec.encode(state);
+        if (record == null) {
+            return;
+        }
+        long time = timestamp.getTime();
+        // append after the last record with the same timestamp
+        Tuple3<String, Long, Integer> last = history.floorKey(upperKey(name, time));
+        int sequence = last != null && name.equals(last.a) && last.b == time ? last.c + 1 : 0;
+        history.put(Fun.t3(name, time, sequence), record);
+    }
+
+    /**
+     * Checks whether any record is stored for the given item.
+     *
+     * @param name the item name or alias
+     * @return true if the item has at least one record
+     */
+    public boolean contains(String name) {
+        Tuple3<String, Long, Integer> first = history.ceilingKey(Fun.t3(name, (Long) null, (Integer) null));
+        return first != null && name.equals(first.a);
+    }
+
+    /**
+     * Returns the records of an item matching the given filter.
+     *
+     * @param filter the filter; its item name must be set
+     * @return the matching records in the requested order, limited to the requested page
+     */
+    public List<HistoricItem> query(FilterCriteria filter) {
+        String name = filter.getItemName();
+        if (name == null) {
+            return Collections.emptyList();
+        }
+
+        NavigableMap<Tuple3<String, Long, Integer>, byte[]> range = range(name, filter.getBeginDate(), filter.getEndDate());
+        if (filter.getOrdering() == Ordering.DESCENDING) {
+            range = range.descendingMap();
+        }
+
+        int pageSize = filter.getPageSize();
+        long skip = (long) filter.getPageNumber() * pageSize;
+        State filterState = filter.getState();
+
+        List<HistoricItem> result = new ArrayList<>();
+        for (Entry<Tuple3<String, Long, Integer>, byte[]> entry : range.entrySet()) {
+            if (result.size() >= pageSize) {
+                break;
+            }
+            if (filterState == null && skip > 0) {
+                // no state filter: skip the previous pages without decoding
+                skip--;
+                continue;
+            }
+            State state = codec.decode(entry.getValue());
+            if (state == null || (filterState != null && !matches(state, filter.getOperator(), filterState))) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            MapDbItem item = new MapDbItem();
+            item.setName(name);
+            item.setState(state);
+            item.setTimestamp(new Date(entry.getKey().b));
+            result.add(item);
+        }
+        return result;
+    }
+
+    /**
+     * Removes all records of an item older than the given time.
+     *
+     * @param name the item name or alias
+     * @param cutoff records with a timestamp before this time are removed
+     */
+    public void removeOlderThan(String name, Date cutoff) {
+        history.subMap(Fun.t3(name, (Long) null, (Integer) null), true,
+                Fun.t3(name, cutoff.getTime(), (Integer) null), false).clear();
+    }
+
+    /**
+     * Removes the records of all items older than the given time.
+     *
+     * @param cutoff records with a timestamp before this time are removed
+     */
+    public void removeOlderThan(Date cutoff) {
+        @Nullable
+        Tuple3<String, Long, Integer> key = history.isEmpty() ? null : history.firstKey();
+        while (key != null) {
+            String name = key.a;
+            removeOlderThan(name, cutoff);
+            // continue with the first record of the next item
+            key = history.higherKey(upperKey(name, null));
+        }
+    }
+
+    private NavigableMap<Tuple3<String, Long, Integer>, byte[]> range(String name, @Nullable Date begin,
+            @Nullable Date end) {
+        // a null component sorts before all other values at the same position
+        Tuple3<String, Long, Integer> from = Fun.t3(name, begin == null ? null : begin.getTime(), (Integer) null);
+        return history.subMap(from, true, upperKey(name, end == null ? null : end.getTime()), true);
+    }
+
+    /**
+     * Returns a key sorting after all records of the item with the given timestamp, or after all records of the item if
+     * the timestamp is null. The {@link Fun#HI} marker is neither a {@link Long} nor an {@link Integer}, so the key is
+     * created as a raw tuple.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Tuple3<String, Long, Integer> upperKey(String name, @Nullable Long timestamp) {
+        return (Tuple3) Fun.t3(name, timestamp == null ? Fun.HI : timestamp, Fun.HI);
+    }
+
+    private boolean matches(State state, Operator operator, State filterState) {
+        switch (operator) {
+            case EQ:
+                return state.equals(filterState);
+            case NEQ:
+                return !state.equals(filterState);
+            default:
+                DecimalType value = state.as(DecimalType.class);
+                DecimalType filterValue = filterState.as(DecimalType.class);
+                if (value == null || filterValue == null) {
+                    return false;
+                }
+                int comparison = value.toBigDecimal().compareTo(filterValue.toBigDecimal());
+                switch (operator) {
+                    case GT:
+                        return comparison > 0;
+                    case GTE:
+                        return comparison >= 0;
+                    case LT:
+                        return comparison < 0;
+                    case LTE:
+                        return comparison <= 0;
+                    default:
+                        return false;
+                }
+        }
+    }
+}
@@ -15,11 +15,15 @@ package org.openhab.persistence.mapdb.internal;
 import java.io.File;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -35,8 +39,10 @@ import org.eclipse.smarthome.core.persistence.PersistenceService;
 import org.eclipse.smarthome.core.persistence.QueryablePersistenceService;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.UnDefType;
+import org.mapdb.BTreeKeySerializer;
 import org.mapdb.DB;
 import org.mapdb.DBMaker;
+import org.mapdb.Serializer;
 import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,12 +54,22 @@ import com.google.gson.GsonBuilder;
  * This is the implementation of the MapDB {@link PersistenceService}. To learn
  * more about MapDB please visit their <a
  * href="http://www.mapdb.org/">website</a>.
+ * <p>
+ * By default only the last state of every item is kept. If the {@code history} option is set, every stored state is
+ * also appended to a {@link MapDbHistoryStore}, optionally limited to the last {@code retentionDays} days.
+ * <p>
+ * If {@code commitInterval} is set, writes are grouped by a {@link MapDbWriteQueue} and committed at most every
+ * {@code commitInterval} milliseconds or after {@code commitSize} distinct items, instead of once per write.
+ * <p>
+ * Item states are stored as binary records created by the {@link StateCodec}. Stores written by earlier versions as
+ * Gson JSON strings are migrated once on activation.
  *
  * @author Jens Viebig - Initial contribution
  * @author Martin Kühl - Port to Eclipse SmartHome
  */
 @NonNullByDefault
-@Component(service = { PersistenceService.class, QueryablePersistenceService.class })
+@Component(service = { PersistenceService.class,
+        QueryablePersistenceService.class }, configurationPid = "org.openhab.mapdb")
 public class MapDbPersistenceService implements QueryablePersistenceService {
 
     private static final String SERVICE_NAME = "mapdb";
@@ -62,6 +78,22 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
 
     private static final String DB_FILE_NAME = "storage.mapdb";
 
+    private static final String ITEM_STORE_NAME = "items";
+
+    private static final String LEGACY_ITEM_STORE_NAME = "itemStore";
+
+    private static final String CONFIG_HISTORY = "history";
+
+    private static final String CONFIG_RETENTION_DAYS = "retentionDays";
+
+    private static final String CONFIG_COMMIT_INTERVAL = "commitInterval";
+
+    private static final String CONFIG_COMMIT_SIZE = "commitSize";
+
+    private static final int DEFAULT_COMMIT_SIZE = 100;
+
+    private static final long RETENTION_INTERVAL_HOURS = 1;
+
     private final Logger logger = LoggerFactory.getLogger(MapDbPersistenceService.class);
 
     @NonNullByDefault({})
@@ -71,15 +103,29 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
     @NonNullByDefault({})
     private DB db;
     @NonNullByDefault({})
-    private Map<String, String> map;
+    private Map<String, byte[]> map;
+
+    private final StateCodec codec = new StateCodec();
+
+    /** holds the history of all stored states if the history mode is enabled */
+    private @Nullable MapDbHistoryStore historyStore;
 
-    private transient Gson mapper = new GsonBuilder()
-            .registerTypeHierarchyAdapter(State.class, new StateTypeAdapter())
-            .create();
+    private int retentionDays;
 
-    public void activate() {
+    private @Nullable ScheduledFuture<?> retentionJob;
+
+    /** groups writes into fewer commits if a commit interval is configured */
+    private @Nullable MapDbWriteQueue writeQueue;
+
+    public void activate(Map<String, Object> config) {
         logger.debug("MapDB persistence service is being activated");
 
+        Object history = config.get(CONFIG_HISTORY);
+        boolean historyEnabled = history != null && Boolean.parseBoolean(history.toString());
+        retentionDays = getIntConfig(config, CONFIG_RETENTION_DAYS, 0);
+        int commitInterval = getIntConfig(config, CONFIG_COMMIT_INTERVAL, 0);
+        int commitSize = getIntConfig(config, CONFIG_COMMIT_SIZE, DEFAULT_COMMIT_SIZE);
+
         threadPool = ThreadPoolManager.getPool(getClass().getSimpleName());
 
         File folder = new File(DB_FOLDER_NAME);
@@ -93,12 +139,103 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
 
         File dbFile = new File(DB_FOLDER_NAME, DB_FILE_NAME);
         db = DBMaker.newFileDB(dbFile).closeOnJvmShutdown().make();
-        map = db.createTreeMap("itemStore").makeOrGet();
+        map = db.<String, byte[]> createTreeMap(ITEM_STORE_NAME).keySerializer(BTreeKeySerializer.STRING)
+                .valueSerializer(Serializer.BYTE_ARRAY).makeOrGet();
+        if (db.exists(LEGACY_ITEM_STORE_NAME)) {
+            migrateLegacyItemStore();
+        }
+
+        if (historyEnabled) {
+            activateHistory();
+        }
+        if (commitInterval > 0) {
+            writeQueue = new MapDbWriteQueue(commitSize, commitInterval,
+                    ThreadPoolManager.getScheduledPool(getClass().getSimpleName()), this::write, () -> db.commit());
+            logger.debug("MapDB group commit enabled, interval: {} ms, size: {}", commitInterval, commitSize);
+        }
         logger.debug("MapDB persistence service is now activated");
     }
 
+    private int getIntConfig(Map<String, Object> config, String key, int defaultValue) {
+        Object value = config.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.toString());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value '{}' for '{}', using default {}", value, key, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Converts the Gson JSON records of earlier versions into binary records and removes the old store.
+     */
+    private void migrateLegacyItemStore() {
+        Gson mapper = new GsonBuilder().registerTypeHierarchyAdapter(State.class, new StateTypeAdapter()).create();
+        Map<String, String> legacyMap = db.getTreeMap(LEGACY_ITEM_STORE_NAME);
+        int migrated = 0;
+        for (Map.Entry<String, String> entry : legacyMap.entrySet()) {
+            MapDbItem item = mapper.<MapDbItem> fromJson(entry.getValue(), MapDbItem.class);
+            if (item == null || !item.isValid()) {
+                logger.warn("Skipping invalid item '{}' during migration", entry.getKey());
+                continue;
+            }
+            if (!map.containsKey(item.getName())) {
+                write(item);
+                migrated++;
+            }
+        }
+        db.delete(LEGACY_ITEM_STORE_NAME);
+        db.commit();
+        logger.info("Migrated {} items to the binary MapDB format", migrated);
+    }
+
+    private void activateHistory() {
+        MapDbHistoryStore historyStore = new MapDbHistoryStore(db, codec);
+        // seed the history of items stored before the history mode was enabled with their last value
+        map.entrySet().stream().map(entry -> deserialize(entry.getKey(), entry.getValue()))
+                .flatMap(MapDbPersistenceService::streamOptional)
+                .filter(item -> !historyStore.contains(item.getName()))
+                .forEach(item -> historyStore.append(item.getName(), item.getTimestamp(), item.getState()));
+        commit();
+        this.historyStore = historyStore;
+
+        if (retentionDays > 0) {
+            ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool(getClass().getSimpleName());
+            retentionJob = scheduler.scheduleWithFixedDelay(this::removeExpiredHistory, 0, RETENTION_INTERVAL_HOURS,
+                    TimeUnit.HOURS);
+        }
+        logger.debug("MapDB history mode enabled, retention: {} days", retentionDays);
+    }
+
+    private void removeExpiredHistory() {
+        MapDbHistoryStore historyStore = this.historyStore;
+        if (historyStore == null) {
+            return;
+        }
+        // the history is written directly, so this also covers items whose last value is still in the write queue
+        historyStore.removeOlderThan(new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays)));
+        commit();
+    }
+
     public void deactivate() {
         logger.debug("MapDB persistence service deactivated");
+        ScheduledFuture<?> retentionJob = this.retentionJob;
+        if (retentionJob != null) {
+            retentionJob.cancel(true);
+            this.retentionJob = null;
+        }
+        MapDbWriteQueue writeQueue = this.writeQueue;
+        if (writeQueue != null) {
+            writeQueue.flush();
+            logger.debug("MapDB write queue: {} writes, {} coalesced, {} commits, {} ms average commit latency",
+                    writeQueue.getWriteCount(), writeQueue.getCoalescedCount(), writeQueue.getCommitCount(),
+                    writeQueue.getAverageCommitLatency());
+            this.writeQueue = null;
+        }
+        historyStore = null;
         if (db != null) {
             db.close();
         }
@@ -117,10 +254,13 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
 
     @Override
     public Set<PersistenceItemInfo> getItemInfo() {
-        return map.values().stream()
-                .map(this::deserialize)
-                .flatMap(MapDbPersistenceService::streamOptional)
-                .collect(Collectors.<PersistenceItemInfo>toSet());
+        // only the keys are needed, the stored values are never decoded here
+        Set<String> names = new HashSet<>(map.keySet());
+        MapDbWriteQueue writeQueue = this.writeQueue;
+        if (writeQueue != null) {
+            writeQueue.getPending().forEach(item -> names.add(item.getName()));
+        }
+        return names.stream().map(MapDbPersistenceService::itemInfo).collect(Collectors.toSet());
     }
 
     @Override
@@ -145,31 +285,53 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         mItem.setName(alias);
         mItem.setState(state);
         mItem.setTimestamp(new Date());
-        String json = serialize(mItem);
-        map.put(alias, json);
-        commit();
+        MapDbHistoryStore historyStore = this.historyStore;
+        if (historyStore != null) {
+            historyStore.append(alias, mItem.getTimestamp(), state);
+        }
+        MapDbWriteQueue writeQueue = this.writeQueue;
+        if (writeQueue != null) {
+            writeQueue.add(mItem);
+        } else {
+            write(mItem);
+            commit();
+        }
         logger.debug("Stored '{}' with state '{}' in MapDB database", alias, state.toString());
     }
 
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
-        String json = map.get(filter.getItemName());
-        if (json == null) {
+        MapDbHistoryStore historyStore = this.historyStore;
+        if (historyStore != null) {
+            return historyStore.query(filter);
+        }
+        MapDbWriteQueue writeQueue = this.writeQueue;
+        if (writeQueue != null && filter.getItemName() != null) {
+            MapDbItem pendingItem = writeQueue.get(filter.getItemName());
+            if (pendingItem != null) {
+                return Collections.singletonList(pendingItem);
+            }
+        }
+        byte[] record = map.get(filter.getItemName());
+        if (record == null) {
             return Collections.emptyList();
         }
-        Optional<MapDbItem> item = deserialize(json);
+        Optional<MapDbItem> item = deserialize(filter.getItemName(), record);
         if (!item.isPresent()) {
             return Collections.emptyList();
         }
         return Collections.singletonList(item.get());
     }
 
-    private String serialize(MapDbItem item) {
-        return mapper.toJson(item);
+    private void write(MapDbItem item) {
+        byte[] record = codec.encodeItem(item);
+        if (record != null) {
+            map.put(item.getName(), record);
+        }
     }
 
-    private Optional<MapDbItem> deserialize(String json) {
-        MapDbItem item = mapper.<MapDbItem>fromJson(json, MapDbItem.class);
+    private Optional<MapDbItem> deserialize(String name, byte[] record) {
+        MapDbItem item = codec.decodeItem(name, record);
         if (item == null || !item.isValid()) {
             logger.warn("Deserialized invalid item: {}", item);
             return Optional.empty();
@@ -181,6 +343,12 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         threadPool.submit(() -> db.commit());
     }
 
+    private static PersistenceItemInfo itemInfo(String name) {
+        MapDbItem item = new MapDbItem();
+        item.setName(name);
+        return item;
+    }
+
     private static <T> Stream<T> streamOptional(Optional<T> opt) {
         if (!opt.isPresent()) {
             return Stream.empty();
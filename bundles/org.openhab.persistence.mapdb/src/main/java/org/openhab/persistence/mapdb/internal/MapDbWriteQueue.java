@@ -0,0 +1,208 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects item writes and commits them to the database in groups.
+ * <p>
+ * Pending writes are kept per alias, so repeated writes of the same item before the next commit are coalesced into
+ * the latest one. A group is written and committed as soon as it holds {@code maxSize} aliases or the oldest pending
+ * write is {@code maxLatency} milliseconds old, whichever comes first. Until then {@link #get(String)} returns the
+ * pending value, so readers always see the last stored state.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbWriteQueue {
+
+    private final Logger logger = LoggerFactory.getLogger(MapDbWriteQueue.class);
+
+    private final Map<String, MapDbItem> pending = new ConcurrentHashMap<>();
+
+    private final Object flushLock = new Object();
+
+    private final int maxSize;
+    private final long maxLatency;
+    private final ScheduledExecutorService scheduler;
+    private final Consumer<MapDbItem> writer;
+    private final Runnable committer;
+
+    private @Nullable ScheduledFuture<?> flushJob;
+
+    private final AtomicLong writeCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong commitCount = new AtomicLong();
+    private final AtomicLong totalCommitNanos = new AtomicLong();
+    private volatile long lastCommitNanos;
+    private volatile long maxCommitNanos;
+
+    /**
+     * Creates a new write queue.
+     *
+     * @param maxSize number of pending aliases that triggers a commit
+     * @param maxLatency maximum time in milliseconds a write stays uncommitted
+     * @param scheduler scheduler used for latency triggered commits
+     * @param writer writes a single item to the database without committing
+     * @param committer commits the database
+     */
+    public MapDbWriteQueue(int maxSize, long maxLatency, ScheduledExecutorService scheduler,
+            Consumer<MapDbItem> writer, Runnable committer) {
+        this.maxSize = Math.max(1, maxSize);
+        this.maxLatency = maxLatency;
+        this.scheduler = scheduler;
+        this.writer = writer;
+        this.committer = committer;
+    }
+
+    /**
+     * Queues an item write. If the queue is full the pending writes are committed on the calling thread.
+     *
+     * @param item the item to write
+     */
+    public void add(MapDbItem item) {
+        writeCount.incrementAndGet();
+        if (pending.put(item.getName(), item) != null) {
+            coalescedCount.incrementAndGet();
+        }
+        if (pending.size() >= maxSize) {
+            flush();
+            return;
+        }
+        synchronized (this) {
+            if (flushJob == null) {
+                flushJob = scheduler.schedule(this::flush, maxLatency, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Returns the pending write for an alias.
+     *
+     * @param alias the item name or alias
+     * @return the pending item or null if there is no uncommitted write
+     */
+    public @Nullable MapDbItem get(String alias) {
+        return pending.get(alias);
+    }
+
+    /**
+     * Returns all pending writes.
+     *
+     * @return the pending items
+     */
+    public Collection<MapDbItem> getPending() {
+        return new ArrayList<>(pending.values());
+    }
+
+    /**
+     * Writes and commits all pending items.
+     */
+    public void flush() {
+        synchronized (this) {
+            ScheduledFuture<?> flushJob = this.flushJob;
+            if (flushJob != null) {
+                flushJob.cancel(false);
+                this.flushJob = null;
+            }
+        }
+        synchronized (flushLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            long start = System.nanoTime();
+            List<MapDbItem> batch = new ArrayList<>(pending.values());
+            batch.forEach(writer);
+            // only drop entries that have not been replaced by a newer write in the meantime
+            batch.forEach(item -> pending.remove(item.getName(), item));
+            try {
+                committer.run();
+            } catch (RuntimeException e) {
+                logger.warn("Failed to commit {} items to MapDB: {}", batch.size(), e.getMessage());
+                return;
+            }
+            long duration = System.nanoTime() - start;
+            commitCount.incrementAndGet();
+            totalCommitNanos.addAndGet(duration);
+            lastCommitNanos = duration;
+            maxCommitNanos = Math.max(maxCommitNanos, duration);
+            logger.debug("Committed {} items to MapDB in {} ms, queue depth: {}", batch.size(),
+                    TimeUnit.NANOSECONDS.toMillis(duration), pending.size());
+        }
+    }
+
+    /**
+     * @return the number of pending aliases
+     */
+    public int getQueueDepth() {
+        return pending.size();
+    }
+
+    /**
+     * @return the number of writes added to the queue
+     */
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    /**
+     * @return the number of writes that replaced a pending write of the same alias
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * @return the number of commits
+     */
+    public long getCommitCount() {
+        return commitCount.get();
+    }
+
+    /**
+     * @return the duration of the last commit in milliseconds
+     */
+    public long getLastCommitLatency() {
+        return TimeUnit.NANOSECONDS.toMillis(lastCommitNanos);
+    }
+
+    /**
+     * @return the longest commit duration in milliseconds
+     */
+    public long getMaxCommitLatency() {
+        return TimeUnit.NANOSECONDS.toMillis(maxCommitNanos);
+    }
+
+    /**
+     * @return the average commit duration in milliseconds
+     */
+    public double getAverageCommitLatency() {
+        long commits = commitCount.get();
+        return commits == 0 ? 0 : totalCommitNanos.get() / 1_000_000.0 / commits;
+    }
+}
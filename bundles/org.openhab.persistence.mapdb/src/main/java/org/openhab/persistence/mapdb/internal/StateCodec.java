@@ -0,0 +1,354 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.measure.Unit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DateTimeType;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.PlayPauseType;
+import org.eclipse.smarthome.core.library.types.QuantityType;
+import org.eclipse.smarthome.core.library.types.RawType;
+import org.eclipse.smarthome.core.library.types.RewindFastforwardType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.library.unit.SmartHomeUnits;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.core.types.TypeParser;
+import org.eclipse.smarthome.core.types.UnDefType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A compact binary codec for Eclipse SmartHome State values.
+ * <p>
+ * Every record starts with a format version byte followed by a type tag and a type specific payload. Numbers are
+ * written as variable length scale and unscaled value, enums as their ordinal. States without a dedicated tag are
+ * written as class name and full string and parsed with the {@link TypeParser}, like the {@link StateTypeAdapter}
+ * does.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class StateCodec {
+    public static final byte VERSION = 1;
+
+    private static final byte TYPE_GENERIC = 0;
+    private static final byte TYPE_DECIMAL = 1;
+    private static final byte TYPE_PERCENT = 2;
+    private static final byte TYPE_HSB = 3;
+    private static final byte TYPE_QUANTITY = 4;
+    private static final byte TYPE_ON_OFF = 5;
+    private static final byte TYPE_OPEN_CLOSED = 6;
+    private static final byte TYPE_UP_DOWN = 7;
+    private static final byte TYPE_PLAY_PAUSE = 8;
+    private static final byte TYPE_REWIND_FASTFORWARD = 9;
+    private static final byte TYPE_STRING = 10;
+    private static final byte TYPE_DATE_TIME = 11;
+    private static final byte TYPE_RAW = 12;
+    private static final byte TYPE_UNDEF = 13;
+
+    private final Logger logger = LoggerFactory.getLogger(StateCodec.class);
+
+    private final Map<String, Unit<?>> units = new ConcurrentHashMap<>();
+
+    /**
+     * Encodes a state.
+     *
+     * @param state the state to encode
+     * @return the encoded record or null if the state could not be encoded
+     */
+    public byte @Nullable [] encode(State state) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(VERSION);
+            writeState(out, state);
+            return bytes.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Couldn't serialize state '{}': {}", state, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Decodes a record created by {@link #encode(State)}.
+     *
+     * @param record the encoded record
+     * @return the decoded state or null if the record is invalid
+     */
+    public @Nullable State decode(byte[] record) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+            checkVersion(in.readByte());
+            return readState(in);
+        } catch (IOException | RuntimeException | ClassNotFoundException e) {
+            logger.warn("Couldn't deserialize state record: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Encodes the timestamp and state of an item. The name is not part of the record.
+     *
+     * @param item the item to encode
+     * @return the encoded record or null if the item could not be encoded
+     */
+    public byte @Nullable [] encodeItem(MapDbItem item) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(40);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(VERSION);
+            out.writeLong(item.getTimestamp().getTime());
+            writeState(out, item.getState());
+            return bytes.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Couldn't serialize item '{}': {}", item, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Decodes a record created by {@link #encodeItem(MapDbItem)}.
+     *
+     * @param name the name of the item
+     * @param record the encoded record
+     * @return the decoded item or null if the record is invalid
+     */
+    public @Nullable MapDbItem decodeItem(String name, byte[] record) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+            checkVersion(in.readByte());
+            MapDbItem item = new MapDbItem();
+            item.setName(name);
+            item.setTimestamp(new Date(in.readLong()));
+            item.setState(readState(in));
+            return item;
+        } catch (IOException | RuntimeException | ClassNotFoundException e) {
+            logger.warn("Couldn't deserialize item '{}': {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    private void checkVersion(byte version) throws IOException {
+        if (version != VERSION) {
+            throw new IOException("Unsupported record version " + version);
+        }
+    }
+
+    private void writeState(DataOutput out, State state) throws IOException {
+        if (state instanceof HSBType) {
+            HSBType hsb = (HSBType) state;
+            out.writeByte(TYPE_HSB);
+            writeDecimal(out, hsb.getHue().toBigDecimal());
+            writeDecimal(out, hsb.getSaturation().toBigDecimal());
+            writeDecimal(out, hsb.getBrightness().toBigDecimal());
+        } else if (state instanceof PercentType) {
+            out.writeByte(TYPE_PERCENT);
+            writeDecimal(out, ((PercentType) state).toBigDecimal());
+        } else if (state instanceof DecimalType) {
+            out.writeByte(TYPE_DECIMAL);
+            writeDecimal(out, ((DecimalType) state).toBigDecimal());
+        } else if (state instanceof QuantityType) {
+            QuantityType<?> quantity = (QuantityType<?>) state;
+            out.writeByte(TYPE_QUANTITY);
+            writeDecimal(out, quantity.toBigDecimal());
+            out.writeUTF(SmartHomeUnits.ONE.equals(quantity.getUnit()) ? "" : quantity.getUnit().toString());
+        } else if (state instanceof OnOffType) {
+            out.writeByte(TYPE_ON_OFF);
+            out.writeByte(((OnOffType) state).ordinal());
+        } else if (state instanceof OpenClosedType) {
+            out.writeByte(TYPE_OPEN_CLOSED);
+            out.writeByte(((OpenClosedType) state).ordinal());
+        } else if (state instanceof UpDownType) {
+            out.writeByte(TYPE_UP_DOWN);
+            out.writeByte(((UpDownType) state).ordinal());
+        } else if (state instanceof PlayPauseType) {
+            out.writeByte(TYPE_PLAY_PAUSE);
+            out.writeByte(((PlayPauseType) state).ordinal());
+        } else if (state instanceof RewindFastforwardType) {
+            out.writeByte(TYPE_REWIND_FASTFORWARD);
+            out.writeByte(((RewindFastforwardType) state).ordinal());
+        } else if (state instanceof UnDefType) {
+            out.writeByte(TYPE_UNDEF);
+            out.writeByte(((UnDefType) state).ordinal());
+        } else if (state.getClass() == StringType.class) {
+            out.writeByte(TYPE_STRING);
+            writeString(out, state.toFullString());
+        } else if (state instanceof DateTimeType) {
+            ZonedDateTime dateTime = ((DateTimeType) state).getZonedDateTime();
+            out.writeByte(TYPE_DATE_TIME);
+            out.writeLong(dateTime.toInstant().getEpochSecond());
+            out.writeInt(dateTime.getNano());
+            out.writeUTF(dateTime.getZone().getId());
+        } else if (state instanceof RawType) {
+            RawType raw = (RawType) state;
+            out.writeByte(TYPE_RAW);
+            out.writeUTF(raw.getMimeType());
+            writeBytes(out, raw.getBytes());
+        } else {
+            out.writeByte(TYPE_GENERIC);
+            out.writeUTF(state.getClass().getName());
+            writeString(out, state.toFullString());
+        }
+    }
+
+    private State readState(DataInput in) throws IOException, ClassNotFoundException {
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_HSB:
+                return new HSBType(new DecimalType(readDecimal(in)), new PercentType(readDecimal(in)),
+                        new PercentType(readDecimal(in)));
+            case TYPE_PERCENT:
+                return new PercentType(readDecimal(in));
+            case TYPE_DECIMAL:
+                return new DecimalType(readDecimal(in));
+            case TYPE_QUANTITY:
+                return readQuantity(readDecimal(in), in.readUTF());
+            case TYPE_ON_OFF:
+                return OnOffType.values()[in.readByte()];
+            case TYPE_OPEN_CLOSED:
+                return OpenClosedType.values()[in.readByte()];
+            case TYPE_UP_DOWN:
+                return UpDownType.values()[in.readByte()];
+            case TYPE_PLAY_PAUSE:
+                return PlayPauseType.values()[in.readByte()];
+            case TYPE_REWIND_FASTFORWARD:
+                return RewindFastforwardType.values()[in.readByte()];
+            case TYPE_UNDEF:
+                return UnDefType.values()[in.readByte()];
+            case TYPE_STRING:
+                return new StringType(readString(in));
+            case TYPE_DATE_TIME:
+                Instant instant = Instant.ofEpochSecond(in.readLong(), in.readInt());
+                return new DateTimeType(ZonedDateTime.ofInstant(instant, ZoneId.of(in.readUTF())));
+            case TYPE_RAW:
+                String mimeType = in.readUTF();
+                return new RawType(readBytes(in), mimeType);
+            case TYPE_GENERIC:
+                @SuppressWarnings("unchecked")
+                Class<? extends State> valueType = (Class<? extends State>) Class.forName(in.readUTF());
+                String value = readString(in);
+                State state = TypeParser.parseState(Collections.singletonList(valueType), value);
+                if (state == null) {
+                    throw new IOException("Couldn't parse '" + value + "' as " + valueType.getSimpleName());
+                }
+                return state;
+            default:
+                throw new IOException("Unknown state type " + type);
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private State readQuantity(BigDecimal value, String unitSymbol) {
+        if (unitSymbol.isEmpty()) {
+            return new QuantityType<>(value, SmartHomeUnits.ONE);
+        }
+        Unit<?> unit = units.computeIfAbsent(unitSymbol, symbol -> new QuantityType<>("1 " + symbol).getUnit());
+        return new QuantityType(value, unit);
+    }
+
+    private static void writeDecimal(DataOutput out, BigDecimal value) throws IOException {
+        BigInteger unscaled = value.unscaledValue();
+        writeVarInt(out, value.scale());
+        if (unscaled.bitLength() < 63) {
+            out.writeByte(0);
+            writeVarLong(out, unscaled.longValue());
+        } else {
+            out.writeByte(1);
+            writeBytes(out, unscaled.toByteArray());
+        }
+    }
+
+    private static BigDecimal readDecimal(DataInput in) throws IOException {
+        int scale = readVarInt(in);
+        if (in.readByte() == 0) {
+            return BigDecimal.valueOf(readVarLong(in), scale);
+        }
+        return new BigDecimal(new BigInteger(readBytes(in)), scale);
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        // writeUTF is limited to 64k, so long strings are written as length prefixed UTF-8
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(DataOutput out, byte[] value) throws IOException {
+        writeVarInt(out, value.length);
+        out.write(value);
+    }
+
+    private static byte[] readBytes(DataInput in) throws IOException {
+        byte[] value = new byte[readVarInt(in)];
+        in.readFully(value);
+        return value;
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        writeVarLong(out, value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        return (int) readVarLong(in);
+    }
+
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        // zig-zag encoding keeps small negative numbers short
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigZag & 0x7F) | 0x80));
+            zigZag >>>= 7;
+        }
+        out.writeByte((int) zigZag);
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        long zigZag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            zigZag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigZag >>> 1) ^ -(zigZag & 1);
+            }
+        }
+        throw new IOException("Malformed variable length number");
+    }
+}
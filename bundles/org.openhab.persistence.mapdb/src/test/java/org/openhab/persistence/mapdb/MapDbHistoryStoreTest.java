@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.persistence.FilterCriteria;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Operator;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Ordering;
+import org.eclipse.smarthome.core.persistence.HistoricItem;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.openhab.persistence.mapdb.internal.MapDbHistoryStore;
+import org.openhab.persistence.mapdb.internal.StateCodec;
+
+/**
+ *
+ * @author agent - Initial contribution
+ */
+public class MapDbHistoryStoreTest {
+    private DB db;
+    private MapDbHistoryStore store;
+
+    @Before
+    public void setUp() {
+        db = DBMaker.newMemoryDB().make();
+        store = new MapDbHistoryStore(db, new StateCodec());
+        for (int i = 1; i <= 10; i++) {
+            store.append("item", new Date(i * 1000L), new DecimalType(i));
+        }
+        store.append("other", new Date(5000L), new DecimalType(100));
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void queryShouldReturnTheRangeInDescendingOrderByDefault() {
+        FilterCriteria filter = new FilterCriteria().setItemName("item").setBeginDate(new Date(3000L))
+                .setEndDate(new Date(5000L));
+
+        assertThat(values(store.query(filter)), is(equalTo(Arrays.asList(5, 4, 3))));
+    }
+
+    @Test
+    public void queryShouldHonourOrderingAndPaging() {
+        FilterCriteria filter = new FilterCriteria().setItemName("item").setOrdering(Ordering.ASCENDING)
+                .setPageNumber(1).setPageSize(3);
+
+        assertThat(values(store.query(filter)), is(equalTo(Arrays.asList(4, 5, 6))));
+    }
+
+    @Test
+    public void queryShouldApplyTheStateFilterBeforePaging() {
+        FilterCriteria filter = new FilterCriteria().setItemName("item").setOperator(Operator.GT)
+                .setState(new DecimalType(6)).setPageNumber(1).setPageSize(2);
+
+        assertThat(values(store.query(filter)), is(equalTo(Arrays.asList(8, 7))));
+    }
+
+    @Test
+    public void removeOlderThanShouldOnlyRemoveExpiredRecordsOfTheItem() {
+        store.removeOlderThan("item", new Date(9000L));
+
+        assertThat(values(store.query(new FilterCriteria().setItemName("item"))), is(equalTo(Arrays.asList(10, 9))));
+        assertThat(store.contains("other"), is(true));
+        assertThat(store.contains("unknown"), is(false));
+    }
+
+    @Test
+    public void statesStoredInTheSameMillisecondShouldAllBeKept() {
+        store.append("burst", new Date(1000L), new DecimalType(1));
+        store.append("burst", new Date(1000L), new DecimalType(2));
+        store.append("burst", new Date(1000L), new DecimalType(3));
+        store.append("burst", new Date(2000L), new DecimalType(4));
+
+        FilterCriteria filter = new FilterCriteria().setItemName("burst").setOrdering(Ordering.ASCENDING);
+        assertThat(values(store.query(filter)), is(equalTo(Arrays.asList(1, 2, 3, 4))));
+
+        store.removeOlderThan("burst", new Date(2000L));
+        assertThat(values(store.query(filter)), is(equalTo(Arrays.asList(4))));
+    }
+
+    @Test
+    public void removeOlderThanWithoutItemNameShouldCoverAllItems() {
+        store.removeOlderThan(new Date(9000L));
+
+        assertThat(values(store.query(new FilterCriteria().setItemName("item"))), is(equalTo(Arrays.asList(10, 9))));
+        assertThat(store.contains("other"), is(false));
+    }
+
+    private static List<Integer> values(List<HistoricItem> items) {
+        List<Integer> values = new ArrayList<>();
+        for (HistoricItem item : items) {
+            values.add(((DecimalType) item.getState()).intValue());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.types.State;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.persistence.mapdb.internal.MapDbItem;
+import org.openhab.persistence.mapdb.internal.MapDbWriteQueue;
+
+/**
+ *
+ * @author agent - Initial contribution
+ */
+public class MapDbWriteQueueTest {
+    private ScheduledExecutorService scheduler;
+    private final Map<String, State> written = new HashMap<>();
+    private final AtomicInteger commits = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void repeatedWritesShouldBeCoalescedUntilFlush() {
+        MapDbWriteQueue queue = createQueue(10, 60000);
+
+        queue.add(item("a", 1));
+        queue.add(item("a", 2));
+        queue.add(item("b", 3));
+
+        assertThat(queue.getQueueDepth(), is(2));
+        assertThat(queue.getCoalescedCount(), is(1L));
+        assertThat(queue.get("a").getState(), is(equalTo(new DecimalType(2))));
+        assertThat(written.isEmpty(), is(true));
+
+        queue.flush();
+
+        assertThat(written.get("a"), is(equalTo(new DecimalType(2))));
+        assertThat(written.get("b"), is(equalTo(new DecimalType(3))));
+        assertThat(commits.get(), is(1));
+        assertThat(queue.getQueueDepth(), is(0));
+        assertThat(queue.get("a"), is(nullValue()));
+    }
+
+    @Test
+    public void reachingTheSizeLimitShouldCommit() {
+        MapDbWriteQueue queue = createQueue(2, 60000);
+
+        queue.add(item("a", 1));
+        assertThat(commits.get(), is(0));
+
+        queue.add(item("b", 2));
+        assertThat(commits.get(), is(1));
+        assertThat(written.size(), is(2));
+    }
+
+    @Test
+    public void pendingWritesShouldBeCommittedAfterTheLatency() throws InterruptedException {
+        MapDbWriteQueue queue = createQueue(10, 50);
+
+        queue.add(item("a", 1));
+
+        for (int i = 0; i < 100 && commits.get() == 0; i++) {
+            Thread.sleep(20);
+        }
+        assertThat(commits.get(), is(1));
+    }
+
+    private MapDbWriteQueue createQueue(int maxSize, long maxLatency) {
+        return new MapDbWriteQueue(maxSize, maxLatency, scheduler, item -> {
+            synchronized (written) {
+                written.put(item.getName(), item.getState());
+            }
+        }, commits::incrementAndGet);
+    }
+
+    private static MapDbItem item(String name, int value) {
+        MapDbItem item = new MapDbItem();
+        item.setName(name);
+        item.setState(new DecimalType(value));
+        return item;
+    }
+}
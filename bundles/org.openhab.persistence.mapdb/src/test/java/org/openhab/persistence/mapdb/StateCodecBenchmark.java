@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.QuantityType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.openhab.persistence.mapdb.internal.MapDbItem;
+import org.openhab.persistence.mapdb.internal.StateCodec;
+import org.openhab.persistence.mapdb.internal.StateTypeAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Compares the binary {@link StateCodec} with the Gson JSON records used by earlier versions.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.openhab.persistence.mapdb.StateCodecBenchmark} or from the IDE.
+ *
+ * @author agent - Initial contribution
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StateCodecBenchmark {
+
+    @Param({ "decimal", "quantity", "onoff", "hsb", "string" })
+    public String type;
+
+    private final Gson mapper = new GsonBuilder()
+            .registerTypeHierarchyAdapter(org.eclipse.smarthome.core.types.State.class, new StateTypeAdapter())
+            .create();
+    private final StateCodec codec = new StateCodec();
+
+    private MapDbItem item;
+    private String json;
+    private byte[] record;
+
+    @Setup
+    public void setUp() {
+        item = new MapDbItem();
+        item.setName("benchmark");
+        item.setState(createState(type));
+        item.setTimestamp(new Date());
+        json = mapper.toJson(item);
+        record = codec.encodeItem(item);
+    }
+
+    private static org.eclipse.smarthome.core.types.State createState(String type) {
+        switch (type) {
+            case "quantity":
+                return new QuantityType<>("21.5 °C");
+            case "onoff":
+                return OnOffType.ON;
+            case "hsb":
+                return HSBType.GREEN;
+            case "string":
+                return new StringType("The quick brown fox jumps over the lazy dog");
+            default:
+                return new DecimalType("1234.5678");
+        }
+    }
+
+    @Benchmark
+    public String gsonSerialize() {
+        return mapper.toJson(item);
+    }
+
+    @Benchmark
+    public MapDbItem gsonDeserialize() {
+        return mapper.fromJson(json, MapDbItem.class);
+    }
+
+    @Benchmark
+    public byte[] codecEncode() {
+        return codec.encodeItem(item);
+    }
+
+    @Benchmark
+    public MapDbItem codecDecode() {
+        return codec.decodeItem("benchmark", record);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(StateCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
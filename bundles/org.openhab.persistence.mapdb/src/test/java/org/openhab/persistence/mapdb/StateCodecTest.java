@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import org.eclipse.smarthome.core.library.types.DateTimeType;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.PointType;
+import org.eclipse.smarthome.core.library.types.QuantityType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.core.types.UnDefType;
+import org.junit.Test;
+import org.openhab.persistence.mapdb.internal.MapDbItem;
+import org.openhab.persistence.mapdb.internal.StateCodec;
+
+/**
+ *
+ * @author agent - Initial contribution
+ */
+public class StateCodecTest {
+    StateCodec codec = new StateCodec();
+
+    @Test
+    public void encodeDecodeRoundtripShouldRecreateTheEncodedState() {
+        assertThat(roundtrip(OnOffType.ON), is(equalTo(OnOffType.ON)));
+        assertThat(roundtrip(OpenClosedType.CLOSED), is(equalTo(OpenClosedType.CLOSED)));
+        assertThat(roundtrip(UnDefType.UNDEF), is(equalTo(UnDefType.UNDEF)));
+        assertThat(roundtrip(PercentType.HUNDRED), is(equalTo(PercentType.HUNDRED)));
+        assertThat(roundtrip(HSBType.GREEN), is(equalTo(HSBType.GREEN)));
+        assertThat(roundtrip(new DecimalType("-12.345")), is(equalTo(new DecimalType("-12.345"))));
+        assertThat(roundtrip(new DecimalType(new BigDecimal("1234567890123456789012345.6789"))),
+                is(equalTo(new DecimalType(new BigDecimal("1234567890123456789012345.6789")))));
+        assertThat(roundtrip(new QuantityType<>("21.5 °C")), is(equalTo(new QuantityType<>("21.5 °C"))));
+        assertThat(roundtrip(new QuantityType<>("42")), is(equalTo(new QuantityType<>("42"))));
+        assertThat(roundtrip(StringType.valueOf("test")), is(equalTo(StringType.valueOf("test"))));
+        assertThat(roundtrip(new DateTimeType("2019-03-01T10:15:30.123+01:00")),
+                is(equalTo(new DateTimeType("2019-03-01T10:15:30.123+01:00"))));
+        assertThat(roundtrip(new PointType("52.5200,13.4050")), is(equalTo(new PointType("52.5200,13.4050"))));
+    }
+
+    @Test
+    public void encodeDecodeItemRoundtripShouldRecreateTheEncodedItem() {
+        MapDbItem item = new MapDbItem();
+        item.setName("ignored");
+        item.setState(PercentType.HUNDRED);
+        item.setTimestamp(new Date(1234567L));
+
+        MapDbItem decoded = codec.decodeItem("name", codec.encodeItem(item));
+
+        assertThat(decoded.getName(), is("name"));
+        assertThat(decoded.getState(), is(equalTo(PercentType.HUNDRED)));
+        assertThat(decoded.getTimestamp(), is(equalTo(new Date(1234567L))));
+    }
+
+    @Test
+    public void decodeShouldRejectUnknownVersions() {
+        byte[] record = codec.encode(OnOffType.ON);
+        record[0] = StateCodec.VERSION + 1;
+
+        assertThat(codec.decode(record), is(nullValue()));
+    }
+
+    private State roundtrip(State state) {
+        return codec.decode(codec.encode(state));
+    }
+}
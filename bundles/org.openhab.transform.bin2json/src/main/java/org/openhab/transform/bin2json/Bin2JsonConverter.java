@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.bin2json;
+
+import java.nio.ByteBuffer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.core.transform.TransformationException;
+
+/**
+ * Converts binary data to JSON by Java Binary Block Parser syntax without encoding it as hexadecimal string first.
+ * <p>
+ * Bindings receiving binary frames should use this service instead of the BIN2JSON transformation. Parser rules are
+ * prepared once and reused for all frames.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public interface Bin2JsonConverter {
+
+    /**
+     * Converts binary data to JSON.
+     *
+     * @param syntax Java Binary Block Parser syntax
+     * @param data the binary data
+     * @return the JSON document
+     * @throws TransformationException if the syntax is invalid or the data does not match it
+     */
+    String convert(String syntax, byte[] data) throws TransformationException;
+
+    /**
+     * Converts the remaining bytes of a buffer to JSON. The position of the buffer is not changed.
+     *
+     * @param syntax Java Binary Block Parser syntax
+     * @param data the binary data
+     * @return the JSON document
+     * @throws TransformationException if the syntax is invalid or the data does not match it
+     */
+    String convert(String syntax, ByteBuffer data) throws TransformationException;
+}
@@ -12,10 +12,13 @@
  */
 package org.openhab.transform.bin2json.internal;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.time.Duration;
-import java.time.LocalDateTime;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.eclipse.smarthome.core.util.HexUtils;
 import org.slf4j.Logger;
@@ -24,6 +27,7 @@ import org.slf4j.LoggerFactory;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
 import com.igormaznitsa.jbbp.JBBPParser;
 import com.igormaznitsa.jbbp.exceptions.JBBPException;
 import com.igormaznitsa.jbbp.model.JBBPAbstractArrayField;
@@ -58,12 +62,17 @@ import com.igormaznitsa.jbbp.model.JBBPFieldUShort;
  * "https://github.com/raydac/java-binary-block-parser">https://github.com/raydac/java-binary-block-parser</a>
  *
  * <p>
+ * The parser rule is prepared once in the constructor, an instance can be used to convert any number of frames, also
+ * from several threads at once. The JSON string is written directly while walking the parsed fields, the Gson
+ * {@link JsonObject} is built from the parsed fields. Both contain the same data.
+ *
+ * <p>
  * Usage example:
  *
  * <pre>
  * {@code
- * JsonObject json = new Bin2Json("byte a; byte b; ubyte c;").convert("03FAFF");
- * json.toString() = {"a":3,"b":-6,"c":255}
+ * String json = new Bin2Json("byte a; byte b; ubyte c;").convertToString("03FAFF");
+ * json = {"a":3,"b":-6,"c":255}
  * </pre>
  *
  * @author Pauli Anttila - Initial contribution
@@ -71,9 +80,12 @@ import com.igormaznitsa.jbbp.model.JBBPFieldUShort;
  */
 public class Bin2Json {
 
+    /** Structs with more fields are checked for repeated field names by a map instead of comparing all pairs */
+    private static final int MAX_PAIRWISE_NAME_CHECK = 16;
+
     private final Logger logger = LoggerFactory.getLogger(Bin2Json.class);
 
-    private JBBPParser parser;
+    private final JBBPParser parser;
 
     /**
      *
@@ -112,7 +124,7 @@ public class Bin2Json {
      */
     public JsonObject convert(byte[] data) throws ConversionException {
         try {
-            return convert(parser.parse(data));
+            return toJsonObject(parser.parse(data));
         } catch (IOException e) {
             throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
         } catch (JBBPException e) {
@@ -128,6 +140,74 @@ public class Bin2Json {
      * @throws ConversionException
      */
     public JsonObject convert(InputStream inputStream) throws ConversionException {
+        try {
+            return toJsonObject(parser.parse(inputStream));
+        } catch (IOException e) {
+            throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
+        } catch (JBBPException e) {
+            throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
+        }
+    }
+
+    /**
+     * Convert {@link String} in hexadecimal string format to JSON.
+     *
+     * @param hexString Data in hexadecimal string format. Example data: 03FAFF
+     * @return JSON string
+     * @throws ConversionException
+     */
+    public String convertToString(String hexString) throws ConversionException {
+        final byte[] data;
+        try {
+            data = HexUtils.hexToBytes(hexString);
+        } catch (IllegalArgumentException e) {
+            throw new ConversionException(String.format("Illegal hexstring , reason: %s", e.getMessage(), e));
+        }
+        return convertToString(data);
+    }
+
+    /**
+     * Convert byte array to JSON.
+     *
+     * @param data Data in byte array format.
+     * @return JSON string
+     * @throws ConversionException
+     */
+    public String convertToString(byte[] data) throws ConversionException {
+        try {
+            return convert(parser.parse(data));
+        } catch (IOException e) {
+            throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
+        } catch (JBBPException e) {
+            throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
+        }
+    }
+
+    /**
+     * Convert the remaining bytes of a {@link ByteBuffer} to JSON. The position of the buffer is not changed.
+     *
+     * @param data Data in a byte buffer.
+     * @return JSON string
+     * @throws ConversionException
+     */
+    public String convertToString(ByteBuffer data) throws ConversionException {
+        if (data.hasArray()) {
+            return convertToString(new ByteArrayInputStream(data.array(), data.arrayOffset() + data.position(),
+                    data.remaining()));
+        }
+        final byte[] bytes = new byte[data.remaining()];
+        data.duplicate().get(bytes);
+        return convertToString(bytes);
+    }
+
+    /**
+     * Convert data from {@link InputStream} to JSON.
+     *
+     * @param inputStream
+     * @return JSON string
+     * @throws ConversionException
+     */
+    public String convertToString(InputStream inputStream) throws ConversionException {
         try {
             return convert(parser.parse(inputStream));
         } catch (IOException e) {
@@ -137,28 +217,41 @@ public class Bin2Json {
         }
     }
 
-    private JsonObject convert(JBBPFieldStruct data) throws ConversionException {
+    private String convert(JBBPFieldStruct data) throws ConversionException {
         try {
-            LocalDateTime start = LocalDateTime.now();
-            final JsonObject json = convertToJSon(data);
+            final long start = System.nanoTime();
+            final StringWriter out = new StringWriter();
+            final JsonWriter writer = new JsonWriter(out);
+            writer.setLenient(true);
+            writeStruct(writer, data);
+            writer.flush();
+            final String json = out.toString();
             if (logger.isTraceEnabled()) {
-                Duration duration = Duration.between(start, LocalDateTime.now());
-                logger.trace("Conversion time={}, json={}", duration, json.toString());
+                logger.trace("Conversion time={}us, json={}", (System.nanoTime() - start) / 1000, json);
             }
             return json;
-        } catch (JBBPException e) {
+        } catch (IOException | JBBPException e) {
             throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
         }
     }
 
-    private JsonObject convertToJSon(final JBBPAbstractField field) throws ConversionException {
-        return convertToJSon(null, field);
+    private JsonObject toJsonObject(JBBPFieldStruct data) throws ConversionException {
+        try {
+            final long start = System.nanoTime();
+            final JsonObject json = convertToJSon(null, data);
+            if (logger.isTraceEnabled()) {
+                logger.trace("Conversion time={}us, json={}", (System.nanoTime() - start) / 1000, json);
+            }
+            return json;
+        } catch (JBBPException e) {
+            throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
+        }
     }
 
     private JsonObject convertToJSon(final JsonObject json, final JBBPAbstractField field) throws ConversionException {
         JsonObject jsn = json == null ? new JsonObject() : json;
 
-        final String fieldName = field.getFieldName() == null ? "nonamed" : field.getFieldName();
+        final String fieldName = getName(field);
         if (field instanceof JBBPAbstractArrayField) {
             final JsonArray jsonArray = new JsonArray();
             if (field instanceof JBBPFieldArrayBit) {
@@ -236,4 +329,121 @@ public class Bin2Json {
         }
         return jsn;
     }
+
+    private void writeStruct(final JsonWriter writer, final JBBPFieldStruct struct)
+            throws IOException, ConversionException {
+        final JBBPAbstractField[] fields = struct.getArray();
+        writer.beginObject();
+        if (hasRepeatedNames(fields)) {
+            // like in a JsonObject, a repeated name keeps its first position but takes the last value
+            final Map<String, JBBPAbstractField> lastByName = new LinkedHashMap<>();
+            for (final JBBPAbstractField field : fields) {
+                lastByName.put(getName(field), field);
+            }
+            for (final JBBPAbstractField field : lastByName.values()) {
+                writer.name(getName(field));
+                writeValue(writer, field);
+            }
+        } else {
+            for (final JBBPAbstractField field : fields) {
+                writer.name(getName(field));
+                writeValue(writer, field);
+            }
+        }
+        writer.endObject();
+    }
+
+    private void writeValue(final JsonWriter writer, final JBBPAbstractField field)
+            throws IOException, ConversionException {
+        if (field instanceof JBBPAbstractArrayField) {
+            writer.beginArray();
+            if (field instanceof JBBPFieldArrayBit) {
+                for (final byte b : ((JBBPFieldArrayBit) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayBoolean) {
+                for (final boolean b : ((JBBPFieldArrayBoolean) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayByte) {
+                for (final byte b : ((JBBPFieldArrayByte) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayInt) {
+                for (final int b : ((JBBPFieldArrayInt) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayLong) {
+                for (final long b : ((JBBPFieldArrayLong) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayShort) {
+                for (final short b : ((JBBPFieldArrayShort) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayStruct) {
+                final JBBPFieldArrayStruct array = (JBBPFieldArrayStruct) field;
+                for (int i = 0; i < array.size(); i++) {
+                    // every struct element is wrapped into an object holding it under its name
+                    final JBBPFieldStruct element = array.getElementAt(i);
+                    writer.beginObject();
+                    writer.name(getName(element));
+                    writeStruct(writer, element);
+                    writer.endObject();
+                }
+            } else if (field instanceof JBBPFieldArrayUByte) {
+                for (final byte b : ((JBBPFieldArrayUByte) field).getArray()) {
+                    writer.value(b & 0xFF);
+                }
+            } else if (field instanceof JBBPFieldArrayUShort) {
+                for (final short b : ((JBBPFieldArrayUShort) field).getArray()) {
+                    writer.value(b & 0xFFFF);
+                }
+            } else {
+                throw new ConversionException(String.format("Unexpected field type '%s'", field));
+            }
+            writer.endArray();
+        } else {
+            if (field instanceof JBBPFieldBit) {
+                writer.value(((JBBPFieldBit) field).getAsInt());
+            } else if (field instanceof JBBPFieldBoolean) {
+                writer.value(((JBBPFieldBoolean) field).getAsBool());
+            } else if (field instanceof JBBPFieldByte) {
+                writer.value(((JBBPFieldByte) field).getAsInt());
+            } else if (field instanceof JBBPFieldInt) {
+                writer.value(((JBBPFieldInt) field).getAsInt());
+            } else if (field instanceof JBBPFieldLong) {
+                writer.value(((JBBPFieldLong) field).getAsLong());
+            } else if (field instanceof JBBPFieldShort) {
+                writer.value(((JBBPFieldShort) field).getAsInt());
+            } else if (field instanceof JBBPFieldStruct) {
+                writeStruct(writer, (JBBPFieldStruct) field);
+            } else if (field instanceof JBBPFieldUByte) {
+                writer.value(((JBBPFieldUByte) field).getAsInt());
+            } else if (field instanceof JBBPFieldUShort) {
+                writer.value(((JBBPFieldUShort) field).getAsInt());
+            } else {
+                throw new ConversionException(String.format("Unexpected field '%s'", field));
+            }
+        }
+    }
+
+    private static String getName(final JBBPAbstractField field) {
+        return field.getFieldName() == null ? "nonamed" : field.getFieldName();
+    }
+
+    private static boolean hasRepeatedNames(final JBBPAbstractField[] fields) {
+        if (fields.length > MAX_PAIRWISE_NAME_CHECK) {
+            return true;
+        }
+        for (int i = 1; i < fields.length; i++) {
+            final String name = getName(fields[i]);
+            for (int j = 0; j < i; j++) {
+                if (name.equals(getName(fields[j]))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
 }
@@ -12,10 +12,15 @@
  */
 package org.openhab.transform.bin2json.internal;
 
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.eclipse.smarthome.core.transform.TransformationService;
+import org.openhab.transform.bin2json.Bin2JsonConverter;
 import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,14 +29,21 @@ import org.slf4j.LoggerFactory;
  * The implementation of {@link TransformationService} which transforms the
  * hexa string formatted binary data by Binary Block Parser syntax to JSON format.
  *
+ * Prepared parsers are cached per syntax and also serve the {@link Bin2JsonConverter} API for binary data.
+ *
  * @author Pauli Anttila - Initial contribution
  */
 @NonNullByDefault
-@Component(immediate = true, property = { "smarthome.transform=BIN2JSON" })
-public class Bin2JsonTransformationService implements TransformationService {
+@Component(immediate = true, service = { TransformationService.class,
+        Bin2JsonConverter.class }, property = { "smarthome.transform=BIN2JSON" })
+public class Bin2JsonTransformationService implements TransformationService, Bin2JsonConverter {
+
+    private static final int MAX_CACHE_SIZE = 256;
 
     private Logger logger = LoggerFactory.getLogger(Bin2JsonTransformationService.class);
 
+    private final Map<String, Bin2Json> parserCache = new ConcurrentHashMap<>();
+
     /**
      * Transforms the input <code>source</code> by Java Binary Block Parser syntax.
      *
@@ -46,7 +58,7 @@ public class Bin2JsonTransformationService implements TransformationService {
         String result = "";
 
         try {
-            result = String.valueOf(new Bin2Json(syntax).convert(source));
+            result = getParser(syntax).convertToString(source);
             logger.debug("transformation resulted '{}'", result);
             return result;
         } catch (ConversionException e) {
@@ -56,4 +68,34 @@ public class Bin2JsonTransformationService implements TransformationService {
                     result);
         }
     }
+
+    @Override
+    public String convert(String syntax, byte[] data) throws TransformationException {
+        try {
+            return getParser(syntax).convertToString(data);
+        } catch (ConversionException e) {
+            throw new TransformationException("An error occurred while executing the converter. " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String convert(String syntax, ByteBuffer data) throws TransformationException {
+        try {
+            return getParser(syntax).convertToString(data);
+        } catch (ConversionException e) {
+            throw new TransformationException("An error occurred while executing the converter. " + e.getMessage(), e);
+        }
+    }
+
+    private Bin2Json getParser(String syntax) throws ConversionException {
+        Bin2Json parser = parserCache.get(syntax);
+        if (parser == null) {
+            parser = new Bin2Json(syntax);
+            if (parserCache.size() >= MAX_CACHE_SIZE) {
+                parserCache.clear();
+            }
+            parserCache.put(syntax, parser);
+        }
+        return parser;
+    }
 }
@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.bin2json.internal;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+
+import org.eclipse.smarthome.core.transform.TransformationException;
+import org.eclipse.smarthome.core.util.HexUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.transform.bin2json.Bin2JsonConverter;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Tests the {@link Bin2Json} conversion and the {@link Bin2JsonConverter} service. The expected JSON documents are the
+ * ones the former conversion via a Gson {@link JsonObject} tree produced.
+ *
+ * @author agent - Initial contribution
+ */
+public class Bin2JsonTest {
+
+    private Bin2JsonConverter converter;
+
+    @Before
+    public void init() {
+        converter = new Bin2JsonTransformationService();
+    }
+
+    @Test
+    public void testSignedAndUnsignedValues() throws ConversionException {
+        assertConversion("byte a; byte b; ubyte c;", "03FAFF", "{\"a\":3,\"b\":-6,\"c\":255}");
+    }
+
+    @Test
+    public void testUnsignedArraysAreMasked() throws ConversionException {
+        assertConversion("ubyte[2] u; ushort[2] s; byte[2] b; short[1] t;", "FF80FFFE0001FF80FFFF",
+                "{\"u\":[255,128],\"s\":[65534,1],\"b\":[-1,-128],\"t\":[-1]}");
+    }
+
+    @Test
+    public void testBitsAndBooleans() throws ConversionException {
+        assertConversion("bit:4 lo; bit:4 hi; bit:4 [2] bits; bool f; bool[2] g;", "2143010001",
+                "{\"lo\":1,\"hi\":2,\"bits\":[3,4],\"f\":true,\"g\":[false,true]}");
+    }
+
+    @Test
+    public void testIntsAndLongs() throws ConversionException {
+        assertConversion("int i; long l; int[1] ia; long[1] la;", "FFFFFFFE0000000100000002FFFFFFFF00000003FFFFFFFF",
+                "{\"i\":-2,\"l\":4294967298,\"ia\":[-1],\"la\":[17179869183]}");
+    }
+
+    @Test
+    public void testNestedStructs() throws ConversionException {
+        assertConversion("h { byte x; h2 { ubyte y; } } byte y;", "01FF02", "{\"h\":{\"x\":1,\"h2\":{\"y\":255}},\"y\":2}");
+    }
+
+    @Test
+    public void testStructArrayElementsAreWrappedByName() throws ConversionException {
+        assertConversion("s [2] { byte x; ubyte y; }", "01FF02FE",
+                "{\"s\":[{\"s\":{\"x\":1,\"y\":255}},{\"s\":{\"x\":2,\"y\":254}}]}");
+        assertConversion("[2] { byte x; }", "0102", "{\"nonamed\":[{\"nonamed\":{\"x\":1}},{\"nonamed\":{\"x\":2}}]}");
+    }
+
+    @Test
+    public void testRepeatedNamesKeepFirstPositionAndLastValue() throws ConversionException {
+        assertConversion("byte; byte b; byte;", "010203", "{\"nonamed\":3,\"b\":2}");
+        // an unnamed struct is replaced by a later unnamed byte
+        assertConversion("byte a; {byte b;} byte;", "010203", "{\"a\":1,\"nonamed\":3}");
+    }
+
+    @Test
+    public void testRepeatedNamesInLargeStruct() throws ConversionException {
+        StringBuilder rule = new StringBuilder();
+        StringBuilder expected = new StringBuilder("{");
+        for (int i = 0; i < 16; i++) {
+            rule.append("byte f").append(i).append("; ");
+            expected.append("\"f").append(i).append("\":").append(i).append(',');
+        }
+        rule.append("byte; byte f16; byte;");
+        expected.append("\"nonamed\":18,\"f16\":17}");
+
+        assertConversion(rule.toString(), "000102030405060708090A0B0C0D0E0F101112", expected.toString());
+    }
+
+    @Test
+    public void testUniqueNamesInLargeStruct() throws ConversionException {
+        StringBuilder rule = new StringBuilder();
+        StringBuilder expected = new StringBuilder("{");
+        for (int i = 0; i < 18; i++) {
+            rule.append("ubyte f").append(i).append("; ");
+            expected.append(i == 0 ? "" : ",").append("\"f").append(i).append("\":").append(i == 17 ? 255 : i);
+        }
+        expected.append('}');
+
+        assertConversion(rule.toString(), "000102030405060708090A0B0C0D0E0F10FF", expected.toString());
+    }
+
+    @Test
+    public void testJsonObjectHoldsNumbers() throws ConversionException {
+        JsonObject json = new Bin2Json("byte a; ubyte c; long l;").convert("03FF0000000100000002");
+
+        assertEquals(Integer.valueOf(3), json.getAsJsonPrimitive("a").getAsNumber());
+        assertEquals(Integer.valueOf(255), json.getAsJsonPrimitive("c").getAsNumber());
+        assertEquals(Long.valueOf(4294967298L), json.getAsJsonPrimitive("l").getAsNumber());
+    }
+
+    @Test(expected = ConversionException.class)
+    public void testIllegalRule() throws ConversionException {
+        new Bin2Json("byte a; byte a;");
+    }
+
+    @Test(expected = ConversionException.class)
+    public void testIllegalHexString() throws ConversionException {
+        new Bin2Json("byte a;").convertToString("0G");
+    }
+
+    @Test
+    public void testConverterByteArray() throws TransformationException {
+        assertEquals("{\"a\":3,\"b\":-6,\"c\":255}",
+                converter.convert("byte a; byte b; ubyte c;", HexUtils.hexToBytes("03FAFF")));
+    }
+
+    @Test
+    public void testConverterHeapBufferSlice() throws TransformationException {
+        ByteBuffer frame = ByteBuffer.wrap(HexUtils.hexToBytes("AA0102FF03FAFF"));
+        frame.position(1);
+        // the slice starts at offset 3 of the backing array
+        ByteBuffer data = frame.slice();
+        data.position(2);
+        data.limit(6);
+
+        assertEquals(3, data.arrayOffset() + data.position());
+        assertEquals("{\"a\":-1,\"b\":3,\"c\":250,\"d\":255}",
+                converter.convert("byte a; byte b; ubyte c; ubyte d;", data));
+        assertEquals(2, data.position());
+        assertEquals(6, data.limit());
+    }
+
+    @Test
+    public void testConverterDirectBuffer() throws TransformationException {
+        ByteBuffer data = ByteBuffer.allocateDirect(5);
+        data.put(HexUtils.hexToBytes("AA03FAFFBB"));
+        data.position(1);
+        data.limit(4);
+
+        assertEquals("{\"a\":3,\"b\":-6,\"c\":255}", converter.convert("byte a; byte b; ubyte c;", data));
+        assertEquals(1, data.position());
+        assertEquals(4, data.limit());
+    }
+
+    @Test(expected = TransformationException.class)
+    public void testConverterIllegalRule() throws TransformationException {
+        converter.convert("byte a; byte a;", new byte[] { 1, 2 });
+    }
+
+    private void assertConversion(String rule, String hexString, String expected) throws ConversionException {
+        Bin2Json bin2json = new Bin2Json(rule);
+
+        assertEquals(expected, bin2json.convertToString(hexString));
+        assertEquals(expected, bin2json.convertToString(HexUtils.hexToBytes(hexString)));
+        assertEquals(expected, bin2json.convertToString(ByteBuffer.wrap(HexUtils.hexToBytes(hexString))));
+        assertEquals(expected, bin2json.convert(hexString).toString());
+    }
+}
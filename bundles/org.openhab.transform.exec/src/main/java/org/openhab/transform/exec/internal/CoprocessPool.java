@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.exec.internal;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.transform.TransformationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool of {@link CoprocessWorker}s running the same command line.
+ *
+ * Workers are started on demand up to the pool size. Requests finding all workers busy wait for one to become idle,
+ * but only up to the queue size; further requests are rejected immediately. Workers that exited or did not answer in
+ * time are dropped, so the next request starts a new one. Once the pool has been closed, all requests are rejected.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class CoprocessPool {
+
+    private static final AtomicInteger WORKER_COUNTER = new AtomicInteger();
+
+    private final Logger logger = LoggerFactory.getLogger(CoprocessPool.class);
+
+    private final String commandLine;
+    private final String[] command;
+    private final int size;
+    private final Semaphore pending;
+    private final BlockingQueue<CoprocessWorker> idle;
+    private final AtomicInteger started = new AtomicInteger();
+
+    private volatile boolean closed;
+
+    /**
+     * Creates the pool. No process is started before the first request.
+     *
+     * @param commandLine the program and its arguments separated by spaces, or by <code>@@</code> if an argument
+     *            contains spaces
+     * @param size the maximum number of worker processes
+     * @param queueSize the maximum number of requests waiting for a worker
+     */
+    public CoprocessPool(String commandLine, int size, int queueSize) {
+        this.commandLine = commandLine;
+        this.command = commandLine.contains("@@") ? commandLine.split("@@") : commandLine.trim().split("\\s+");
+        this.size = Math.max(1, size);
+        this.pending = new Semaphore(this.size + Math.max(0, queueSize));
+        this.idle = new ArrayBlockingQueue<>(this.size);
+    }
+
+    /**
+     * Transforms a value by one of the workers.
+     *
+     * @param input the value to transform
+     * @param timeout maximum time in milliseconds to wait for a worker and again for its answer
+     * @return the transformed value
+     * @throws TransformationException if the pool is overloaded or the worker failed
+     */
+    public String transform(String input, long timeout) throws TransformationException {
+        if (closed) {
+            throw stopped();
+        }
+        if (!pending.tryAcquire()) {
+            throw new TransformationException("Too many pending requests for coprocess '" + commandLine + "'");
+        }
+        try {
+            final CoprocessWorker worker = borrow(timeout);
+            try {
+                return worker.request(input, timeout);
+            } finally {
+                release(worker);
+            }
+        } finally {
+            pending.release();
+        }
+    }
+
+    /**
+     * Stops all workers. Busy workers are stopped as soon as they have answered.
+     */
+    public synchronized void close() {
+        closed = true;
+        CoprocessWorker worker;
+        while ((worker = idle.poll()) != null) {
+            worker.destroy();
+            started.decrementAndGet();
+        }
+    }
+
+    private CoprocessWorker borrow(long timeout) throws TransformationException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        while (true) {
+            if (closed) {
+                throw stopped();
+            }
+            CoprocessWorker worker = idle.poll();
+            if (worker == null) {
+                worker = start();
+            }
+            if (worker == null) {
+                try {
+                    worker = idle.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new TransformationException("Interrupted while waiting for coprocess '" + commandLine + "'");
+                }
+                if (worker == null) {
+                    throw new TransformationException(
+                            "No coprocess '" + commandLine + "' became available within " + timeout + " ms");
+                }
+            }
+            if (worker.isAlive()) {
+                return worker;
+            }
+            // the process exited while it was idle
+            discard(worker);
+        }
+    }
+
+    private @Nullable CoprocessWorker start() throws TransformationException {
+        if (started.incrementAndGet() > size) {
+            started.decrementAndGet();
+            return null;
+        }
+        final String name = "OH-exectransform-" + WORKER_COUNTER.incrementAndGet();
+        final CoprocessWorker worker;
+        try {
+            logger.debug("Starting coprocess {} for '{}'", name, commandLine);
+            worker = new CoprocessWorker(command, name);
+        } catch (IOException e) {
+            started.decrementAndGet();
+            throw new TransformationException(
+                    "Starting coprocess '" + commandLine + "' failed: " + e.getMessage(), e);
+        }
+        synchronized (this) {
+            // a worker started before closing is discarded on release
+            if (!closed) {
+                return worker;
+            }
+        }
+        discard(worker);
+        throw stopped();
+    }
+
+    private void release(CoprocessWorker worker) {
+        synchronized (this) {
+            // checked under the lock of close(), so no worker is left idle in a closed pool
+            if (!closed && worker.isAlive()) {
+                idle.offer(worker);
+                return;
+            }
+        }
+        discard(worker);
+    }
+
+    private TransformationException stopped() {
+        return new TransformationException("Coprocess '" + commandLine + "' has been stopped");
+    }
+
+    private void discard(CoprocessWorker worker) {
+        if (!closed) {
+            logger.warn("Coprocess '{}' stopped, it will be restarted on the next request.", commandLine);
+        }
+        worker.destroy();
+        started.decrementAndGet();
+    }
+}
@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.exec.internal;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.core.transform.TransformationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A long-lived child process transforming one value per line.
+ *
+ * Every request is written as a single line to the standard input of the process, which has to answer with a single
+ * line on its standard output. Backslashes, line feeds and carriage returns within values are escaped as
+ * <code>\\</code>, <code>\n</code> and <code>\r</code> in both directions. Output on standard error is logged.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class CoprocessWorker {
+
+    /** marks the end of the standard output, compared by identity */
+    private static final String END_OF_STREAM = new String();
+
+    private final Logger logger = LoggerFactory.getLogger(CoprocessWorker.class);
+
+    private final String name;
+    private final Process process;
+    private final BufferedWriter writer;
+    private final BlockingQueue<String> responses = new LinkedBlockingQueue<>();
+
+    private volatile boolean alive = true;
+
+    /**
+     * Starts the child process.
+     *
+     * @param command the program and its arguments
+     * @param name name of the worker used for its threads and in log messages
+     * @throws IOException if the process cannot be started
+     */
+    public CoprocessWorker(String[] command, String name) throws IOException {
+        this.name = name;
+        this.process = new ProcessBuilder(command).start();
+        this.writer = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+
+        startThread(name + "-out", () -> readResponses(process.getInputStream()));
+        startThread(name + "-err", () -> logErrors(process.getErrorStream()));
+    }
+
+    /**
+     * Sends a value to the process and waits for its answer. If the process does not answer in time it is destroyed,
+     * as later answers could no longer be related to their requests.
+     *
+     * @param input the value to transform
+     * @param timeout maximum time to wait for the answer in milliseconds
+     * @return the transformed value
+     * @throws TransformationException if the process failed or did not answer in time
+     */
+    public String request(String input, long timeout) throws TransformationException {
+        // drop answers to earlier requests that timed out; the end of the output is queued after alive is cleared, so
+        // checking alive afterwards also catches an end of output that has just been dropped
+        responses.clear();
+        if (!isAlive()) {
+            throw new TransformationException("Coprocess " + name + " is not running");
+        }
+        try {
+            writer.write(escape(input));
+            writer.write('\n');
+            writer.flush();
+        } catch (IOException e) {
+            destroy();
+            throw new TransformationException("Sending value to coprocess " + name + " failed: " + e.getMessage(), e);
+        }
+
+        final String response;
+        try {
+            response = responses.poll(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            destroy();
+            throw new TransformationException("Interrupted while waiting for coprocess " + name);
+        }
+        if (response == null) {
+            destroy();
+            throw new TransformationException("Coprocess " + name + " did not answer within " + timeout + " ms");
+        }
+        if (response == END_OF_STREAM) {
+            destroy();
+            throw new TransformationException("Coprocess " + name + " exited");
+        }
+        return unescape(response);
+    }
+
+    /**
+     * @return true if the process is running and its output has not ended
+     */
+    public boolean isAlive() {
+        return alive && process.isAlive();
+    }
+
+    /**
+     * Stops the process.
+     */
+    public void destroy() {
+        alive = false;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            // the process is destroyed anyway
+        }
+        process.destroy();
+    }
+
+    private void readResponses(InputStream output) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(output, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                responses.offer(line);
+            }
+        } catch (IOException e) {
+            logger.debug("Reading output of coprocess {} failed: {}", name, e.getMessage());
+        } finally {
+            alive = false;
+            responses.offer(END_OF_STREAM);
+        }
+    }
+
+    private void logErrors(InputStream errors) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(errors, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                logger.debug("Coprocess {}: {}", name, line);
+            }
+        } catch (IOException e) {
+            // the process ended
+        }
+    }
+
+    private static void startThread(String name, Runnable runnable) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    static String escape(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                default:
+                    builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                switch (next) {
+                    case 'n':
+                        builder.append('\n');
+                        break;
+                    case 'r':
+                        builder.append('\r');
+                        break;
+                    case '\\':
+                        builder.append('\\');
+                        break;
+                    default:
+                        // unknown escape sequences are kept as they are
+                        builder.append(c).append(next);
+                }
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+}
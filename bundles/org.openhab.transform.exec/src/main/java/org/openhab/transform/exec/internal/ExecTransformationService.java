@@ -12,12 +12,18 @@
  */
 package org.openhab.transform.exec.internal;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.eclipse.smarthome.core.transform.TransformationService;
 import org.eclipse.smarthome.io.net.exec.ExecUtil;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,14 +31,46 @@ import org.slf4j.LoggerFactory;
  * The implementation of {@link TransformationService} which transforms the
  * input by command line.
  *
+ * By default a new process is started for every value. Command lines prefixed with <code>coprocess:</code> are
+ * started once instead and kept running as {@link CoprocessWorker}s, which receive one value per line.
+ *
  * @author Pauli Anttila
  */
 @NonNullByDefault
-@Component(immediate = true, property = { "smarthome.transform=EXEC" })
+@Component(immediate = true, configurationPid = "org.openhab.exectransform", property = {
+        "smarthome.transform=EXEC" })
 public class ExecTransformationService implements TransformationService {
 
+    public static final String COPROCESS_PREFIX = "coprocess:";
+
+    private static final int TIMEOUT = 5000;
+
+    private static final String CONFIG_WORKERS = "workers";
+    private static final String CONFIG_QUEUE_SIZE = "queueSize";
+    private static final int DEFAULT_WORKERS = 2;
+    private static final int DEFAULT_QUEUE_SIZE = 10;
+
     private final Logger logger = LoggerFactory.getLogger(ExecTransformationService.class);
 
+    private final Map<String, CoprocessPool> coprocesses = new ConcurrentHashMap<>();
+
+    private int workers = DEFAULT_WORKERS;
+    private int queueSize = DEFAULT_QUEUE_SIZE;
+
+    @Activate
+    @Modified
+    protected void activate(@Nullable Map<String, Object> config) {
+        workers = getIntConfig(config, CONFIG_WORKERS, DEFAULT_WORKERS);
+        queueSize = getIntConfig(config, CONFIG_QUEUE_SIZE, DEFAULT_QUEUE_SIZE);
+        // running coprocesses are restarted with the new settings on their next request
+        stopCoprocesses();
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        stopCoprocesses();
+    }
+
     /**
      * Transforms the input <code>source</code> by the command line.
      *
@@ -50,11 +88,37 @@ public class ExecTransformationService implements TransformationService {
 
         long startTime = System.currentTimeMillis();
 
-        String formattedCommandLine = String.format(commandLine, source);
-        String result = ExecUtil.executeCommandLineAndWaitResponse(formattedCommandLine, 5000);
+        String result;
+        if (commandLine.startsWith(COPROCESS_PREFIX)) {
+            String coprocessCommandLine = commandLine.substring(COPROCESS_PREFIX.length());
+            result = coprocesses
+                    .computeIfAbsent(coprocessCommandLine, key -> new CoprocessPool(key, workers, queueSize))
+                    .transform(source, TIMEOUT);
+        } else {
+            String formattedCommandLine = String.format(commandLine, source);
+            result = ExecUtil.executeCommandLineAndWaitResponse(formattedCommandLine, TIMEOUT);
+        }
         logger.trace("command line execution elapsed {} ms", System.currentTimeMillis() - startTime);
 
         return result;
     }
 
+    private void stopCoprocesses() {
+        coprocesses.values().forEach(CoprocessPool::close);
+        coprocesses.clear();
+    }
+
+    private int getIntConfig(@Nullable Map<String, Object> config, String key, int defaultValue) {
+        Object value = config == null ? null : config.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value '{}' for '{}', using {}", value, key, defaultValue);
+            return defaultValue;
+        }
+    }
+
 }
@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.exec.internal;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.transform.TransformationException;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link CoprocessPool} with small shell coprocesses.
+ *
+ * @author agent - Initial contribution
+ */
+public class CoprocessPoolTest {
+
+    private static final long TIMEOUT = 5000;
+
+    /** answers every line but exits on the line "exit" */
+    private static final String EXITING_ECHO = "sh@@-c@@"
+            + "while read line; do [ \"$line\" = exit ] && exit 1; echo \"$line\"; done";
+
+    /** answers every line after half a second */
+    private static final String SLOW_ECHO = "sh@@-c@@while read line; do sleep 0.5; echo \"$line\"; done";
+
+    private CoprocessPool pool;
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue(new File("/bin/sh").canExecute());
+    }
+
+    @After
+    public void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testTransform() throws TransformationException {
+        pool = new CoprocessPool("cat", 1, 0);
+
+        assertEquals("a", pool.transform("a", TIMEOUT));
+        assertEquals("b\nc", pool.transform("b\nc", TIMEOUT));
+    }
+
+    @Test
+    public void testWorkerIsRestartedAfterExit() throws TransformationException {
+        pool = new CoprocessPool(EXITING_ECHO, 1, 0);
+        assertEquals("a", pool.transform("a", TIMEOUT));
+
+        try {
+            pool.transform("exit", TIMEOUT);
+            fail("coprocess did not exit");
+        } catch (TransformationException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("exited"));
+        }
+
+        assertEquals("b", pool.transform("b", TIMEOUT));
+    }
+
+    @Test
+    public void testBackpressure() throws Exception {
+        pool = new CoprocessPool(SLOW_ECHO, 1, 1);
+
+        // the first request occupies the only worker, the second one waits for it
+        CompletableFuture<String> first = new CompletableFuture<>();
+        waitUntilPending(transformAsync("a", first));
+        CompletableFuture<String> second = new CompletableFuture<>();
+        waitUntilPending(transformAsync("b", second));
+
+        try {
+            pool.transform("c", TIMEOUT);
+            fail("request exceeding the queue was accepted");
+        } catch (TransformationException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Too many pending requests"));
+        }
+
+        assertEquals("a", first.get(TIMEOUT, TimeUnit.MILLISECONDS));
+        assertEquals("b", second.get(TIMEOUT, TimeUnit.MILLISECONDS));
+        assertEquals("d", pool.transform("d", TIMEOUT));
+    }
+
+    @Test
+    public void testClosedPoolRejectsRequests() throws TransformationException {
+        pool = new CoprocessPool("cat", 1, 0);
+        assertEquals("a", pool.transform("a", TIMEOUT));
+        pool.close();
+
+        try {
+            pool.transform("b", TIMEOUT);
+            fail("closed pool accepted a request");
+        } catch (TransformationException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("stopped"));
+        }
+    }
+
+    private Thread transformAsync(String input, CompletableFuture<String> result) {
+        Thread thread = new Thread(() -> {
+            try {
+                result.complete(pool.transform(input, TIMEOUT));
+            } catch (TransformationException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private void waitUntilPending(Thread thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        // a pending request waits with a timeout, either for a worker or for the answer of its worker
+        while (thread.getState() != Thread.State.TIMED_WAITING && thread.isAlive()
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(thread.isAlive());
+    }
+}
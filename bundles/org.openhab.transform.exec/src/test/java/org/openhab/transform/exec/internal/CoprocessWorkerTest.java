@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.exec.internal;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.eclipse.smarthome.core.transform.TransformationException;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link CoprocessWorker} with small shell coprocesses.
+ *
+ * @author agent - Initial contribution
+ */
+public class CoprocessWorkerTest {
+
+    private static final long TIMEOUT = 5000;
+
+    private CoprocessWorker worker;
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue(new File("/bin/sh").canExecute());
+    }
+
+    @After
+    public void tearDown() {
+        if (worker != null) {
+            worker.destroy();
+        }
+    }
+
+    @Test
+    public void testEscapeRoundTrip() {
+        assertEquals("a\\nb\\r\\\\c", CoprocessWorker.escape("a\nb\r\\c"));
+        assertEquals("a\nb\r\\c", CoprocessWorker.unescape("a\\nb\\r\\\\c"));
+
+        for (String value : new String[] { "", "plain", "line1\nline2", "\\n is no line feed", "trailing\\",
+                "\r\n\\\\\n" }) {
+            String escaped = CoprocessWorker.escape(value);
+            assertFalse(escaped.contains("\n"));
+            assertFalse(escaped.contains("\r"));
+            assertEquals(value, CoprocessWorker.unescape(escaped));
+        }
+    }
+
+    @Test
+    public void testUnknownEscapeSequencesAreKept() {
+        assertEquals("a\\tb\\", CoprocessWorker.unescape("a\\tb\\"));
+    }
+
+    @Test
+    public void testRequest() throws IOException, TransformationException {
+        worker = new CoprocessWorker(new String[] { "cat" }, "test-cat");
+
+        assertEquals("a", worker.request("a", TIMEOUT));
+        assertEquals("line1\nline2\\", worker.request("line1\nline2\\", TIMEOUT));
+        assertTrue(worker.isAlive());
+    }
+
+    @Test
+    public void testRequestFailsAtOnceWhenProcessExits() throws IOException {
+        worker = new CoprocessWorker(new String[] { "sh", "-c", "read line; exit 1" }, "test-exit");
+
+        long start = System.currentTimeMillis();
+        try {
+            worker.request("a", TIMEOUT);
+            fail("request to an exiting coprocess succeeded");
+        } catch (TransformationException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("exited"));
+        }
+        assertTrue(System.currentTimeMillis() - start < TIMEOUT);
+        assertFalse(worker.isAlive());
+    }
+
+    @Test
+    public void testRequestAfterProcessExited() throws IOException, InterruptedException {
+        worker = new CoprocessWorker(new String[] { "sh", "-c", "exit 0" }, "test-exited");
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (worker.isAlive() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            worker.request("a", TIMEOUT);
+            fail("request to an exited coprocess succeeded");
+        } catch (TransformationException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("not running"));
+        }
+        assertTrue(System.currentTimeMillis() - start < TIMEOUT);
+    }
+
+    @Test
+    public void testTimeoutDestroysProcess() throws IOException {
+        worker = new CoprocessWorker(new String[] { "sh", "-c", "while read line; do sleep 10; done" },
+                "test-timeout");
+
+        try {
+            worker.request("a", 100);
+            fail("request to a hanging coprocess succeeded");
+        } catch (TransformationException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("did not answer"));
+        }
+        assertFalse(worker.isAlive());
+    }
+}
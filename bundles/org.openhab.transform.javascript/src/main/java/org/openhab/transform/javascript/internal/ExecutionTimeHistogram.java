@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.javascript.internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Histogram of script execution times with fixed millisecond buckets.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class ExecutionTimeHistogram {
+
+    /** upper bounds of the buckets in milliseconds, the last bucket counts all longer executions */
+    private static final long[] BUCKET_BOUNDS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 5000 };
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records one execution.
+     *
+     * @param nanos the execution time in nanoseconds
+     */
+    public void record(long nanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS.length && millis >= BUCKET_BOUNDS[bucket]) {
+            bucket++;
+        }
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * @return the number of recorded executions
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return the average execution time in milliseconds
+     */
+    public double getAverage() {
+        long executions = count.get();
+        return executions == 0 ? 0 : totalNanos.get() / 1_000_000.0 / executions;
+    }
+
+    /**
+     * @return the longest execution time in milliseconds
+     */
+    public long getMax() {
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+    }
+
+    /**
+     * @return the number of executions per bucket, see {@link #getBucketBounds()}
+     */
+    public long[] getBuckets() {
+        long[] result = new long[buckets.length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = buckets.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * @return the exclusive upper bounds of all but the last bucket in milliseconds
+     */
+    public long[] getBucketBounds() {
+        return BUCKET_BOUNDS.clone();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("count=").append(getCount()).append(String.format(", avg=%.2fms", getAverage()))
+                .append(", max=").append(getMax()).append("ms, buckets=[");
+        for (int i = 0; i < buckets.length(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(i < BUCKET_BOUNDS.length ? "<" + BUCKET_BOUNDS[i] : ">=" + BUCKET_BOUNDS[i - 1])
+                    .append("ms:").append(buckets.get(i));
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -13,66 +13,126 @@
 package org.openhab.transform.javascript.internal;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
-import javax.script.Compilable;
-import javax.script.CompiledScript;
-import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
-import javax.script.ScriptException;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.transform.TransformationException;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Simple cache for compiled JavaScript files.
  *
+ * Every file is compiled into a {@link ScriptPool} holding up to one instance per available processor, so parallel
+ * transformations using the same file do not contend.
+ *
  * @author Thomas Kordelle - pre compiled scripts
  *
  */
 @NonNullByDefault
-@Component(service = JavaScriptEngineManager.class)
+@Component(service = JavaScriptEngineManager.class, configurationPid = "org.openhab.javascript")
 public class JavaScriptEngineManager {
 
+    private static final String THREAD_POOL_NAME = "javascript-transformation";
+    private static final String CONFIG_TIMEOUT = "timeout";
+    private static final int QUEUED_SCRIPTS_PER_THREAD = 16;
+
     private final Logger logger = LoggerFactory.getLogger(JavaScriptEngineManager.class);
     private final ScriptEngineManager manager = new ScriptEngineManager();
-    /* keep memory foot print low. max 2 concurrent threads are estimated */
-    private final Map<String, CompiledScript> compiledScriptMap = new ConcurrentHashMap<>(4, 0.5f, 2);
+    private final int poolSize = Runtime.getRuntime().availableProcessors();
+    private final ScriptExecutor executor = new ScriptExecutor(THREAD_POOL_NAME, poolSize,
+            poolSize * QUEUED_SCRIPTS_PER_THREAD, poolSize);
+    private final Map<String, ScriptPool> scriptPools = new ConcurrentHashMap<>();
+
+    private volatile long timeout;
+
+    @Activate
+    @Modified
+    protected void activate(@Nullable Map<String, Object> config) {
+        long timeout = 0;
+        Object value = config == null ? null : config.get(CONFIG_TIMEOUT);
+        if (value != null) {
+            try {
+                timeout = Long.parseLong(value.toString().trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid JavaScript transformation timeout '{}', scripts run without timeout.", value);
+            }
+        }
+        this.timeout = Math.max(0, timeout);
+        logger.debug("JavaScript transformation timeout set to {} ms, {} instances per script.", this.timeout,
+                poolSize);
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        executor.shutdown();
+    }
 
     /**
-     * Get a pre compiled script {@link CompiledScript} from cache. If it is not in the cache, then load it from
-     * storage and put a pre compiled version into the cache.
+     * @return the maximum execution time of a script in milliseconds, 0 if scripts run without timeout
+     */
+    protected long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Get the pool of pre compiled scripts {@link ScriptPool} from cache. If it is not in the cache, then load it from
+     * storage and put a pool of pre compiled versions into the cache.
      *
      * @param filename name of the JavaScript file to load
-     * @return a pre compiled script {@link CompiledScript}
+     * @return the pool of pre compiled scripts
      * @throws TransformationException if compile of JavaScript failed
      */
-    protected CompiledScript getScript(final String filename) throws TransformationException {
-        synchronized (compiledScriptMap) {
-            if (compiledScriptMap.containsKey(filename)) {
-                logger.debug("Loading JavaScript {} from cache.", filename);
-                return compiledScriptMap.get(filename);
-            } else {
-                final String path = TransformationScriptWatcher.TRANSFORM_FOLDER + File.separator + filename;
-                logger.debug("Loading script {} from storage ", path);
-                try (final Reader reader = new InputStreamReader(new FileInputStream(path))) {
-                    final ScriptEngine engine = manager.getEngineByName("javascript");
-                    final CompiledScript cScript = ((Compilable) engine).compile(reader);
-                    logger.debug("Putting compiled JavaScript {} to cache.", cScript);
-                    compiledScriptMap.put(filename, cScript);
-                    return cScript;
-                } catch (IOException | ScriptException e) {
-                    throw new TransformationException("An error occurred while loading JavaScript. " + e.getMessage(),
-                            e);
-                }
+    protected ScriptPool getScriptPool(final String filename) throws TransformationException {
+        final String key = toKey(filename);
+        ScriptPool pool = scriptPools.get(key);
+        if (pool != null) {
+            logger.debug("Loading JavaScript {} from cache.", filename);
+            return pool;
+        }
+        synchronized (scriptPools) {
+            pool = scriptPools.get(key);
+            if (pool == null) {
+                pool = load(key);
+                logger.debug("Putting compiled JavaScript {} to cache.", filename);
+                scriptPools.put(key, pool);
+            }
+            return pool;
+        }
+    }
+
+    /**
+     * Replaces the pool of a cached script by a freshly compiled one. Transformations still running on the old pool
+     * finish on it, all following transformations use the new one.
+     *
+     * @param fileName name of the modified script file
+     */
+    protected void reload(String fileName) {
+        final String key = toKey(fileName);
+        synchronized (scriptPools) {
+            final ScriptPool oldPool = scriptPools.get(key);
+            if (oldPool == null) {
+                return;
+            }
+            logger.debug("Reloading JavaScript {}, execution times so far: {}", fileName, oldPool.getExecutionTimes());
+            try {
+                scriptPools.replace(key, oldPool, load(key));
+            } catch (TransformationException e) {
+                // the next transformation reports the error
+                logger.debug("Reloading JavaScript {} failed: {}", fileName, e.getMessage());
+                scriptPools.remove(key);
             }
         }
     }
@@ -84,6 +144,26 @@ public class JavaScriptEngineManager {
      */
     protected void removeFromCache(String fileName) {
         logger.debug("Removing JavaScript {} from cache.", fileName);
-        compiledScriptMap.remove(fileName);
+        scriptPools.remove(toKey(fileName));
+    }
+
+    private ScriptPool load(String filename) throws TransformationException {
+        final String path = TransformationScriptWatcher.TRANSFORM_FOLDER + File.separator + filename;
+        logger.debug("Loading script {} from storage ", path);
+        try {
+            final String code = new String(Files.readAllBytes(Paths.get(path)));
+            return new ScriptPool(filename, code, manager, executor, poolSize);
+        } catch (IOException | InvalidPathException e) {
+            throw new TransformationException("An error occurred while loading JavaScript. " + e.getMessage(), e);
+        }
+    }
+
+    private static String toKey(String filename) {
+        try {
+            return Paths.get(filename).normalize().toString();
+        } catch (InvalidPathException e) {
+            // loading the script reports the error
+            return filename;
+        }
     }
 }
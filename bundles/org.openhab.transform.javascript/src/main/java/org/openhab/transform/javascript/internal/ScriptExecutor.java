@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.javascript.internal;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.core.common.NamedThreadFactory;
+
+/**
+ * Bounded executor running scripts with a timeout.
+ *
+ * A script engine cannot be interrupted, so a script exceeding its timeout keeps its thread busy until it finishes on
+ * its own, if ever. Such a thread is abandoned and the pool grows by one thread to replace it, up to a maximum number of
+ * abandoned threads. The replacement is withdrawn once the abandoned script finishes. Tasks are rejected if all threads
+ * are busy and the queue is full, so runaway scripts can never occupy more than a bounded number of threads.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class ScriptExecutor {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+    private final int maxAbandoned;
+
+    private int abandoned;
+
+    /**
+     * Task of a script evaluation, which can be abandoned if it does not finish in time.
+     */
+    public class Task<T> extends FutureTask<T> {
+        private static final int RUNNING = 0;
+        private static final int DONE = 1;
+        private static final int ABANDONED = 2;
+
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+        private boolean replaced;
+
+        Task(Callable<T> callable) {
+            super(callable);
+        }
+
+        @Override
+        public void run() {
+            try {
+                super.run();
+            } finally {
+                if (!state.compareAndSet(RUNNING, DONE)) {
+                    released(this);
+                }
+            }
+        }
+
+        /**
+         * Gives up waiting for this task. If it is still running, its thread is replaced by a new one as long as the
+         * maximum number of abandoned threads is not reached.
+         */
+        public void abandon() {
+            cancel(true);
+            abandoned(this);
+        }
+    }
+
+    /**
+     * Creates the executor.
+     *
+     * @param name name of the threads
+     * @param threads number of threads executing scripts
+     * @param queueSize number of tasks waiting for a thread
+     * @param maxAbandoned maximum number of threads replaced because their script did not finish in time
+     */
+    public ScriptExecutor(String name, int threads, int queueSize, int maxAbandoned) {
+        this.threads = Math.max(1, threads);
+        this.maxAbandoned = Math.max(0, maxAbandoned);
+        executor = new ThreadPoolExecutor(this.threads, this.threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)), new NamedThreadFactory(name));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Submits a script evaluation.
+     *
+     * @param callable the evaluation
+     * @return the task of the evaluation
+     * @throws RejectedExecutionException if all threads are busy and the queue is full
+     */
+    public <T> Task<T> submit(Callable<T> callable) {
+        Task<T> task = new Task<>(callable);
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * @return the number of threads currently abandoned to scripts that did not finish in time
+     */
+    public synchronized int getAbandonedThreads() {
+        return abandoned;
+    }
+
+    /**
+     * Stops all threads, abandoned scripts keep running until they finish.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private synchronized void abandoned(Task<?> task) {
+        if (task.state.compareAndSet(Task.RUNNING, Task.ABANDONED) && abandoned < maxAbandoned) {
+            abandoned++;
+            task.replaced = true;
+            executor.setMaximumPoolSize(threads + abandoned);
+            executor.setCorePoolSize(threads + abandoned);
+        }
+    }
+
+    private synchronized void released(Task<?> task) {
+        if (task.replaced) {
+            abandoned--;
+            executor.setCorePoolSize(threads + abandoned);
+            executor.setMaximumPoolSize(threads + abandoned);
+        }
+    }
+}
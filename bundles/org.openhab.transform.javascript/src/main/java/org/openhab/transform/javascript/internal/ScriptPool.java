@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.javascript.internal;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.transform.TransformationException;
+
+/**
+ * Pool of compiled instances of one JavaScript file.
+ *
+ * Every instance is compiled on its own engine and is only used by one thread at a time. Each evaluation gets fresh
+ * {@link Bindings}, so no script state leaks from one transformation into the next. Instances are compiled on demand up
+ * to the pool size, further callers wait for an instance to be released.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class ScriptPool {
+
+    private final String filename;
+    private final String code;
+    private final ScriptEngineManager manager;
+    private final ScriptExecutor executor;
+    private final int size;
+
+    private final BlockingQueue<PooledScript> idle;
+    private final AtomicInteger created = new AtomicInteger();
+    private final ExecutionTimeHistogram executionTimes = new ExecutionTimeHistogram();
+
+    /**
+     * A compiled script, evaluated with new bindings every time.
+     */
+    private static class PooledScript {
+        private final CompiledScript script;
+
+        PooledScript(CompiledScript script) {
+            this.script = script;
+        }
+
+        @Nullable
+        Object eval(String input) throws ScriptException {
+            final Bindings bindings = script.getEngine().createBindings();
+            bindings.put("input", input);
+            return script.eval(bindings);
+        }
+    }
+
+    /**
+     * Creates the pool and compiles its first instance.
+     *
+     * @param filename name of the JavaScript file
+     * @param code content of the JavaScript file
+     * @param manager the script engine manager providing the engines
+     * @param executor executes scripts with a timeout
+     * @param size maximum number of compiled instances
+     * @throws TransformationException if the script cannot be compiled
+     */
+    public ScriptPool(String filename, String code, ScriptEngineManager manager, ScriptExecutor executor, int size)
+            throws TransformationException {
+        this.filename = filename;
+        this.code = code;
+        this.manager = manager;
+        this.executor = executor;
+        this.size = Math.max(1, size);
+        this.idle = new ArrayBlockingQueue<>(this.size);
+
+        created.incrementAndGet();
+        idle.add(compile());
+    }
+
+    /**
+     * Evaluates the script.
+     *
+     * @param input the value of the <code>input</code> variable
+     * @param timeout maximum execution time in milliseconds, 0 to run the script on the calling thread without limit
+     * @return the result of the script
+     * @throws TransformationException if the script fails or does not finish in time
+     */
+    public @Nullable Object eval(String input, long timeout) throws TransformationException {
+        final PooledScript script = borrow(timeout);
+        final long startTime = System.nanoTime();
+        boolean reusable = true;
+        try {
+            if (timeout <= 0) {
+                return script.eval(input);
+            }
+            final ScriptExecutor.Task<?> task;
+            try {
+                task = executor.submit(() -> script.eval(input));
+            } catch (RejectedExecutionException e) {
+                throw new TransformationException(
+                        "Too many JavaScript transformations running, rejected execution of " + filename + ".");
+            }
+            try {
+                return task.get(timeout, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // the engine cannot be interrupted, so the instance and its thread may still be in use
+                task.abandon();
+                reusable = false;
+                throw new TransformationException(
+                        "JavaScript " + filename + " did not finish within " + timeout + " ms.");
+            } catch (InterruptedException e) {
+                task.abandon();
+                reusable = false;
+                Thread.currentThread().interrupt();
+                throw new TransformationException("Interrupted while executing JavaScript " + filename + ".");
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof ScriptException) {
+                    throw (ScriptException) cause;
+                }
+                throw new TransformationException("An error occurred while executing script. " + e.getMessage(),
+                        cause);
+            }
+        } catch (ScriptException e) {
+            throw new TransformationException("An error occurred while executing script. " + e.getMessage(), e);
+        } finally {
+            executionTimes.record(System.nanoTime() - startTime);
+            if (reusable) {
+                idle.offer(script);
+            } else {
+                created.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @return the execution times of this script
+     */
+    public ExecutionTimeHistogram getExecutionTimes() {
+        return executionTimes;
+    }
+
+    private PooledScript borrow(long timeout) throws TransformationException {
+        PooledScript script = idle.poll();
+        if (script != null) {
+            return script;
+        }
+        if (created.incrementAndGet() <= size) {
+            try {
+                return compile();
+            } catch (TransformationException e) {
+                created.decrementAndGet();
+                throw e;
+            }
+        }
+        created.decrementAndGet();
+        try {
+            script = timeout > 0 ? idle.poll(timeout, TimeUnit.MILLISECONDS) : idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransformationException("Interrupted while waiting for JavaScript " + filename + ".");
+        }
+        if (script == null) {
+            throw new TransformationException(
+                    "No instance of JavaScript " + filename + " became available within " + timeout + " ms.");
+        }
+        return script;
+    }
+
+    private PooledScript compile() throws TransformationException {
+        try {
+            final ScriptEngine engine;
+            synchronized (manager) {
+                engine = manager.getEngineByName("javascript");
+            }
+            return new PooledScript(((Compilable) engine).compile(code));
+        } catch (ScriptException e) {
+            throw new TransformationException("An error occurred while loading JavaScript. " + e.getMessage(), e);
+        }
+    }
+}
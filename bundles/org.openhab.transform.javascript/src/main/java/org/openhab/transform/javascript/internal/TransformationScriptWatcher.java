@@ -16,6 +16,7 @@ import static java.nio.file.StandardWatchEventKinds.*;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchEvent.Kind;
 
@@ -27,7 +28,7 @@ import org.osgi.service.component.annotations.Reference;
 
 /**
  * The {@link TransformationScriptWatcher} watches the transformation directory for files. If a deleted/modified file is
- * detected, the script is passed to the {@link JavaScriptEngineManager}.
+ * detected, the script is passed to the {@link JavaScriptEngineManager}, which reloads or removes its pool.
  *
  * @author Thomas Kordelle - pre compiled scripts
  *
@@ -68,7 +69,6 @@ public class TransformationScriptWatcher extends AbstractWatchService {
         return new Kind<?>[] { ENTRY_DELETE, ENTRY_MODIFY };
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     protected void processWatchEvent(WatchEvent<?> event, Kind<?> kind, Path path) {
         logger.debug("New watch event {} for path {}.", kind, path);
@@ -77,11 +77,20 @@ public class TransformationScriptWatcher extends AbstractWatchService {
             return;
         }
 
-        final WatchEvent<Path> ev = (WatchEvent<Path>) event;
-        final Path filename = ev.context();
+        final Path filename = getRelativePath(path);
 
-        logger.debug("Reloading javascript file {}.", filename);
+        if (kind == ENTRY_DELETE) {
+            logger.debug("Removing javascript file {}.", filename);
+            manager.removeFromCache(filename.toString());
+        } else {
+            logger.debug("Reloading javascript file {}.", filename);
+            manager.reload(filename.toString());
+        }
+    }
 
-        manager.removeFromCache(filename.toString());
+    private Path getRelativePath(Path path) {
+        final Path folder = Paths.get(TRANSFORM_FOLDER).toAbsolutePath().normalize();
+        final Path file = path.toAbsolutePath().normalize();
+        return file.startsWith(folder) ? folder.relativize(file) : path.getFileName();
     }
 }
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.javascript.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link ExecutionTimeHistogram}.
+ *
+ * @author agent - Initial contribution
+ */
+public class ExecutionTimeHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        ExecutionTimeHistogram histogram = new ExecutionTimeHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getAverage(), 0);
+        assertEquals(0, histogram.getMax());
+        assertArrayEquals(new long[histogram.getBucketBounds().length + 1], histogram.getBuckets());
+    }
+
+    @Test
+    public void testRecord() {
+        ExecutionTimeHistogram histogram = new ExecutionTimeHistogram();
+
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(500));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(7));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(10_000));
+
+        assertEquals(4, histogram.getCount());
+        assertEquals(10_000, histogram.getMax());
+        assertEquals((0.5 + 1 + 7 + 10_000) / 4, histogram.getAverage(), 0.001);
+
+        long[] buckets = histogram.getBuckets();
+        // below 1 ms, below 2 ms, below 10 ms and the last bucket
+        assertEquals(1, buckets[0]);
+        assertEquals(1, buckets[1]);
+        assertEquals(1, buckets[3]);
+        assertEquals(1, buckets[buckets.length - 1]);
+        assertEquals(4, sum(buckets));
+    }
+
+    @Test
+    public void testBucketBoundsAreUpperExclusive() {
+        ExecutionTimeHistogram histogram = new ExecutionTimeHistogram();
+        long[] bounds = histogram.getBucketBounds();
+
+        for (long bound : bounds) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(bound));
+        }
+
+        long[] buckets = histogram.getBuckets();
+        assertEquals(0, buckets[0]);
+        for (int i = 1; i < buckets.length; i++) {
+            assertEquals(1, buckets[i]);
+        }
+    }
+
+    @Test
+    public void testToString() {
+        ExecutionTimeHistogram histogram = new ExecutionTimeHistogram();
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+
+        String result = histogram.toString();
+        assertTrue(result, result.startsWith("count=1, "));
+        assertTrue(result, result.contains("<5ms:1"));
+        assertTrue(result, result.contains(">=5000ms:0"));
+    }
+
+    private static long sum(long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+}
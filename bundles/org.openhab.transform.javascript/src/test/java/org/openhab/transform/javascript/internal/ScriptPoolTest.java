@@ -0,0 +1,294 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.javascript.internal;
+
+import static org.junit.Assert.*;
+
+import java.io.Reader;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+
+import org.eclipse.smarthome.core.transform.TransformationException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link ScriptPool} with a script engine whose scripts are selected by their code.
+ *
+ * @author agent - Initial contribution
+ */
+public class ScriptPoolTest {
+
+    private static final String ECHO = "echo";
+    private static final String GLOBAL = "global";
+    private static final String RUNAWAY = "runaway";
+
+    private static CountDownLatch runawayRelease = new CountDownLatch(0);
+
+    private ScriptEngineManager manager;
+    private ScriptExecutor executor;
+
+    @Before
+    public void setUp() {
+        runawayRelease = new CountDownLatch(1);
+        manager = new ScriptEngineManager();
+        manager.registerEngineName("javascript", new TestScriptEngineFactory());
+    }
+
+    @After
+    public void tearDown() {
+        runawayRelease.countDown();
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testEval() throws TransformationException {
+        executor = new ScriptExecutor("test", 1, 1, 1);
+        ScriptPool pool = new ScriptPool(ECHO, ECHO, manager, executor, 2);
+
+        assertEquals("a", pool.eval("a", 0));
+        assertEquals("b", pool.eval("b", 1000));
+        assertEquals(2, pool.getExecutionTimes().getCount());
+    }
+
+    @Test
+    public void testGlobalsDoNotLeakIntoNextEvaluation() throws TransformationException {
+        executor = new ScriptExecutor("test", 1, 1, 1);
+        ScriptPool pool = new ScriptPool(GLOBAL, GLOBAL, manager, executor, 1);
+
+        assertNull(pool.eval("a", 0));
+        assertNull(pool.eval("b", 0));
+        assertNull(pool.eval("c", 1000));
+    }
+
+    @Test
+    public void testTimeoutReplacesAbandonedThread() throws Exception {
+        executor = new ScriptExecutor("test", 1, 1, 1);
+        ScriptPool runaway = new ScriptPool(RUNAWAY, RUNAWAY, manager, executor, 1);
+        ScriptPool echo = new ScriptPool(ECHO, ECHO, manager, executor, 1);
+
+        try {
+            runaway.eval("a", 50);
+            fail("runaway script did not time out");
+        } catch (TransformationException e) {
+            assertTrue(e.getMessage().contains("did not finish"));
+        }
+        assertEquals(1, executor.getAbandonedThreads());
+
+        // the abandoned thread is still busy, the replacement thread runs the next script
+        assertEquals("b", echo.eval("b", 1000));
+
+        runawayRelease.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.getAbandonedThreads() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, executor.getAbandonedThreads());
+        assertEquals("c", echo.eval("c", 1000));
+    }
+
+    @Test
+    public void testSaturatedExecutorRejectsScripts() throws TransformationException {
+        executor = new ScriptExecutor("test", 1, 1, 0);
+        ScriptPool runaway = new ScriptPool(RUNAWAY, RUNAWAY, manager, executor, 1);
+        ScriptPool echo = new ScriptPool(ECHO, ECHO, manager, executor, 1);
+
+        try {
+            runaway.eval("a", 50);
+            fail("runaway script did not time out");
+        } catch (TransformationException e) {
+            assertTrue(e.getMessage().contains("did not finish"));
+        }
+        assertEquals(0, executor.getAbandonedThreads());
+
+        // the only thread is stuck, fill the queue
+        executor.submit(() -> null);
+        try {
+            echo.eval("b", 1000);
+            fail("script was not rejected");
+        } catch (TransformationException e) {
+            assertTrue(e.getMessage().contains("rejected"));
+        }
+    }
+
+    @Test(expected = TransformationException.class)
+    public void testCompileError() throws TransformationException {
+        executor = new ScriptExecutor("test", 1, 1, 1);
+        new ScriptPool("invalid", "invalid", manager, executor, 1);
+    }
+
+    private static class TestScriptEngine extends AbstractScriptEngine implements Compilable {
+
+        private final ScriptEngineFactory factory;
+
+        TestScriptEngine(ScriptEngineFactory factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        public CompiledScript compile(String code) throws ScriptException {
+            switch (code) {
+                case ECHO:
+                case GLOBAL:
+                case RUNAWAY:
+                    return new TestCompiledScript(this, code);
+                default:
+                    throw new ScriptException("unknown script " + code);
+            }
+        }
+
+        @Override
+        public CompiledScript compile(Reader reader) throws ScriptException {
+            throw new ScriptException("not supported");
+        }
+
+        @Override
+        public Object eval(String script, ScriptContext context) throws ScriptException {
+            return compile(script).eval(context);
+        }
+
+        @Override
+        public Object eval(Reader reader, ScriptContext context) throws ScriptException {
+            throw new ScriptException("not supported");
+        }
+
+        @Override
+        public Bindings createBindings() {
+            return new SimpleBindings();
+        }
+
+        @Override
+        public ScriptEngineFactory getFactory() {
+            return factory;
+        }
+    }
+
+    private static class TestCompiledScript extends CompiledScript {
+
+        private final ScriptEngine engine;
+        private final String code;
+
+        TestCompiledScript(ScriptEngine engine, String code) {
+            this.engine = engine;
+            this.code = code;
+        }
+
+        @Override
+        public Object eval(ScriptContext context) throws ScriptException {
+            Bindings bindings = context.getBindings(ScriptContext.ENGINE_SCOPE);
+            Object input = bindings.get("input");
+            switch (code) {
+                case GLOBAL:
+                    // returns the input of the previous evaluation if the bindings are reused
+                    return bindings.put("previous", input);
+                case RUNAWAY:
+                    // like a script engine, ignore interruption
+                    boolean released = false;
+                    while (!released) {
+                        try {
+                            released = runawayRelease.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            // keep running
+                        }
+                    }
+                    return input;
+                default:
+                    return input;
+            }
+        }
+
+        @Override
+        public ScriptEngine getEngine() {
+            return engine;
+        }
+    }
+
+    private static class TestScriptEngineFactory implements ScriptEngineFactory {
+
+        @Override
+        public String getEngineName() {
+            return "test";
+        }
+
+        @Override
+        public String getEngineVersion() {
+            return "1";
+        }
+
+        @Override
+        public List<String> getExtensions() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<String> getMimeTypes() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<String> getNames() {
+            return Collections.singletonList("javascript");
+        }
+
+        @Override
+        public String getLanguageName() {
+            return "test";
+        }
+
+        @Override
+        public String getLanguageVersion() {
+            return "1";
+        }
+
+        @Override
+        public Object getParameter(String key) {
+            return null;
+        }
+
+        @Override
+        public String getMethodCallSyntax(String obj, String m, String... args) {
+            return "";
+        }
+
+        @Override
+        public String getOutputStatement(String toDisplay) {
+            return "";
+        }
+
+        @Override
+        public String getProgram(String... statements) {
+            return "";
+        }
+
+        @Override
+        public ScriptEngine getScriptEngine() {
+            return new TestScriptEngine(this);
+        }
+    }
+}
@@ -13,12 +13,9 @@
 package org.openhab.transform.jinja.internal;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -31,10 +28,18 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hubspot.jinjava.Jinjava;
+import com.hubspot.jinjava.JinjavaConfig;
+import com.hubspot.jinjava.interpret.Context;
+import com.hubspot.jinjava.interpret.JinjavaInterpreter;
+import com.hubspot.jinjava.interpret.TemplateError.ErrorType;
+import com.hubspot.jinjava.tree.Node;
 
 /**
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by Jinja2 Expressions.
+ * <p>
+ * Templates are parsed once and the resulting syntax trees are cached. The JSON value is exposed to the template as a
+ * {@link JsonNodeView}, so only the fields the template accesses are converted.
  *
  * @author Jochen Klein - Initial contribution
  *
@@ -43,10 +48,18 @@ import com.hubspot.jinjava.Jinjava;
 @Component(immediate = true, property = { "smarthome.transform=JINJA" })
 public class JinjaTransformationService implements TransformationService {
 
+    private static final int MAX_CACHE_SIZE = 256;
+
+    private static final String VALUE_JSON = "value_json";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     private final Logger logger = LoggerFactory.getLogger(JinjaTransformationService.class);
 
     private Jinjava jinjava = new Jinjava();
 
+    private final Map<String, Node> templateCache = new ConcurrentHashMap<>();
+
     /**
      * Transforms the input <code>value</code> by Jinja template.
      *
@@ -61,47 +74,66 @@ public class JinjaTransformationService implements TransformationService {
         Map<String, @Nullable Object> bindings = new HashMap<>();
         bindings.put("value", value);
 
-        try {
-            JsonNode tree = new ObjectMapper().readTree(value);
-            bindings.put("value_json", toObject(tree));
-        } catch (IOException e) {
-            // ok, then value_json is null...
+        // there is no need to parse the value if the template does not use it
+        if (template.contains(VALUE_JSON)) {
+            try {
+                JsonNode tree = OBJECT_MAPPER.readTree(value);
+                bindings.put(VALUE_JSON, JsonNodeView.of(tree));
+            } catch (IOException e) {
+                // ok, then value_json is null...
+            }
         }
 
-        String transformationResult = jinjava.render(template, bindings);
+        Node root = getTemplate(template);
+        String transformationResult = root != null ? render(root, bindings) : jinjava.render(template, bindings);
 
         logger.debug("transformation resulted in '{}'", transformationResult);
 
         return transformationResult;
     }
 
-    private static @Nullable Object toObject(JsonNode node) {
-        switch (node.getNodeType()) {
-            case ARRAY: {
-                List<@Nullable Object> result = new ArrayList<>();
-                for (JsonNode el : node) {
-                    result.add(toObject(el));
-                }
-                return result;
+    /**
+     * Returns the parsed template from the cache, parsing it if necessary.
+     *
+     * @param template the Jinja template
+     * @return the root of the syntax tree or null if the template has errors and has to be rendered by Jinjava itself
+     *         to report them
+     */
+    private @Nullable Node getTemplate(String template) {
+        Node root = templateCache.get(template);
+        if (root == null) {
+            JinjavaInterpreter interpreter = jinjava.newInterpreter();
+            root = interpreter.parse(template);
+            if (!interpreter.getErrors().isEmpty()) {
+                return null;
             }
-            case NUMBER:
-                return node.decimalValue();
-            case OBJECT: {
-                Map<String, @Nullable Object> result = new HashMap<>();
-                Iterator<Entry<String, JsonNode>> it = node.fields();
-                while (it.hasNext()) {
-                    Entry<String, JsonNode> field = it.next();
-                    result.put(field.getKey(), toObject(field.getValue()));
-                }
-                return result;
+            if (templateCache.size() >= MAX_CACHE_SIZE) {
+                templateCache.clear();
             }
-            case STRING:
-                return node.asText();
-            case BOOLEAN:
-                return node.asBoolean();
-            case NULL:
-            default:
-                return null;
+            templateCache.put(template, root);
+        }
+        return root;
+    }
+
+    /**
+     * Renders a parsed template the same way {@link Jinjava#render(String, Map)} renders a template string.
+     */
+    private String render(Node root, Map<String, @Nullable Object> bindings) throws TransformationException {
+        JinjavaConfig config = jinjava.getGlobalConfig();
+        Context context = new Context(jinjava.getGlobalContext(), bindings, config.getDisabled());
+        JinjavaInterpreter interpreter = new JinjavaInterpreter(jinjava, context, config);
+        JinjavaInterpreter.pushCurrent(interpreter);
+        try {
+            String result = interpreter.render(root, true);
+            if (interpreter.getErrors().stream().anyMatch(error -> error.getSeverity() == ErrorType.FATAL)) {
+                throw new TransformationException("Rendering Jinja template failed: " + interpreter.getErrors());
+            }
+            return result;
+        } catch (RuntimeException e) {
+            throw new TransformationException("Rendering Jinja template failed: " + e.getMessage(), e);
+        } finally {
+            jinjava.getGlobalContext().reset();
+            JinjavaInterpreter.popCurrent();
         }
     }
 }
@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.jinja.internal;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Read-only views exposing a Jackson tree as Java collections to Jinja templates.
+ *
+ * JSON objects are exposed as {@link Map}s and arrays as {@link java.util.List}s, numbers as
+ * {@link java.math.BigDecimal}s, strings as {@link String}s and booleans as {@link Boolean}s. Only the values a template
+ * actually accesses are converted; iterating a whole object converts it once.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public final class JsonNodeView {
+
+    private JsonNodeView() {
+        // only static helpers
+    }
+
+    /**
+     * Returns the Java representation of a JSON node.
+     *
+     * @param node the JSON node
+     * @return a view for objects and arrays, the value for all other nodes
+     */
+    public static @Nullable Object of(JsonNode node) {
+        switch (node.getNodeType()) {
+            case ARRAY:
+                return new ArrayView(node);
+            case NUMBER:
+                return node.decimalValue();
+            case OBJECT:
+                return new ObjectView(node);
+            case STRING:
+                return node.asText();
+            case BOOLEAN:
+                return node.asBoolean();
+            case NULL:
+            default:
+                return null;
+        }
+    }
+
+    private static class ObjectView extends AbstractMap<String, @Nullable Object> {
+        private final JsonNode node;
+        private @Nullable Map<String, @Nullable Object> materialized;
+
+        ObjectView(JsonNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public @Nullable Object get(@Nullable Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            Map<String, @Nullable Object> materialized = this.materialized;
+            if (materialized != null) {
+                return materialized.get(key);
+            }
+            JsonNode child = node.get((String) key);
+            return child == null ? null : of(child);
+        }
+
+        @Override
+        public boolean containsKey(@Nullable Object key) {
+            return key instanceof String && node.has((String) key);
+        }
+
+        @Override
+        public int size() {
+            return node.size();
+        }
+
+        @Override
+        public Set<Entry<String, @Nullable Object>> entrySet() {
+            Map<String, @Nullable Object> materialized = this.materialized;
+            if (materialized == null) {
+                materialized = new HashMap<>();
+                Iterator<Entry<String, JsonNode>> it = node.fields();
+                while (it.hasNext()) {
+                    Entry<String, JsonNode> field = it.next();
+                    materialized.put(field.getKey(), of(field.getValue()));
+                }
+                this.materialized = materialized;
+            }
+            return materialized.entrySet();
+        }
+    }
+
+    private static class ArrayView extends AbstractList<@Nullable Object> {
+        private final JsonNode node;
+
+        ArrayView(JsonNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public @Nullable Object get(int index) {
+            if (index < 0 || index >= node.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + node.size());
+            }
+            return of(node.get(index));
+        }
+
+        @Override
+        public int size() {
+            return node.size();
+        }
+    }
+}
@@ -62,4 +62,27 @@ public class JinjaTransformationServiceTest {
         Assert.assertEquals("Hello world!", transformedResponse);
     }
 
+    @Test
+    public void testNestedJsonAccess() throws TransformationException {
+
+        String json = "{\"sensors\":[{\"name\":\"a\",\"on\":true},{\"name\":\"b\",\"on\":false}],\"count\":2}";
+        String template = "{{ value_json.sensors[1].name }} {{ value_json.sensors|length }} {{ value_json.sensors[0].on }}";
+
+        // the second call renders the cached template
+        Assert.assertEquals("b 2 true", processor.transform(template, json));
+        Assert.assertEquals("b 2 true", processor.transform(template, json));
+    }
+
+    @Test
+    public void testIterateJsonObject() throws TransformationException {
+
+        String json = "{\"AM2301\":{\"Temperature\":4.7}}";
+        // method under test
+        String transformedResponse = processor.transform(
+                "{% for key, value in value_json.AM2301.items() %}{{ key }}={{ value }}{% endfor %}", json);
+
+        // Asserts
+        Assert.assertEquals("Temperature=4.7", transformedResponse);
+    }
+
 }
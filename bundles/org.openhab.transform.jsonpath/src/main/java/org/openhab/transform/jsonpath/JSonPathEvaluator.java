@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.jsonpath;
+
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.transform.TransformationException;
+
+/**
+ * Evaluates several JsonPath expressions against a JSON document that is parsed only once.
+ * <p>
+ * Bindings and profiles that extract more than one value from the same payload should use this service instead of
+ * calling the JSONPATH transformation once per value.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public interface JSonPathEvaluator {
+
+    /**
+     * Evaluates the given expressions against the JSON document in <code>source</code>.
+     *
+     * @param jsonPathExpressions the JsonPath expressions
+     * @param source String which contains JSON
+     * @return the results in the order of the expressions, with the same conversion as the JSONPATH
+     *         transformation. The result of an expression that does not match is null.
+     * @throws TransformationException if the JSON or one of the expressions is invalid
+     */
+    List<@Nullable String> evaluate(List<String> jsonPathExpressions, String source) throws TransformationException;
+}
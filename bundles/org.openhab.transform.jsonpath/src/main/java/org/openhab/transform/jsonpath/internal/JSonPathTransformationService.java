@@ -12,17 +12,22 @@
  */
 package org.openhab.transform.jsonpath.internal;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.eclipse.smarthome.core.transform.TransformationService;
 import org.eclipse.smarthome.core.types.UnDefType;
+import org.openhab.transform.jsonpath.JSonPathEvaluator;
 import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.InvalidJsonException;
 import com.jayway.jsonpath.InvalidPathException;
 import com.jayway.jsonpath.JsonPath;
@@ -31,17 +36,39 @@ import com.jayway.jsonpath.PathNotFoundException;
 /**
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by JSonPath Expressions.
+ * <p>
+ * Compiled expressions are cached, and the last parsed document is reused as long as the same source instance is
+ * transformed, so extracting several values from one payload parses it only once.
  *
  * @author Gaël L'hopital
  * @author Sebastian Janzen
  *
  */
 @NonNullByDefault
-@Component(immediate = true, property = { "smarthome.transform=JSONPATH" })
-public class JSonPathTransformationService implements TransformationService {
+@Component(immediate = true, service = { TransformationService.class,
+        JSonPathEvaluator.class }, property = { "smarthome.transform=JSONPATH" })
+public class JSonPathTransformationService implements TransformationService, JSonPathEvaluator {
 
     private final Logger logger = LoggerFactory.getLogger(JSonPathTransformationService.class);
 
+    /** maximum number of compiled expressions kept in the cache */
+    private static final int MAX_CACHE_SIZE = 256;
+
+    private final Map<String, JsonPath> compiledPaths = new ConcurrentHashMap<>();
+
+    /** the last parsed document, reused while the same source instance is transformed */
+    private volatile @Nullable ParsedDocument lastDocument;
+
+    private static class ParsedDocument {
+        final String source;
+        final Object document;
+
+        ParsedDocument(String source, Object document) {
+            this.source = source;
+            this.document = document;
+        }
+    }
+
     /**
      * Transforms the input <code>source</code> by JSonPath expression.
      *
@@ -59,15 +86,7 @@ public class JSonPathTransformationService implements TransformationService {
         logger.debug("about to transform '{}' by the function '{}'", source, jsonPathExpression);
 
         try {
-            Object transformationResult = JsonPath.read(source, jsonPathExpression);
-            logger.debug("transformation resulted in '{}'", transformationResult);
-            if (transformationResult == null) {
-                return null;
-            } else if (transformationResult instanceof List) {
-                return flattenList((List<?>) transformationResult);
-            } else {
-                return transformationResult.toString();
-            }
+            return read(getCompiledPath(jsonPathExpression), parse(source));
         } catch (PathNotFoundException e) {
             throw new TransformationException("Invalid path '" + jsonPathExpression + "' in '" + source + "'");
         } catch (InvalidPathException | InvalidJsonException e) {
@@ -75,6 +94,64 @@ public class JSonPathTransformationService implements TransformationService {
         }
     }
 
+    @Override
+    public List<@Nullable String> evaluate(List<String> jsonPathExpressions, String source)
+            throws TransformationException {
+        logger.debug("about to evaluate {} expressions on '{}'", jsonPathExpressions.size(), source);
+
+        try {
+            Object document = parse(source);
+            List<@Nullable String> results = new ArrayList<>(jsonPathExpressions.size());
+            for (String jsonPathExpression : jsonPathExpressions) {
+                JsonPath jsonPath = getCompiledPath(jsonPathExpression);
+                try {
+                    results.add(read(jsonPath, document));
+                } catch (PathNotFoundException e) {
+                    logger.debug("Path '{}' not found in '{}'", jsonPathExpression, source);
+                    results.add(null);
+                }
+            }
+            return results;
+        } catch (InvalidPathException | InvalidJsonException e) {
+            throw new TransformationException("An error occurred while transforming JSON expression.", e);
+        }
+    }
+
+    private @Nullable String read(JsonPath jsonPath, Object document) {
+        Object transformationResult = jsonPath.read(document);
+        logger.debug("transformation resulted in '{}'", transformationResult);
+        if (transformationResult == null) {
+            return null;
+        } else if (transformationResult instanceof List) {
+            return flattenList((List<?>) transformationResult);
+        } else {
+            return transformationResult.toString();
+        }
+    }
+
+    private Object parse(String source) {
+        ParsedDocument parsed = lastDocument;
+        // bindings and profiles pass the same String instance to every transformation of a payload
+        if (parsed != null && parsed.source == source) {
+            return parsed.document;
+        }
+        Object document = Configuration.defaultConfiguration().jsonProvider().parse(source);
+        lastDocument = new ParsedDocument(source, document);
+        return document;
+    }
+
+    private JsonPath getCompiledPath(String jsonPathExpression) {
+        JsonPath jsonPath = compiledPaths.get(jsonPathExpression);
+        if (jsonPath == null) {
+            jsonPath = JsonPath.compile(jsonPathExpression);
+            if (compiledPaths.size() >= MAX_CACHE_SIZE) {
+                compiledPaths.clear();
+            }
+            compiledPaths.put(jsonPathExpression, jsonPath);
+        }
+        return jsonPath;
+    }
+
     private String flattenList(List<?> list) {
         if (list.size() == 1) {
             return list.get(0).toString();
@@ -14,6 +14,9 @@ package org.openhab.transform.jsonpath.internal;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.junit.Assert;
 import org.junit.Before;
@@ -99,4 +102,15 @@ public class JSonPathTransformationServiceTest {
         assertEquals("NULL", transformedResponse);
     }
 
+    @Test
+    public void testEvaluateMultiplePaths() throws TransformationException {
+        List<String> results = processor.evaluate(Arrays.asList("$[0].name", "$[1].id", "$[5].id"), jsonArray);
+        assertEquals(Arrays.asList("bob", "2", null), results);
+    }
+
+    @Test(expected = TransformationException.class)
+    public void testEvaluateInvalidJsonThrowsException() throws TransformationException {
+        processor.evaluate(Arrays.asList("$[0].name"), "{id:");
+    }
+
 }
@@ -79,4 +79,16 @@ public class RegExTransformationServiceTest extends AbstractTransformationServic
         // Asserts
         assertEquals("varX=12 varY=54 ", transformedResponse);
     }
+
+    @Test
+    public void testTransformByRegex_compiledExpressionIsCached() throws TransformationException {
+        processor.transform("s/,/./g", "1,5");
+        processor.transform("s/,/./g", "2,5");
+        String transformedResponse = processor.transform("s/,/./g", "3,5");
+
+        // Asserts
+        assertEquals("3.5", transformedResponse);
+        assertEquals(1, processor.getCacheMisses());
+        assertEquals(2, processor.getCacheHits());
+    }
 }
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.scale.internal;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Interval index over the ranges of a scale file.
+ *
+ * The distinct bounds of all ranges split the number line into segments: the open intervals between two adjacent
+ * bounds and the bounds themselves. Every value in a segment is contained in exactly the same ranges, so the result
+ * of each segment is resolved once, when the index is built, by taking the first range in file order containing it.
+ * A lookup is then a binary search over the bounds.
+ *
+ * @author agent - Initial contribution
+ */
+public class ScaleIndex {
+
+    /** the distinct bounds of all ranges in ascending order */
+    private final BigDecimal[] bounds;
+
+    /**
+     * the result per segment: index 2i is the open interval below bounds[i], index 2i+1 the bound bounds[i] itself and
+     * the last index the open interval above the highest bound
+     */
+    private final String[] results;
+
+    /**
+     * Builds the index.
+     *
+     * @param ranges the ranges and their results in the order of the scale file
+     */
+    public ScaleIndex(Map<Range, String> ranges) {
+        TreeSet<BigDecimal> distinctBounds = new TreeSet<>();
+        for (Range range : ranges.keySet()) {
+            if (range.min != null) {
+                distinctBounds.add(range.min);
+            }
+            if (range.max != null) {
+                distinctBounds.add(range.max);
+            }
+        }
+        bounds = distinctBounds.toArray(new BigDecimal[distinctBounds.size()]);
+        results = new String[2 * bounds.length + 1];
+
+        for (Map.Entry<Range, String> entry : ranges.entrySet()) {
+            Range range = entry.getKey();
+            int first = range.min == null ? 0 : 2 * indexOf(range.min) + (range.minInclusive ? 1 : 2);
+            int last = range.max == null ? results.length - 1 : 2 * indexOf(range.max) + (range.maxInclusive ? 1 : 0);
+            for (int segment = first; segment <= last; segment++) {
+                // earlier ranges of the file take precedence
+                if (results[segment] == null) {
+                    results[segment] = entry.getValue();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the result of the first range in file order containing the value.
+     *
+     * @param value the value to look up
+     * @return the result or null if no range contains the value
+     */
+    public String get(BigDecimal value) {
+        int index = Arrays.binarySearch(bounds, value);
+        return results[index >= 0 ? 2 * index + 1 : 2 * (-index - 1)];
+    }
+
+    private int indexOf(BigDecimal bound) {
+        return Arrays.binarySearch(bounds, bound);
+    }
+
+}
@@ -42,13 +42,17 @@ import org.slf4j.LoggerFactory;
  * @author Markus Rathgeb - drop usage of Guava
  */
 @Component(immediate = true, service = TransformationService.class, property = { "smarthome.transform=SCALE" })
-public class ScaleTransformationService extends AbstractFileTransformationService<Map<Range, String>> {
+public class ScaleTransformationService extends AbstractFileTransformationService<ScaleIndex> {
 
     private final Logger logger = LoggerFactory.getLogger(ScaleTransformationService.class);
 
     /** RegEx to extract a scale definition */
     private static final Pattern LIMITS_PATTERN = Pattern.compile("(\\[|\\])(.*)\\.\\.(.*)(\\[|\\])");
 
+    /** Input length limits, larger numbers could exceed the scale supported by {@link BigDecimal} */
+    private static final int MAX_NUMBER_LENGTH = 1000;
+    private static final int MAX_EXPONENT_LENGTH = 8;
+
     /**
      * The implementation of {@link OrderedProperties} that let access
      * properties in the same order than presented in the source file
@@ -85,36 +89,96 @@ public class ScaleTransformationService extends AbstractFileTransformationServic
      * The method transforms the input <code>source</code> by matching searching
      * the range where it fits i.e. [min..max]=value or ]min..max]=value
      *
-     * @param properties the list of properties defining all the available ranges
-     * @param source     the input to transform
+     * @param data   the index of all the available ranges
+     * @param source the input to transform
      *
      */
     @Override
-    protected String internalTransform(Map<Range, String> data, String source) throws TransformationException {
-        try {
-            final BigDecimal value = new BigDecimal(source);
-
-            return getScaleResult(data, source, value);
-        } catch (NumberFormatException e) {
-            // Scale can only be used with numeric inputs, so lets try to see if ever its a valid quantity type
-            try {
-                final QuantityType<?> quantity = new QuantityType<>(source);
-                return getScaleResult(data, source, quantity.toBigDecimal());
-            } catch (NumberFormatException e2) {
-                throw new TransformationException("Scale can only be used with numeric inputs or valid quantity types");
+    protected String internalTransform(ScaleIndex data, String source) throws TransformationException {
+        // Scale can only be used with numeric inputs or quantity types, of which only the numeric part is considered
+        final BigDecimal value = parseNumber(source);
+        if (value == null) {
+            throw new TransformationException("Scale can only be used with numeric inputs or valid quantity types");
+        }
+
+        final String result = data.get(value);
+        if (result == null) {
+            throw new TransformationException("No matching range for '" + source + "'");
+        }
+        return result;
+    }
+
+    /**
+     * Parses a number, optionally followed by a unit. Plain numbers and input not starting with a number are handled
+     * without relying on exceptions, a number followed by a unit is only accepted if it is a valid {@link QuantityType}.
+     *
+     * @param source the input to parse
+     * @return the numeric value or null if the input is neither a number nor a valid quantity type
+     */
+    static BigDecimal parseNumber(String source) {
+        final String input = source.trim();
+        final int length = input.length();
+        int pos = 0;
+
+        if (pos < length && (input.charAt(pos) == '+' || input.charAt(pos) == '-')) {
+            pos++;
+        }
+        final int mantissaStart = pos;
+        boolean digits = false;
+        while (pos < length && Character.isDigit(input.charAt(pos))) {
+            pos++;
+            digits = true;
+        }
+        if (pos < length && input.charAt(pos) == '.') {
+            pos++;
+            while (pos < length && Character.isDigit(input.charAt(pos))) {
+                pos++;
+                digits = true;
             }
         }
+        if (!digits || pos - mantissaStart > MAX_NUMBER_LENGTH) {
+            return null;
+        }
+        if (pos < length && (input.charAt(pos) == 'e' || input.charAt(pos) == 'E')) {
+            int exponent = pos + 1;
+            if (exponent < length && (input.charAt(exponent) == '+' || input.charAt(exponent) == '-')) {
+                exponent++;
+            }
+            final int exponentStart = exponent;
+            while (exponent < length && Character.isDigit(input.charAt(exponent))) {
+                exponent++;
+            }
+            // an 'e' without digits is the beginning of a unit
+            if (exponent > exponentStart && exponent - exponentStart <= MAX_EXPONENT_LENGTH) {
+                pos = exponent;
+            }
+        }
+
+        if (pos == length) {
+            return new BigDecimal(input);
+        }
+        final String unit = input.substring(pos).trim();
+        if (unit.isEmpty() || !isUnitStart(unit.charAt(0))) {
+            return null;
+        }
+        return parseQuantity(input);
+    }
+
+    private static BigDecimal parseQuantity(String input) {
+        try {
+            return new QuantityType<>(input).toBigDecimal();
+        } catch (IllegalArgumentException e) {
+            // not a known unit
+            return null;
+        }
     }
 
-    private String getScaleResult(Map<Range, String> data, String source, final BigDecimal value)
-            throws TransformationException {
-        return data.entrySet().stream().filter(entry -> entry.getKey().contains(value)).findFirst()
-                .map(Map.Entry::getValue)
-                .orElseThrow(() -> new TransformationException("No matching range for '" + source + "'"));
+    private static boolean isUnitStart(char c) {
+        return Character.isLetter(c) || c == '°' || c == 'µ' || c == '%' || c == '\'';
     }
 
     @Override
-    protected Map<Range, String> internalLoadTransform(String filename) throws TransformationException {
+    protected ScaleIndex internalLoadTransform(String filename) throws TransformationException {
         try (FileReader reader = new FileReader(filename)) {
             final Map<Range, String> data = new LinkedHashMap<>();
             final OrderedProperties properties = new OrderedProperties();
@@ -146,7 +210,7 @@ public class ScaleTransformationService extends AbstractFileTransformationServic
                 }
             }
 
-            return data;
+            return new ScaleIndex(data);
         } catch (final IOException ex) {
             throw new TransformationException("An error occurred while opening file.", ex);
         }
@@ -14,7 +14,11 @@ package org.openhab.transform.scale.internal;
 
 import static org.junit.Assert.fail;
 
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
 
 import javax.measure.quantity.Dimensionless;
 
@@ -134,4 +138,45 @@ public class ScaleTransformServiceTest {
         Assert.assertEquals(expected, transformedResponse);
     }
 
+    @Test
+    public void testParseNumber() {
+        Assert.assertEquals(new BigDecimal("12"), ScaleTransformationService.parseNumber("12"));
+        Assert.assertEquals(new BigDecimal("-1.5E+3"), ScaleTransformationService.parseNumber(" -1.5e3 "));
+        Assert.assertEquals(new BigDecimal("992"), ScaleTransformationService.parseNumber("992 ppm"));
+        Assert.assertEquals(new BigDecimal("21.5"), ScaleTransformationService.parseNumber("21.5°C"));
+        Assert.assertEquals(new BigDecimal("5"), ScaleTransformationService.parseNumber("5 W"));
+        Assert.assertNull(ScaleTransformationService.parseNumber("12abc"));
+        Assert.assertNull(ScaleTransformationService.parseNumber("0x1F"));
+        Assert.assertNull(ScaleTransformationService.parseNumber("12 -"));
+        Assert.assertNull(ScaleTransformationService.parseNumber("-"));
+        Assert.assertNull(ScaleTransformationService.parseNumber("azerty"));
+        Assert.assertNull(ScaleTransformationService.parseNumber("1.2.3"));
+        Assert.assertNull(ScaleTransformationService.parseNumber(""));
+    }
+
+    @Test(expected = TransformationException.class)
+    public void testTransformRejectsUnknownUnit() throws TransformationException {
+        processor.transform("scale/evaluationorder.scale", "12abc");
+    }
+
+    @Test
+    public void testIndexMatchesFirstRangeInFileOrder() {
+        Map<Range, String> ranges = new LinkedHashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            BigDecimal low = BigDecimal.valueOf(random.nextInt(100));
+            BigDecimal high = low.add(BigDecimal.valueOf(random.nextInt(20)));
+            ranges.put(Range.range(random.nextInt(10) == 0 ? null : low, random.nextBoolean(),
+                    random.nextInt(10) == 0 ? null : high, random.nextBoolean()), "range" + i);
+        }
+        ScaleIndex index = new ScaleIndex(ranges);
+
+        for (int i = -20; i <= 260; i++) {
+            BigDecimal value = BigDecimal.valueOf(i, 1).multiply(BigDecimal.valueOf(5));
+            String expected = ranges.entrySet().stream().filter(entry -> entry.getKey().contains(value))
+                    .map(Map.Entry::getValue).findFirst().orElse(null);
+            Assert.assertEquals(value.toString(), expected, index.get(value));
+        }
+    }
+
 }
@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.xpath.internal;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Evaluates simple location paths on a StAX stream instead of a DOM.
+ * <p>
+ * Supported are paths of unprefixed element names like <code>/a/b</code> or <code>//a/b</code>, optionally followed by
+ * an attribute step <code>@c</code> or a <code>text()</code> step. The result is the string value of the first
+ * matching node in document order, exactly as the XPath <code>string()</code> function would return it. The rest of the
+ * document is still read after the first match without keeping any nodes, so a malformed document is rejected just like
+ * by the DOM based evaluation.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class StreamingXPath {
+
+    private static final Pattern SIMPLE_PATH = Pattern
+            .compile("/{0,2}[A-Za-z_][\\w.\\-]*(/[A-Za-z_][\\w.\\-]*)*(/@[A-Za-z_][\\w.\\-]*|/text\\(\\))?");
+
+    private static final String TEXT_STEP = "text()";
+
+    private final String[] steps;
+    private final boolean descendant;
+    private final @Nullable String attribute;
+    private final boolean text;
+
+    private StreamingXPath(String[] steps, boolean descendant, @Nullable String attribute, boolean text) {
+        this.steps = steps;
+        this.descendant = descendant;
+        this.attribute = attribute;
+        this.text = text;
+    }
+
+    /**
+     * Parses an XPath expression.
+     *
+     * @param expression the XPath expression
+     * @return the streaming path or null if the expression is not a simple location path
+     */
+    public static @Nullable StreamingXPath parse(String expression) {
+        String path = expression.trim();
+        if (!SIMPLE_PATH.matcher(path).matches()) {
+            return null;
+        }
+        boolean descendant = path.startsWith("//");
+        List<String> steps = new ArrayList<>(Arrays.asList(path.replaceFirst("^/+", "").split("/")));
+        String last = steps.get(steps.size() - 1);
+        String attribute = null;
+        boolean text = false;
+        if (last.startsWith("@")) {
+            attribute = last.substring(1);
+            steps.remove(steps.size() - 1);
+        } else if (TEXT_STEP.equals(last)) {
+            text = true;
+            steps.remove(steps.size() - 1);
+        }
+        return new StreamingXPath(steps.toArray(new String[steps.size()]), descendant, attribute, text);
+    }
+
+    /**
+     * Evaluates the path on the given document.
+     *
+     * @param factory the factory used to create the stream reader
+     * @param source the XML document
+     * @return the string value of the first matching node or an empty string if no node matches
+     * @throws XMLStreamException if the document could not be read or is not well-formed
+     */
+    public String evaluate(XMLInputFactory factory, String source) throws XMLStreamException {
+        XMLStreamReader reader = factory.createXMLStreamReader(new StringReader(source));
+        try {
+            String result = evaluate(reader);
+            while (reader.hasNext()) {
+                reader.next();
+            }
+            return result;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private String evaluate(XMLStreamReader reader) throws XMLStreamException {
+        // names of the open elements, null for elements in a namespace which never match an unprefixed name test
+        List<@Nullable String> path = new ArrayList<>();
+        // depths of open elements matching the path
+        BitSet matched = new BitSet();
+        StringBuilder value = new StringBuilder();
+        int valueDepth = -1;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            // adjacent character data and CDATA sections form a single text node in the XPath data model
+            boolean characters = event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.SPACE
+                    || event == XMLStreamConstants.CDATA;
+            if (text && !characters && value.length() > 0) {
+                // the first text node of a matching element is complete
+                return value.toString();
+            }
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    String namespace = reader.getNamespaceURI();
+                    path.add(namespace == null || namespace.isEmpty() ? reader.getLocalName() : null);
+                    if (valueDepth >= 0 || !matches(path)) {
+                        break;
+                    }
+                    if (attribute != null) {
+                        String attributeValue = getAttribute(reader, attribute);
+                        if (attributeValue != null) {
+                            return attributeValue;
+                        }
+                    } else if (text) {
+                        matched.set(path.size());
+                    } else {
+                        valueDepth = path.size();
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (path.size() == valueDepth) {
+                        return value.toString();
+                    }
+                    matched.clear(path.size());
+                    path.remove(path.size() - 1);
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.CDATA:
+                    if (valueDepth >= 0 || (text && matched.get(path.size()))) {
+                        value.append(reader.getText());
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return "";
+    }
+
+    private boolean matches(List<@Nullable String> path) {
+        int offset = path.size() - steps.length;
+        if (offset < 0 || (!descendant && offset != 0)) {
+            return false;
+        }
+        for (int i = 0; i < steps.length; i++) {
+            if (!steps[i].equals(path.get(offset + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static @Nullable String getAttribute(XMLStreamReader reader, String name) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String namespace = reader.getAttributeNamespace(i);
+            if ((namespace == null || namespace.isEmpty()) && name.equals(reader.getAttributeLocalName(i))) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return null;
+    }
+}
@@ -13,12 +13,18 @@
 package org.openhab.transform.xpath.internal;
 
 import java.io.StringReader;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.xpath.XPath;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -34,6 +40,10 @@ import org.xml.sax.InputSource;
 /**
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by XPath Expressions.
+ * <p>
+ * Simple location paths are evaluated by a {@link StreamingXPath} without building a DOM. All other expressions are
+ * compiled once and evaluated on a DOM created by a pooled {@link DocumentBuilder}. As neither builders nor compiled
+ * expressions are thread-safe, each one is only used by one thread at a time.
  *
  * @author Thomas.Eichstaedt-Engelen
  */
@@ -41,8 +51,22 @@ import org.xml.sax.InputSource;
 @Component(immediate = true, property = { "smarthome.transform=XPATH" })
 public class XPathTransformationService implements TransformationService {
 
+    private static final int MAX_CACHE_SIZE = 256;
+
     private final Logger logger = LoggerFactory.getLogger(XPathTransformationService.class);
 
+    private final DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
+    private final XPathFactory xpathFactory = XPathFactory.newInstance();
+    private final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+
+    private final Queue<DocumentBuilder> builders = new ConcurrentLinkedQueue<>();
+    private final Map<String, CachedExpression> expressions = new ConcurrentHashMap<>();
+
+    public XPathTransformationService() {
+        domFactory.setNamespaceAware(true);
+        domFactory.setValidating(false);
+    }
+
     @Override
     public @Nullable String transform(String xpathExpression, String source) throws TransformationException {
         if (xpathExpression == null || source == null) {
@@ -51,35 +75,96 @@ public class XPathTransformationService implements TransformationService {
 
         logger.debug("about to transform '{}' by the function '{}'", source, xpathExpression);
 
-        StringReader stringReader = null;
+        CachedExpression expression = getExpression(xpathExpression);
 
         try {
-            DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
-            domFactory.setNamespaceAware(true);
-            domFactory.setValidating(false);
-            DocumentBuilder builder = domFactory.newDocumentBuilder();
+            StreamingXPath streamingPath = expression.streamingPath;
+            String transformationResult = streamingPath != null ? streamingPath.evaluate(inputFactory, source)
+                    : evaluate(expression, source);
+
+            logger.debug("transformation resulted in '{}'", transformationResult);
 
-            stringReader = new StringReader(source);
+            return transformationResult;
+        } catch (Exception e) {
+            throw new TransformationException("transformation throws exceptions", e);
+        }
+    }
+
+    private String evaluate(CachedExpression expression, String source) throws Exception {
+        DocumentBuilder builder = borrowBuilder();
+        XPathExpression compiled = expression.borrow();
+        try (StringReader stringReader = new StringReader(source)) {
             InputSource inputSource = new InputSource(stringReader);
             inputSource.setEncoding("UTF-8");
 
             Document doc = builder.parse(inputSource);
 
-            XPath xpath = XPathFactory.newInstance().newXPath();
-            XPathExpression expr = xpath.compile(xpathExpression);
+            return (String) compiled.evaluate(doc, XPathConstants.STRING);
+        } finally {
+            builder.reset();
+            builders.offer(builder);
+            expression.release(compiled);
+        }
+    }
+
+    private DocumentBuilder borrowBuilder() throws ParserConfigurationException {
+        DocumentBuilder builder = builders.poll();
+        if (builder != null) {
+            return builder;
+        }
+        // the factory itself is not thread-safe
+        synchronized (domFactory) {
+            return domFactory.newDocumentBuilder();
+        }
+    }
 
-            String transformationResult = (String) expr.evaluate(doc, XPathConstants.STRING);
+    private CachedExpression getExpression(String xpathExpression) throws TransformationException {
+        CachedExpression expression = expressions.get(xpathExpression);
+        if (expression == null) {
+            expression = new CachedExpression(xpathExpression);
+            if (expression.streamingPath == null) {
+                // compile once up front to report syntax errors before parsing the document
+                expression.release(expression.borrow());
+            }
+            if (expressions.size() >= MAX_CACHE_SIZE) {
+                expressions.clear();
+            }
+            expressions.put(xpathExpression, expression);
+        }
+        return expression;
+    }
 
-            logger.debug("transformation resulted in '{}'", transformationResult);
+    /**
+     * An expression together with its streaming path, if it is a simple one, and a pool of compiled instances.
+     */
+    private class CachedExpression {
+        private final String expression;
+        private final @Nullable StreamingXPath streamingPath;
+        private final Queue<XPathExpression> compiled = new ConcurrentLinkedQueue<>();
+
+        CachedExpression(String expression) {
+            this.expression = expression;
+            this.streamingPath = StreamingXPath.parse(expression);
+        }
 
-            return transformationResult;
-        } catch (Exception e) {
-            throw new TransformationException("transformation throws exceptions", e);
-        } finally {
-            if (stringReader != null) {
-                stringReader.close();
+        XPathExpression borrow() throws TransformationException {
+            XPathExpression instance = compiled.poll();
+            if (instance != null) {
+                return instance;
+            }
+            try {
+                // the factory itself is not thread-safe
+                synchronized (xpathFactory) {
+                    return xpathFactory.newXPath().compile(expression);
+                }
+            } catch (XPathExpressionException e) {
+                throw new TransformationException("transformation throws exceptions", e);
             }
         }
+
+        void release(XPathExpression instance) {
+            compiled.offer(instance);
+        }
     }
 
 }
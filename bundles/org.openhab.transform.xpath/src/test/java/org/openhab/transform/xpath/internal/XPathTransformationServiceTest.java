@@ -12,7 +12,7 @@
  */
 package org.openhab.transform.xpath.internal;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.junit.Before;
@@ -41,4 +41,52 @@ public class XPathTransformationServiceTest extends AbstractTransformationServic
         assertEquals("8", transformedResponse);
     }
 
+    @Test
+    public void testTransformByXPathWithoutStreaming() throws TransformationException {
+        assertEquals("4", processor.transform("count(//forecast_conditions)", source));
+        assertEquals("Klar", processor.transform("//forecast_conditions[day_of_week/@data='Mi.']/condition/@data",
+                source));
+    }
+
+    @Test
+    public void testStreamingMatchesDomEvaluation() throws TransformationException {
+        String xml = "<?xml version=\"1.0\"?><PTZStatus version=\"2.0\"><AbsoluteHigh><elevation>0</elevation>"
+                + "<azimuth>4<!-- c -->50</azimuth><name><![CDATA[cam]]> one</name></AbsoluteHigh></PTZStatus>";
+        String[] expressions = { "/PTZStatus/AbsoluteHigh/azimuth/text()", "/PTZStatus/AbsoluteHigh/azimuth",
+                "//name", "//name/text()", "/PTZStatus/@version", "//AbsoluteHigh", "//missing", "/AbsoluteHigh" };
+
+        for (String expression : expressions) {
+            assertNotNull(expression, StreamingXPath.parse(expression));
+            // wrapping the path in string() disables streaming
+            assertEquals(expression, processor.transform("string(" + expression + ")", xml),
+                    processor.transform(expression, xml));
+        }
+    }
+
+    @Test
+    public void testComplexExpressionsAreNotStreamed() {
+        assertNull(StreamingXPath.parse("count(//a)"));
+        assertNull(StreamingXPath.parse("//a[1]"));
+        assertNull(StreamingXPath.parse("/a//b"));
+        assertNull(StreamingXPath.parse("//ns:a"));
+    }
+
+    @Test
+    public void testMalformedDocumentAfterMatchIsRejected() {
+        String xml = "<a><b>1</b><c></a>";
+        for (String expression : new String[] { "/a/b", "/a/b/text()", "string(/a/b)" }) {
+            try {
+                processor.transform(expression, xml);
+                fail(expression);
+            } catch (TransformationException e) {
+                // expected, the document is not well-formed
+            }
+        }
+    }
+
+    @Test(expected = TransformationException.class)
+    public void testInvalidExpression() throws TransformationException {
+        processor.transform("//a[", source);
+    }
+
 }
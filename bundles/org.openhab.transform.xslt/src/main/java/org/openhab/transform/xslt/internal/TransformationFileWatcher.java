@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.xslt.internal;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchEvent.Kind;
+
+import org.eclipse.smarthome.core.service.AbstractWatchService;
+
+/**
+ * The {@link TransformationFileWatcher} watches the transformation directory for files. If a deleted/modified file is
+ * detected, the compiled stylesheets of this file and of all stylesheets including or importing it are removed from the
+ * cache of the {@link XsltTransformationService}.
+ *
+ * @author agent - Initial contribution
+ */
+public class TransformationFileWatcher extends AbstractWatchService {
+
+    private final XsltTransformationService service;
+
+    public TransformationFileWatcher(String transformFolder, XsltTransformationService service) {
+        super(transformFolder);
+        this.service = service;
+    }
+
+    @Override
+    protected boolean watchSubDirectories() {
+        return true;
+    }
+
+    @Override
+    protected Kind<?>[] getWatchEventKinds(Path directory) {
+        return new Kind<?>[] { ENTRY_DELETE, ENTRY_MODIFY };
+    }
+
+    @Override
+    protected void processWatchEvent(WatchEvent<?> event, Kind<?> kind, Path path) {
+        logger.debug("New watch event {} for path {}.", kind, path);
+
+        if (kind == OVERFLOW) {
+            service.clearCache();
+            return;
+        }
+
+        logger.debug("Reloading XSLT file {}.", path);
+
+        service.removeFromCache(path);
+    }
+}
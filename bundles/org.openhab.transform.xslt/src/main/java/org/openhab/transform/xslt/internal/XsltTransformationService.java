@@ -15,9 +15,17 @@ package org.openhab.transform.xslt.internal;
 import java.io.File;
 import java.io.StringReader;
 import java.io.StringWriter;
-
-import javax.xml.transform.Source;
-import javax.xml.transform.Transformer;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
@@ -27,13 +35,18 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.eclipse.smarthome.core.transform.TransformationService;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by XSLT.
+ * <p>
+ * Stylesheets are compiled into {@link Templates} once and kept until the {@link TransformationFileWatcher} reports
+ * that their file or a file they include or import has been modified or deleted.
  *
  * @author Thomas.Eichstaedt-Engelen
  */
@@ -43,6 +56,29 @@ public class XsltTransformationService implements TransformationService {
 
     private final Logger logger = LoggerFactory.getLogger(XsltTransformationService.class);
 
+    private final TransformerFactory transformerFactory = TransformerFactory.newInstance();
+
+    private final Map<Path, CompiledStylesheet> stylesheets = new ConcurrentHashMap<>();
+
+    private @Nullable TransformationFileWatcher watcher;
+
+    @Activate
+    protected void activate() {
+        TransformationFileWatcher watcher = new TransformationFileWatcher(getTransformFolder(), this);
+        watcher.activate();
+        this.watcher = watcher;
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        TransformationFileWatcher watcher = this.watcher;
+        if (watcher != null) {
+            watcher.deactivate();
+            this.watcher = null;
+        }
+        clearCache();
+    }
+
     /**
      * Transforms the input <code>source</code> by XSLT.
      *
@@ -60,12 +96,10 @@ public class XsltTransformationService implements TransformationService {
             throw new TransformationException("the given parameters 'filename' and 'source' must not be null");
         }
 
-        Source xsl = null;
+        Path path;
 
         try {
-            String path = ConfigConstants.getConfigFolder() + File.separator
-                    + TransformationService.TRANSFORM_FOLDER_NAME + File.separator + filename;
-            xsl = new StreamSource(new File(path));
+            path = Paths.get(getTransformFolder(), filename).toAbsolutePath().normalize();
         } catch (Exception e) {
             String message = "opening file '" + filename + "' throws exception";
 
@@ -73,16 +107,13 @@ public class XsltTransformationService implements TransformationService {
             throw new TransformationException(message, e);
         }
 
-        logger.debug("about to transform '{}' by the function '{}'", source, xsl);
+        logger.debug("about to transform '{}' by the function '{}'", source, path);
 
         StringReader xml = new StringReader(source);
         StringWriter out = new StringWriter();
 
-        Transformer transformer;
-
         try {
-            transformer = TransformerFactory.newInstance().newTransformer(xsl);
-            transformer.transform(new StreamSource(xml), new StreamResult(out));
+            getTemplates(path).newTransformer().transform(new StreamSource(xml), new StreamResult(out));
         } catch (Exception e) {
             logger.error("transformation throws exception", e);
             throw new TransformationException("transformation throws exception", e);
@@ -93,4 +124,69 @@ public class XsltTransformationService implements TransformationService {
         return out.toString();
     }
 
+    private Templates getTemplates(Path path) throws TransformerConfigurationException {
+        CompiledStylesheet compiled = stylesheets.get(path);
+        if (compiled == null) {
+            Set<Path> includes = new HashSet<>();
+            Templates templates;
+            // the factory itself is not thread-safe, the compiled templates are
+            synchronized (transformerFactory) {
+                // only records the files of xsl:include and xsl:import, the default resolution is kept
+                transformerFactory.setURIResolver((href, base) -> {
+                    addInclude(includes, href, base);
+                    return null;
+                });
+                try {
+                    templates = transformerFactory.newTemplates(new StreamSource(path.toFile()));
+                } finally {
+                    transformerFactory.setURIResolver(null);
+                }
+            }
+            compiled = new CompiledStylesheet(templates, includes);
+            stylesheets.put(path, compiled);
+        }
+        return compiled.templates;
+    }
+
+    private static void addInclude(Set<Path> includes, String href, @Nullable String base) {
+        try {
+            URI uri = base == null || base.isEmpty() ? new URI(href) : new URI(base).resolve(href);
+            if ("file".equals(uri.getScheme())) {
+                includes.add(Paths.get(uri).toAbsolutePath().normalize());
+            }
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            // not a local file, changes cannot be watched
+        }
+    }
+
+    /**
+     * Removes the compiled stylesheets of a file or of all files below a directory from the cache, together with all
+     * stylesheets including or importing one of these files.
+     *
+     * @param path the modified or deleted file or directory
+     */
+    void removeFromCache(Path path) {
+        Path normalized = path.toAbsolutePath().normalize();
+        stylesheets.entrySet().removeIf(entry -> entry.getKey().startsWith(normalized)
+                || entry.getValue().includes.stream().anyMatch(include -> include.startsWith(normalized)));
+    }
+
+    void clearCache() {
+        stylesheets.clear();
+    }
+
+    private static String getTransformFolder() {
+        return ConfigConstants.getConfigFolder() + File.separator + TransformationService.TRANSFORM_FOLDER_NAME;
+    }
+
+    private static class CompiledStylesheet {
+        private final Templates templates;
+        private final Set<Path> includes;
+
+        CompiledStylesheet(Templates templates, Set<Path> includes) {
+            this.templates = templates;
+            this.includes = includes;
+        }
+    }
+
 }
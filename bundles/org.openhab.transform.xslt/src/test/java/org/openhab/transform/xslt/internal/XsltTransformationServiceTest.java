@@ -14,7 +14,16 @@ package org.openhab.transform.xslt.internal;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
 import org.eclipse.smarthome.core.transform.TransformationException;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.openhab.transform.xslt.internal.XsltTransformationService;
@@ -24,6 +33,8 @@ import org.openhab.transform.xslt.internal.XsltTransformationService;
  */
 public class XsltTransformationServiceTest extends AbstractTransformationServiceTest {
 
+    private static final Path INCLUDE_FOLDER = Paths.get("conf", "transform", "include-test");
+
     private XsltTransformationService processor;
 
     @Before
@@ -31,6 +42,15 @@ public class XsltTransformationServiceTest extends AbstractTransformationService
         processor = new XsltTransformationService();
     }
 
+    @After
+    public void cleanup() throws IOException {
+        if (Files.exists(INCLUDE_FOLDER)) {
+            try (Stream<Path> files = Files.walk(INCLUDE_FOLDER)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
     @Test
     public void testTransformByXSLT() throws TransformationException {
 
@@ -41,4 +61,41 @@ public class XsltTransformationServiceTest extends AbstractTransformationService
         assertEquals("8", transformedResponse);
     }
 
+    @Test
+    public void testTransformWithCachedTemplates() throws TransformationException {
+        assertEquals("8", processor.transform("http/google_weather.xsl", source));
+        assertEquals("8", processor.transform("http/google_weather.xsl", source));
+
+        processor.removeFromCache(Paths.get("conf", "transform", "http"));
+
+        assertEquals("8", processor.transform("http/google_weather.xsl", source));
+    }
+
+    @Test
+    public void testModifiedIncludeInvalidatesIncludingStylesheet() throws Exception {
+        Files.createDirectories(INCLUDE_FOLDER);
+        Files.write(INCLUDE_FOLDER.resolve("main.xsl"), ("<xsl:stylesheet version=\"1.0\" "
+                + "xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\"><xsl:output method=\"text\"/>"
+                + "<xsl:include href=\"value.xsl\"/></xsl:stylesheet>").getBytes(StandardCharsets.UTF_8));
+        writeValueTemplate("first");
+
+        assertEquals("first", processor.transform("include-test/main.xsl", source));
+
+        writeValueTemplate("second");
+        processor.removeFromCache(INCLUDE_FOLDER.resolve("value.xsl"));
+
+        assertEquals("second", processor.transform("include-test/main.xsl", source));
+    }
+
+    private void writeValueTemplate(String value) throws IOException {
+        Files.write(INCLUDE_FOLDER.resolve("value.xsl"), ("<xsl:stylesheet version=\"1.0\" "
+                + "xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\"><xsl:template match=\"/\">" + value
+                + "</xsl:template></xsl:stylesheet>").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = TransformationException.class)
+    public void testTransformWithMissingFile() throws TransformationException {
+        processor.transform("http/missing.xsl", source);
+    }
+
 }